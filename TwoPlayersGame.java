@@ -5,11 +5,29 @@ import view.PlayerEditView;
 import view.GameView;
 import view.ResultView;
 
+import db.ConnectionPool;
 import db.DatabaseConnection;
+import db.DbErrorListener;
+import db.MatchResultWriter;
 import db.DbRepository;
+import db.CachingDb;
 import db.DbInterface;
 import db.DbMockup;
+import db.LogDb;
+import db.MemoryDb;
 import db.DbMockupTest;
+import db.ConnectionPoolTest;
+import db.IdGeneratorTest;
+import db.MatchResultWriterTest;
+import db.ScoreAggregatorTest;
+import db.LeaderboardTest;
+import db.GameStandingsTest;
+import db.PlayerNameIndexTest;
+import db.AsyncDbTest;
+import db.MatchHistoryQueryTest;
+import db.LogDbTest;
+import db.MemoryDbTest;
+import db.CachingDbTest;
 
 import model.Player;
 import model.Game;
@@ -19,13 +37,26 @@ import model.ModelTest;
 import utils.AppState; 
 import utils.AppStateTest;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
 
 import navigation.NavigationController; 
 import navigation.NavigationControllerTest;
+import view.KeySelectionRendererTest;
+import view.PagedPlayerModelTest;
+
+import service.rules.CheckersBoardTest;
+import service.rules.TicTacToeBoardTest;
+import service.rules.MoveLogTest;
+import service.ai.TicTacToeSolverTest;
+import service.ai.CheckersEngineTest;
+import service.ai.ParallelCheckersEngineTest;
+import service.rating.RatingEngineTest;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 // First Install Java (jre, jdk)
 // Ubuntu:
@@ -49,8 +80,25 @@ import javax.swing.JOptionPane;
 *
  * Use DB Mockup:
  * java -classpath ./ TwoPlayersGame --mockup
+ *
+ * Use the embedded database, no server (files in ./data, or -Dtwoplayersgame.dataDir=...):
+ * java -classpath ./ TwoPlayersGame --embedded
+ *
+ * Use the concurrent in-memory database, nothing persisted (load tests):
+ * java -classpath ./ TwoPlayersGame --memory
+ *
+ * Rating system of the scores, elo (default) or glicko2, the history is rated again at startup:
+ * java -Dtwoplayersgame.rating=glicko2 -classpath ./ TwoPlayersGame
+ *
+ * Maven build (modules model, engine, db, ui, see pom.xml):
+ * mvn -B package
+ * java -jar modules/ui/target/twoplayersgame-ui-1.0-SNAPSHOT.jar
+ *
+ * Benchmarks (JMH, see bench/pom.xml):
+ * mvn -B package -pl bench -am && java -jar bench/target/benchmarks.jar
  **/
 public class TwoPlayersGame {
+    public static final String DATA_DIR_PROPERTY = "twoplayersgame.dataDir"; // Directory of the embedded database
     
     /**
      * Main method for starting the application.
@@ -61,6 +109,8 @@ public class TwoPlayersGame {
     public static void main(String[] args) {
         boolean isTestMode = false;
         boolean useMockup = false;
+        boolean useEmbedded = false;
+        boolean useMemory = false;
 
         for (String arg : args) {
             if ("--test".equalsIgnoreCase(arg)) {
@@ -71,6 +121,14 @@ public class TwoPlayersGame {
                 useMockup= true;
                 break;
             }
+            if ("--embedded".equalsIgnoreCase(arg)) {
+                useEmbedded = true;
+                break;
+            }
+            if ("--memory".equalsIgnoreCase(arg)) {
+                useMemory = true;
+                break;
+            }
         }
 
         if (isTestMode) {
@@ -78,7 +136,7 @@ public class TwoPlayersGame {
             runTests();
         } else {
             System.out.println("TwoPlayersGame - Normal mode activated.");
-            runApplication(useMockup);
+            runApplication(useMockup, useEmbedded, useMemory);
         }
     } 
 
@@ -90,8 +148,29 @@ public class TwoPlayersGame {
 
         ModelTest.main(null);
         DbMockupTest.main(null);
+        ConnectionPoolTest.main(null);
+        IdGeneratorTest.main(null);
+        MatchResultWriterTest.main(null);
+        ScoreAggregatorTest.main(null);
+        LeaderboardTest.main(null);
+        GameStandingsTest.main(null);
+        PlayerNameIndexTest.main(null);
+        CachingDbTest.main(null);
+        AsyncDbTest.main(null);
+        MatchHistoryQueryTest.main(null);
+        LogDbTest.main(null);
+        MemoryDbTest.main(null);
         AppStateTest.main(null);
         NavigationControllerTest.main(null);
+        KeySelectionRendererTest.main(null);
+        PagedPlayerModelTest.main(null);
+        CheckersBoardTest.main(null);
+        TicTacToeBoardTest.main(null);
+        MoveLogTest.main(null);
+        TicTacToeSolverTest.main(null);
+        CheckersEngineTest.main(null);
+        ParallelCheckersEngineTest.main(null);
+        RatingEngineTest.main(null);
 
     }
 
@@ -99,12 +178,54 @@ public class TwoPlayersGame {
      * Runs the application in normal mode.
      * Initializes the database mockup and renders various views for the application.
      */
-    static void runApplication(boolean useMockup) {
+    static void runApplication(boolean useMockup, boolean useEmbedded, boolean useMemory) {
         DbInterface db = null;
-        if(!useMockup){
+        if (useMemory) {
+            MemoryDb memoryDb = new MemoryDb();
+            memoryDb.setErrorListener(e -> SwingUtilities.invokeLater(
+                () -> JOptionPane.showMessageDialog(null, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)));
+            db = memoryDb;
+        } else if (useEmbedded) {
+            try {
+                LogDb logDb = new LogDb(Paths.get(System.getProperty(DATA_DIR_PROPERTY, "data")));
+                logDb.setErrorListener(e -> SwingUtilities.invokeLater(
+                    () -> JOptionPane.showMessageDialog(null, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)));
+                // A snapshot on exit makes the next start fast
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        logDb.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }));
+                db = logDb;
+            } catch (IOException e) {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(null, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        } else if(!useMockup){
             try {
-                Connection connection = DatabaseConnection.getConnection();
-                db = new DbRepository(connection);
+                ConnectionPool pool = DatabaseConnection.getPool();
+                // Fail on startup if the database cannot be reached
+                try (Connection connection = pool.getConnection()) {
+                    connection.isValid(2);
+                }
+                DbRepository repository = new DbRepository(pool);
+                // Show a Java notification using Swing, later on the event dispatch thread:
+                // the database threads never wait for the dialog
+                DbErrorListener errorListener = e -> SwingUtilities.invokeLater(
+                    () -> JOptionPane.showMessageDialog(null, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+                repository.setErrorListener(errorListener);
+                // Scores and match results are written behind, in batches
+                MatchResultWriter writer = new MatchResultWriter(pool, errorListener);
+                repository.setMatchResultWriter(writer);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    writer.close(5000);
+                    pool.close();
+                }));
+                // Players and games are read through a cache, invalidated by the changes made here
+                db = new CachingDb(repository);
             }catch (Exception e) {
                 e.printStackTrace();
                 // Show a Java notification using Swing
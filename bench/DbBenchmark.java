@@ -0,0 +1,191 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import db.ConnectionPool;
+import db.DbInterface;
+import db.DbMockup;
+import db.DbRepository;
+import model.Game;
+import model.Match;
+import model.LeaderboardPeriod;
+import model.Standing;
+import model.Player;
+import service.rules.MoveLogWriter;
+
+/**
+ * Benchmarks of the DbInterface operations used by the views, against
+ * DbMockup and against DbRepository on an embedded H2 database in MySQL mode,
+ * through a ConnectionPool.
+ *
+ * The H2 database is created in memory for every trial with the tables and
+ * indexes of db/schema.sql, read from the file itself, and PLAYERS players,
+ * so no MySQL server is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DbBenchmark {
+    private static final String H2_URL = "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1";
+    private static final int PLAYERS = 10000;
+    private static final String SCHEMA_RESOURCE = "/db/schema.sql";
+
+    @Param({"mockup", "h2"})
+    public String backend;
+
+    private ConnectionPool pool;    // H2 connections, null for the mockup
+    private DbInterface db;         // Implementation under test
+    private Player player1;         // Players of the recorded matches
+    private Player player2;
+    private Game game;              // Game of the recorded matches
+    private byte[] moves;           // Move log of the recorded matches
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        if (backend.equals("h2")) {
+            pool = new ConnectionPool(H2_URL, "sa", "");
+            try (Connection connection = pool.getConnection()) {
+                createSchema(connection);
+            }
+            db = new DbRepository(pool);
+        } else {
+            db = new DbMockup();
+        }
+        List<Player> players = db.getPlayers("");
+        player1 = players.get(0);
+        player2 = players.get(1);
+        game = db.getGames().get(0);
+        MoveLogWriter log = new MoveLogWriter();
+        for (int i = 0; i < 9; i++) {
+            log.append(i); // A full Tic-Tac-Toe board
+        }
+        moves = log.toByteArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (pool != null) {
+            try (Connection connection = pool.getConnection();
+                 Statement stmt = connection.createStatement()) {
+                stmt.execute("DROP ALL OBJECTS");
+            }
+            pool.close();
+        }
+    }
+
+    @Benchmark
+    public List<Player> getPlayers() {
+        return db.getPlayers("Player12");
+    }
+
+    @Benchmark
+    public List<Player> getPlayersPage() {
+        return db.getPlayers("Player12", 0, 50);
+    }
+
+    @Benchmark
+    public List<Player> getTopPlayers() {
+        return db.getTopPlayers();
+    }
+
+    @Benchmark
+    public Player addPlayerScore() {
+        return db.addPlayerScore(player1, 1);
+    }
+
+    @Benchmark
+    public int getPlayerRank() {
+        return db.getPlayerRank(player1);
+    }
+
+    @Benchmark
+    public List<Standing> getTopStandings() {
+        return db.getTopStandings(game, LeaderboardPeriod.WEEK, 10);
+    }
+
+    @Benchmark
+    public Match informMatchResult() {
+        return db.informMatchResult(player1, player2, game, 3, 1, moves);
+    }
+
+    /**
+     * Creates the tables of db/schema.sql, the games and PLAYERS players.
+     */
+    private static void createSchema(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String table : readSchemaTables()) {
+                stmt.execute(table);
+            }
+            stmt.execute("INSERT INTO `GAME` (`ID`, `NAME`) VALUES (1, 'Tic Tac Toe'), (2, 'Checkers')");
+        }
+        try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO `Player` (`ID`, `NAME`, `SCORE`) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= PLAYERS; i++) {
+                stmt.setLong(1, i);
+                stmt.setString(2, "Player" + i);
+                stmt.setInt(3, (i * 7919) % 1000);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Reads the CREATE TABLE statements of db/schema.sql, packaged with the
+     * benchmarks, so the indexes measured are those of the MySQL database.
+     * The statements of the server (schema, user, grants) are skipped.
+     *
+     * @return the statements, in the order of the file
+     */
+    private static List<String> readSchemaTables() throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        try (InputStream in = DbBenchmark.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) {
+                throw new SQLException("resource " + SCHEMA_RESOURCE + " not found");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().startsWith("--")) {
+                    sql.append(line).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("cannot read " + SCHEMA_RESOURCE, e);
+        }
+        List<String> tables = new ArrayList<>();
+        for (String statement : sql.toString().split(";")) {
+            if (statement.trim().toUpperCase().startsWith("CREATE TABLE")) {
+                tables.add(statement.trim());
+            }
+        }
+        return tables;
+    }
+}
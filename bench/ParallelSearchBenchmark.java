@@ -0,0 +1,78 @@
+package bench;
+
+import java.util.Random;
+
+import service.ai.ParallelCheckersEngine;
+import service.rules.CheckersBoard;
+
+/**
+ * Scaling benchmark of ParallelCheckersEngine: searches the same positions
+ * to a fixed depth with 1, 2, 4... threads and prints the node throughput
+ * and the speedup over one thread.
+ *
+ * Usage: java bench.ParallelSearchBenchmark [maxThreads [depth [positions]]]
+ * (defaults: 8 threads, depth 11, 6 positions).
+ * The speedup only means something with at least maxThreads idle cores.
+ */
+public class ParallelSearchBenchmark {
+    private static final long NO_TIME_LIMIT_MILLIS = 3600 * 1000L;
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 11;
+        int positionCount = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        CheckersBoard[] positions = createPositions(positionCount);
+
+        // Warm-up of the JIT, on an engine of its own so the timed ones start with an empty table
+        ParallelCheckersEngine warmUp = new ParallelCheckersEngine(maxThreads, NO_TIME_LIMIT_MILLIS);
+        for (CheckersBoard position : positions) {
+            warmUp.search((CheckersBoard) position.copy(), depth - 1);
+        }
+        warmUp.shutdown();
+
+        System.out.println("Cores available: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("threads      nodes     ms   knodes/s  nps x   time x");
+        double baseNps = 0;
+        double baseMillis = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ParallelCheckersEngine engine = new ParallelCheckersEngine(threads, NO_TIME_LIMIT_MILLIS);
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (CheckersBoard position : positions) {
+                engine.search((CheckersBoard) position.copy(), depth);
+                nodes += engine.getNodes();
+            }
+            double millis = (System.nanoTime() - start) / 1e6;
+            engine.shutdown();
+            double nps = nodes / millis * 1000;
+            if (threads == 1) {
+                baseNps = nps;
+                baseMillis = millis;
+            }
+            System.out.println(String.format("%7d %10d %6.0f %10.0f %6.2f %8.2f",
+                threads, nodes, millis, nps / 1000, nps / baseNps, baseMillis / millis));
+        }
+    }
+
+    /**
+     * @param count the number of positions
+     * @return the initial position followed by positions after a few random moves
+     */
+    private static CheckersBoard[] createPositions(int count) {
+        Random random = new Random(42);
+        int[] moves = new int[CheckersBoard.MAX_MOVES];
+        CheckersBoard[] positions = new CheckersBoard[count];
+        for (int i = 0; i < count; i++) {
+            CheckersBoard board = new CheckersBoard();
+            for (int ply = 0; ply < 2 * i; ply++) {
+                int moveCount = board.generateMoves(moves);
+                if (moveCount == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(moveCount)]);
+            }
+            positions[i] = board;
+        }
+        return positions;
+    }
+}
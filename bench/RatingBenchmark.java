@@ -0,0 +1,71 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.rating.EloRatingSystem;
+import service.rating.Glicko2RatingSystem;
+import service.rating.MatchHistory;
+import service.rating.RatingEngine;
+import service.rating.RatingSystem;
+
+/**
+ * Benchmark of the bulk recompute of the ratings: MATCHES random matches
+ * between PLAYERS players over two games, replayed with Elo and Glicko-2, on
+ * one thread and on every processor.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RatingBenchmark {
+    private static final long SEED = 20240601L;
+    private static final int MATCHES = 2000000;
+    private static final int PLAYERS = 100000;
+
+    @Param({"elo", "glicko2"})
+    public String system;
+
+    @Param({"1", "0"})
+    public int threads;             // 0 for every processor
+
+    private MatchHistory history;   // Same matches for every run
+    private RatingEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        history = new MatchHistory(MATCHES);
+        for (int i = 0; i < MATCHES; i++) {
+            history.add(i + 1, 1 + random.nextInt(PLAYERS), 1 + random.nextInt(PLAYERS), 1 + random.nextInt(2), random.nextInt(3), 1);
+        }
+        RatingSystem ratingSystem = "elo".equals(system) ? new EloRatingSystem() : new Glicko2RatingSystem();
+        engine = threads == 0 ? new RatingEngine(ratingSystem) : new RatingEngine(ratingSystem, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public Object recompute() {
+        return engine.recompute(history);
+    }
+}
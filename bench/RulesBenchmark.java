@@ -0,0 +1,148 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.rules.CheckersBoard;
+import service.rules.GameRules;
+import service.rules.Move;
+import service.rules.TicTacToeBoard;
+
+/**
+ * Benchmarks of the headless game rules: move validation, win detection and
+ * full random playouts, for Tic-Tac-Toe and Checkers.
+ *
+ * The positions are mid-game positions reached by a fixed sequence of random
+ * moves, so every run measures the same work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RulesBenchmark {
+    private static final long SEED = 20240601L;
+
+    private TicTacToeBoard ticTacToe;     // Mid-game Tic-Tac-Toe position
+    private CheckersBoard checkers;       // Mid-game Checkers position
+    private int[] ticTacToeCandidates;    // Every (from, to) pair of the board, as moves
+    private int[] checkersCandidates;     // Every (from, to) pair within two cells, as moves
+    private int[] moves;                  // Buffer of the playouts
+    private SplittableRandom random;      // Random moves of the playouts
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom setupRandom = new SplittableRandom(SEED);
+        moves = new int[CheckersBoard.MAX_MOVES];
+        ticTacToe = new TicTacToeBoard();
+        playRandomly(ticTacToe, setupRandom, 4);
+        checkers = new CheckersBoard();
+        playRandomly(checkers, setupRandom, 12);
+
+        ticTacToeCandidates = new int[TicTacToeBoard.CELLS];
+        for (int cell = 0; cell < TicTacToeBoard.CELLS; cell++) {
+            ticTacToeCandidates[cell] = Move.encode(0, cell);
+        }
+        int size = CheckersBoard.BOARD_SIZE;
+        int count = 0;
+        int[] candidates = new int[size * size * 25];
+        for (int from = 0; from < size * size; from++) {
+            for (int dRow = -2; dRow <= 2; dRow++) {
+                for (int dCol = -2; dCol <= 2; dCol++) {
+                    int row = from / size + dRow;
+                    int col = from % size + dCol;
+                    if (row >= 0 && row < size && col >= 0 && col < size) {
+                        candidates[count++] = Move.encode(from, row * size + col);
+                    }
+                }
+            }
+        }
+        checkersCandidates = java.util.Arrays.copyOf(candidates, count);
+        random = new SplittableRandom(SEED);
+    }
+
+    @Benchmark
+    public int ticTacToeMoveValidation() {
+        int legal = 0;
+        for (int move : ticTacToeCandidates) {
+            if (ticTacToe.isLegalMove(Move.from(move), Move.to(move))) {
+                legal++;
+            }
+        }
+        return legal;
+    }
+
+    @Benchmark
+    public int checkersMoveValidation() {
+        int legal = 0;
+        for (int move : checkersCandidates) {
+            if (checkers.isLegalMove(Move.from(move), Move.to(move))) {
+                legal++;
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Plays every legal move, reads the status and takes the move back.
+     */
+    @Benchmark
+    public int ticTacToeWinDetection() {
+        return statusAfterEveryMove(ticTacToe);
+    }
+
+    @Benchmark
+    public int checkersWinDetection() {
+        return statusAfterEveryMove(checkers);
+    }
+
+    @Benchmark
+    public int ticTacToeRandomPlayout() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        return playRandomly(board, random, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int checkersRandomPlayout() {
+        CheckersBoard board = new CheckersBoard();
+        return playRandomly(board, random, Integer.MAX_VALUE);
+    }
+
+    private int statusAfterEveryMove(GameRules board) {
+        int count = board.generateMoves(moves);
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            sum += board.getStatus();
+            board.undoMove();
+        }
+        return sum;
+    }
+
+    /**
+     * Plays random moves until the game ends or the number of moves is reached.
+     *
+     * @return the status of the game
+     */
+    private int playRandomly(GameRules board, SplittableRandom moveRandom, int maxMoves) {
+        int[] buffer = new int[board.getMaxMoves()];
+        for (int played = 0; played < maxMoves && board.getStatus() == GameRules.ONGOING; played++) {
+            int count = board.generateMoves(buffer);
+            board.makeMove(buffer[moveRandom.nextInt(count)]);
+        }
+        return board.getStatus();
+    }
+}
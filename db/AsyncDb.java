@@ -0,0 +1,96 @@
+package db;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the operations of a DbInterface on background threads, so that a slow
+ * database never blocks the caller, typically the Swing event dispatch thread.
+ *
+ * The default executor is bounded: DEFAULT_THREADS daemon threads, idle ones
+ * stopping after a while, and at most DEFAULT_QUEUE_CAPACITY operations
+ * waiting. An operation refused because the queue is full, or throwing, is
+ * reported by its future, completed exceptionally.
+ */
+public class AsyncDb {
+    public static final int DEFAULT_THREADS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final DbInterface db;
+    private final Executor executor;
+
+    /**
+     * An operation on the database.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface Operation<T> {
+        T run(DbInterface db) throws Exception;
+    }
+
+    /**
+     * Creates an AsyncDb running on a new bounded executor.
+     *
+     * @param _db the database
+     */
+    public AsyncDb(DbInterface _db) {
+        this(_db, newExecutor(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY));
+    }
+
+    /**
+     * @param _db the database
+     * @param _executor the executor running the operations
+     */
+    public AsyncDb(DbInterface _db, Executor _executor) {
+        this.db = _db;
+        this.executor = _executor;
+    }
+
+    /**
+     * Runs an operation on the executor.
+     *
+     * @param operation the operation, e.g. db -> db.getGames()
+     * @return the future result of the operation
+     */
+    public <T> CompletableFuture<T> supply(Operation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(operation.run(db));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Creates a bounded executor of daemon threads, named db-1, db-2...
+     *
+     * @param threads the maximum number of threads
+     * @param queueCapacity the maximum number of operations waiting
+     * @return the executor
+     */
+    static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "db-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,82 @@
+package db;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import model.Game;
+
+/**
+ * Unit tests for the AsyncDb class.
+ */
+public class AsyncDbTest {
+    public static void main(String[] args) {
+        AsyncDbTest test = new AsyncDbTest();
+        test.testRunsInBackground();
+        test.testFailure();
+        test.testBoundedQueue();
+    }
+
+    public void testRunsInBackground() {
+        AsyncDb db = new AsyncDb(new DbMockup());
+        Thread caller = Thread.currentThread();
+        Thread[] runner = new Thread[1];
+        List<Game> games = join(db.supply(data -> {
+            runner[0] = Thread.currentThread();
+            return data.getGames();
+        }));
+        assert games.size() == 2 : "testRunsInBackground failed, games " + games.size();
+        assert runner[0] != caller && runner[0].isDaemon() : "testRunsInBackground failed, run by " + runner[0];
+        System.out.println("testRunsInBackground passed");
+    }
+
+    public void testFailure() {
+        AsyncDb db = new AsyncDb(new DbMockup());
+        CompletableFuture<Object> future = db.supply(data -> {
+            throw new Exception("constraint nickName unique violated");
+        });
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            assert false : "testFailure failed, no exception";
+        } catch (ExecutionException e) {
+            assert e.getCause().getMessage().equals("constraint nickName unique violated") : "testFailure failed, " + e.getCause();
+        } catch (Exception e) {
+            assert false : "testFailure failed, " + e;
+        }
+        System.out.println("testFailure passed");
+    }
+
+    /**
+     * With the thread busy and the queue full, the next operation fails at once instead of blocking.
+     */
+    public void testBoundedQueue() {
+        ThreadPoolExecutor executor = AsyncDb.newExecutor(1, 1);
+        AsyncDb db = new AsyncDb(new DbMockup(), executor);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = db.supply(data -> release.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = db.supply(data -> data.countPlayers(""));
+        CompletableFuture<Integer> refused = db.supply(data -> data.countPlayers(""));
+        assert refused.isCompletedExceptionally() : "testBoundedQueue failed, not refused";
+        try {
+            refused.join();
+        } catch (Exception e) {
+            assert e.getCause() instanceof RejectedExecutionException : "testBoundedQueue failed, " + e.getCause();
+        }
+        release.countDown();
+        assert join(busy) && join(queued) == 4 : "testBoundedQueue failed, queued operation";
+        executor.shutdown();
+        System.out.println("testBoundedQueue passed");
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("operation failed: " + e, e);
+        }
+    }
+}
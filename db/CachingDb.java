@@ -0,0 +1,340 @@
+package db;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+import model.Standing;
+
+/**
+ * Read-through cache in front of another DbInterface.
+ *
+ * Players are identity-mapped: whatever query returns a player, the caller
+ * gets the one Player instance of its ID and values. The instances returned
+ * are snapshots, never changed: a player read or written with other values
+ * gets a new instance, which replaces the old one in the identity map, so a
+ * thread reading a player never sees it change under it. The delegate is
+ * given copies, as its writes set the values of the player they are given.
+ * The identity map keeps the maxPlayers players used last; a cached result
+ * returns the instances of the identity map, putting its own back in if
+ * they were dropped, so it never returns a player older than the map's.
+ *
+ * The games are loaded once and then served from memory. The results of the
+ * other queries are kept ttlMillis, for the maxQueries queries used last, and
+ * dropped as soon as a change makes them wrong: creating or renaming a player
+ * drops the searches by name, a score change or a match drops the rankings.
+ * invalidate() drops everything, for changes made by other processes.
+ *
+ * Thread-safe: the maps are guarded by this, the delegate is called outside
+ * the lock.
+ */
+public class CachingDb implements DbInterface {
+    public static final long DEFAULT_TTL_MILLIS = 30000;
+    public static final int DEFAULT_MAX_PLAYERS = 10000;
+    public static final int DEFAULT_MAX_QUERIES = 256;
+
+    private static final int NAMES = 0;  // Queries depending on the nicknames: searches and counts
+    private static final int RANKS = 1;  // Queries depending on the scores and matches: rankings and standings
+
+    private final DbInterface delegate;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<Long, Player> players;           // Player ID -> the instance returned for it, LRU
+    private final Map<String, CachedQuery> queries;    // Query key -> result, LRU
+    private final long[] generations = new long[2];    // Per kind: a change increments it, making older results stale
+    private List<Game> games;                          // Loaded once
+
+    /**
+     * Creates a cache with the default bounds.
+     *
+     * @param _delegate the database read on a miss
+     */
+    public CachingDb(DbInterface _delegate) {
+        this(_delegate, DEFAULT_TTL_MILLIS, DEFAULT_MAX_PLAYERS, DEFAULT_MAX_QUERIES, System::currentTimeMillis);
+    }
+
+    /**
+     * @param _delegate the database read on a miss
+     * @param _ttlMillis how long the result of a query is served
+     * @param _maxPlayers the players kept in the identity map
+     * @param _maxQueries the query results kept
+     * @param _clock milliseconds, set by the tests
+     */
+    CachingDb(DbInterface _delegate, long _ttlMillis, int _maxPlayers, int _maxQueries, LongSupplier _clock) {
+        this.delegate = _delegate;
+        this.ttlMillis = _ttlMillis;
+        this.clock = _clock;
+        this.players = new LinkedHashMap<Long, Player>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Player> eldest) {
+                return size() > _maxPlayers;
+            }
+        };
+        this.queries = new LinkedHashMap<String, CachedQuery>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedQuery> eldest) {
+                return size() > _maxQueries;
+            }
+        };
+    }
+
+    /**
+     * Drops every cached result, the games included, and forgets the players.
+     */
+    public synchronized void invalidate() {
+        generations[NAMES]++;
+        generations[RANKS]++;
+        queries.clear();
+        players.clear();
+        games = null;
+    }
+
+    synchronized int cachedPlayers() {
+        return players.size();
+    }
+
+    @Override
+    public List<Player> getPlayers(String prefix) {
+        return current(query(NAMES, "players|" + prefix, () -> canonical(delegate.getPlayers(prefix))));
+    }
+
+    @Override
+    public List<Player> getPlayers(String prefix, int offset, int limit) {
+        return current(query(NAMES, "page|" + offset + "|" + limit + "|" + prefix,
+            () -> canonical(delegate.getPlayers(prefix, offset, limit))));
+    }
+
+    @Override
+    public int countPlayers(String prefix) {
+        return query(NAMES, "count|" + prefix, () -> delegate.countPlayers(prefix));
+    }
+
+    @Override
+    public List<Player> getTopPlayers() {
+        return current(query(RANKS, "top", () -> canonical(delegate.getTopPlayers())));
+    }
+
+    @Override
+    public int getPlayerRank(Player _player) {
+        return query(RANKS, "rank|" + _player.getId() + "|" + _player.getScore(), () -> delegate.getPlayerRank(_player));
+    }
+
+    @Override
+    public List<Standing> getTopStandings(Game _game, LeaderboardPeriod _period, int _limit) {
+        return currentStandings(query(RANKS, "standings|" + _game.getId() + "|" + _period + "|" + _limit,
+            () -> canonicalStandings(delegate.getTopStandings(_game, _period, _limit))));
+    }
+
+    @Override
+    public int getPlayerRank(Player _player, Game _game, LeaderboardPeriod _period) {
+        return query(RANKS, "gameRank|" + _player.getId() + "|" + _game.getId() + "|" + _period,
+            () -> delegate.getPlayerRank(_player, _game, _period));
+    }
+
+    @Override
+    public List<Standing> getStandingsAround(Player _player, Game _game, LeaderboardPeriod _period, int _radius) {
+        return currentStandings(query(RANKS, "around|" + _player.getId() + "|" + _game.getId() + "|" + _period + "|" + _radius,
+            () -> canonicalStandings(delegate.getStandingsAround(_player, _game, _period, _radius))));
+    }
+
+    /**
+     * Not cached: every page of the history is a different query, read once.
+     */
+    @Override
+    public List<Match> getMatches(MatchFilter _filter, Match _after, int _limit) {
+        return delegate.getMatches(_filter, _after, _limit);
+    }
+
+    /**
+     * Not cached: a move log is read once, for a replay.
+     */
+    @Override
+    public byte[] getMatchMoves(Match _match) {
+        return delegate.getMatchMoves(_match);
+    }
+
+    @Override
+    public List<Game> getGames() {
+        List<Game> loaded;
+        synchronized (this) {
+            loaded = games;
+        }
+        if (loaded == null) {
+            loaded = delegate.getGames();
+            synchronized (this) {
+                if (games == null) {
+                    games = loaded;
+                }
+                loaded = games;
+            }
+        }
+        return new ArrayList<Game>(loaded);
+    }
+
+    @Override
+    public Player createPlayer(String _nickName) throws Exception {
+        Player created = delegate.createPlayer(_nickName);
+        invalidate(NAMES);
+        invalidate(RANKS);
+        return canonical(created);
+    }
+
+    @Override
+    public Player renamePlayer(Player _plyr, String _nickName) throws Exception {
+        Player renamed = delegate.renamePlayer(copyOf(_plyr), _nickName);
+        invalidate(NAMES);
+        invalidate(RANKS);
+        return canonical(renamed);
+    }
+
+    @Override
+    public Player updatePlayerScore(Player _player, int _score) {
+        Player updated = delegate.updatePlayerScore(copyOf(_player), _score);
+        invalidate(RANKS);
+        return canonical(updated);
+    }
+
+    @Override
+    public Player addPlayerScore(Player _player, int _delta) {
+        Player updated = delegate.addPlayerScore(copyOf(_player), _delta);
+        invalidate(RANKS);
+        return canonical(updated);
+    }
+
+    @Override
+    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2, byte[] _moves) {
+        Match match = delegate.informMatchResult(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, _moves);
+        invalidate(RANKS);
+        return match;
+    }
+
+    /**
+     * Serves the result of a query while it is fresh, or loads it. A result
+     * loaded while a change of its kind happened is returned but not kept.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T query(int kind, String key, Supplier<T> load) {
+        long generation;
+        synchronized (this) {
+            CachedQuery cached = queries.get(key);
+            if (cached != null && cached.generation == generations[kind] && clock.getAsLong() < cached.expiresAt) {
+                return (T) cached.value;
+            }
+            generation = generations[kind];
+        }
+        T value = load.get();
+        synchronized (this) {
+            if (generation == generations[kind]) {
+                queries.put(key, new CachedQuery(value, generation, clock.getAsLong() + ttlMillis));
+            }
+        }
+        return value;
+    }
+
+    private synchronized void invalidate(int kind) {
+        generations[kind]++;
+    }
+
+    /**
+     * @return the instance of the player's ID if it has the values of the player,
+     *         else a snapshot of the player, replacing it
+     */
+    private synchronized Player canonical(Player player) {
+        if (player == null) {
+            return null;
+        }
+        Player cached = players.get(player.getId());
+        if (cached != null && cached.getScore() == player.getScore() && Objects.equals(cached.getNickName(), player.getNickName())) {
+            return cached;
+        }
+        Player snapshot = copyOf(player);
+        players.put(snapshot.getId(), snapshot);
+        return snapshot;
+    }
+
+    /**
+     * @return the instance of the player's ID in the identity map, the player put back in if it was dropped
+     */
+    private Player current(Player player) {
+        Player cached = players.get(player.getId());
+        if (cached == null) {
+            players.put(player.getId(), player);
+            return player;
+        }
+        return cached;
+    }
+
+    /**
+     * @return a new list of the players of a cached result, as current(Player) returns them
+     */
+    private synchronized List<Player> current(List<Player> list) {
+        List<Player> result = new ArrayList<Player>(list.size());
+        for (Player player : list) {
+            result.add(current(player));
+        }
+        return result;
+    }
+
+    /**
+     * @return a new list of the standings of a cached result, with their players as current(Player) returns them
+     */
+    private synchronized List<Standing> currentStandings(List<Standing> list) {
+        List<Standing> result = new ArrayList<Standing>(list.size());
+        for (Standing standing : list) {
+            result.add(withPlayer(standing, current(standing.getPlayer())));
+        }
+        return result;
+    }
+
+    private List<Player> canonical(List<Player> list) {
+        List<Player> result = new ArrayList<Player>(list.size());
+        for (Player player : list) {
+            result.add(canonical(player));
+        }
+        return result;
+    }
+
+    private List<Standing> canonicalStandings(List<Standing> list) {
+        List<Standing> result = new ArrayList<Standing>(list.size());
+        for (Standing standing : list) {
+            result.add(withPlayer(standing, canonical(standing.getPlayer())));
+        }
+        return result;
+    }
+
+    private static Standing withPlayer(Standing standing, Player player) {
+        return player == standing.getPlayer() ? standing
+            : new Standing(player, standing.getRank(), standing.getWins(), standing.getDraws(), standing.getLosses());
+    }
+
+    /**
+     * @return a new instance with the values of the player, null for null
+     */
+    private static Player copyOf(Player player) {
+        return player == null ? null : new Player(player.getNickName(), player.getScore(), player.getId());
+    }
+
+    /**
+     * The result of a query, valid until expiresAt while its kind does not change.
+     */
+    private static class CachedQuery {
+        private final Object value;
+        private final long generation;
+        private final long expiresAt;
+
+        CachedQuery(Object _value, long _generation, long _expiresAt) {
+            this.value = _value;
+            this.generation = _generation;
+            this.expiresAt = _expiresAt;
+        }
+    }
+}
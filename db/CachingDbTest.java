@@ -0,0 +1,143 @@
+package db;
+
+import java.util.List;
+
+import model.Player;
+import model.Game;
+
+/**
+ * Unit tests for the CachingDb class.
+ */
+public class CachingDbTest {
+    private long now; // Clock of the caches
+
+    public static void main(String[] args) {
+        CachingDbTest test = new CachingDbTest();
+        test.testGamesLoadedOnce();
+        test.testIdentityMap();
+        test.testTtl();
+        test.testInvalidation();
+        test.testEviction();
+    }
+
+    public void testGamesLoadedOnce() {
+        CountingDb delegate = new CountingDb();
+        CachingDb db = new CachingDb(delegate, 1000, 100, 100, () -> now);
+        List<Game> first = db.getGames();
+        now += 1000000;
+        List<Game> second = db.getGames();
+        assert delegate.gameReads == 1 : "testGamesLoadedOnce failed, reads " + delegate.gameReads;
+        assert first.get(0) == second.get(0) : "testGamesLoadedOnce failed, not the same instance";
+        db.invalidate();
+        db.getGames();
+        assert delegate.gameReads == 2 : "testGamesLoadedOnce failed, not reloaded after invalidate";
+        System.out.println("testGamesLoadedOnce passed");
+    }
+
+    public void testIdentityMap() {
+        CachingDb db = new CachingDb(new CountingDb(), 1000, 100, 100, () -> now);
+        Player fromPage = db.getPlayers("", 0, 10).get(0);
+        Player fromList = null;
+        for (Player player : db.getPlayers("")) {
+            if (player.getId() == fromPage.getId()) {
+                fromList = player;
+            }
+        }
+        assert fromList == fromPage : "testIdentityMap failed, two instances of player " + fromPage.getId();
+        int score = fromPage.getScore();
+        Player updated = db.updatePlayerScore(fromPage, 7);
+        assert updated != fromPage && updated.getScore() == 7 : "testIdentityMap failed, score not updated";
+        assert fromPage.getScore() == score : "testIdentityMap failed, snapshot changed";
+        assert db.getPlayers("", 0, 10).get(0) == updated : "testIdentityMap failed, cached page returns the old snapshot";
+        System.out.println("testIdentityMap passed");
+    }
+
+    public void testTtl() {
+        CountingDb delegate = new CountingDb();
+        CachingDb db = new CachingDb(delegate, 1000, 100, 100, () -> now);
+        db.countPlayers("r");
+        now += 999;
+        db.countPlayers("r");
+        assert delegate.countReads == 1 : "testTtl failed, read before expiry";
+        now += 1;
+        db.countPlayers("r");
+        assert delegate.countReads == 2 : "testTtl failed, not read after expiry";
+        System.out.println("testTtl passed");
+    }
+
+    /**
+     * A rename drops the searches, a score change only the rankings.
+     */
+    public void testInvalidation() {
+        CountingDb delegate = new CountingDb();
+        CachingDb db = new CachingDb(delegate, 1000, 100, 100, () -> now);
+        Player player = db.getPlayers("", 0, 10).get(0);
+        db.getTopPlayers();
+        db.addPlayerScore(player, 1);
+        db.getPlayers("", 0, 10);
+        db.getTopPlayers();
+        assert delegate.pageReads == 1 : "testInvalidation failed, page read after a score change";
+        assert delegate.topReads == 2 : "testInvalidation failed, top players not read after a score change";
+        try {
+            Player renamed = db.renamePlayer(player, "Zed");
+            assert renamed.getNickName().equals("Zed") && !player.getNickName().equals("Zed") : "testInvalidation failed, not renamed in a new snapshot";
+        } catch (Exception e) {
+            assert false : "testInvalidation failed, " + e.getMessage();
+        }
+        db.getPlayers("", 0, 10);
+        assert delegate.pageReads == 2 : "testInvalidation failed, page not read after a rename";
+        System.out.println("testInvalidation passed");
+    }
+
+    public void testEviction() {
+        CachingDb db = new CachingDb(new CountingDb(), 1000, 2, 100, () -> now);
+        List<Player> players = db.getPlayers("");
+        assert players.size() == 4 : "testEviction failed, players " + players.size();
+        assert db.cachedPlayers() == 2 : "testEviction failed, identity map size " + db.cachedPlayers();
+        List<Player> again = db.getPlayers("");
+        for (int i = 0; i < players.size(); i++) {
+            assert again.get(i) == players.get(i) : "testEviction failed, cached result returns another instance of player " + players.get(i).getId();
+        }
+        assert db.cachedPlayers() == 2 : "testEviction failed, identity map grown to " + db.cachedPlayers();
+        System.out.println("testEviction passed");
+    }
+
+    /**
+     * DbMockup counting its reads, with renames that never fail.
+     */
+    private static class CountingDb extends DbMockup {
+        private int gameReads;
+        private int pageReads;
+        private int countReads;
+        private int topReads;
+
+        @Override
+        public List<Game> getGames() {
+            gameReads++;
+            return super.getGames();
+        }
+
+        @Override
+        public List<Player> getPlayers(String prefix, int offset, int limit) {
+            pageReads++;
+            return super.getPlayers(prefix, offset, limit);
+        }
+
+        @Override
+        public int countPlayers(String prefix) {
+            countReads++;
+            return super.countPlayers(prefix);
+        }
+
+        @Override
+        public List<Player> getTopPlayers() {
+            topReads++;
+            return super.getTopPlayers();
+        }
+
+        @Override
+        public Player renamePlayer(Player _plyr, String _nickName) {
+            return new Player(_nickName, _plyr.getScore(), _plyr.getId());
+        }
+    }
+}
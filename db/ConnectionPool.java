@@ -0,0 +1,450 @@
+package db;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Bounded pool of JDBC connections.
+ *
+ * getConnection() borrows a connection and close() on it returns the connection
+ * to the pool instead of closing it, so the callers keep the usual
+ * try-with-resources pattern. At most maxSize connections exist at the same time;
+ * a caller waits up to acquireTimeoutMillis for one and then gets an SQLException.
+ *
+ * A connection idle for more than VALIDATION_IDLE_MILLIS is validated before
+ * being lent again and replaced if the server dropped it. Connections older than
+ * maxLifetimeMillis are closed when returned, and a background thread closes the
+ * connections idle for more than idleTimeoutMillis.
+ *
+ * Every connection keeps its prepared statements open in a StatementCache of
+ * statementCacheSize statements, so the same SQL is only prepared once per
+ * connection.
+ */
+public class ConnectionPool implements DataSource {
+    public static final int DEFAULT_MAX_SIZE = 10;                        // Connections open at most
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 5000;       // Wait for a free connection
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000; // Idle connections are closed after
+    public static final long DEFAULT_MAX_LIFETIME_MILLIS = 30 * 60 * 1000; // Connections are renewed after
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;            // Prepared statements kept per connection
+
+    static final long VALIDATION_IDLE_MILLIS = 500;   // Idle connections are validated after
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Opens the physical connections of the pool.
+     */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final int statementCacheSize;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private final Semaphore permits;                                     // One permit per connection that may be lent
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>(); // Most recently used first, guarded by itself
+    private final ScheduledExecutorService housekeeper;                  // Closes the idle connections
+    private volatile boolean closed;
+    private int openCount;                                               // Physical connections open, guarded by idle
+
+    /**
+     * Creates a pool of connections to a database, with the default settings.
+     *
+     * @param url the JDBC URL
+     * @param user the user
+     * @param password the password
+     */
+    public ConnectionPool(String url, String user, String password) {
+        this(() -> DriverManager.getConnection(url, user, password), DEFAULT_MAX_SIZE,
+            DEFAULT_ACQUIRE_TIMEOUT_MILLIS, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_MAX_LIFETIME_MILLIS);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param _factory opens the physical connections
+     * @param _maxSize the maximum number of connections
+     * @param _acquireTimeoutMillis how long getConnection waits for a free connection
+     * @param _idleTimeoutMillis idle connections are closed after this delay
+     * @param _maxLifetimeMillis connections are closed after this delay, once returned
+     */
+    public ConnectionPool(ConnectionFactory _factory, int _maxSize, long _acquireTimeoutMillis,
+                          long _idleTimeoutMillis, long _maxLifetimeMillis) {
+        this(_factory, _maxSize, _acquireTimeoutMillis, _idleTimeoutMillis, _maxLifetimeMillis, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param _factory opens the physical connections
+     * @param _maxSize the maximum number of connections
+     * @param _acquireTimeoutMillis how long getConnection waits for a free connection
+     * @param _idleTimeoutMillis idle connections are closed after this delay
+     * @param _maxLifetimeMillis connections are closed after this delay, once returned
+     * @param _statementCacheSize the number of prepared statements kept per connection, 0 to disable
+     */
+    public ConnectionPool(ConnectionFactory _factory, int _maxSize, long _acquireTimeoutMillis,
+                          long _idleTimeoutMillis, long _maxLifetimeMillis, int _statementCacheSize) {
+        if (_maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.factory = _factory;
+        this.maxSize = _maxSize;
+        this.acquireTimeoutMillis = _acquireTimeoutMillis;
+        this.idleTimeoutMillis = _idleTimeoutMillis;
+        this.maxLifetimeMillis = _maxLifetimeMillis;
+        this.statementCacheSize = _statementCacheSize;
+        this.permits = new Semaphore(_maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ConnectionPool housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, _idleTimeoutMillis / 2);
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection. Closing it returns it to the pool.
+     *
+     * @return a valid connection
+     * @throws SQLException if no connection is free within the acquisition timeout or cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("No free connection after " + acquireTimeoutMillis
+                    + " ms (" + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            return lend(takeIdle());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool connects with its own credentials");
+    }
+
+    /**
+     * Closes the idle connections and stops lending. Borrowed connections are closed when returned.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            for (PooledConnection pooled : idle) {
+                closePhysical(pooled);
+            }
+            idle.clear();
+        }
+    }
+
+    /**
+     * @return the number of connections lent
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * @return the number of connections waiting in the pool
+     */
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    /**
+     * @return the number of physical connections open
+     */
+    public int getOpenCount() {
+        synchronized (idle) {
+            return openCount;
+        }
+    }
+
+    /**
+     * @return the number of prepares served by the statement caches
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * @return the number of prepares sent to the database
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Closes the connections idle for too long or past their lifetime. Run by the housekeeper.
+     */
+    void evictIdle() {
+        long now = System.currentTimeMillis();
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastUsed > idleTimeoutMillis || now - pooled.created > maxLifetimeMillis) {
+                    it.remove();
+                    closePhysical(pooled);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the most recently used idle connection still usable, or opens a new one.
+     * The caller holds a permit.
+     */
+    private PooledConnection takeIdle() throws SQLException {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return open();
+            }
+            long now = System.currentTimeMillis();
+            if (now - pooled.created > maxLifetimeMillis || !isAlive(pooled, now)) {
+                closePhysical(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    private boolean isAlive(PooledConnection pooled, long now) {
+        if (now - pooled.lastUsed <= VALIDATION_IDLE_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = factory.open();
+        synchronized (idle) {
+            openCount++;
+        }
+        return new PooledConnection(physical, new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses));
+    }
+
+    private void closePhysical(PooledConnection pooled) {
+        synchronized (idle) {
+            openCount--;
+        }
+        pooled.statements.closeAll();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing to release
+        }
+    }
+
+    /**
+     * Wraps a physical connection in a proxy whose close() calls giveBack.
+     */
+    private Connection lend(PooledConnection pooled) {
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new LentConnection(pooled));
+    }
+
+    /**
+     * Returns a borrowed connection: it goes back to the idle ones, or is closed if
+     * broken, too old or if the pool is closed.
+     */
+    private void giveBack(PooledConnection pooled) {
+        pooled.statements.releaseAll();
+        try {
+            boolean reusable = !closed && !pooled.broken
+                && System.currentTimeMillis() - pooled.created <= maxLifetimeMillis
+                && !pooled.physical.isClosed();
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();         // Drop an unfinished transaction
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.lastUsed = System.currentTimeMillis();
+                synchronized (idle) {
+                    if (closed) {
+                        closePhysical(pooled); // close() drained the idle ones since the check above
+                    } else {
+                        idle.addFirst(pooled);
+                    }
+                }
+            } else {
+                closePhysical(pooled);
+            }
+        } catch (SQLException e) {
+            closePhysical(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * A physical connection and its timestamps.
+     */
+    private static class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements; // Prepared statements kept open
+        private final long created = System.currentTimeMillis();
+        private long lastUsed = created;   // Time it was last returned
+        private boolean broken;            // Set when a call failed with a connection error
+
+        PooledConnection(Connection _physical, StatementCache _statements) {
+            this.physical = _physical;
+            this.statements = _statements;
+        }
+    }
+
+    /**
+     * Connection handed to a caller: forwards the calls to the physical connection
+     * until close(), which gives the connection back to the pool once.
+     */
+    private class LentConnection implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LentConnection(PooledConnection _pooled) {
+            this.pooled = _pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + pooled.physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                if (method.getName().equals("prepareStatement") && args.length <= 2
+                    && (args.length == 1 || args[1] instanceof Integer)) {
+                    int keys = args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1];
+                    return pooled.statements.prepare(pooled.physical, (Connection) proxy, (String) args[0], keys,
+                        () -> pooled.broken = true);
+                }
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw markIfBroken(e.getCause());
+            } catch (SQLException e) {
+                throw markIfBroken(e); // Prepare of the statement cache
+            }
+        }
+
+        /**
+         * @return the failure, after marking the connection broken on a connection error
+         */
+        private Throwable markIfBroken(Throwable failure) {
+            if (failure instanceof SQLException && isConnectionError((SQLException) failure)) {
+                pooled.broken = true;
+            }
+            return failure;
+        }
+    }
+
+    /**
+     * @return true for the SQL states of class 08 (connection exception)
+     */
+    static boolean isConnectionError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    // DataSource settings, unused by the pool
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
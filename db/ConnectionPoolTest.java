@@ -0,0 +1,281 @@
+package db;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the ConnectionPool class, on fake connections.
+ */
+public class ConnectionPoolTest {
+    private final List<FakeConnection> opened = new ArrayList<>(); // Every fake connection opened
+
+    public static void main(String[] args) {
+        ConnectionPoolTest test = new ConnectionPoolTest();
+        test.testReuse();
+        test.testAcquireTimeout();
+        test.testInvalidReplaced();
+        test.testMaxLifetime();
+        test.testIdleEviction();
+        test.testConcurrentBorrow();
+        test.testStatementCache();
+        test.testStatementCacheEviction();
+        test.testStatementConnectionError();
+    }
+
+    public void testReuse() {
+        ConnectionPool pool = newPool(2, 100, 60000, 60000);
+        try {
+            Connection first = pool.getConnection();
+            first.close();
+            first.close(); // A second close is ignored
+            Connection second = pool.getConnection();
+            assert opened.size() == 1 : "testReuse failed, " + opened.size() + " connections opened";
+            assert first.isClosed() && !second.isClosed() : "testReuse failed, closed state";
+            second.close();
+            assert pool.getIdleCount() == 1 && pool.getActiveCount() == 0 : "testReuse failed, counts";
+        } catch (SQLException e) {
+            assert false : "testReuse failed: " + e;
+        } finally {
+            pool.close();
+        }
+        assert opened.get(0).closed : "testReuse failed, close() of the pool";
+        System.out.println("testReuse passed");
+    }
+
+    public void testAcquireTimeout() {
+        ConnectionPool pool = newPool(2, 100, 60000, 60000);
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        try (Connection a = pool.getConnection(); Connection b = pool.getConnection()) {
+            assert a != b && pool.getActiveCount() == 2 : "testAcquireTimeout failed, two connections not lent";
+            try {
+                pool.getConnection().close();
+                assert false : "testAcquireTimeout failed, third connection lent";
+            } catch (SQLException e) {
+                timedOut = true;
+            }
+        } catch (SQLException e) {
+            assert false : "testAcquireTimeout failed: " + e;
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+        assert timedOut && elapsedMillis >= 90 : "testAcquireTimeout failed after " + elapsedMillis + " ms";
+        assert pool.getActiveCount() == 0 && opened.size() == 2 : "testAcquireTimeout failed, counts";
+        pool.close();
+        System.out.println("testAcquireTimeout passed");
+    }
+
+    public void testInvalidReplaced() {
+        ConnectionPool pool = newPool(2, 100, 60000, 60000);
+        try {
+            pool.getConnection().close();
+            opened.get(0).valid = false;
+            Thread.sleep(ConnectionPool.VALIDATION_IDLE_MILLIS + 50); // Validated after that idle time
+            Connection connection = pool.getConnection();
+            assert opened.size() == 2 && opened.get(0).closed : "testInvalidReplaced failed";
+            connection.close();
+        } catch (SQLException | InterruptedException e) {
+            assert false : "testInvalidReplaced failed: " + e;
+        }
+        pool.close();
+        System.out.println("testInvalidReplaced passed");
+    }
+
+    public void testMaxLifetime() {
+        ConnectionPool pool = newPool(2, 100, 60000, 20);
+        try {
+            Connection connection = pool.getConnection();
+            Thread.sleep(40);
+            connection.close();
+            assert opened.get(0).closed && pool.getIdleCount() == 0 : "testMaxLifetime failed";
+        } catch (SQLException | InterruptedException e) {
+            assert false : "testMaxLifetime failed: " + e;
+        }
+        pool.close();
+        System.out.println("testMaxLifetime passed");
+    }
+
+    public void testIdleEviction() {
+        ConnectionPool pool = newPool(2, 100, 20, 60000);
+        try {
+            pool.getConnection().close();
+            Thread.sleep(40);
+            pool.evictIdle();
+            assert opened.get(0).closed && pool.getIdleCount() == 0 && pool.getOpenCount() == 0 : "testIdleEviction failed";
+        } catch (SQLException | InterruptedException e) {
+            assert false : "testIdleEviction failed: " + e;
+        }
+        pool.close();
+        System.out.println("testIdleEviction passed");
+    }
+
+    public void testConcurrentBorrow() {
+        ConnectionPool pool = newPool(3, 5000, 60000, 60000);
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    try (Connection connection = pool.getConnection()) {
+                        maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        connection.getAutoCommit();
+                        inUse.decrementAndGet();
+                    } catch (SQLException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        assert failures.get() == 0 : "testConcurrentBorrow failed, " + failures.get() + " failures";
+        assert maxInUse.get() <= 3 && pool.getOpenCount() <= 3 : "testConcurrentBorrow failed, pool not bounded";
+        pool.close();
+        System.out.println("testConcurrentBorrow passed");
+    }
+
+    public void testStatementCache() {
+        ConnectionPool pool = newPool(1, 100, 60000, 60000);
+        try {
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = pool.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement("SELECT 1")) {
+                    stmt.setInt(1, i);
+                    assert stmt.getConnection() == connection : "testStatementCache failed, getConnection";
+                }
+            }
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement first = connection.prepareStatement("SELECT 1");
+                 PreparedStatement second = connection.prepareStatement("SELECT 1")) {
+                assert first != second : "testStatementCache failed, statement lent twice";
+            }
+            FakeConnection fake = opened.get(0);
+            assert fake.prepared.size() == 2 : "testStatementCache failed, " + fake.prepared.size() + " prepares";
+            assert pool.getStatementCacheHits() == 3 && pool.getStatementCacheMisses() == 2
+                : "testStatementCache failed, hits " + pool.getStatementCacheHits() + " misses " + pool.getStatementCacheMisses();
+            assert !fake.prepared.get(0).closed && fake.prepared.get(1).closed : "testStatementCache failed, closed state";
+        } catch (SQLException e) {
+            assert false : "testStatementCache failed: " + e;
+        }
+        pool.close();
+        assert opened.get(0).prepared.get(0).closed : "testStatementCache failed, close() of the pool";
+        System.out.println("testStatementCache passed");
+    }
+
+    public void testStatementCacheEviction() {
+        opened.clear();
+        ConnectionPool pool = new ConnectionPool(this::openFake, 1, 100, 60000, 60000, 2);
+        try (Connection connection = pool.getConnection()) {
+            for (String sql : new String[]{"A", "B", "A", "C", "A", "B"}) {
+                connection.prepareStatement(sql).close();
+            }
+            // A stays the most recently used: B is evicted by C, then C by B
+            List<FakeStatement> prepared = opened.get(0).prepared;
+            assert prepared.size() == 4 : "testStatementCacheEviction failed, " + prepared.size() + " prepares";
+            assert prepared.get(1).closed && !prepared.get(0).closed && prepared.get(2).closed && !prepared.get(3).closed
+                : "testStatementCacheEviction failed, wrong statement evicted";
+        } catch (SQLException e) {
+            assert false : "testStatementCacheEviction failed: " + e;
+        }
+        pool.close();
+        System.out.println("testStatementCacheEviction passed");
+    }
+
+    /**
+     * A connection error of a statement call closes the connection instead of giving it back.
+     */
+    public void testStatementConnectionError() {
+        ConnectionPool pool = newPool(1, 100, 60000, 60000);
+        try {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement("SELECT 1")) {
+                opened.get(0).prepared.get(0).failure = new SQLException("Communications link failure", "08S01");
+                stmt.executeQuery();
+                assert false : "testStatementConnectionError failed, no error";
+            } catch (SQLException e) {
+                assert "08S01".equals(e.getSQLState()) : "testStatementConnectionError failed: " + e;
+            }
+            assert opened.get(0).closed && pool.getIdleCount() == 0 : "testStatementConnectionError failed, broken connection kept";
+            pool.getConnection().close();
+            assert opened.size() == 2 : "testStatementConnectionError failed, broken connection lent again";
+        } catch (SQLException e) {
+            assert false : "testStatementConnectionError failed: " + e;
+        }
+        pool.close();
+        System.out.println("testStatementConnectionError passed");
+    }
+
+    private ConnectionPool newPool(int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis) {
+        synchronized (opened) {
+            opened.clear();
+        }
+        return new ConnectionPool(this::openFake, maxSize, acquireTimeoutMillis, idleTimeoutMillis, maxLifetimeMillis);
+    }
+
+    private Connection openFake() {
+        FakeConnection fake = new FakeConnection();
+        synchronized (opened) {
+            opened.add(fake);
+        }
+        return fake.proxy;
+    }
+
+    /**
+     * A physical connection that only knows its state.
+     */
+    private static class FakeConnection {
+        private volatile boolean closed;
+        private volatile boolean valid = true;
+        private final List<FakeStatement> prepared = new ArrayList<>(); // Every statement prepared
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, (p, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        closed = true;
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "isValid":
+                        return valid && !closed;
+                    case "getAutoCommit":
+                        return true;
+                    case "prepareStatement":
+                        FakeStatement statement = new FakeStatement();
+                        prepared.add(statement);
+                        return statement.proxy;
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    /**
+     * A physical statement that only knows if it is closed, and fails its executions once told to.
+     */
+    private static class FakeStatement {
+        private boolean closed;
+        private SQLException failure;      // Thrown by the executions when set
+        private final PreparedStatement proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                if (method.getName().equals("close")) {
+                    closed = true;
+                } else if (method.getName().startsWith("execute") && failure != null) {
+                    throw failure;
+                }
+                return null;
+            });
+    }
+}
@@ -1,7 +1,6 @@
 package db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
@@ -9,17 +8,31 @@ import java.sql.SQLException;
  * MySQL connector download: https://dev.mysql.com/downloads/connector/j/5.0.html
  */
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/TwoPlayersGame";
+    private static final String URL = "jdbc:mysql://localhost:3306/TwoPlayersGame?useServerPrepStmts=true"; // Server-side statements, kept by the pool
     private static final String USER = "root";
     private static final String PASSWORD = "Agora123";
 
+    private static ConnectionPool pool; // Created on the first use
+
+    /**
+     * Returns the connection pool of the database.
+     *
+     * @return the pool, created on the first call
+     */
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(URL, USER, PASSWORD);
+        }
+        return pool;
+    }
+
     /**
-     * Establishes and returns a connection to the database.
+     * Borrows a connection to the database from the pool. Closing it returns it to the pool.
      *
      * @return a Connection object to the database
      * @throws SQLException if a database access error occurs
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().getConnection();
     }
 }
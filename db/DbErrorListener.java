@@ -0,0 +1,16 @@
+package db;
+
+import java.sql.SQLException;
+
+/**
+ * Interface for reporting database errors.
+ * The persistence layer does not depend on Swing: the application decides how to show the errors.
+ */
+public interface DbErrorListener {
+    /**
+     * Method to be called when a database operation fails.
+     *
+     * @param e the SQL exception raised by the operation
+     */
+    void onDbError(SQLException e);
+}
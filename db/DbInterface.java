@@ -7,6 +7,9 @@ import java.util.Iterator;
 import model.Player;
 import model.Game;
 import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+import model.Standing;
 
 public interface DbInterface{
     
@@ -18,6 +21,24 @@ public interface DbInterface{
      */
     public List<Player> getPlayers(String prefix);
 
+    /**
+     * Retrieves a page of the players whose name starts with a prefix, any case, sorted by name.
+     *
+     * @param prefix The prefix to filter players by name.
+     * @param offset The number of players skipped.
+     * @param limit The maximum number of players returned.
+     * @return The players of the page.
+     */
+    public List<Player> getPlayers(String prefix, int offset, int limit);
+
+    /**
+     * Counts the players whose name starts with a prefix, any case.
+     *
+     * @param prefix The prefix to filter players by name.
+     * @return The number of players.
+     */
+    public int countPlayers(String prefix);
+
     /**
      * Retrieves a list of top players.
      *
@@ -25,6 +46,67 @@ public interface DbInterface{
      */
     public List<Player> getTopPlayers();
 
+    /**
+     * Retrieves the rank of a player among all the players, 1 for the best score.
+     * Players with the same score share the rank.
+     *
+     * @param _player The player.
+     * @return The rank of the player.
+     */
+    public int getPlayerRank(Player _player);
+
+    /**
+     * Retrieves the best players of a game in the current window of a period.
+     *
+     * @param _game The game.
+     * @param _period The period, e.g. WEEK for this week.
+     * @param _limit The number of players.
+     * @return The standings, best first.
+     */
+    public List<Standing> getTopStandings(Game _game, LeaderboardPeriod _period, int _limit);
+
+    /**
+     * Retrieves the rank of a player in a game in the current window of a period.
+     *
+     * @param _player The player.
+     * @param _game The game.
+     * @param _period The period.
+     * @return The rank of the player, -1 if they played no match of the game in the window.
+     */
+    public int getPlayerRank(Player _player, Game _game, LeaderboardPeriod _period);
+
+    /**
+     * Retrieves a player and the players ranked just above and below them,
+     * in a game in the current window of a period.
+     *
+     * @param _player The player.
+     * @param _game The game.
+     * @param _period The period.
+     * @param _radius The number of players above and below.
+     * @return The standings, best first, empty if the player played no match of the game in the window.
+     */
+    public List<Standing> getStandingsAround(Player _player, Game _game, LeaderboardPeriod _period, int _radius);
+
+    /**
+     * Retrieves a page of the match history, newest first.
+     * The next page is read after the last match of the previous one, by seek
+     * on the date and ID of the matches, never with an offset.
+     *
+     * @param _filter The matches selected, e.g. MatchFilter.all().withPlayer(p).withGame(g).
+     * @param _after The last match of the previous page, null for the first page.
+     * @param _limit The maximum number of matches returned.
+     * @return The matches of the page, newest first.
+     */
+    public List<Match> getMatches(MatchFilter _filter, Match _after, int _limit);
+
+    /**
+     * Retrieves the move log of a match, not read with the match history.
+     *
+     * @param _match The match, with its date and ID.
+     * @return The moves in the order played, varint-encoded; null if not recorded.
+     */
+    public byte[] getMatchMoves(Match _match);
+
     /**
      * Retrieves a list of games.
      *
@@ -58,6 +140,16 @@ public interface DbInterface{
      * @return The updated player.
      */
     public Player updatePlayerScore(Player _player, int _score);
+    /**
+     * Adds points to the score of a player, atomically in the database
+     * (SCORE = SCORE + delta), so concurrent games of the same player never lose an update.
+     * The score never goes below 0.
+     *
+     * @param _player The player whose score changes.
+     * @param _delta The points to add, negative to remove.
+     * @return The player with the expected new score.
+     */
+    public Player addPlayerScore(Player _player, int _delta);
     /**
      * Informs the result of a match.
      *
@@ -66,8 +158,9 @@ public interface DbInterface{
      * @param _game The game being played.
      * @param _matchScorePlayer1 The score of the first player.
      * @param _matchScorePlayer2 The score of the second player.
+     * @param _moves The moves in the order played, varint-encoded (see service.rules.MoveLogWriter); null if not recorded.
      * @return The match with the results.
      */
-    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2);
+    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2, byte[] _moves);
 
 }
@@ -1,12 +1,18 @@
 package db;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Iterator;
+import java.util.Map;
 
 import model.Player;
 import model.Game;
 import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+import model.Standing;
 
 /**
  * DbMockup Db MockUp simulate Database Operations
@@ -16,6 +22,9 @@ public class DbMockup implements DbInterface{
 
     private List<Player> players; // List of all players
     private List<Player> topPlayers; // List of top players
+    private GameStandings standings = new GameStandings(); // Results of the matches informed
+    private Map<Long, Player> matchPlayers = new HashMap<Long, Player>(); // Players of the matches informed
+    private List<Match> matches = new ArrayList<Match>(); // Matches informed, oldest first
 
     public DbMockup(){
         this.players = new ArrayList<Player>();
@@ -42,6 +51,47 @@ public class DbMockup implements DbInterface{
         return this.players;
     }
 
+    /**
+     * Retrieves a page of the players whose name starts with a prefix, any case, sorted by name.
+     *
+     * @param prefix The prefix to filter players by name.
+     * @param offset The number of players skipped.
+     * @param limit The maximum number of players returned.
+     * @return The players of the page.
+     */
+    @Override
+    public List<Player> getPlayers(String prefix, int offset, int limit){
+        List<Player> list = playersStartingWith(prefix);
+        int from = Math.min(Math.max(0, offset), list.size());
+        int to = (int) Math.min(list.size(), (long) from + Math.max(0, limit));
+        System.out.println("DbMockup - getPlayers page success"); 
+        return new ArrayList<Player>(list.subList(from, to));
+    }
+
+    /**
+     * Counts the players whose name starts with a prefix, any case.
+     *
+     * @param prefix The prefix to filter players by name.
+     * @return The number of players.
+     */
+    @Override
+    public int countPlayers(String prefix){
+        System.out.println("DbMockup - countPlayers success"); 
+        return playersStartingWith(prefix).size();
+    }
+
+    private List<Player> playersStartingWith(String prefix){
+        String lowerPrefix = prefix.toLowerCase();
+        List<Player> list = new ArrayList<Player>();
+        for (Player player : this.players) {
+            if (player.getNickName().toLowerCase().startsWith(lowerPrefix)) {
+                list.add(player);
+            }
+        }
+        list.sort((a, b) -> a.getNickName().compareToIgnoreCase(b.getNickName()));
+        return list;
+    }
+
     /**
      * Retrieves a list of top players.
      *
@@ -53,6 +103,133 @@ public class DbMockup implements DbInterface{
         return this.topPlayers;
     }
 
+    /**
+     * Retrieves the rank of a player among all the players.
+     *
+     * @param _player The player.
+     * @return The rank of the player.
+     */
+    @Override
+    public int getPlayerRank(Player _player){
+        int rank = 1;
+        for (Player player : this.players) {
+            if (player.getScore() > _player.getScore()) {
+                rank++;
+            }
+        }
+        System.out.println("DbMockup - getPlayerRank success"); 
+        return rank;
+    }
+
+    /**
+     * Retrieves the best players of a game in the current window of a period.
+     *
+     * @param _game The game.
+     * @param _period The period.
+     * @param _limit The number of players.
+     * @return The standings, best first.
+     */
+    @Override
+    public List<Standing> getTopStandings(Game _game, LeaderboardPeriod _period, int _limit){
+        List<Standing> list = sortedStandings(_game, _period);
+        System.out.println("DbMockup - getTopStandings success"); 
+        return new ArrayList<Standing>(list.subList(0, Math.min(_limit, list.size())));
+    }
+
+    /**
+     * Retrieves the rank of a player in a game in the current window of a period.
+     *
+     * @param _player The player.
+     * @param _game The game.
+     * @param _period The period.
+     * @return The rank of the player, -1 if they played no match of the game in the window.
+     */
+    @Override
+    public int getPlayerRank(Player _player, Game _game, LeaderboardPeriod _period){
+        System.out.println("DbMockup - getPlayerRank success"); 
+        for (Standing standing : sortedStandings(_game, _period)) {
+            if (standing.getPlayer().getId() == _player.getId()) {
+                return standing.getRank();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves a player and the players ranked just above and below them.
+     *
+     * @param _player The player.
+     * @param _game The game.
+     * @param _period The period.
+     * @param _radius The number of players above and below.
+     * @return The standings, best first.
+     */
+    @Override
+    public List<Standing> getStandingsAround(Player _player, Game _game, LeaderboardPeriod _period, int _radius){
+        List<Standing> list = sortedStandings(_game, _period);
+        System.out.println("DbMockup - getStandingsAround success"); 
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).getPlayer().getId() == _player.getId()) {
+                return new ArrayList<Standing>(list.subList(Math.max(0, i - _radius), Math.min(list.size(), i + _radius + 1)));
+            }
+        }
+        return new ArrayList<Standing>();
+    }
+
+    /**
+     * Ranks the results of the matches informed.
+     */
+    private List<Standing> sortedStandings(Game _game, LeaderboardPeriod _period){
+        return standings.standingsOf(_game.getId(), _period.currentKey(), matchPlayers);
+    }
+
+    /**
+     * Retrieves a page of the match history, newest first.
+     *
+     * @param _filter The matches selected.
+     * @param _after The last match of the previous page, null for the first page.
+     * @param _limit The maximum number of matches returned.
+     * @return The matches of the page, newest first.
+     */
+    @Override
+    public List<Match> getMatches(MatchFilter _filter, Match _after, int _limit){
+        List<Match> list = new ArrayList<Match>();
+        // The matches are informed in (date, ID) order: read them backwards
+        for (int i = this.matches.size() - 1; i >= 0 && list.size() < _limit; i--) {
+            Match match = this.matches.get(i);
+            if (_filter.matches(match) && (_after == null || isBefore(match, _after))) {
+                list.add(match);
+            }
+        }
+        System.out.println("DbMockup - getMatches success"); 
+        return list;
+    }
+
+    /**
+     * Retrieves the move log of a match.
+     *
+     * @param _match The match.
+     * @return The moves in the order played, null if not recorded.
+     */
+    @Override
+    public byte[] getMatchMoves(Match _match){
+        System.out.println("DbMockup - getMatchMoves success"); 
+        for (Match match : this.matches) {
+            if (match.getId() == _match.getId()) {
+                return match.getMoves();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if a match comes before another in (date, ID) order
+     */
+    private static boolean isBefore(Match a, Match b){
+        int byDate = a.getDate().compareTo(b.getDate());
+        return byDate != 0 ? byDate < 0 : a.getId() < b.getId();
+    }
+
     /**
      * Retrieves a list of games.
      *
@@ -129,6 +306,20 @@ public class DbMockup implements DbInterface{
         return updated; // Simulate update of a new player with a random ID    
     }
 
+    /**
+     * Adds points to the score of a player.
+     *
+     * @param _player The player whose score changes.
+     * @param _delta The points to add, negative to remove.
+     * @return The player with the new score.
+     */
+    @Override
+    public Player addPlayerScore(Player _player, int _delta){
+        _player.setScore(Math.max(0, _player.getScore() + _delta));
+        System.out.println("DbMockup - addPlayerScore:" + _player.dbgMeAsStr()); 
+        return _player;
+    }
+
     /**
      * Informs the result of a match.
      *
@@ -137,14 +328,19 @@ public class DbMockup implements DbInterface{
      * @param _game The game being played.
      * @param _matchScorePlayer1 The score of the first player.
      * @param _matchScorePlayer2 The score of the second player.
+     * @param _moves The moves in the order played, null if not recorded.
      * @return The match with the results.
      */
     @Override
-    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2){
+    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2, byte[] _moves){
         // Simulate creation of a match in db
-        Match match = new Match(_player1, _player2, _game, (int)(Math.random() * 100)); // Simulate creation of a new match with a random ID
-        match.setScorePlayer1(_matchScorePlayer1);
-        match.setScorePlayer2(_matchScorePlayer2);
+        LocalDateTime now = LocalDateTime.now();
+        Match match = new Match(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, now, this.matches.size() + 1); // Simulate creation of a new match with the next ID
+        match.setMoves(_moves);
+        this.matches.add(match);
+        standings.addMatch(_game.getId(), now, _player1.getId(), _player2.getId(), _matchScorePlayer1, _matchScorePlayer2);
+        matchPlayers.put(_player1.getId(), _player1);
+        matchPlayers.put(_player2.getId(), _player2);
         System.out.println("DbMockup - informMatchResult match:" + match.dbgMeAsStr()); 
         return match;
     }
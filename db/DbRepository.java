@@ -1,12 +1,16 @@
 package db;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Iterator;
 
 import model.Player;
 import model.Game;
 import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+import model.Standing;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -14,22 +18,67 @@ import java.util.List;
 
 import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
-import javax.swing.JOptionPane;
+import javax.sql.DataSource;
 
 /**
  * Handles database operations.
  */
 public class DbRepository implements DbInterface {
-    private Connection connection;
+    private static final int TOP_PLAYERS = 10; // Players of getTopPlayers()
+    public static final long PLAYERS_REFRESH_MILLIS = 30000; // Age of the players read after which they are read again
+    private static final String STANDING_SELECT = "SELECT s.`PLAYER`, p.`NAME`, p.`SCORE`, s.`WINS`, s.`DRAWS`, s.`LOSSES`"
+        + " FROM `GAME_STANDING` s JOIN `Player` p ON p.`ID` = s.`PLAYER` WHERE s.`GAME` = ? AND s.`PERIOD` = ?";
+
+    private final DataSource dataSource; // Lends a connection to every operation
+    private final IdGenerator idGenerator; // IDs of the new rows
+    private MatchResultWriter matchResultWriter; // Write-behind of the scores and matches, null to write at once
+    private DbErrorListener errorListener; // Notified of the database errors, null to print them
+    private final Leaderboard leaderboard = new Leaderboard(); // Ranking of the players, kept up to date by the score changes
+    private final PlayerNameIndex nameIndex = new PlayerNameIndex(); // Sorted names of the players, for the prefix searches
+    private final Object playersLoadLock = new Object(); // Guards the reads of the players and the local changes of the index
+    private volatile boolean playersLoaded; // Every player of the table read into the leaderboard and the name index
+    private volatile long playersReadAt;    // System.nanoTime() of the last read of the players
+
+    /**
+     * Constructs a DbRepository on a source of connections, usually a ConnectionPool.
+     * Every operation borrows a connection and returns it when done.
+     *
+     * @param dataSource the source of the database connections
+     */
+    public DbRepository(DataSource dataSource) {
+        this(dataSource, IdGenerator.fromSystemProperty());
+    }
+
+    /**
+     * Constructs a DbRepository on a source of connections, with the generator of the new IDs.
+     *
+     * @param dataSource the source of the database connections
+     * @param idGenerator the generator of the IDs, with a node id unique among the processes sharing the database
+     */
+    public DbRepository(DataSource dataSource, IdGenerator idGenerator) {
+        this.dataSource = dataSource;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Sets the listener notified of the database errors.
+     *
+     * @param _errorListener the listener, null to print the errors on the standard error
+     */
+    public void setErrorListener(DbErrorListener _errorListener) {
+        this.errorListener = _errorListener;
+    }
 
     /**
-     * Constructs a DbRepository with the specified database connection.
+     * Sets the write-behind pipeline of the scores and match results.
+     * updatePlayerScore and informMatchResult then queue their writes and return at once.
      *
-     * @param connection the database connection
+     * @param _matchResultWriter the writer, null to write at once
      */
-    public DbRepository(Connection connection) {
-        this.connection = connection;
+    public void setMatchResultWriter(MatchResultWriter _matchResultWriter) {
+        this.matchResultWriter = _matchResultWriter;
     }
 
     /**
@@ -40,9 +89,72 @@ public class DbRepository implements DbInterface {
      */
     @Override
     public List<Player> getPlayers(String prefix) {
-        String query = "SELECT `ID`, `NAME`, `SCORE` FROM `Player` WHERE `NAME` LIKE ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, prefix + "%");
+        return getPlayers(prefix, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieves a page of the players whose names start with the prefix, any case, sorted by name.
+     * Served by the name index, read from the table on the first call and
+     * again every PLAYERS_REFRESH_MILLIS; by a LIKE query on the table while
+     * it cannot be read.
+     *
+     * @param prefix the prefix to search for
+     * @param offset the number of players skipped
+     * @param limit the maximum number of players returned
+     * @return the players of the page
+     */
+    @Override
+    public List<Player> getPlayers(String prefix, int offset, int limit) {
+        try {
+            loadPlayers();
+        } catch (SQLException e) {
+            return findPlayers(prefix, offset, limit);
+        }
+        PlayerNameIndex.Page page = nameIndex.find(prefix, offset, limit);
+        List<Player> players = new ArrayList<>(page.ids.length);
+        for (int i = 0; i < page.ids.length; i++) {
+            players.add(new Player(page.names[i], leaderboard.scoreOf(page.ids[i]), page.ids[i]));
+        }
+        return players;
+    }
+
+    /**
+     * Counts the players whose names start with the prefix, any case.
+     *
+     * @param prefix the prefix to search for
+     * @return the number of players matching the prefix, -1 on database error
+     */
+    @Override
+    public int countPlayers(String prefix) {
+        try {
+            loadPlayers();
+            return nameIndex.count(prefix);
+        } catch (SQLException e) {
+            // Read from the table
+        }
+        String query = "SELECT COUNT(*) FROM `Player` WHERE `NAME` LIKE ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setString(1, likePrefix(prefix));
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            handleException(e);
+            return -1;
+        }
+    }
+
+    /**
+     * Reads a page of the players with a prefix from the table.
+     */
+    private List<Player> findPlayers(String prefix, int offset, int limit) {
+        String query = "SELECT `ID`, `NAME`, `SCORE` FROM `Player` WHERE `NAME` LIKE ? ORDER BY `NAME`, `ID` LIMIT ? OFFSET ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setString(1, likePrefix(prefix));
+            stmt.setInt(2, limit);
+            stmt.setInt(3, offset);
             ResultSet rs = stmt.executeQuery();
             List<Player> players = new ArrayList<>();
             while (rs.next()) {
@@ -57,25 +169,265 @@ public class DbRepository implements DbInterface {
 
     /**
      * Retrieves a list of the top 10 players ordered by score in descending order.
+     * Served by the leaderboard, read from the table on the first call, and
+     * for the players created elsewhere every PLAYERS_REFRESH_MILLIS.
      *
      * @return a list of the top 10 players
      */
     @Override
     public List<Player> getTopPlayers() {
-        String query = "SELECT `ID`, `NAME`, `SCORE` FROM `Player` ORDER BY `SCORE` DESC LIMIT 10";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            ResultSet rs = stmt.executeQuery();
-            List<Player> players = new ArrayList<>();
-            while (rs.next()) {
-                players.add(new Player(rs.getString("NAME"), rs.getInt("SCORE"), rs.getLong("ID")));
+        try {
+            loadPlayers();
+        } catch (SQLException e) {
+            handleException(e);
+            return new ArrayList<>();
+        }
+        return leaderboard.top(TOP_PLAYERS);
+    }
+
+    /**
+     * Retrieves the rank of a player, 1 + the number of players with a higher score.
+     *
+     * @param _player the player
+     * @return the rank of the player, -1 on database error
+     */
+    @Override
+    public int getPlayerRank(Player _player) {
+        try {
+            loadPlayers();
+        } catch (SQLException e) {
+            handleException(e);
+            return -1;
+        }
+        int rank = leaderboard.rankOf(_player.getId());
+        return rank > 0 ? rank : leaderboard.rankOfScore(_player.getScore());
+    }
+
+    /**
+     * Retrieves the best players of a game over a period, from the GAME_STANDING aggregates.
+     *
+     * @param _game the game
+     * @param _period the period, the current window of it
+     * @param _limit the number of players
+     * @return the standings, best first
+     */
+    @Override
+    public List<Standing> getTopStandings(Game _game, LeaderboardPeriod _period, int _limit) {
+        String query = STANDING_SELECT + " ORDER BY s.`POINTS` DESC, s.`PLAYER` LIMIT ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setLong(1, _game.getId());
+            stmt.setString(2, _period.currentKey());
+            stmt.setInt(3, _limit);
+            return rank(readStandings(stmt.executeQuery()), 1, 1);
+        } catch (SQLException e) {
+            handleException(e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves the rank of a player in a game over a period: 1 + the players with more points.
+     *
+     * @param _player the player
+     * @param _game the game
+     * @param _period the period, the current window of it
+     * @return the rank, -1 if the player has no match in the period or on database error
+     */
+    @Override
+    public int getPlayerRank(Player _player, Game _game, LeaderboardPeriod _period) {
+        try (Connection connection = dataSource.getConnection()) {
+            int points = pointsOf(connection, _player, _game, _period);
+            return points < 0 ? -1 : countAbove(connection, _game, _period, points, -1) + 1;
+        } catch (SQLException e) {
+            handleException(e);
+            return -1;
+        }
+    }
+
+    /**
+     * Retrieves a player and their neighbours in the leaderboard of a game over a period.
+     * Walks the (GAME, PERIOD, POINTS, PLAYER) index from the player in both directions:
+     * no row before the window is read, however low the player ranks.
+     *
+     * @param _player the player
+     * @param _game the game
+     * @param _period the period, the current window of it
+     * @param _radius the players shown above and below
+     * @return the standings, best first, empty if the player has no match in the period
+     */
+    @Override
+    public List<Standing> getStandingsAround(Player _player, Game _game, LeaderboardPeriod _period, int _radius) {
+        String above = STANDING_SELECT + " AND (s.`POINTS` > ? OR (s.`POINTS` = ? AND s.`PLAYER` < ?))"
+            + " ORDER BY s.`POINTS` ASC, s.`PLAYER` DESC LIMIT ?";
+        String fromPlayer = STANDING_SELECT + " AND (s.`POINTS` < ? OR (s.`POINTS` = ? AND s.`PLAYER` >= ?))"
+            + " ORDER BY s.`POINTS` DESC, s.`PLAYER` LIMIT ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement aboveStmt = connection.prepareStatement(above);
+             PreparedStatement fromStmt = connection.prepareStatement(fromPlayer)) {
+            int points = pointsOf(connection, _player, _game, _period);
+            if (points < 0) {
+                return new ArrayList<>();
             }
-            return players;
+            setAround(aboveStmt, _player, _game, _period, points, _radius);
+            List<Standing> standings = readStandings(aboveStmt.executeQuery());
+            Collections.reverse(standings);
+            int playerIndex = standings.size();
+            setAround(fromStmt, _player, _game, _period, points, _radius + 1);
+            standings.addAll(readStandings(fromStmt.executeQuery()));
+            // Position of the first row in the order of the leaderboard, and its rank: the players with more points + 1
+            int firstPosition = countAbove(connection, _game, _period, points, _player.getId()) + 1 - playerIndex;
+            int firstRank = countAbove(connection, _game, _period, standings.get(0).getPoints(), -1) + 1;
+            return rank(standings, firstRank, firstPosition);
         } catch (SQLException e) {
             handleException(e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Gets the points of a player in the current window of a period.
+     *
+     * @return the points, -1 if the player has no match in the window
+     */
+    private static int pointsOf(Connection connection, Player _player, Game _game, LeaderboardPeriod _period) throws SQLException {
+        String query = "SELECT `POINTS` FROM `GAME_STANDING` WHERE `GAME` = ? AND `PERIOD` = ? AND `PLAYER` = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setLong(1, _game.getId());
+            stmt.setString(2, _period.currentKey());
+            stmt.setLong(3, _player.getId());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt("POINTS") : -1;
+        }
+    }
+
+    /**
+     * Counts the players before a score in the current window of a period, with a range of the index.
+     *
+     * @param points the points
+     * @param playerId also count the players with these points and a lower ID, -1 for the players with more points only
+     * @return the number of players
+     */
+    private static int countAbove(Connection connection, Game _game, LeaderboardPeriod _period, int points, long playerId) throws SQLException {
+        String query = "SELECT COUNT(*) FROM `GAME_STANDING` WHERE `GAME` = ? AND `PERIOD` = ?"
+            + " AND (`POINTS` > ? OR (`POINTS` = ? AND `PLAYER` < ?))";
+        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setLong(1, _game.getId());
+            stmt.setString(2, _period.currentKey());
+            stmt.setInt(3, points);
+            stmt.setInt(4, points);
+            stmt.setLong(5, playerId);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void setAround(PreparedStatement stmt, Player _player, Game _game, LeaderboardPeriod _period, int points, int limit) throws SQLException {
+        stmt.setLong(1, _game.getId());
+        stmt.setString(2, _period.currentKey());
+        stmt.setInt(3, points);
+        stmt.setInt(4, points);
+        stmt.setLong(5, _player.getId());
+        stmt.setInt(6, limit);
+    }
+
+    /**
+     * Reads the rows of a STANDING_SELECT query, without their rank.
+     */
+    private static List<Standing> readStandings(ResultSet rs) throws SQLException {
+        List<Standing> standings = new ArrayList<>();
+        while (rs.next()) {
+            Player player = new Player(rs.getString("NAME"), rs.getInt("SCORE"), rs.getLong("PLAYER"));
+            standings.add(new Standing(player, 0, rs.getInt("WINS"), rs.getInt("DRAWS"), rs.getInt("LOSSES")));
+        }
+        return standings;
+    }
+
+    /**
+     * Sets the ranks of consecutive standings: the same rank for the same points, else the position.
+     *
+     * @param standings the standings, best first
+     * @param firstRank the rank of the first one
+     * @param firstPosition the position of the first one in the leaderboard
+     * @return the ranked standings
+     */
+    private static List<Standing> rank(List<Standing> standings, int firstRank, int firstPosition) {
+        List<Standing> ranked = new ArrayList<>(standings.size());
+        int rank = firstRank;
+        for (int i = 0; i < standings.size(); i++) {
+            Standing standing = standings.get(i);
+            if (i > 0 && standing.getPoints() != standings.get(i - 1).getPoints()) {
+                rank = firstPosition + i;
+            }
+            ranked.add(new Standing(standing.getPlayer(), rank, standing.getWins(), standing.getDraws(), standing.getLosses()));
+        }
+        return ranked;
+    }
+
+    /**
+     * Reads every player into the leaderboard and the name index on the first
+     * call, then again once the read is PLAYERS_REFRESH_MILLIS old, so the
+     * players created or renamed by the other processes sharing the database
+     * show up in the searches within that time. The changes made through this
+     * repository update the index at once, under the same lock as the reads,
+     * so a read never brings back an older name. The scores of the players
+     * already ranked are not read again: this process keeps them up to date.
+     *
+     * @throws SQLException if the players could not be read the first time, to be retried on the next call
+     */
+    private void loadPlayers() throws SQLException {
+        if (playersLoaded && !isPlayersReadExpired()) {
+            return;
+        }
+        synchronized (playersLoadLock) {
+            boolean refresh = playersLoaded;
+            if (refresh && !isPlayersReadExpired()) {
+                return;
+            }
+            String query = "SELECT `ID`, `NAME`, `SCORE` FROM `Player`";
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(query)) {
+                ResultSet rs = stmt.executeQuery();
+                List<Long> ids = new ArrayList<>();
+                List<String> names = new ArrayList<>();
+                while (rs.next()) {
+                    // Scores changed during the read are already in the leaderboard and newer
+                    leaderboard.putIfAbsent(rs.getLong("ID"), rs.getString("NAME"), rs.getInt("SCORE"));
+                    leaderboard.rename(rs.getLong("ID"), rs.getString("NAME"));
+                    ids.add(rs.getLong("ID"));
+                    names.add(rs.getString("NAME"));
+                }
+                long[] idArray = new long[ids.size()];
+                for (int i = 0; i < idArray.length; i++) {
+                    idArray[i] = ids.get(i);
+                }
+                nameIndex.replaceAll(idArray, names.toArray(new String[0]));
+                playersLoaded = true;
+            } catch (SQLException e) {
+                if (!refresh) {
+                    throw e;
+                }
+                System.err.println("DbRepository - Players not read again, the index read before is kept: " + e.getMessage());
+            }
+            playersReadAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return true if the players were read PLAYERS_REFRESH_MILLIS ago or more
+     */
+    private boolean isPlayersReadExpired() {
+        return System.nanoTime() - playersReadAt >= PLAYERS_REFRESH_MILLIS * 1000000L;
+    }
+
+    /**
+     * @return the LIKE pattern of the names starting with the prefix, its wildcards escaped
+     */
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
     /**
      * Retrieves a list of all games.
      *
@@ -84,7 +436,8 @@ public class DbRepository implements DbInterface {
     @Override
     public List<Game> getGames() {
         String query = "SELECT `ID`, `NAME` FROM `GAME`";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             ResultSet rs = stmt.executeQuery();
             List<Game> games = new ArrayList<>();
             while (rs.next()) {
@@ -107,11 +460,16 @@ public class DbRepository implements DbInterface {
     @Override
     public Player createPlayer(String _nickName) throws Exception {
         String query = "INSERT INTO `Player` (`ID`, `NAME`, `SCORE`) VALUES (?, ?, 0)";
-        try (PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             long newId = generateNewId();
             stmt.setLong(1, newId);
             stmt.setString(2, _nickName);
             stmt.executeUpdate();
+            synchronized (playersLoadLock) {
+                leaderboard.update(newId, _nickName, 0);
+                nameIndex.put(newId, _nickName);
+            }
             return new Player(_nickName, 0, newId);
         } catch(SQLIntegrityConstraintViolationException e) {
             throw new Exception("constraint nickName unique violated");      
@@ -132,11 +490,16 @@ public class DbRepository implements DbInterface {
     @Override
     public Player renamePlayer(Player _plyr, String _nickName) throws Exception {
         String query = "UPDATE `Player` SET `NAME` = ? WHERE `ID` = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setString(1, _nickName);
             stmt.setLong(2, _plyr.getId());
             stmt.executeUpdate();
             _plyr.setNickName(_nickName);
+            synchronized (playersLoadLock) {
+                leaderboard.rename(_plyr.getId(), _nickName);
+                nameIndex.put(_plyr.getId(), _nickName);
+            }
             return _plyr;
         } catch(SQLIntegrityConstraintViolationException e) {
             throw new Exception("constraint nickName unique violated");      
@@ -155,12 +518,68 @@ public class DbRepository implements DbInterface {
      */
     @Override
     public Player updatePlayerScore(Player _player, int _score) {
+        if (matchResultWriter != null) {
+            try {
+                matchResultWriter.setScore(_player.getId(), _score); // The score set, whatever the score of _player
+                _player.setScore(_score);
+                leaderboard.update(_player.getId(), _player.getNickName(), _score);
+                return _player;
+            } catch (IllegalStateException e) {
+                handleException(new SQLException(e.getMessage(), e));
+                return null;
+            }
+        }
         String query = "UPDATE `Player` SET `SCORE` = ? WHERE `ID` = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
             stmt.setInt(1, _score);
             stmt.setLong(2, _player.getId());
             stmt.executeUpdate();
             _player.setScore(_score);
+            leaderboard.update(_player.getId(), _player.getNickName(), _score);
+            return _player;
+        } catch (SQLException e) {
+            handleException(e);
+            return null;
+        }
+    }
+
+    /**
+     * Adds points to the score of a player with SCORE = SCORE + ?, never below 0.
+     * With a MatchResultWriter the delta is summed with the other pending ones of the player
+     * and written on the next flush.
+     *
+     * @param _player the player whose score changes
+     * @param _delta the points to add, negative to remove
+     * @return the player with the expected new score
+     */
+    @Override
+    public Player addPlayerScore(Player _player, int _delta) {
+        if (matchResultWriter != null) {
+            try {
+                matchResultWriter.addScore(_player.getId(), _delta);
+                _player.setScore(Math.max(0, _player.getScore() + _delta));
+                leaderboard.update(_player.getId(), _player.getNickName(), _player.getScore());
+                return _player;
+            } catch (IllegalStateException e) {
+                handleException(new SQLException(e.getMessage(), e));
+                return null;
+            }
+        }
+        String query = "UPDATE `Player` SET `SCORE` = GREATEST(`SCORE` + ?, 0) WHERE `ID` = ?";
+        String select = "SELECT `SCORE` FROM `Player` WHERE `ID` = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query);
+             PreparedStatement selectStmt = connection.prepareStatement(select)) {
+            stmt.setInt(1, _delta);
+            stmt.setLong(2, _player.getId());
+            stmt.executeUpdate();
+            selectStmt.setLong(1, _player.getId());
+            ResultSet rs = selectStmt.executeQuery();
+            if (rs.next()) {
+                _player.setScore(rs.getInt("SCORE")); // Includes the points added by the other instances
+            }
+            leaderboard.update(_player.getId(), _player.getNickName(), _player.getScore());
             return _player;
         } catch (SQLException e) {
             handleException(e);
@@ -168,6 +587,60 @@ public class DbRepository implements DbInterface {
         }
     }
 
+    /**
+     * Retrieves a page of the match history, newest first, by seek on (DATE, ID).
+     * The matches still queued in a MatchResultWriter are not read.
+     *
+     * @param _filter the matches selected
+     * @param _after the last match of the previous page, null for the first page
+     * @param _limit the maximum number of matches
+     * @return the matches of the page
+     */
+    @Override
+    public List<Match> getMatches(MatchFilter _filter, Match _after, int _limit) {
+        MatchHistoryQuery query = new MatchHistoryQuery(_filter, _after, _limit);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query.sql())) {
+            query.bind(stmt);
+            return MatchHistoryQuery.read(stmt.executeQuery());
+        } catch (SQLException e) {
+            handleException(e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves the move log of a match. A match just informed may still be
+     * queued in the write-behind pipeline: only then is the queue flushed first.
+     *
+     * @param _match the match
+     * @return the move log, null if not recorded or on database error
+     */
+    @Override
+    public byte[] getMatchMoves(Match _match) {
+        if (matchResultWriter != null && matchResultWriter.isPending(_match.getId())) {
+            try {
+                matchResultWriter.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (IllegalStateException e) {
+                // Closed or queue full: read what is written
+            }
+        }
+        String query = "SELECT `MOVES` FROM `MATCH` WHERE `ID` = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setLong(1, _match.getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        } catch (SQLException e) {
+            handleException(e);
+            return null;
+        }
+    }
+
     /**
      * Records the result of a match between two players.
      *
@@ -176,23 +649,52 @@ public class DbRepository implements DbInterface {
      * @param _game the game played
      * @param _matchScorePlayer1 the score of the first player
      * @param _matchScorePlayer2 the score of the second player
+     * @param _moves the move log of the match, null if not recorded
      * @return the recorded match
      */
     @Override
-    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2) {
-        String query = "INSERT INTO `MATCH` (`ID`, `DATE`, `PLAYER1`, `PLAYER2`, `GAME`, `scorePlayer1`, `scorePlayer2`) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2, byte[] _moves) {
+        if (matchResultWriter != null) {
+            try {
+                long newId = generateNewId();
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS); // As stored in DATE
+                matchResultWriter.writeMatch(newId, now, _player1.getId(), _player2.getId(), _game.getId(), _matchScorePlayer1, _matchScorePlayer2, _moves);
+                Match match = new Match(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, now, newId);
+                match.setMoves(_moves);
+                return match;
+            } catch (IllegalStateException e) {
+                handleException(new SQLException(e.getMessage(), e));
+                return null;
+            }
+        }
+        String query = "INSERT INTO `MATCH` (`ID`, `DATE`, `PLAYER1`, `PLAYER2`, `GAME`, `scorePlayer1`, `scorePlayer2`, `MOVES`) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection connection = dataSource.getConnection()) {
             long newId = generateNewId();
-            LocalDateTime now = LocalDateTime.now();
-            stmt.setLong(1, newId);
-            stmt.setTimestamp(2, Timestamp.valueOf(now));
-            stmt.setLong(3, _player1.getId());
-            stmt.setLong(4, _player2.getId());
-            stmt.setLong(5, _game.getId());
-            stmt.setInt(6, _matchScorePlayer1);
-            stmt.setInt(7, _matchScorePlayer2);
-            stmt.executeUpdate();
-            return new Match(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, now, newId);
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS); // As stored in DATE
+            GameStandings standings = new GameStandings();
+            standings.addMatch(_game.getId(), now, _player1.getId(), _player2.getId(), _matchScorePlayer1, _matchScorePlayer2);
+            connection.setAutoCommit(false); // The match and its GAME_STANDING rows together
+            try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                stmt.setLong(1, newId);
+                stmt.setTimestamp(2, Timestamp.valueOf(now));
+                stmt.setLong(3, _player1.getId());
+                stmt.setLong(4, _player2.getId());
+                stmt.setLong(5, _game.getId());
+                stmt.setInt(6, _matchScorePlayer1);
+                stmt.setInt(7, _matchScorePlayer2);
+                stmt.setBytes(8, _moves);
+                stmt.executeUpdate();
+                standings.write(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            Match match = new Match(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, now, newId);
+            match.setMoves(_moves);
+            return match;
         } catch (SQLException e) {
             handleException(e);
             return null;
@@ -205,17 +707,19 @@ public class DbRepository implements DbInterface {
      * @return a new unique ID
      */
     private long generateNewId() {
-        // Implement a method to generate a new unique ID
-        return System.currentTimeMillis(); // Example implementation
+        return idGenerator.nextId();
     }
 
     /**
-     * Handles SQL exceptions by showing a Java notification using Swing.
+     * Handles SQL exceptions by notifying the error listener.
      *
      * @param e the SQL exception to handle
      */
     private void handleException(SQLException e) {
-        // Show a Java notification using Swing
-        JOptionPane.showMessageDialog(null, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        if (errorListener != null) {
+            errorListener.onDbError(e);
+        } else {
+            System.err.println("Database error: " + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,161 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import model.LeaderboardPeriod;
+import model.Player;
+import model.Standing;
+
+/**
+ * Changes of the GAME_STANDING aggregate table for a set of matches.
+ *
+ * A match adds a win, draw or loss to both players in the row of its game
+ * for every LeaderboardPeriod window containing its date. The changes are
+ * summed per row, then written as one batch of upserts
+ * (WINS = WINS + ?, ...), in the same transaction as the MATCH inserts, so
+ * the per-game leaderboards never need a scan of MATCH.
+ *
+ * Not thread-safe.
+ */
+class GameStandings {
+    static final String UPSERT = "INSERT INTO `GAME_STANDING` (`GAME`, `PERIOD`, `PLAYER`, `WINS`, `DRAWS`, `LOSSES`, `POINTS`)"
+        + " VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE `WINS` = `WINS` + VALUES(`WINS`),"
+        + " `DRAWS` = `DRAWS` + VALUES(`DRAWS`), `LOSSES` = `LOSSES` + VALUES(`LOSSES`), `POINTS` = `POINTS` + VALUES(`POINTS`)";
+
+    private static final int WINS = 0;
+    private static final int DRAWS = 1;
+    private static final int LOSSES = 2;
+
+    private final TreeMap<Key, int[]> rows = new TreeMap<>(); // Sorted: same lock order in every transaction
+
+    /**
+     * Adds the result of a match.
+     *
+     * @param gameId the ID of the game
+     * @param date the date of the match
+     * @param player1Id the ID of the first player
+     * @param player2Id the ID of the second player
+     * @param scorePlayer1 the match score of the first player
+     * @param scorePlayer2 the match score of the second player
+     */
+    void addMatch(long gameId, LocalDateTime date, long player1Id, long player2Id, int scorePlayer1, int scorePlayer2) {
+        int result1 = scorePlayer1 > scorePlayer2 ? WINS : scorePlayer1 == scorePlayer2 ? DRAWS : LOSSES;
+        int result2 = result1 == DRAWS ? DRAWS : WINS + LOSSES - result1;
+        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+            String key = period.keyOf(date.toLocalDate());
+            rows.computeIfAbsent(new Key(gameId, key, player1Id), k -> new int[3])[result1]++;
+            rows.computeIfAbsent(new Key(gameId, key, player2Id), k -> new int[3])[result2]++;
+        }
+    }
+
+    boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    /**
+     * @return the rows changed
+     */
+    int size() {
+        return rows.size();
+    }
+
+    /**
+     * Gets the results summed in one window of a game.
+     *
+     * @param gameId the ID of the game
+     * @param period the key of the window
+     * @return player ID -> {wins, draws, losses}
+     */
+    Map<Long, int[]> rowsOf(long gameId, String period) {
+        Map<Long, int[]> results = new HashMap<>();
+        for (Map.Entry<Key, int[]> row : rows.entrySet()) {
+            if (row.getKey().gameId == gameId && row.getKey().period.equals(period)) {
+                results.put(row.getKey().playerId, row.getValue().clone());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Ranks the results summed in one window of a game: most points first,
+     * then lowest player ID; the same rank for the same points.
+     *
+     * @param gameId the ID of the game
+     * @param period the key of the window
+     * @param players player ID -> player
+     * @return the standings, best first
+     */
+    List<Standing> standingsOf(long gameId, String period, Map<Long, Player> players) {
+        List<Standing> list = new ArrayList<>();
+        for (Map.Entry<Long, int[]> row : rowsOf(gameId, period).entrySet()) {
+            int[] results = row.getValue();
+            list.add(new Standing(players.get(row.getKey()), 0, results[WINS], results[DRAWS], results[LOSSES]));
+        }
+        list.sort((a, b) -> a.getPoints() != b.getPoints() ? b.getPoints() - a.getPoints() : Long.compare(a.getPlayer().getId(), b.getPlayer().getId()));
+        List<Standing> ranked = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            Standing standing = list.get(i);
+            int rank = i > 0 && standing.getPoints() == list.get(i - 1).getPoints() ? ranked.get(i - 1).getRank() : i + 1;
+            ranked.add(new Standing(standing.getPlayer(), rank, standing.getWins(), standing.getDraws(), standing.getLosses()));
+        }
+        return ranked;
+    }
+
+    /**
+     * Writes the changes as one batch, in the transaction of the connection.
+     *
+     * @param connection the connection
+     * @throws SQLException if the batch fails
+     */
+    void write(Connection connection) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(UPSERT)) {
+            for (Map.Entry<Key, int[]> row : rows.entrySet()) {
+                int[] results = row.getValue();
+                stmt.setLong(1, row.getKey().gameId);
+                stmt.setString(2, row.getKey().period);
+                stmt.setLong(3, row.getKey().playerId);
+                stmt.setInt(4, results[WINS]);
+                stmt.setInt(5, results[DRAWS]);
+                stmt.setInt(6, results[LOSSES]);
+                stmt.setInt(7, Standing.pointsOf(results[WINS], results[DRAWS]));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Primary key of a GAME_STANDING row.
+     */
+    private static class Key implements Comparable<Key> {
+        private final long gameId;
+        private final String period;
+        private final long playerId;
+
+        Key(long _gameId, String _period, long _playerId) {
+            this.gameId = _gameId;
+            this.period = _period;
+            this.playerId = _playerId;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            if (gameId != other.gameId) {
+                return Long.compare(gameId, other.gameId);
+            }
+            int byPeriod = period.compareTo(other.period);
+            return byPeriod != 0 ? byPeriod : Long.compare(playerId, other.playerId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package db;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import model.Game;
+import model.LeaderboardPeriod;
+import model.Player;
+import model.Standing;
+
+/**
+ * Unit tests for the GameStandings class and the per-game leaderboards of DbMockup.
+ */
+public class GameStandingsTest {
+    public static void main(String[] args) {
+        GameStandingsTest test = new GameStandingsTest();
+        test.testPeriodKeys();
+        test.testAddMatch();
+        test.testRanks();
+    }
+
+    public void testPeriodKeys() {
+        LocalDate date = LocalDate.of(2024, 12, 30); // Monday of the first ISO week of 2025
+        assert LeaderboardPeriod.ALL_TIME.keyOf(date).equals("ALL") : "testPeriodKeys failed, all time";
+        assert LeaderboardPeriod.MONTH.keyOf(date).equals("2024-12") : "testPeriodKeys failed, month";
+        assert LeaderboardPeriod.WEEK.keyOf(date).equals("2025-W01") : "testPeriodKeys failed, week " + LeaderboardPeriod.WEEK.keyOf(date);
+        System.out.println("testPeriodKeys passed");
+    }
+
+    public void testAddMatch() {
+        GameStandings standings = new GameStandings();
+        LocalDateTime date = LocalDateTime.of(2024, 7, 10, 12, 0);
+        standings.addMatch(2, date, 1, 2, 3, 0);
+        standings.addMatch(2, date, 2, 1, 1, 1);
+        standings.addMatch(2, date.plusMonths(1), 1, 2, 0, 1);
+        standings.addMatch(1, date, 1, 2, 1, 0);
+        // 2 games x 2 players x (1 all time + 2 months + 2 weeks for game 2, 3 windows for game 1)
+        assert standings.size() == 16 : "testAddMatch failed, " + standings.size() + " rows";
+        Map<Long, int[]> allTime = standings.rowsOf(2, "ALL");
+        assert allTime.get(1L)[0] == 1 && allTime.get(1L)[1] == 1 && allTime.get(1L)[2] == 1 : "testAddMatch failed, player 1";
+        Map<Long, int[]> july = standings.rowsOf(2, "2024-07");
+        assert july.get(2L)[0] == 0 && july.get(2L)[1] == 1 && july.get(2L)[2] == 1 : "testAddMatch failed, player 2 in July";
+        System.out.println("testAddMatch passed");
+    }
+
+    public void testRanks() {
+        DbMockup db = new DbMockup();
+        Game checkers = new Game("Checkers", 2);
+        Player[] players = new Player[5];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player("p" + i, i + 1);
+        }
+        db.informMatchResult(players[0], players[1], checkers, 1, 0, null);
+        db.informMatchResult(players[0], players[2], checkers, 1, 0, null);
+        db.informMatchResult(players[3], players[4], checkers, 1, 0, null);
+        db.informMatchResult(players[1], players[2], checkers, 1, 1, null);
+        // Points: p0 4, p3 2, p1 1, p2 1, p4 0
+        List<Standing> top = db.getTopStandings(checkers, LeaderboardPeriod.WEEK, 3);
+        assert top.size() == 3 && top.get(0).getPlayer().getId() == 1 && top.get(0).getPoints() == 4 : "testRanks failed, top";
+        assert db.getPlayerRank(players[2], checkers, LeaderboardPeriod.WEEK) == 3 : "testRanks failed, tie";
+        assert db.getPlayerRank(players[4], checkers, LeaderboardPeriod.ALL_TIME) == 5 : "testRanks failed, last";
+        assert db.getPlayerRank(players[0], new Game("Tic Tac Toe", 1), LeaderboardPeriod.WEEK) == -1 : "testRanks failed, other game";
+        List<Standing> around = db.getStandingsAround(players[1], checkers, LeaderboardPeriod.MONTH, 1);
+        assert around.size() == 3 && around.get(0).getRank() == 2 && around.get(2).getRank() == 3 : "testRanks failed, around";
+        System.out.println("testRanks passed");
+    }
+}
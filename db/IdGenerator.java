@@ -0,0 +1,152 @@
+package db;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style generator of unique 64-bit IDs, without database round-trip.
+ *
+ * An ID packs, from the high bits: 41 bits of milliseconds since EPOCH_MILLIS,
+ * NODE_BITS bits of node id and SEQUENCE_BITS bits of sequence within the
+ * millisecond. IDs of one generator are strictly increasing; generators with
+ * different node ids never collide.
+ *
+ * The last (timestamp, sequence) pair is one AtomicLong updated by
+ * compare-and-set, so nextId() is lock-free. When the sequence of a
+ * millisecond is exhausted it carries into the timestamp, borrowing the next
+ * millisecond instead of waiting for it, and a clock going backwards keeps
+ * counting from the last timestamp, so IDs stay unique.
+ */
+public class IdGenerator {
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final String NODE_ID_PROPERTY = "twoplayersgame.nodeId"; // System property of the node id
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeBits;            // Node id, shifted in place
+    private final LongSupplier clock;       // Milliseconds since the Unix epoch
+    private final AtomicLong last = new AtomicLong(); // (timestamp << SEQUENCE_BITS) | sequence of the last ID
+
+    /**
+     * Creates a generator for a node.
+     *
+     * @param nodeId the node id, unique among the processes writing to the database, 0 to MAX_NODE_ID
+     */
+    public IdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    IdGenerator(int nodeId, LongSupplier _clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = _clock;
+    }
+
+    /**
+     * Creates a generator for the node id of the NODE_ID_PROPERTY system property, 0 if not set.
+     *
+     * @return a new generator
+     */
+    public static IdGenerator fromSystemProperty() {
+        return new IdGenerator(Integer.getInteger(NODE_ID_PROPERTY, 0));
+    }
+
+    /**
+     * @return a new unique ID
+     */
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    /**
+     * Reserves consecutive IDs in one compare-and-set, for a writer inserting many rows.
+     *
+     * @param size the number of IDs, at least 1
+     * @return the block of IDs
+     */
+    public Block reserveBlock(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("block size must be at least 1: " + size);
+        }
+        return new Block(reserve(size), size);
+    }
+
+    /**
+     * @param id an ID of a generator
+     * @return the time the ID was generated, in milliseconds since the Unix epoch
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * @param id an ID of a generator
+     * @return the node id of the generator
+     */
+    public static int nodeIdOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    /**
+     * Advances the (timestamp, sequence) state by size.
+     *
+     * @return the first state reserved
+     */
+    private long reserve(int size) {
+        while (true) {
+            long previous = last.get();
+            long first = Math.max((clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS, previous + 1);
+            if (last.compareAndSet(previous, first + size - 1)) {
+                return first;
+            }
+        }
+    }
+
+    private long toId(long state) {
+        return (state >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (state & SEQUENCE_MASK);
+    }
+
+    /**
+     * IDs reserved by reserveBlock, handed out in increasing order.
+     * Not thread-safe: a block belongs to one writer.
+     */
+    public class Block {
+        private long next;      // Next state to hand out
+        private final long end; // State after the last one
+
+        private Block(long first, int size) {
+            this.next = first;
+            this.end = first + size;
+        }
+
+        /**
+         * @return true if the block still has IDs
+         */
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        /**
+         * @return the next ID of the block
+         * @throws IllegalStateException if the block is exhausted
+         */
+        public long nextId() {
+            if (next >= end) {
+                throw new IllegalStateException("ID block exhausted");
+            }
+            return toId(next++);
+        }
+
+        /**
+         * @return the number of IDs left
+         */
+        public int remaining() {
+            return (int) (end - next);
+        }
+    }
+}
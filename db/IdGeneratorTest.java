@@ -0,0 +1,122 @@
+package db;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the IdGenerator class.
+ */
+public class IdGeneratorTest {
+    public static void main(String[] args) {
+        IdGeneratorTest test = new IdGeneratorTest();
+        test.testIncreasing();
+        test.testFields();
+        test.testSequenceOverflow();
+        test.testClockBackwards();
+        test.testBlocks();
+        test.testConcurrentUnique();
+        test.testNodesDoNotCollide();
+    }
+
+    public void testIncreasing() {
+        IdGenerator generator = new IdGenerator(1);
+        long previous = generator.nextId();
+        for (int i = 0; i < 100000; i++) {
+            long id = generator.nextId();
+            assert id > previous : "testIncreasing failed at " + i;
+            previous = id;
+        }
+        System.out.println("testIncreasing passed");
+    }
+
+    public void testFields() {
+        long now = System.currentTimeMillis();
+        long id = new IdGenerator(37).nextId();
+        assert id > 0 : "testFields failed, negative id";
+        assert IdGenerator.nodeIdOf(id) == 37 : "testFields failed, node " + IdGenerator.nodeIdOf(id);
+        assert Math.abs(IdGenerator.timestampOf(id) - now) < 1000 : "testFields failed, timestamp";
+        System.out.println("testFields passed");
+    }
+
+    /**
+     * More IDs than the sequence holds in a frozen millisecond borrow the next milliseconds.
+     */
+    public void testSequenceOverflow() {
+        IdGenerator generator = new IdGenerator(0, () -> IdGenerator.EPOCH_MILLIS + 1000);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3 << IdGenerator.SEQUENCE_BITS; i++) {
+            assert ids.add(generator.nextId()) : "testSequenceOverflow failed, duplicate at " + i;
+        }
+        System.out.println("testSequenceOverflow passed");
+    }
+
+    public void testClockBackwards() {
+        AtomicLong time = new AtomicLong(IdGenerator.EPOCH_MILLIS + 5000);
+        IdGenerator generator = new IdGenerator(2, time::get);
+        long before = generator.nextId();
+        time.addAndGet(-2000);
+        long after = generator.nextId();
+        assert after > before : "testClockBackwards failed";
+        System.out.println("testClockBackwards passed");
+    }
+
+    public void testBlocks() {
+        IdGenerator generator = new IdGenerator(3);
+        IdGenerator.Block block = generator.reserveBlock(10000);
+        long single = generator.nextId();
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        while (block.hasNext()) {
+            long id = block.nextId();
+            assert id > previous && id < single : "testBlocks failed, order";
+            assert ids.add(id) : "testBlocks failed, duplicate";
+            previous = id;
+        }
+        assert ids.size() == 10000 && block.remaining() == 0 : "testBlocks failed, size " + ids.size();
+        System.out.println("testBlocks passed");
+    }
+
+    public void testConcurrentUnique() {
+        IdGenerator generator = new IdGenerator(4);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            boolean useBlocks = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (useBlocks) {
+                        IdGenerator.Block block = generator.reserveBlock(50);
+                        while (block.hasNext()) {
+                            ids.add(block.nextId());
+                        }
+                    } else {
+                        ids.add(generator.nextId());
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int expected = 2 * 500 * 50 + 2 * 500;
+        assert ids.size() == expected : "testConcurrentUnique failed, " + ids.size() + " unique of " + expected;
+        System.out.println("testConcurrentUnique passed");
+    }
+
+    public void testNodesDoNotCollide() {
+        IdGenerator first = new IdGenerator(5, () -> IdGenerator.EPOCH_MILLIS);
+        IdGenerator second = new IdGenerator(6, () -> IdGenerator.EPOCH_MILLIS);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assert ids.add(first.nextId()) && ids.add(second.nextId()) : "testNodesDoNotCollide failed";
+        }
+        System.out.println("testNodesDoNotCollide passed");
+    }
+}
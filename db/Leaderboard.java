@@ -0,0 +1,279 @@
+package db;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import model.Player;
+
+/**
+ * In-memory ranking of the players, by score descending then ID ascending.
+ *
+ * An indexable skip list: every link also stores how many players it skips,
+ * so the rank of a player and the number of players above a score are found
+ * in O(log n) like a lookup, and a score change is a remove and an insert in
+ * O(log n) instead of a sort of the whole table. The top N is the first N
+ * nodes of the bottom level.
+ *
+ * Thread-safe: every method locks the leaderboard.
+ */
+public class Leaderboard {
+    private static final int MAX_LEVEL = 24;       // Enough for 4^24 players
+    private static final int LEVEL_UP_ONE_IN = 4;  // A node of level i is also of level i+1 one time in 4
+
+    private final Node head = new Node(0, null, Integer.MAX_VALUE, MAX_LEVEL); // Before every player
+    private final Map<Long, Node> nodes = new HashMap<>(); // Player ID -> node
+    private final Random random;
+    private int level = 1;                          // Levels in use
+    private int size;                               // Players ranked
+
+    public Leaderboard() {
+        this(new Random());
+    }
+
+    /**
+     * @param _random the source of the node levels, seeded by the tests
+     */
+    Leaderboard(Random _random) {
+        this.random = _random;
+    }
+
+    /**
+     * Adds a player or moves them to their new score.
+     *
+     * @param playerId the ID of the player
+     * @param nickName the nickname of the player
+     * @param score the score of the player
+     */
+    public synchronized void update(long playerId, String nickName, int score) {
+        Node node = nodes.get(playerId);
+        if (node != null) {
+            node.nickName = nickName;
+            if (node.score == score) {
+                return;
+            }
+            unlink(node);
+        }
+        node = new Node(playerId, nickName, score, randomLevel());
+        nodes.put(playerId, node);
+        link(node);
+    }
+
+    /**
+     * Adds a player unless they are already ranked: a score loaded from the
+     * database does not overwrite a newer one set by update().
+     *
+     * @param playerId the ID of the player
+     * @param nickName the nickname of the player
+     * @param score the score of the player
+     */
+    public synchronized void putIfAbsent(long playerId, String nickName, int score) {
+        if (!nodes.containsKey(playerId)) {
+            update(playerId, nickName, score);
+        }
+    }
+
+    /**
+     * Changes the nickname of a ranked player.
+     *
+     * @param playerId the ID of the player
+     * @param nickName the new nickname
+     */
+    public synchronized void rename(long playerId, String nickName) {
+        Node node = nodes.get(playerId);
+        if (node != null) {
+            node.nickName = nickName;
+        }
+    }
+
+    /**
+     * @param playerId the ID of the player
+     */
+    public synchronized void remove(long playerId) {
+        Node node = nodes.remove(playerId);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * @param n the number of players
+     * @return copies of the n best players, best first
+     */
+    public synchronized List<Player> top(int n) {
+        List<Player> players = new ArrayList<>(Math.min(n, size));
+        for (Node x = head.next[0]; x != null && players.size() < n; x = x.next[0]) {
+            players.add(new Player(x.nickName, x.score, x.id));
+        }
+        return players;
+    }
+
+    /**
+     * @param playerId the ID of the player
+     * @return the score of the player, 0 if the player is not ranked
+     */
+    public synchronized int scoreOf(long playerId) {
+        Node node = nodes.get(playerId);
+        return node == null ? 0 : node.score;
+    }
+
+    /**
+     * Rank of a player, 1 for the best; players with the same score share the rank.
+     *
+     * @param playerId the ID of the player
+     * @return the rank, -1 if the player is not ranked
+     */
+    public synchronized int rankOf(long playerId) {
+        Node node = nodes.get(playerId);
+        return node == null ? -1 : rankOfScore(node.score);
+    }
+
+    /**
+     * Rank a player with this score would have: 1 + the number of players with a higher score.
+     *
+     * @param score the score
+     * @return the rank
+     */
+    public synchronized int rankOfScore(int score) {
+        int above = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].score > score) {
+                above += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return above + 1;
+    }
+
+    /**
+     * Position of a player in the order of the leaderboard, 1 for the first;
+     * unlike rankOf, ties are broken by ID.
+     *
+     * @param playerId the ID of the player
+     * @return the position, -1 if the player is not ranked
+     */
+    public synchronized int positionOf(long playerId) {
+        Node node = nodes.get(playerId);
+        if (node == null) {
+            return -1;
+        }
+        int position = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && !before(node, x.next[i])) {
+                position += x.span[i];
+                x = x.next[i];
+            }
+            if (x == node) {
+                return position;
+            }
+        }
+        return -1; // Not reached: the node is linked
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a node at its place, widening the links that jump over it.
+     */
+    private void link(Node node) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL]; // Position of update[i]
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && before(x.next[i], node)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = node.next.length;
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * Removes a node, merging the links around it.
+     */
+    private void unlink(Node node) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i], node)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    private int randomLevel() {
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && random.nextInt(LEVEL_UP_ONE_IN) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    /**
+     * @return true if a comes before b: higher score, or same score and lower ID
+     */
+    private static boolean before(Node a, Node b) {
+        if (a.score != b.score) {
+            return a.score > b.score;
+        }
+        return a.id < b.id;
+    }
+
+    /**
+     * A ranked player and its links.
+     */
+    private static class Node {
+        private final long id;
+        private String nickName;
+        private final int score;     // Fixed: a new score is a new node
+        private final Node[] next;   // Next node of every level
+        private final int[] span;    // Nodes skipped by next[i], the next one included
+
+        Node(long _id, String _nickName, int _score, int _level) {
+            this.id = _id;
+            this.nickName = _nickName;
+            this.score = _score;
+            this.next = new Node[_level];
+            this.span = new int[_level];
+        }
+    }
+}
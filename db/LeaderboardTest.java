@@ -0,0 +1,105 @@
+package db;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import model.Player;
+
+/**
+ * Unit tests for the Leaderboard class.
+ */
+public class LeaderboardTest {
+    public static void main(String[] args) {
+        LeaderboardTest test = new LeaderboardTest();
+        test.testTop();
+        test.testRanks();
+        test.testPutIfAbsent();
+        test.testAgainstSort();
+    }
+
+    public void testTop() {
+        Leaderboard leaderboard = new Leaderboard(new Random(1));
+        leaderboard.update(1, "Nicolas", 5);
+        leaderboard.update(2, "Robert", 9);
+        leaderboard.update(3, "Frank", 7);
+        leaderboard.update(1, "Nicolas", 10);
+        List<Player> top = leaderboard.top(2);
+        assert top.size() == 2 : "testTop failed, size " + top.size();
+        assert top.get(0).getId() == 1 && top.get(0).getScore() == 10 : "testTop failed, first " + top.get(0).dbgMeAsStr();
+        assert top.get(1).getId() == 2 : "testTop failed, second " + top.get(1).dbgMeAsStr();
+        leaderboard.rename(2, "Bob");
+        assert leaderboard.top(3).get(1).getNickName().equals("Bob") : "testTop failed, rename";
+        leaderboard.remove(1);
+        assert leaderboard.size() == 2 && leaderboard.top(1).get(0).getId() == 2 : "testTop failed, remove";
+        System.out.println("testTop passed");
+    }
+
+    public void testRanks() {
+        Leaderboard leaderboard = new Leaderboard(new Random(2));
+        leaderboard.update(10, "a", 3);
+        leaderboard.update(11, "b", 8);
+        leaderboard.update(12, "c", 3);
+        leaderboard.update(13, "d", 1);
+        assert leaderboard.rankOf(11) == 1 : "testRanks failed, best";
+        assert leaderboard.rankOf(10) == 2 && leaderboard.rankOf(12) == 2 : "testRanks failed, tie";
+        assert leaderboard.rankOf(13) == 4 : "testRanks failed, last";
+        assert leaderboard.positionOf(12) == 3 : "testRanks failed, position " + leaderboard.positionOf(12);
+        assert leaderboard.rankOfScore(100) == 1 && leaderboard.rankOfScore(0) == 5 : "testRanks failed, score";
+        assert leaderboard.rankOf(99) == -1 : "testRanks failed, unknown player";
+        System.out.println("testRanks passed");
+    }
+
+    public void testPutIfAbsent() {
+        Leaderboard leaderboard = new Leaderboard(new Random(3));
+        leaderboard.update(1, "Nicolas", 4);
+        leaderboard.putIfAbsent(1, "Nicolas", 2);
+        leaderboard.putIfAbsent(2, "Robert", 3);
+        assert leaderboard.top(1).get(0).getScore() == 4 : "testPutIfAbsent failed, overwritten";
+        assert leaderboard.size() == 2 : "testPutIfAbsent failed, size";
+        System.out.println("testPutIfAbsent passed");
+    }
+
+    /**
+     * Random score changes, checked against a sort of every player.
+     */
+    public void testAgainstSort() {
+        Random random = new Random(42);
+        Leaderboard leaderboard = new Leaderboard(new Random(4));
+        Map<Long, Integer> scores = new HashMap<>();
+        for (int step = 0; step < 20000; step++) {
+            long id = random.nextInt(500);
+            if (random.nextInt(10) == 0) {
+                leaderboard.remove(id);
+                scores.remove(id);
+            } else {
+                int score = random.nextInt(50);
+                leaderboard.update(id, "p" + id, score);
+                scores.put(id, score);
+            }
+            if (step % 1000 == 0) {
+                List<Long> sorted = new ArrayList<>(scores.keySet());
+                sorted.sort((a, b) -> scores.get(a).equals(scores.get(b)) ? Long.compare(a, b) : Integer.compare(scores.get(b), scores.get(a)));
+                assert leaderboard.size() == sorted.size() : "testAgainstSort failed, size at " + step;
+                List<Player> top = leaderboard.top(10);
+                for (int i = 0; i < top.size(); i++) {
+                    assert top.get(i).getId() == sorted.get(i) : "testAgainstSort failed, top at " + step;
+                }
+                for (int i = 0; i < sorted.size(); i++) {
+                    long player = sorted.get(i);
+                    assert leaderboard.positionOf(player) == i + 1 : "testAgainstSort failed, position at " + step;
+                    int above = 0;
+                    for (int score : scores.values()) {
+                        if (score > scores.get(player)) {
+                            above++;
+                        }
+                    }
+                    assert leaderboard.rankOf(player) == above + 1 : "testAgainstSort failed, rank at " + step;
+                }
+            }
+        }
+        System.out.println("testAgainstSort passed");
+    }
+}
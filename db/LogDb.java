@@ -0,0 +1,531 @@
+package db;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+import model.Standing;
+
+import db.MemoryTables.MatchRow;
+
+/**
+ * Embedded database: a DbInterface kept in memory and persisted to a
+ * RecordLog in a local directory, without any server.
+ *
+ * Every change is appended to the log as a record holding the new state of a
+ * player or game, or a match, then applied to the memory: hash maps by ID,
+ * and the same Leaderboard, PlayerNameIndex and GameStandings as
+ * DbRepository for the rankings and searches. Reads never touch the disk.
+ *
+ * A new state of a player makes its previous record dead. Once the dead
+ * records are at least compactMinDeadRecords and outnumber the live ones,
+ * the log is compacted: the live records are written to a new log, which
+ * atomically replaces the old one.
+ *
+ * A snapshot is the whole state written as records, with the position of the
+ * log it covers. It is taken after a compaction, every snapshotEveryRecords
+ * appends and on close(). Opening the database reads the snapshot then only
+ * the records appended after it; without a valid snapshot, the whole log.
+ *
+ * Compactions and snapshots rewrite the whole state, every match and move log
+ * included, and sync it to the disk. They run in the change crossing their
+ * threshold, holding the lock: that change, and every call waiting for the
+ * lock, pauses for the whole rewrite, longer as the database grows. An
+ * application that cannot afford the pause passes Integer.MAX_VALUE as both
+ * thresholds and calls compact() or snapshot() itself when idle.
+ * A compaction or snapshot failing in a change is reported to the error
+ * listener and the change still succeeds; it is tried again once its
+ * threshold is crossed again.
+ *
+ * Durability: the records are written to the operating system at once, so a
+ * crash of the process loses nothing. With syncWrites every append is also
+ * forced to the disk, surviving a power loss at the cost of a sync per change.
+ * A torn last record is detected by its checksum and dropped on open.
+ *
+ * Thread-safe: every method locks the database.
+ */
+public class LogDb implements DbInterface, Closeable {
+    public static final String LOG_FILE = "twoplayersgame.log";
+    public static final String SNAPSHOT_FILE = "twoplayersgame.snapshot";
+    public static final int DEFAULT_COMPACT_MIN_DEAD_RECORDS = 10000;
+    public static final int DEFAULT_SNAPSHOT_EVERY_RECORDS = 100000;
+    public static final int MAX_NAME_LENGTH = 45; // As the NAME columns of the tables
+
+    private static final int TOP_PLAYERS = 10; // Players of getTopPlayers()
+
+    private static final byte PLAYER = 1;       // ID, name, score
+    private static final byte GAME = 2;         // ID, name
+    private static final byte MATCH = 3;        // ID, date in epoch seconds (UTC), players, game, scores, move log
+    private static final byte SNAPSHOT_END = 4; // Position of the log covered, dead records of the log
+
+    private final Path logFile;
+    private final Path snapshotFile;
+    private final boolean syncWrites;
+    private final IdGenerator idGenerator;
+    private final int compactMinDeadRecords;
+    private final int snapshotEveryRecords;
+    private DbErrorListener errorListener; // Notified of the write errors, null to print them
+    private RecordLog log;
+    private int deadRecords;               // Records of the log superseded by a later one
+    private int compactDeadRecords;        // Dead records allowing the next compaction, raised after a failure
+    private int appendsSinceSnapshot;
+
+    private final Map<Long, Player> players = new HashMap<>();          // ID -> player, never handed out
+    private final Map<String, Long> playerIdsByName = new HashMap<>();  // Lowercase name -> ID, for the unique names
+    private final Map<Long, Game> games = new LinkedHashMap<>();        // ID -> game, in creation order
+    private final TreeSet<MatchRow> matches = new TreeSet<>(MemoryTables.MATCH_ORDER);  // By date then ID
+    private Leaderboard leaderboard = new Leaderboard();
+    private PlayerNameIndex nameIndex = new PlayerNameIndex();
+    private GameStandings standings = new GameStandings();
+
+    /**
+     * Opens or creates the database of a directory.
+     *
+     * @param _directory the directory of the files, created if missing
+     * @throws IOException if the files cannot be read or written
+     */
+    public LogDb(Path _directory) throws IOException {
+        this(_directory, false, IdGenerator.fromSystemProperty(), DEFAULT_COMPACT_MIN_DEAD_RECORDS, DEFAULT_SNAPSHOT_EVERY_RECORDS);
+    }
+
+    /**
+     * Opens or creates the database of a directory.
+     *
+     * @param _directory the directory of the files, created if missing
+     * @param _syncWrites true to force every change to the disk before returning
+     * @param _idGenerator the generator of the IDs of the new players and matches
+     * @param _compactMinDeadRecords the dead records allowing a compaction
+     * @param _snapshotEveryRecords the records appended between two snapshots
+     * @throws IOException if the files cannot be read or written
+     */
+    public LogDb(Path _directory, boolean _syncWrites, IdGenerator _idGenerator, int _compactMinDeadRecords, int _snapshotEveryRecords) throws IOException {
+        Files.createDirectories(_directory);
+        this.logFile = _directory.resolve(LOG_FILE);
+        this.snapshotFile = _directory.resolve(SNAPSHOT_FILE);
+        this.syncWrites = _syncWrites;
+        this.idGenerator = _idGenerator;
+        this.compactMinDeadRecords = _compactMinDeadRecords;
+        this.snapshotEveryRecords = _snapshotEveryRecords;
+        this.compactDeadRecords = _compactMinDeadRecords;
+        long from = loadSnapshot();
+        this.log = RecordLog.open(logFile, 1, from, this::apply);
+        if (games.isEmpty()) {
+            // A new database: the games of the application
+            append(GAME, gamePayload(1, "Tic Tac Toe"));
+            append(GAME, gamePayload(2, "Checkers"));
+        }
+    }
+
+    /**
+     * Sets the listener notified of the write errors.
+     *
+     * @param _errorListener the listener
+     */
+    public synchronized void setErrorListener(DbErrorListener _errorListener) {
+        this.errorListener = _errorListener;
+    }
+
+    /**
+     * Reads the snapshot if it covers the current log.
+     *
+     * @return the position of the first record of the log not in the snapshot, 0 to read the whole log
+     */
+    private long loadSnapshot() throws IOException {
+        long logGeneration = RecordLog.generationOf(logFile);
+        if (logGeneration < 0 || RecordLog.generationOf(snapshotFile) != logGeneration) {
+            return 0;
+        }
+        long[] end = {-1, 0};
+        RecordLog snapshot = RecordLog.open(snapshotFile, logGeneration, 0, (type, in) -> {
+            if (type == SNAPSHOT_END) {
+                end[0] = in.readLong();
+                end[1] = in.readInt();
+            } else {
+                apply(type, in);
+            }
+        });
+        snapshot.close(); // Read by open
+        if (end[0] < 0 || end[0] > Files.size(logFile)) {
+            clear(); // Incomplete, or ahead of a log cut short: replay the whole log
+            return 0;
+        }
+        deadRecords = (int) end[1];
+        return end[0];
+    }
+
+    private void clear() {
+        players.clear();
+        playerIdsByName.clear();
+        games.clear();
+        matches.clear();
+        leaderboard = new Leaderboard();
+        nameIndex = new PlayerNameIndex();
+        standings = new GameStandings();
+        deadRecords = 0;
+    }
+
+    /**
+     * Applies a record to the memory.
+     */
+    private void apply(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case PLAYER: {
+                long id = in.readLong();
+                String name = in.readUTF();
+                int score = in.readInt();
+                Player previous = players.put(id, new Player(name, score, id));
+                if (previous != null) {
+                    deadRecords++;
+                    playerIdsByName.remove(MemoryTables.keyOf(previous.getNickName()));
+                }
+                playerIdsByName.put(MemoryTables.keyOf(name), id);
+                leaderboard.update(id, name, score);
+                nameIndex.put(id, name);
+                break;
+            }
+            case GAME: {
+                long id = in.readLong();
+                if (games.put(id, new Game(in.readUTF(), id)) != null) {
+                    deadRecords++;
+                }
+                break;
+            }
+            case MATCH: {
+                long id = in.readLong();
+                LocalDateTime date = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+                long player1Id = in.readLong();
+                long player2Id = in.readLong();
+                long gameId = in.readLong();
+                int scorePlayer1 = in.readInt();
+                int scorePlayer2 = in.readInt();
+                int length = in.readInt();
+                byte[] moves = length < 0 ? null : in.readNBytes(length);
+                MatchRow row = new MatchRow(id, date, player1Id, player2Id, gameId, scorePlayer1, scorePlayer2, moves);
+                matches.add(row);
+                standings.addMatch(row.gameId, row.date, row.player1Id, row.player2Id, row.scorePlayer1, row.scorePlayer2);
+                break;
+            }
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    /**
+     * Appends a record to the log, then applies it. A compaction or snapshot
+     * failing after that is reported, not thrown: the change is saved, and
+     * they are tried again once their threshold is crossed again.
+     */
+    private void append(byte type, byte[] payload) throws IOException {
+        log.append(type, payload);
+        if (syncWrites) {
+            log.force();
+        }
+        apply(type, new DataInputStream(new ByteArrayInputStream(payload)));
+        if (deadRecords >= compactDeadRecords && deadRecords > liveRecords()) {
+            try {
+                compact();
+            } catch (IOException e) {
+                compactDeadRecords = deadRecords + compactMinDeadRecords;
+                handleException(new SQLException("Compaction failed: " + e.getMessage(), e));
+            }
+        } else if (++appendsSinceSnapshot >= snapshotEveryRecords) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                appendsSinceSnapshot = 0;
+                handleException(new SQLException("Snapshot failed: " + e.getMessage(), e));
+            }
+        }
+    }
+
+    private int liveRecords() {
+        return players.size() + games.size() + matches.size();
+    }
+
+    /**
+     * Rewrites the log with the live records only, then takes a snapshot.
+     * The new log replaces the old one in the directory while open, and is
+     * appended to from then on; the old one is closed only once replaced.
+     *
+     * @throws IOException if the files cannot be written; the old log is then kept
+     */
+    public synchronized void compact() throws IOException {
+        Path compactFile = logFile.resolveSibling(LOG_FILE + ".compact");
+        RecordLog compacted = RecordLog.create(compactFile, log.generation() + 1);
+        try {
+            writeState(compacted);
+            compacted.force();
+            Files.move(compactFile, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                compacted.close();
+                Files.deleteIfExists(compactFile);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        RecordLog old = log;
+        log = compacted;
+        deadRecords = 0;
+        compactDeadRecords = compactMinDeadRecords;
+        try {
+            old.close();
+        } finally {
+            snapshot();
+        }
+    }
+
+    /**
+     * Writes the whole state with the position of the log it covers, replacing the previous snapshot.
+     *
+     * @throws IOException if the snapshot cannot be written; the previous one is then kept
+     */
+    public synchronized void snapshot() throws IOException {
+        log.force(); // The snapshot never covers records lost from the log
+        Path tmpFile = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (RecordLog snapshot = RecordLog.create(tmpFile, log.generation())) {
+            writeState(snapshot);
+            long end = log.size();
+            int dead = deadRecords;
+            snapshot.append(SNAPSHOT_END, RecordLog.payload(out -> {
+                out.writeLong(end);
+                out.writeInt(dead);
+            }));
+            snapshot.force();
+        }
+        Files.move(tmpFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        appendsSinceSnapshot = 0;
+    }
+
+    private void writeState(RecordLog out) throws IOException {
+        for (Game game : games.values()) {
+            out.append(GAME, gamePayload(game.getId(), game.getName()));
+        }
+        for (Player player : players.values()) {
+            out.append(PLAYER, playerPayload(player.getId(), player.getNickName(), player.getScore()));
+        }
+        for (MatchRow row : matches) {
+            out.append(MATCH, matchPayload(row));
+        }
+    }
+
+    /**
+     * Takes a snapshot, for a fast restart, and closes the log.
+     *
+     * @throws IOException if the snapshot or the log cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * @return the size of the log in bytes, header included
+     */
+    synchronized long logSize() {
+        return log.size();
+    }
+
+    synchronized int deadRecords() {
+        return deadRecords;
+    }
+
+    @Override
+    public synchronized List<Player> getPlayers(String prefix) {
+        return getPlayers(prefix, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized List<Player> getPlayers(String prefix, int offset, int limit) {
+        PlayerNameIndex.Page page = nameIndex.find(prefix, offset, limit);
+        List<Player> list = new ArrayList<>(page.ids.length);
+        for (long id : page.ids) {
+            list.add(MemoryTables.copyOf(players.get(id)));
+        }
+        return list;
+    }
+
+    @Override
+    public synchronized int countPlayers(String prefix) {
+        return nameIndex.count(prefix);
+    }
+
+    @Override
+    public synchronized List<Player> getTopPlayers() {
+        return leaderboard.top(TOP_PLAYERS);
+    }
+
+    @Override
+    public synchronized int getPlayerRank(Player _player) {
+        return leaderboard.rankOf(_player.getId());
+    }
+
+    @Override
+    public synchronized List<Standing> getTopStandings(Game _game, LeaderboardPeriod _period, int _limit) {
+        return MemoryTables.top(standingsOf(_game, _period), _limit);
+    }
+
+    @Override
+    public synchronized int getPlayerRank(Player _player, Game _game, LeaderboardPeriod _period) {
+        return MemoryTables.rankOf(standingsOf(_game, _period), _player);
+    }
+
+    @Override
+    public synchronized List<Standing> getStandingsAround(Player _player, Game _game, LeaderboardPeriod _period, int _radius) {
+        return MemoryTables.around(standingsOf(_game, _period), _player, _radius);
+    }
+
+    private List<Standing> standingsOf(Game _game, LeaderboardPeriod _period) {
+        return MemoryTables.copyStandings(standings.standingsOf(_game.getId(), _period.currentKey(), players));
+    }
+
+    @Override
+    public synchronized List<Match> getMatches(MatchFilter _filter, Match _after, int _limit) {
+        return MemoryTables.getMatches(matches, players, games, _filter, _after, _limit);
+    }
+
+    @Override
+    public synchronized byte[] getMatchMoves(Match _match) {
+        return MemoryTables.getMatchMoves(matches, _match);
+    }
+
+    @Override
+    public synchronized List<Game> getGames() {
+        return MemoryTables.copyGames(games.values());
+    }
+
+    @Override
+    public synchronized Player createPlayer(String _nickName) throws Exception {
+        checkName(_nickName, -1);
+        long id = idGenerator.nextId();
+        append(PLAYER, playerPayload(id, _nickName, 0));
+        return MemoryTables.copyOf(players.get(id));
+    }
+
+    @Override
+    public synchronized Player renamePlayer(Player _plyr, String _nickName) throws Exception {
+        Player stored = players.get(_plyr.getId());
+        if (stored == null) {
+            throw new Exception("player " + _plyr.getId() + " not found");
+        }
+        checkName(_nickName, _plyr.getId());
+        append(PLAYER, playerPayload(stored.getId(), _nickName, stored.getScore()));
+        _plyr.setNickName(_nickName);
+        return _plyr;
+    }
+
+    /**
+     * @throws Exception if the name is empty, too long, or the name of another player
+     */
+    private void checkName(String _nickName, long playerId) throws Exception {
+        if (_nickName == null || _nickName.trim().isEmpty() || _nickName.length() > MAX_NAME_LENGTH) {
+            throw new Exception("nickName must have 1 to " + MAX_NAME_LENGTH + " characters");
+        }
+        Long owner = playerIdsByName.get(MemoryTables.keyOf(_nickName));
+        if (owner != null && owner != playerId) {
+            throw new Exception("constraint nickName unique violated");
+        }
+    }
+
+    @Override
+    public synchronized Player updatePlayerScore(Player _player, int _score) {
+        return writeScore(_player, _score);
+    }
+
+    @Override
+    public synchronized Player addPlayerScore(Player _player, int _delta) {
+        Player stored = players.get(_player.getId());
+        int score = stored == null ? _player.getScore() : stored.getScore();
+        return writeScore(_player, Math.max(0, score + _delta));
+    }
+
+    private Player writeScore(Player _player, int _score) {
+        Player stored = players.get(_player.getId());
+        if (stored == null) {
+            handleException(new SQLException("player " + _player.getId() + " not found"));
+            return null;
+        }
+        try {
+            append(PLAYER, playerPayload(stored.getId(), stored.getNickName(), _score));
+            _player.setScore(_score);
+            return _player;
+        } catch (IOException e) {
+            handleException(new SQLException(e.getMessage(), e));
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2, byte[] _moves) {
+        MatchRow row = new MatchRow(idGenerator.nextId(), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+            _player1.getId(), _player2.getId(), _game.getId(), _matchScorePlayer1, _matchScorePlayer2, _moves == null ? null : _moves.clone());
+        try {
+            append(MATCH, matchPayload(row));
+            Match match = new Match(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, row.date, row.id);
+            match.setMoves(_moves);
+            return match;
+        } catch (IOException e) {
+            handleException(new SQLException(e.getMessage(), e));
+            return null;
+        }
+    }
+
+    private static byte[] playerPayload(long id, String name, int score) {
+        return RecordLog.payload(out -> {
+            out.writeLong(id);
+            out.writeUTF(name);
+            out.writeInt(score);
+        });
+    }
+
+    private static byte[] gamePayload(long id, String name) {
+        return RecordLog.payload(out -> {
+            out.writeLong(id);
+            out.writeUTF(name);
+        });
+    }
+
+    private static byte[] matchPayload(MatchRow row) {
+        return RecordLog.payload(out -> {
+            out.writeLong(row.id);
+            out.writeLong(row.date.toEpochSecond(ZoneOffset.UTC));
+            out.writeLong(row.player1Id);
+            out.writeLong(row.player2Id);
+            out.writeLong(row.gameId);
+            out.writeInt(row.scorePlayer1);
+            out.writeInt(row.scorePlayer2);
+            out.writeInt(row.moves == null ? -1 : row.moves.length);
+            if (row.moves != null) {
+                out.write(row.moves);
+            }
+        });
+    }
+
+    private void handleException(SQLException e) {
+        MemoryTables.handleException(errorListener, e);
+    }
+}
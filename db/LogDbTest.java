@@ -0,0 +1,244 @@
+package db;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+
+/**
+ * Unit tests for the LogDb and RecordLog classes.
+ */
+public class LogDbTest {
+    public static void main(String[] args) {
+        LogDbTest test = new LogDbTest();
+        try {
+            test.testReopen();
+            test.testReplayWithoutSnapshot();
+            test.testSnapshotThenTail();
+            test.testTornRecord();
+            test.testCompaction();
+            test.testMaintenanceFailure();
+            test.testUniqueNames();
+        } catch (Exception e) {
+            throw new AssertionError("LogDbTest failed: " + e, e);
+        }
+    }
+
+    public void testReopen() throws Exception {
+        Path dir = Files.createTempDirectory("logdb");
+        try {
+            try (LogDb db = open(dir, 1000)) {
+                fill(db);
+            }
+            try (LogDb db = open(dir, 1000)) {
+                check(db, "testReopen");
+            }
+            System.out.println("testReopen passed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Without the snapshot, the whole log gives the same state.
+     */
+    public void testReplayWithoutSnapshot() throws Exception {
+        Path dir = Files.createTempDirectory("logdb");
+        try {
+            try (LogDb db = open(dir, 1000)) {
+                fill(db);
+            }
+            Files.delete(dir.resolve(LogDb.SNAPSHOT_FILE));
+            try (LogDb db = open(dir, 1000)) {
+                check(db, "testReplayWithoutSnapshot");
+            }
+            System.out.println("testReplayWithoutSnapshot passed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * A process stopping without close(): the snapshot, then the records appended after it.
+     */
+    public void testSnapshotThenTail() throws Exception {
+        Path dir = Files.createTempDirectory("logdb");
+        LogDb crashed = open(dir, 1000);
+        try {
+            Player alice = crashed.createPlayer("Alice");
+            crashed.snapshot();
+            crashed.addPlayerScore(alice, 5);
+            crashed.createPlayer("Bob");
+            try (LogDb db = open(dir, 1000)) {
+                assert db.countPlayers("") == 2 : "testSnapshotThenTail failed, players " + db.countPlayers("");
+                assert db.getPlayers("alice").get(0).getScore() == 5 : "testSnapshotThenTail failed, score";
+            }
+            System.out.println("testSnapshotThenTail passed");
+        } finally {
+            crashed.close();
+            delete(dir);
+        }
+    }
+
+    /**
+     * A torn last record is dropped, and the next records follow the last good one.
+     */
+    public void testTornRecord() throws Exception {
+        Path dir = Files.createTempDirectory("logdb");
+        try {
+            long size;
+            try (LogDb db = open(dir, 1000)) {
+                db.createPlayer("Alice");
+                size = db.logSize();
+            }
+            Files.delete(dir.resolve(LogDb.SNAPSHOT_FILE));
+            try (OutputStream out = Files.newOutputStream(dir.resolve(LogDb.LOG_FILE), StandardOpenOption.APPEND)) {
+                out.write(new byte[] {0, 0, 0, 20, 1, 2, 3, 4, 1, 0, 0}); // A record cut short
+            }
+            try (LogDb db = open(dir, 1000)) {
+                assert db.logSize() == size : "testTornRecord failed, not truncated " + db.logSize() + " " + size;
+                db.createPlayer("Bob");
+            }
+            Files.delete(dir.resolve(LogDb.SNAPSHOT_FILE));
+            try (LogDb db = open(dir, 1000)) {
+                assert db.countPlayers("") == 2 : "testTornRecord failed, players " + db.countPlayers("");
+            }
+            System.out.println("testTornRecord passed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testCompaction() throws Exception {
+        Path dir = Files.createTempDirectory("logdb");
+        try {
+            try (LogDb db = open(dir, 50)) {
+                Player alice = db.createPlayer("Alice");
+                long sizeBefore = 0;
+                for (int i = 0; i < 60; i++) {
+                    db.addPlayerScore(alice, 1);
+                    sizeBefore = Math.max(sizeBefore, db.logSize());
+                }
+                assert db.deadRecords() < 50 : "testCompaction failed, dead records " + db.deadRecords();
+                assert db.logSize() < sizeBefore : "testCompaction failed, log not smaller";
+            }
+            try (LogDb db = open(dir, 50)) {
+                assert db.getTopPlayers().get(0).getScore() == 60 : "testCompaction failed, score after reopen";
+            }
+            System.out.println("testCompaction passed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * A compaction or snapshot that cannot be written is reported, the change
+     * crossing its threshold is still saved, and the next crossing retries.
+     */
+    public void testMaintenanceFailure() throws Exception {
+        Path dir = Files.createTempDirectory("logdb");
+        try {
+            List<SQLException> errors = new ArrayList<>();
+            Path compactFile = Files.createDirectory(dir.resolve(LogDb.LOG_FILE + ".compact")); // Not writable as a file
+            Path snapshotTmp = Files.createDirectory(dir.resolve(LogDb.SNAPSHOT_FILE + ".tmp"));
+            try (LogDb db = new LogDb(dir, false, new IdGenerator(0), 50, 20)) {
+                db.setErrorListener(errors::add);
+                Player alice = db.createPlayer("Alice");
+                for (int i = 0; i < 60; i++) {
+                    assert db.addPlayerScore(alice, 1) != null : "testMaintenanceFailure failed, change " + i + " not saved";
+                }
+                assert errors.size() == 4 && errors.get(0).getMessage().startsWith("Snapshot failed")
+                    && errors.get(2).getMessage().startsWith("Compaction failed") : "testMaintenanceFailure failed, errors " + errors.size();
+                assert db.deadRecords() == 60 : "testMaintenanceFailure failed, compacted";
+                Files.delete(compactFile);
+                Files.delete(snapshotTmp);
+                for (int i = 0; i < 60; i++) {
+                    db.addPlayerScore(alice, 1);
+                }
+                assert db.deadRecords() < 50 && errors.size() == 4 : "testMaintenanceFailure failed, not retried";
+            }
+            try (LogDb db = open(dir, 50)) {
+                assert db.getTopPlayers().get(0).getScore() == 120 : "testMaintenanceFailure failed, score after reopen";
+            }
+            System.out.println("testMaintenanceFailure passed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    public void testUniqueNames() throws Exception {
+        Path dir = Files.createTempDirectory("logdb");
+        try (LogDb db = open(dir, 1000)) {
+            Player alice = db.createPlayer("Alice");
+            Player bob = db.createPlayer("Bob");
+            assert fails(() -> db.createPlayer("alice")) : "testUniqueNames failed, same name in another case";
+            assert fails(() -> db.renamePlayer(bob, "ALICE")) : "testUniqueNames failed, renamed to a used name";
+            assert fails(() -> db.createPlayer(" ")) : "testUniqueNames failed, blank name";
+            db.renamePlayer(alice, "alice");
+            db.renamePlayer(bob, "Alicia");
+            assert db.countPlayers("ali") == 2 && db.countPlayers("bob") == 0 : "testUniqueNames failed, renames";
+            System.out.println("testUniqueNames passed");
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static LogDb open(Path dir, int compactMinDeadRecords) throws IOException {
+        return new LogDb(dir, false, new IdGenerator(0), compactMinDeadRecords, 1000000);
+    }
+
+    private static void fill(LogDb db) throws Exception {
+        Game checkers = db.getGames().get(1);
+        Player alice = db.createPlayer("Alice");
+        Player bob = db.createPlayer("Bob");
+        db.renamePlayer(bob, "Bobby");
+        db.addPlayerScore(alice, 3);
+        db.informMatchResult(alice, bob, checkers, 1, 0, new byte[] {(byte) 0x98, 0x02, 0x11});
+        db.informMatchResult(bob, alice, checkers, 1, 1, null);
+    }
+
+    private static void check(LogDb db, String test) {
+        List<Game> games = db.getGames();
+        assert games.size() == 2 && games.get(1).getName().equals("Checkers") : test + " failed, games " + games.size();
+        assert db.countPlayers("") == 2 && db.countPlayers("bobby") == 1 : test + " failed, players";
+        Player alice = db.getTopPlayers().get(0);
+        assert alice.getNickName().equals("Alice") && alice.getScore() == 3 : test + " failed, top " + alice.dbgMeAsStr();
+        List<Match> matches = db.getMatches(MatchFilter.all().withPlayer(alice), null, 10);
+        assert matches.size() == 2 && matches.get(0).getPlayer1().getNickName().equals("Bobby") : test + " failed, matches";
+        assert db.getMatchMoves(matches.get(0)) == null
+            && Arrays.equals(db.getMatchMoves(matches.get(1)), new byte[] {(byte) 0x98, 0x02, 0x11}) : test + " failed, moves";
+        assert db.getTopStandings(games.get(1), LeaderboardPeriod.ALL_TIME, 10).get(0).getPoints() == 3 : test + " failed, standings";
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static boolean fails(Action action) {
+        try {
+            action.run();
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package db;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+
+/**
+ * SELECT of a page of the match history, newest first, by seek on (DATE, ID).
+ *
+ * The next page starts after the last match of the previous one:
+ * DATE < ? OR (DATE = ? AND ID < ?), a range of an index ending with
+ * (DATE, ID), so a page costs its own rows whatever its depth, where OFFSET
+ * would read and skip every row before it. A player plays on either side:
+ * their matches are two ranges, PLAYER1 then PLAYER2, each read up to the
+ * limit, merged by UNION ALL. The indexes are in schema.sql:
+ *
+ *   no player, no game    Match_Date    (DATE, ID)
+ *   game                  Match_Game    (GAME, DATE, ID)
+ *   player                Match_Player1 (PLAYER1, DATE, ID), Match_Player2 (PLAYER2, DATE, ID)
+ *   two players           Match_Pair    (PLAYER1, PLAYER2, DATE, ID), both orders
+ */
+class MatchHistoryQuery {
+    private static final String COLUMNS = "`ID`, `DATE`, `PLAYER1`, `PLAYER2`, `GAME`, `scorePlayer1`, `scorePlayer2`";
+    private static final String ORDER = " ORDER BY `DATE` DESC, `ID` DESC LIMIT ?";
+
+    private final StringBuilder sql = new StringBuilder();
+    private final List<Object> parameters = new ArrayList<>(); // Long, Timestamp or Integer, in the order of the ?
+    private int branches;
+
+    /**
+     * @param _filter the matches selected
+     * @param _after the last match of the previous page, null for the first page
+     * @param _limit the matches of the page
+     */
+    MatchHistoryQuery(MatchFilter _filter, Match _after, int _limit) {
+        Long player = _filter.getPlayerId();
+        Long opponent = _filter.getOpponentId();
+        sql.append("SELECT m.`ID`, m.`DATE`, m.`PLAYER1`, p1.`NAME` AS `NAME1`, p1.`SCORE` AS `SCORE1`,")
+            .append(" m.`PLAYER2`, p2.`NAME` AS `NAME2`, p2.`SCORE` AS `SCORE2`, m.`GAME`, g.`NAME` AS `GAME_NAME`,")
+            .append(" m.`scorePlayer1`, m.`scorePlayer2` FROM (");
+        if (player == null) {
+            branch(null, null, null, _filter, _after, _limit);
+        } else if (opponent == null) {
+            branch("PLAYER1", player, null, _filter, _after, _limit);
+            branch("PLAYER2", player, player, _filter, _after, _limit); // Not the matches against themselves again
+        } else {
+            branch("PLAYER1", player, opponent, _filter, _after, _limit);
+            if (!player.equals(opponent)) {
+                branch("PLAYER1", opponent, player, _filter, _after, _limit);
+            }
+        }
+        sql.append(") m JOIN `Player` p1 ON p1.`ID` = m.`PLAYER1` JOIN `Player` p2 ON p2.`ID` = m.`PLAYER2`")
+            .append(" JOIN `GAME` g ON g.`ID` = m.`GAME`")
+            .append(" ORDER BY m.`DATE` DESC, m.`ID` DESC LIMIT ?");
+        parameters.add(_limit);
+    }
+
+    /**
+     * Appends the SELECT of one range of an index.
+     *
+     * @param column the player column of the range, null for none
+     * @param playerId the player of the column
+     * @param otherId with column PLAYER1: the PLAYER2 of a pair; with PLAYER2: the PLAYER1 excluded
+     */
+    private void branch(String column, Long playerId, Long otherId, MatchFilter _filter, Match _after, int _limit) {
+        sql.append(branches++ == 0 ? "(" : " UNION ALL (").append("SELECT ").append(COLUMNS).append(" FROM `MATCH` WHERE TRUE");
+        if (column != null) {
+            sql.append(" AND `").append(column).append("` = ?");
+            parameters.add(playerId);
+            if (otherId != null) {
+                sql.append("PLAYER1".equals(column) ? " AND `PLAYER2` = ?" : " AND `PLAYER1` <> ?");
+                parameters.add(otherId);
+            }
+        }
+        if (_filter.getGameId() != null) {
+            sql.append(" AND `GAME` = ?");
+            parameters.add(_filter.getGameId());
+        }
+        if (_filter.getFrom() != null) {
+            sql.append(" AND `DATE` >= ?");
+            parameters.add(Timestamp.valueOf(_filter.getFrom()));
+        }
+        if (_filter.getTo() != null) {
+            sql.append(" AND `DATE` < ?");
+            parameters.add(Timestamp.valueOf(_filter.getTo()));
+        }
+        if (_after != null) {
+            sql.append(" AND (`DATE` < ? OR (`DATE` = ? AND `ID` < ?))");
+            parameters.add(Timestamp.valueOf(_after.getDate()));
+            parameters.add(Timestamp.valueOf(_after.getDate()));
+            parameters.add(_after.getId());
+        }
+        sql.append(ORDER).append(")");
+        parameters.add(_limit);
+    }
+
+    String sql() {
+        return sql.toString();
+    }
+
+    int parameterCount() {
+        return parameters.size();
+    }
+
+    /**
+     * Sets the parameters of the statement prepared with sql().
+     */
+    void bind(PreparedStatement stmt) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            Object parameter = parameters.get(i);
+            if (parameter instanceof Long) {
+                stmt.setLong(i + 1, (Long) parameter);
+            } else if (parameter instanceof Timestamp) {
+                stmt.setTimestamp(i + 1, (Timestamp) parameter);
+            } else {
+                stmt.setInt(i + 1, (Integer) parameter);
+            }
+        }
+    }
+
+    /**
+     * Reads the matches of the result.
+     */
+    static List<Match> read(ResultSet rs) throws SQLException {
+        List<Match> matches = new ArrayList<>();
+        while (rs.next()) {
+            Player player1 = new Player(rs.getString("NAME1"), rs.getInt("SCORE1"), rs.getLong("PLAYER1"));
+            Player player2 = new Player(rs.getString("NAME2"), rs.getInt("SCORE2"), rs.getLong("PLAYER2"));
+            Game game = new Game(rs.getString("GAME_NAME"), rs.getLong("GAME"));
+            matches.add(new Match(player1, player2, game, rs.getInt("scorePlayer1"), rs.getInt("scorePlayer2"),
+                rs.getTimestamp("DATE").toLocalDateTime(), rs.getLong("ID")));
+        }
+        return matches;
+    }
+}
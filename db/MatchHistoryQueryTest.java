@@ -0,0 +1,103 @@
+package db;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+
+/**
+ * Unit tests for the MatchHistoryQuery class and the match history of DbMockup.
+ */
+public class MatchHistoryQueryTest {
+    private final Player nicolas = new Player("Nicolas", 1);
+    private final Player robert = new Player("Robert", 2);
+    private final Player frank = new Player("Frank", 3);
+    private final Game checkers = new Game("Checkers", 2);
+
+    public static void main(String[] args) {
+        MatchHistoryQueryTest test = new MatchHistoryQueryTest();
+        test.testBranches();
+        test.testSeekParameters();
+        test.testPaging();
+        test.testFilters();
+    }
+
+    /**
+     * One range of an index per side of the player, none with OFFSET.
+     */
+    public void testBranches() {
+        String all = new MatchHistoryQuery(MatchFilter.all(), null, 20).sql();
+        String player = new MatchHistoryQuery(MatchFilter.all().withPlayer(nicolas), null, 20).sql();
+        String pair = new MatchHistoryQuery(MatchFilter.all().withPlayers(nicolas, robert), null, 20).sql();
+        String self = new MatchHistoryQuery(MatchFilter.all().withPlayers(nicolas, nicolas), null, 20).sql();
+        assert count(all, "UNION ALL") == 0 && count(player, "UNION ALL") == 1 : "testBranches failed, player " + player;
+        assert count(pair, "UNION ALL") == 1 && count(self, "UNION ALL") == 0 : "testBranches failed, pair " + pair;
+        assert player.contains("`PLAYER2` = ? AND `PLAYER1` <> ?") : "testBranches failed, match against themselves twice";
+        assert !all.contains("OFFSET") && !player.contains("OFFSET") : "testBranches failed, OFFSET";
+        System.out.println("testBranches passed");
+    }
+
+    public void testSeekParameters() {
+        Match after = new Match(nicolas, robert, checkers, 1, 0, LocalDateTime.of(2024, 7, 10, 12, 0), 42);
+        MatchFilter filter = MatchFilter.all().withPlayer(nicolas).withGame(checkers)
+            .withDates(LocalDateTime.of(2024, 7, 1, 0, 0), LocalDateTime.of(2024, 8, 1, 0, 0));
+        MatchHistoryQuery query = new MatchHistoryQuery(filter, after, 20);
+        // Per branch: player (+ excluded player), game, 2 dates, 3 seek, limit; then the outer limit
+        assert query.parameterCount() == 8 + 9 + 1 : "testSeekParameters failed, " + query.parameterCount();
+        assert count(query.sql(), "(`DATE` < ? OR (`DATE` = ? AND `ID` < ?))") == 2 : "testSeekParameters failed, " + query.sql();
+        assert count(query.sql(), "?") == query.parameterCount() : "testSeekParameters failed, placeholders";
+        System.out.println("testSeekParameters passed");
+    }
+
+    /**
+     * Reading the pages after the last match of the previous one lists every match once, newest first.
+     */
+    public void testPaging() {
+        DbMockup db = new DbMockup();
+        for (int i = 0; i < 25; i++) {
+            db.informMatchResult(nicolas, i % 2 == 0 ? robert : frank, checkers, i % 3, 1, null);
+        }
+        List<Match> history = new ArrayList<>();
+        Match after = null;
+        List<Match> page;
+        do {
+            page = db.getMatches(MatchFilter.all(), after, 10);
+            history.addAll(page);
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 10);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < history.size(); i++) {
+            ids.add(history.get(i).getId());
+            assert i == 0 || history.get(i).getId() < history.get(i - 1).getId() : "testPaging failed, order at " + i;
+        }
+        assert history.size() == 25 && ids.size() == 25 : "testPaging failed, " + history.size() + " matches";
+        System.out.println("testPaging passed");
+    }
+
+    public void testFilters() {
+        DbMockup db = new DbMockup();
+        db.informMatchResult(nicolas, robert, checkers, 1, 0, null);
+        db.informMatchResult(robert, nicolas, checkers, 1, 0, null);
+        db.informMatchResult(robert, frank, checkers, 1, 0, null);
+        db.informMatchResult(nicolas, nicolas, new Game("Tic Tac Toe", 1), 0, 0, null);
+        assert db.getMatches(MatchFilter.all().withPlayer(nicolas), null, 10).size() == 3 : "testFilters failed, player";
+        assert db.getMatches(MatchFilter.all().withPlayers(nicolas, robert), null, 10).size() == 2 : "testFilters failed, pair";
+        assert db.getMatches(MatchFilter.all().withPlayer(robert).withGame(checkers), null, 10).size() == 3 : "testFilters failed, game";
+        assert db.getMatches(MatchFilter.all().withDates(null, LocalDateTime.now().minusDays(1)), null, 10).isEmpty() : "testFilters failed, dates";
+        System.out.println("testFilters passed");
+    }
+
+    private static int count(String text, String part) {
+        int n = 0;
+        for (int at = text.indexOf(part); at >= 0; at = text.indexOf(part, at + part.length())) {
+            n++;
+        }
+        return n;
+    }
+}
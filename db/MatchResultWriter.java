@@ -0,0 +1,522 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+/**
+ * Write-behind pipeline of the match results and score changes.
+ *
+ * The callers queue the writes and return at once; a background thread
+ * flushes them when batchSize writes are waiting or flushIntervalMillis after
+ * the oldest one, whichever comes first. A flush is one transaction on one
+ * connection: the matches as one JDBC batch insert, their GAME_STANDING
+ * changes as one batch upsert, then the score deltas as one batch update.
+ *
+ * The score deltas do not go through the queue: they are combined per player
+ * in a ScoreAggregator, so a player gets one SCORE = GREATEST(SCORE + n, m)
+ * per flush however many games they finished in between, clamped at 0 like
+ * the deltas written one at a time. A score set by setScore() is written the
+ * same way, as a floor winning over any score.
+ *
+ * Failures: a flush that fails is not lost. Its matches are kept by the
+ * thread and its deltas go back to the aggregator, and both are retried with
+ * the next flush, after a backoff doubling from RETRY_DELAY_MILLIS up to
+ * MAX_RETRY_DELAY_MILLIS, for as long as the database is unreachable. A batch
+ * rejected by the database itself (an integrity or data error, such as a
+ * foreign key violation) is written again row by row, so only the rows
+ * rejected on their own are dropped and reported to the error listener.
+ * Once queueCapacity matches are kept, the thread takes no new write until
+ * the database is back, so the callers get the back-pressure below.
+ *
+ * Back-pressure: the queue holds queueCapacity writes. When the database
+ * falls behind, a caller waits up to offerTimeoutMillis for room, then gets
+ * an IllegalStateException. flush() waits until everything queued before it
+ * was tried once, and close() writes what is left before stopping; it gives
+ * up, reporting the loss, after MAX_CLOSING_ATTEMPTS failures in a row.
+ */
+public class MatchResultWriter {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    public static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 2000;
+
+    private static final long RETRY_DELAY_MILLIS = 100;      // Doubled after every failed try
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000; // Longest wait between two tries
+    private static final int MAX_CLOSING_ATTEMPTS = 3;       // Tries of the last flush, once closed
+
+    private static final Object SCORES_PENDING = new Object(); // Queued when the first delta of a flush arrives
+
+    private static final String INSERT_MATCH = "INSERT INTO `MATCH` (`ID`, `DATE`, `PLAYER1`, `PLAYER2`, `GAME`, `scorePlayer1`, `scorePlayer2`, `MOVES`) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ADD_SCORE = "UPDATE `Player` SET `SCORE` = GREATEST(`SCORE` + ?, ?) WHERE `ID` = ?";
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final int queueCapacity;
+    private final DbErrorListener errorListener;         // Notified of the writes lost, null to print them
+    private final BlockingQueue<Object> queue;           // MatchRow, FlushRequest or SCORES_PENDING
+    private final ScoreAggregator scores = new ScoreAggregator(); // Score deltas waiting for the next flush
+    private final AtomicBoolean scoresPending = new AtomicBoolean(); // Set when SCORES_PENDING is queued
+    private final List<MatchRow> kept = new ArrayList<>(); // Matches of the failed flushes, flusher thread only
+    private final Set<Long> pendingMatches = ConcurrentHashMap.newKeySet(); // IDs of the matches queued or kept
+    private final Thread flusher;
+    private volatile boolean closed;
+    private volatile long written;                       // Writes committed, for the statistics
+
+    /**
+     * Creates a writer with the default thresholds and starts its thread.
+     *
+     * @param _dataSource the source of the connections
+     * @param _errorListener notified of the writes lost, null to print them
+     */
+    public MatchResultWriter(DataSource _dataSource, DbErrorListener _errorListener) {
+        this(_dataSource, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_QUEUE_CAPACITY,
+            DEFAULT_OFFER_TIMEOUT_MILLIS, _errorListener);
+    }
+
+    /**
+     * Creates a writer and starts its thread.
+     *
+     * @param _dataSource the source of the connections
+     * @param _batchSize the number of queued writes that triggers a flush
+     * @param _flushIntervalMillis the longest time a write waits in the queue
+     * @param _queueCapacity the number of writes the queue holds
+     * @param _offerTimeoutMillis how long a caller waits for room in a full queue
+     * @param _errorListener notified of the writes lost, null to print them
+     */
+    public MatchResultWriter(DataSource _dataSource, int _batchSize, long _flushIntervalMillis, int _queueCapacity,
+                             long _offerTimeoutMillis, DbErrorListener _errorListener) {
+        this.dataSource = _dataSource;
+        this.batchSize = _batchSize;
+        this.flushIntervalMillis = _flushIntervalMillis;
+        this.offerTimeoutMillis = _offerTimeoutMillis;
+        this.queueCapacity = _queueCapacity;
+        this.errorListener = _errorListener;
+        this.queue = new ArrayBlockingQueue<>(_queueCapacity);
+        this.flusher = new Thread(this::run, "MatchResultWriter");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues the insertion of a match.
+     *
+     * @param id the ID of the match
+     * @param date the date of the match
+     * @param player1Id the ID of the first player
+     * @param player2Id the ID of the second player
+     * @param gameId the ID of the game
+     * @param scorePlayer1 the score of the first player
+     * @param scorePlayer2 the score of the second player
+     * @param moves the move log of the match, null if not recorded
+     * @throws IllegalStateException if the writer is closed or the queue stays full
+     */
+    public void writeMatch(long id, LocalDateTime date, long player1Id, long player2Id, long gameId,
+                           int scorePlayer1, int scorePlayer2, byte[] moves) {
+        pendingMatches.add(id); // Before the queue: a match queued is never missed by isPending
+        try {
+            enqueue(new MatchRow(id, date, player1Id, player2Id, gameId, scorePlayer1, scorePlayer2, moves));
+        } catch (IllegalStateException e) {
+            pendingMatches.remove(id);
+            throw e;
+        }
+    }
+
+    /**
+     * @param matchId the ID of a match
+     * @return true if the match is queued or kept for a retry, not written yet
+     */
+    public boolean isPending(long matchId) {
+        return pendingMatches.contains(matchId);
+    }
+
+    /**
+     * Adds a change of the score of a player to the next flush. The score never goes below 0.
+     *
+     * @param playerId the ID of the player
+     * @param delta the points to add, negative to remove
+     * @throws IllegalStateException if the writer is closed or the queue stays full
+     */
+    public void addScore(long playerId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        changeScore(() -> scores.add(playerId, delta));
+    }
+
+    /**
+     * Sets the score of a player on the next flush, replacing the changes added before.
+     *
+     * @param playerId the ID of the player
+     * @param score the new score
+     * @throws IllegalStateException if the writer is closed or the queue stays full
+     */
+    public void setScore(long playerId, int score) {
+        changeScore(() -> scores.set(playerId, score));
+    }
+
+    /**
+     * @param playerId the ID of the player
+     * @return the points added to the player and not written yet
+     */
+    public long getPendingScore(long playerId) {
+        return scores.pending(playerId);
+    }
+
+    /**
+     * Waits until the writes queued before the call were tried once: they are
+     * written, kept for a retry, or reported as lost.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        if (!flusher.isAlive()) {
+            return;
+        }
+        FlushRequest request = new FlushRequest();
+        enqueue(request);
+        request.done.await();
+    }
+
+    /**
+     * Stops accepting writes, writes the queued ones and stops the thread.
+     *
+     * @param timeoutMillis how long to wait for the queued writes
+     * @return true if everything was written in time
+     */
+    public boolean close(long timeoutMillis) {
+        if (closed) {
+            return !flusher.isAlive();
+        }
+        closed = true;
+        flusher.interrupt(); // Wakes the thread up to drain the queue and stop
+        try {
+            flusher.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !flusher.isAlive();
+    }
+
+    /**
+     * @return the number of writes waiting in the queue
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of writes committed since the creation of the writer
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Records a score change once the thread is sure to be woken up for it:
+     * a change refused because the queue stays full is never written.
+     *
+     * @throws IllegalStateException if the writer is closed or the queue stays full
+     */
+    private void changeScore(Runnable change) {
+        if (closed) {
+            throw new IllegalStateException("MatchResultWriter is closed");
+        }
+        if (scoresPending.compareAndSet(false, true)) {
+            try {
+                enqueue(SCORES_PENDING); // Wakes the thread up
+            } catch (IllegalStateException e) {
+                scoresPending.set(false);
+                throw e;
+            }
+        }
+        change.run();
+        // The marker may have been taken before the change: queue another one
+        if (scoresPending.compareAndSet(false, true) && !queue.offer(SCORES_PENDING)) {
+            scoresPending.set(false); // Queue full: its next batch drains the change anyway
+        }
+    }
+
+    private void enqueue(Object write) {
+        if (closed) {
+            throw new IllegalStateException("MatchResultWriter is closed");
+        }
+        try {
+            if (!queue.offer(write, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("MatchResultWriter queue full for " + offerTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a write", e);
+        }
+    }
+
+    /**
+     * Thread loop: collects a batch, writes it, until closed and drained.
+     * While writes are kept after a failure, the next batch is collected for
+     * the retry delay at most, so they are retried even if nothing is queued.
+     */
+    private void run() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        long retryDelay = 0;       // Wait before the next try of the writes kept, 0 if none
+        int closingFailures = 0;   // Failed tries since closed
+        while (true) {
+            try {
+                if (!closed && kept.size() < queueCapacity) {
+                    Object first = retryDelay > 0 ? queue.poll(retryDelay, TimeUnit.MILLISECONDS) : queue.take();
+                    if (first != null) {
+                        batch.add(first);
+                        long deadline = System.nanoTime() + flushIntervalMillis * 1000000L;
+                        while (batch.size() < batchSize && !(first instanceof FlushRequest)) {
+                            long waitNanos = deadline - System.nanoTime();
+                            Object next = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : null;
+                            if (next == null) {
+                                break;
+                            }
+                            batch.add(next);
+                            if (next instanceof FlushRequest) {
+                                break;
+                            }
+                        }
+                    }
+                } else if (retryDelay > 0) {
+                    Thread.sleep(retryDelay); // Closed, or too many matches kept: no new write taken
+                }
+            } catch (InterruptedException e) {
+                // close(): write the batch and what is left in the queue
+            }
+            if (closed) {
+                queue.drainTo(batch);
+            }
+            boolean done = write(batch);
+            batch.clear();
+            retryDelay = done ? 0 : Math.min(Math.max(retryDelay * 2, RETRY_DELAY_MILLIS), MAX_RETRY_DELAY_MILLIS);
+            if (closed && !done && ++closingFailures == MAX_CLOSING_ATTEMPTS) {
+                reportLost(new SQLException("Database unreachable on close"), kept.size(), scores.drain().size());
+                kept.clear();
+                pendingMatches.clear();
+                return;
+            }
+            if (closed && done && queue.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the matches kept and a batch in one transaction, then releases
+     * the flush requests. A batch rejected by the database is written row by
+     * row; a batch failing otherwise is kept for the next try.
+     *
+     * @return true if nothing is kept for a retry
+     */
+    private boolean write(List<Object> batch) {
+        List<MatchRow> matches = new ArrayList<>(kept);
+        List<FlushRequest> requests = new ArrayList<>();
+        kept.clear();
+        for (Object write : batch) {
+            if (write instanceof MatchRow) {
+                matches.add((MatchRow) write);
+            } else if (write instanceof FlushRequest) {
+                requests.add((FlushRequest) write);
+            }
+        }
+        scoresPending.set(false); // Before the drain: a delta added after it queues a new marker
+        Map<Long, ScoreAggregator.Change> deltas = scores.drain(); // Sorted by player ID: same lock order in every transaction
+        boolean done = true;
+        if (!matches.isEmpty() || !deltas.isEmpty()) {
+            try {
+                writeTransaction(matches, deltas);
+                written += matches.size() + deltas.size();
+            } catch (SQLException e) {
+                done = isRejected(e) ? writeRowByRow(matches, deltas) : keep(e, matches, deltas);
+            }
+            for (MatchRow match : matches) {
+                pendingMatches.remove(match.id); // Written or lost, unless kept
+            }
+            for (MatchRow match : kept) {
+                pendingMatches.add(match.id);
+            }
+        }
+        for (FlushRequest request : requests) {
+            request.done.countDown();
+        }
+        return done;
+    }
+
+    /**
+     * Writes every match of a rejected batch in a transaction of its own,
+     * then the deltas. The rows rejected alone are reported as lost; after
+     * any other failure, the rows left are kept.
+     *
+     * @return true if nothing is kept for a retry
+     */
+    private boolean writeRowByRow(List<MatchRow> matches, Map<Long, ScoreAggregator.Change> deltas) {
+        Map<Long, ScoreAggregator.Change> noDeltas = Collections.emptyMap();
+        for (int i = 0; i < matches.size(); i++) {
+            try {
+                writeTransaction(matches.subList(i, i + 1), noDeltas);
+                written++;
+            } catch (SQLException e) {
+                if (!isRejected(e)) {
+                    return keep(e, matches.subList(i, matches.size()), deltas);
+                }
+                reportLost(e, 1, 0);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            try {
+                writeTransaction(Collections.emptyList(), deltas);
+                written += deltas.size();
+            } catch (SQLException e) {
+                if (!isRejected(e)) {
+                    return keep(e, Collections.emptyList(), deltas);
+                }
+                reportLost(e, 0, deltas.size());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps writes that failed for the next try: the matches in the thread,
+     * the deltas back in the aggregator.
+     *
+     * @return false
+     */
+    private boolean keep(SQLException e, List<MatchRow> matches, Map<Long, ScoreAggregator.Change> deltas) {
+        kept.addAll(matches);
+        for (Map.Entry<Long, ScoreAggregator.Change> delta : deltas.entrySet()) {
+            scores.addFirst(delta.getKey(), delta.getValue());
+        }
+        System.err.println("MatchResultWriter - " + matches.size() + " match(es) and " + deltas.size()
+            + " score change(s) kept for a retry: " + e.getMessage());
+        return false;
+    }
+
+    /**
+     * Tells whether the database rejected the data itself, which no retry can
+     * fix: an integrity constraint violation or a data exception.
+     */
+    private static boolean isRejected(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException || cause instanceof SQLDataException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void writeTransaction(List<MatchRow> matches, Map<Long, ScoreAggregator.Change> deltas) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (!matches.isEmpty()) {
+                    try (PreparedStatement stmt = connection.prepareStatement(INSERT_MATCH)) {
+                        for (MatchRow match : matches) {
+                            stmt.setLong(1, match.id);
+                            stmt.setTimestamp(2, Timestamp.valueOf(match.date));
+                            stmt.setLong(3, match.player1Id);
+                            stmt.setLong(4, match.player2Id);
+                            stmt.setLong(5, match.gameId);
+                            stmt.setInt(6, match.scorePlayer1);
+                            stmt.setInt(7, match.scorePlayer2);
+                            stmt.setBytes(8, match.moves);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                    GameStandings standings = new GameStandings();
+                    for (MatchRow match : matches) {
+                        standings.addMatch(match.gameId, match.date, match.player1Id, match.player2Id, match.scorePlayer1, match.scorePlayer2);
+                    }
+                    standings.write(connection);
+                }
+                if (!deltas.isEmpty()) {
+                    try (PreparedStatement stmt = connection.prepareStatement(ADD_SCORE)) {
+                        for (Map.Entry<Long, ScoreAggregator.Change> delta : deltas.entrySet()) {
+                            stmt.setInt(1, delta.getValue().getAdd());
+                            stmt.setInt(2, delta.getValue().getFloor());
+                            stmt.setLong(3, delta.getKey());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void reportLost(SQLException e, int matchCount, int deltaCount) {
+        SQLException lost = new SQLException("Lost " + matchCount + " match(es) and " + deltaCount
+            + " score change(s): " + e.getMessage(), e.getSQLState(), e);
+        if (errorListener != null) {
+            errorListener.onDbError(lost);
+        } else {
+            System.err.println("Database error: " + lost.getMessage());
+        }
+    }
+
+    /**
+     * A match to insert.
+     */
+    private static class MatchRow {
+        private final long id;
+        private final LocalDateTime date;
+        private final long player1Id;
+        private final long player2Id;
+        private final long gameId;
+        private final int scorePlayer1;
+        private final int scorePlayer2;
+        private final byte[] moves;
+
+        MatchRow(long _id, LocalDateTime _date, long _player1Id, long _player2Id, long _gameId, int _scorePlayer1, int _scorePlayer2, byte[] _moves) {
+            this.id = _id;
+            this.date = _date;
+            this.player1Id = _player1Id;
+            this.player2Id = _player2Id;
+            this.gameId = _gameId;
+            this.scorePlayer1 = _scorePlayer1;
+            this.scorePlayer2 = _scorePlayer2;
+            this.moves = _moves;
+        }
+    }
+
+    /**
+     * Marker released once the writes queued before it are done.
+     */
+    private static class FlushRequest {
+        private final CountDownLatch done = new CountDownLatch(1);
+    }
+}
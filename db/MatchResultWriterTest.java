@@ -0,0 +1,353 @@
+package db;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the MatchResultWriter class, on a pool of fake connections
+ * recording the batches they commit.
+ */
+public class MatchResultWriterTest {
+    private static final long UNKNOWN_PLAYER_ID = 99;                         // Rejected by the foreign key of the fake
+
+    private final List<List<Object[]>> committedMatches = new ArrayList<>(); // Match batches of every commit
+    private final List<List<Object[]>> committedDeltas = new ArrayList<>();  // Score batches of every commit
+    private final List<List<Object[]>> committedStandings = new ArrayList<>(); // GAME_STANDING batches of every commit
+    private final AtomicInteger failuresLeft = new AtomicInteger();          // Next executeBatch calls to fail
+    private volatile CountDownLatch blockBatches;                            // Holds executeBatch while not null
+
+    public static void main(String[] args) {
+        MatchResultWriterTest test = new MatchResultWriterTest();
+        test.testBatchSize();
+        test.testFlushInterval();
+        test.testDeltasSummed();
+        test.testRetry();
+        test.testOutageKept();
+        test.testRejectedRow();
+        test.testPending();
+        test.testBackPressure();
+        test.testScoreRejected();
+        test.testCloseWritesQueue();
+    }
+
+    public void testBatchSize() {
+        MatchResultWriter writer = newWriter(10, 60000, 100);
+        for (int i = 0; i < 25; i++) {
+            writeMatch(writer, i);
+        }
+        flush(writer);
+        assert committedMatches.size() == 3 : "testBatchSize failed, " + committedMatches.size() + " transactions";
+        assert committedMatches.get(0).size() == 10 && committedMatches.get(2).size() == 5 : "testBatchSize failed, batch sizes";
+        assert writer.getWrittenCount() == 25 && writer.getPendingCount() == 0 : "testBatchSize failed, counts";
+        // Summed per row: 2 players x 3 periods, parameters (game, period, player, wins, draws, losses, points)
+        List<Object[]> standings = committedStandings.get(0);
+        assert committedStandings.size() == 3 && standings.size() == 6 : "testBatchSize failed, standings rows";
+        assert standings.get(0)[2].equals(1L) && standings.get(0)[3].equals(10) && standings.get(0)[6].equals(20) : "testBatchSize failed, winner standing";
+        assert standings.get(1)[2].equals(2L) && standings.get(1)[5].equals(10) : "testBatchSize failed, loser standing";
+        writer.close(1000);
+        System.out.println("testBatchSize passed");
+    }
+
+    public void testFlushInterval() {
+        MatchResultWriter writer = newWriter(100, 50, 100);
+        for (int i = 0; i < 3; i++) {
+            writeMatch(writer, i);
+        }
+        sleep(500);
+        assert committedMatches.size() == 1 && committedMatches.get(0).size() == 3 : "testFlushInterval failed";
+        writer.close(1000);
+        System.out.println("testFlushInterval passed");
+    }
+
+    public void testDeltasSummed() {
+        MatchResultWriter writer = newWriter(100, 60000, 100);
+        writer.addScore(7, 1);
+        writer.addScore(3, -1);
+        writer.addScore(7, 1);
+        writer.addScore(7, 1);
+        writer.addScore(5, 0);
+        flush(writer);
+        List<Object[]> deltas = committedDeltas.get(0);
+        assert deltas.size() == 2 : "testDeltasSummed failed, " + deltas.size() + " updates";
+        // Sorted by player ID, parameters (delta, floor, ID)
+        assert deltas.get(0)[2].equals(3L) && deltas.get(0)[0].equals(-1) && deltas.get(0)[1].equals(0) : "testDeltasSummed failed, player 3";
+        assert deltas.get(1)[2].equals(7L) && deltas.get(1)[0].equals(3) : "testDeltasSummed failed, player 7";
+        writer.close(1000);
+        System.out.println("testDeltasSummed passed");
+    }
+
+    public void testRetry() {
+        MatchResultWriter writer = newWriter(100, 60000, 100);
+        failuresLeft.set(1);
+        writeMatch(writer, 1);
+        flush(writer); // Returns after the first try
+        awaitWritten(writer, 1);
+        assert committedMatches.size() == 1 && writer.getWrittenCount() == 1 : "testRetry failed";
+        writer.close(1000);
+        System.out.println("testRetry passed");
+    }
+
+    /**
+     * A failure lasting more tries than the old limit of 3 loses nothing.
+     */
+    public void testOutageKept() {
+        List<SQLException> lost = new ArrayList<>();
+        MatchResultWriter writer = new MatchResultWriter(newPool(), 100, 60000, 100, 1000, lost::add);
+        failuresLeft.set(4);
+        writeMatch(writer, 1);
+        writer.addScore(7, 2);
+        flush(writer); // Returns after the first try
+        awaitWritten(writer, 2);
+        assert writer.getWrittenCount() == 2 && committedMatches.size() == 1 : "testOutageKept failed, written " + writer.getWrittenCount();
+        assert committedDeltas.get(0).get(0)[0].equals(2) && lost.isEmpty() : "testOutageKept failed, deltas";
+        writer.close(1000);
+        System.out.println("testOutageKept passed");
+    }
+
+    /**
+     * A row rejected by the database is dropped alone; the rest of its batch is written.
+     */
+    public void testRejectedRow() {
+        List<SQLException> lost = new ArrayList<>();
+        MatchResultWriter writer = new MatchResultWriter(newPool(), 100, 60000, 100, 1000, lost::add);
+        writeMatch(writer, 1);
+        writer.writeMatch(2, LocalDateTime.of(2024, 7, 10, 12, 0), 1, UNKNOWN_PLAYER_ID, 1, 3, 0, null);
+        writeMatch(writer, 3);
+        writer.addScore(7, 1);
+        flush(writer);
+        int rows = 0;
+        for (List<Object[]> batch : committedMatches) {
+            rows += batch.size();
+        }
+        assert rows == 2 && committedDeltas.size() == 1 : "testRejectedRow failed, " + rows + " rows written";
+        assert lost.size() == 1 && lost.get(0).getMessage().startsWith("Lost 1 match(es)") : "testRejectedRow failed, lost " + lost.size();
+        writer.close(1000);
+        System.out.println("testRejectedRow passed");
+    }
+
+    /**
+     * A match is pending while queued or kept for a retry, not once written or rejected.
+     */
+    public void testPending() {
+        MatchResultWriter writer = new MatchResultWriter(newPool(), 100, 60000, 100, 1000, e -> { });
+        failuresLeft.set(1);
+        writeMatch(writer, 1);
+        assert writer.isPending(1) && !writer.isPending(2) : "testPending failed, queued match";
+        flush(writer); // The first try fails: kept
+        assert writer.isPending(1) : "testPending failed, kept match";
+        awaitWritten(writer, 1);
+        assert !writer.isPending(1) : "testPending failed, written match";
+        writer.writeMatch(2, LocalDateTime.of(2024, 7, 10, 12, 0), 1, UNKNOWN_PLAYER_ID, 1, 3, 0, null);
+        flush(writer);
+        assert !writer.isPending(2) : "testPending failed, rejected match";
+        writer.close(1000);
+        System.out.println("testPending passed");
+    }
+
+    public void testBackPressure() {
+        blockBatches = new CountDownLatch(1);
+        MatchResultWriter writer = new MatchResultWriter(newPool(), 1, 60000, 2, 50, null);
+        boolean rejected = false;
+        try {
+            for (int i = 0; i < 10; i++) {
+                writeMatch(writer, i); // The first one is held by the blocked flush, then the queue fills
+            }
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        assert rejected : "testBackPressure failed, the queue accepted everything";
+        blockBatches.countDown();
+        blockBatches = null;
+        flush(writer);
+        assert writer.getPendingCount() == 0 : "testBackPressure failed, queue not drained";
+        writer.close(1000);
+        System.out.println("testBackPressure passed");
+    }
+
+    /**
+     * A score change refused by a full queue is never written, and the next one is.
+     */
+    public void testScoreRejected() {
+        blockBatches = new CountDownLatch(1);
+        MatchResultWriter writer = new MatchResultWriter(newPool(), 1, 60000, 2, 50, null);
+        try {
+            for (int i = 0; i < 10; i++) {
+                writeMatch(writer, i); // The first one is held by the blocked flush, then the queue fills
+            }
+        } catch (IllegalStateException e) {
+            // Queue full
+        }
+        boolean rejected = false;
+        try {
+            writer.addScore(7, 5);
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        assert rejected && writer.getPendingScore(7) == 0 : "testScoreRejected failed, score change accepted";
+        rejected = false;
+        try {
+            writer.setScore(8, 1000);
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        assert rejected : "testScoreRejected failed, score set accepted";
+        blockBatches.countDown();
+        blockBatches = null;
+        flush(writer);
+        assert committedDeltas.isEmpty() : "testScoreRejected failed, rejected change written";
+        writer.addScore(7, 1);
+        awaitWritten(writer, writer.getWrittenCount() + 1);
+        assert committedDeltas.size() == 1 && committedDeltas.get(0).get(0)[0].equals(1) : "testScoreRejected failed, next change not written";
+        writer.close(1000);
+        System.out.println("testScoreRejected passed");
+    }
+
+    public void testCloseWritesQueue() {
+        MatchResultWriter writer = newWriter(1000, 60000, 1000);
+        for (int i = 0; i < 50; i++) {
+            writeMatch(writer, i);
+        }
+        assert writer.close(2000) : "testCloseWritesQueue failed, not stopped";
+        int rows = 0;
+        for (List<Object[]> batch : committedMatches) {
+            rows += batch.size();
+        }
+        assert rows == 50 : "testCloseWritesQueue failed, " + rows + " rows written";
+        boolean rejected = false;
+        try {
+            writeMatch(writer, 51);
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        assert rejected : "testCloseWritesQueue failed, write accepted after close";
+        System.out.println("testCloseWritesQueue passed");
+    }
+
+    private static void flush(MatchResultWriter writer) {
+        try {
+            writer.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWritten(MatchResultWriter writer, long count) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.getWrittenCount() < count && System.currentTimeMillis() < deadline) {
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeMatch(MatchResultWriter writer, long id) {
+        writer.writeMatch(id, LocalDateTime.of(2024, 7, 10, 12, 0), 1, 2, 1, 3, 0, new byte[] {4, 0, 8});
+    }
+
+    private MatchResultWriter newWriter(int batchSize, long flushIntervalMillis, int queueCapacity) {
+        return new MatchResultWriter(newPool(), batchSize, flushIntervalMillis, queueCapacity, 1000, null);
+    }
+
+    private ConnectionPool newPool() {
+        committedMatches.clear();
+        committedDeltas.clear();
+        committedStandings.clear();
+        return new ConnectionPool(this::openFake, 2, 1000, 60000, 60000);
+    }
+
+    /**
+     * A connection keeping the batches of its statements until commit.
+     */
+    private Connection openFake() {
+        List<List<Object[]>> pendingMatches = new ArrayList<>();
+        List<List<Object[]>> pendingDeltas = new ArrayList<>();
+        List<List<Object[]>> pendingStandings = new ArrayList<>();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        String sql = (String) args[0];
+                        return fakeStatement(sql.contains("`GAME_STANDING`") ? pendingStandings
+                            : sql.startsWith("INSERT") ? pendingMatches : pendingDeltas);
+                    case "commit":
+                        synchronized (this) {
+                            for (List<Object[]> batch : pendingMatches) {
+                                committedMatches.add(batch);
+                            }
+                            for (List<Object[]> batch : pendingDeltas) {
+                                committedDeltas.add(batch);
+                            }
+                            committedStandings.addAll(pendingStandings);
+                        }
+                        pendingMatches.clear();
+                        pendingDeltas.clear();
+                        pendingStandings.clear();
+                        return null;
+                    case "rollback":
+                        pendingMatches.clear();
+                        pendingDeltas.clear();
+                        pendingStandings.clear();
+                        return null;
+                    case "getAutoCommit":
+                    case "isValid":
+                        return true;
+                    case "isClosed":
+                        return false;
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    /**
+     * A statement adding its batch to the pending batches of its connection on executeBatch.
+     */
+    private PreparedStatement fakeStatement(List<List<Object[]>> pending) {
+        List<Object[]> rows = new ArrayList<>();
+        Object[][] parameters = {new Object[8]};
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length == 2 && args[0] instanceof Integer) {
+                    parameters[0][(Integer) args[0] - 1] = args[1];
+                } else if (name.equals("addBatch")) {
+                    rows.add(parameters[0]);
+                    parameters[0] = new Object[8];
+                } else if (name.equals("executeBatch")) {
+                    CountDownLatch block = blockBatches;
+                    if (block != null) {
+                        block.await();
+                    }
+                    if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                        rows.clear();
+                        throw new SQLException("Deadlock found", "40001");
+                    }
+                    for (Object[] row : rows) {
+                        if (Long.valueOf(UNKNOWN_PLAYER_ID).equals(row[3])) {
+                            rows.clear();
+                            throw new SQLIntegrityConstraintViolationException("Cannot add or update a child row", "23000");
+                        }
+                    }
+                    pending.add(new ArrayList<>(rows));
+                    int[] counts = new int[rows.size()];
+                    rows.clear();
+                    return counts;
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,283 @@
+package db;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+import model.Standing;
+
+import db.MemoryTables.MatchRow;
+
+/**
+ * In-memory database for many concurrent sessions: a DbInterface behaving like
+ * DbRepository, unique names and all, without any server or file. Built to
+ * load-test the application with hundreds of simulated sessions.
+ *
+ * The players are a ConcurrentHashMap by ID of immutable states: a change
+ * puts a new Player, the instances stored are never handed out nor modified.
+ * A change of a player locks one of STRIPES locks, chosen by the player's ID,
+ * which serializes it with the Leaderboard and PlayerNameIndex updates that
+ * follow it: the indexes see the changes of a player in order. The stripes
+ * do not make the changes scale: every change then updates the Leaderboard
+ * under its single lock, and every creation or rename copies the sorted
+ * arrays of the PlayerNameIndex, so creating n players costs O(n^2). Seed a
+ * large load test with few enough players, or expect that cost.
+ *
+ * The unique names are a ConcurrentHashMap from the lowercase name to the ID,
+ * claimed by putIfAbsent: of two sessions creating the same name at once,
+ * exactly one wins, as with the unique key of the table.
+ *
+ * The top players, the ranks and the prefix searches are read from the
+ * Leaderboard and PlayerNameIndex, which give a consistent view of every
+ * player at one instant. The matches are a ConcurrentSkipListSet ordered by
+ * date then ID; the per-game results a GameStandings guarded by its own lock.
+ *
+ * Thread-safe; the reads take no stripe lock.
+ */
+public class MemoryDb implements DbInterface {
+    public static final int MAX_NAME_LENGTH = 45; // As the NAME columns of the tables
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS; // Locks of the player changes
+    private static final int TOP_PLAYERS = 10;          // Players of getTopPlayers()
+
+    private final IdGenerator idGenerator;
+    private final Object[] locks = new Object[STRIPES];
+    private final Map<Long, Player> players = new ConcurrentHashMap<>();            // ID -> current state, never handed out
+    private final Map<String, Long> playerIdsByName = new ConcurrentHashMap<>();    // Lowercase name -> ID, for the unique names
+    private final Map<Long, Game> games;                                            // ID -> game, in creation order, read-only
+    private final ConcurrentSkipListSet<MatchRow> matches = new ConcurrentSkipListSet<>(MemoryTables.MATCH_ORDER); // By date then ID
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final PlayerNameIndex nameIndex = new PlayerNameIndex();
+    private final GameStandings standings = new GameStandings();                    // Guarded by itself
+    private volatile DbErrorListener errorListener;                                 // Notified of the errors, null to print them
+
+    /**
+     * Creates an empty database with the games of the application.
+     */
+    public MemoryDb() {
+        this(IdGenerator.fromSystemProperty());
+    }
+
+    /**
+     * Creates an empty database with the games of the application.
+     *
+     * @param _idGenerator the generator of the IDs of the new players and matches
+     */
+    public MemoryDb(IdGenerator _idGenerator) {
+        this.idGenerator = _idGenerator;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        Map<Long, Game> seeded = new LinkedHashMap<>();
+        seeded.put(1L, new Game("Tic Tac Toe", 1));
+        seeded.put(2L, new Game("Checkers", 2));
+        this.games = Collections.unmodifiableMap(seeded);
+    }
+
+    /**
+     * Sets the listener notified of the errors.
+     *
+     * @param _errorListener the listener
+     */
+    public void setErrorListener(DbErrorListener _errorListener) {
+        this.errorListener = _errorListener;
+    }
+
+    /**
+     * @return the lock of the changes of a player
+     */
+    private Object lockOf(long playerId) {
+        // Fibonacci hashing: the low bits of the generated IDs are a sequence, often 0
+        return locks[(int) ((playerId * 0x9E3779B97F4A7C15L) >>> (64 - STRIPE_BITS))];
+    }
+
+    @Override
+    public List<Player> getPlayers(String prefix) {
+        return getPlayers(prefix, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Player> getPlayers(String prefix, int offset, int limit) {
+        PlayerNameIndex.Page page = nameIndex.find(prefix, offset, limit);
+        List<Player> list = new ArrayList<>(page.ids.length);
+        for (int i = 0; i < page.ids.length; i++) {
+            Player stored = players.get(page.ids[i]);
+            // The name of the search, the current score
+            list.add(new Player(page.names[i], stored == null ? 0 : stored.getScore(), page.ids[i]));
+        }
+        return list;
+    }
+
+    @Override
+    public int countPlayers(String prefix) {
+        return nameIndex.count(prefix);
+    }
+
+    @Override
+    public List<Player> getTopPlayers() {
+        return leaderboard.top(TOP_PLAYERS);
+    }
+
+    @Override
+    public int getPlayerRank(Player _player) {
+        return leaderboard.rankOf(_player.getId());
+    }
+
+    @Override
+    public List<Standing> getTopStandings(Game _game, LeaderboardPeriod _period, int _limit) {
+        return MemoryTables.top(standingsOf(_game, _period), _limit);
+    }
+
+    @Override
+    public int getPlayerRank(Player _player, Game _game, LeaderboardPeriod _period) {
+        return MemoryTables.rankOf(standingsOf(_game, _period), _player);
+    }
+
+    @Override
+    public List<Standing> getStandingsAround(Player _player, Game _game, LeaderboardPeriod _period, int _radius) {
+        return MemoryTables.around(standingsOf(_game, _period), _player, _radius);
+    }
+
+    private List<Standing> standingsOf(Game _game, LeaderboardPeriod _period) {
+        List<Standing> ranked;
+        synchronized (standings) {
+            ranked = standings.standingsOf(_game.getId(), _period.currentKey(), players);
+        }
+        return MemoryTables.copyStandings(ranked);
+    }
+
+    @Override
+    public List<Match> getMatches(MatchFilter _filter, Match _after, int _limit) {
+        return MemoryTables.getMatches(matches, players, games, _filter, _after, _limit);
+    }
+
+    @Override
+    public byte[] getMatchMoves(Match _match) {
+        return MemoryTables.getMatchMoves(matches, _match);
+    }
+
+    @Override
+    public List<Game> getGames() {
+        return MemoryTables.copyGames(games.values());
+    }
+
+    @Override
+    public Player createPlayer(String _nickName) throws Exception {
+        checkName(_nickName);
+        long id = idGenerator.nextId();
+        if (playerIdsByName.putIfAbsent(MemoryTables.keyOf(_nickName), id) != null) {
+            throw new Exception("constraint nickName unique violated");
+        }
+        Player created = new Player(_nickName, 0, id);
+        synchronized (lockOf(id)) {
+            players.put(id, created);
+            leaderboard.update(id, _nickName, 0);
+            nameIndex.put(id, _nickName);
+        }
+        return MemoryTables.copyOf(created);
+    }
+
+    @Override
+    public Player renamePlayer(Player _plyr, String _nickName) throws Exception {
+        checkName(_nickName);
+        long id = _plyr.getId();
+        String key = MemoryTables.keyOf(_nickName);
+        Long owner = playerIdsByName.putIfAbsent(key, id);
+        if (owner != null && owner != id) {
+            throw new Exception("constraint nickName unique violated");
+        }
+        synchronized (lockOf(id)) {
+            Player stored = players.get(id);
+            if (stored == null) {
+                if (owner == null) {
+                    playerIdsByName.remove(key, id);
+                }
+                throw new Exception("player " + id + " not found");
+            }
+            String previousKey = MemoryTables.keyOf(stored.getNickName());
+            if (!previousKey.equals(key)) {
+                playerIdsByName.remove(previousKey, id);
+            }
+            players.put(id, new Player(_nickName, stored.getScore(), id));
+            leaderboard.rename(id, _nickName);
+            nameIndex.put(id, _nickName);
+        }
+        _plyr.setNickName(_nickName);
+        return _plyr;
+    }
+
+    /**
+     * @throws Exception if the name is empty or too long
+     */
+    private static void checkName(String _nickName) throws Exception {
+        if (_nickName == null || _nickName.trim().isEmpty() || _nickName.length() > MAX_NAME_LENGTH) {
+            throw new Exception("nickName must have 1 to " + MAX_NAME_LENGTH + " characters");
+        }
+    }
+
+    @Override
+    public Player updatePlayerScore(Player _player, int _score) {
+        return writeScore(_player, false, _score);
+    }
+
+    @Override
+    public Player addPlayerScore(Player _player, int _delta) {
+        return writeScore(_player, true, _delta);
+    }
+
+    /**
+     * Sets or adds to the score of a player under the player's lock, so
+     * concurrent additions are never lost.
+     */
+    private Player writeScore(Player _player, boolean add, int value) {
+        long id = _player.getId();
+        int score;
+        synchronized (lockOf(id)) {
+            Player stored = players.get(id);
+            if (stored == null) {
+                handleException(new SQLException("player " + id + " not found"));
+                return null;
+            }
+            score = add ? Math.max(0, stored.getScore() + value) : value;
+            players.put(id, new Player(stored.getNickName(), score, id));
+            leaderboard.update(id, stored.getNickName(), score);
+        }
+        _player.setScore(score);
+        return _player;
+    }
+
+    @Override
+    public Match informMatchResult(Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2, byte[] _moves) {
+        if (!players.containsKey(_player1.getId()) || !players.containsKey(_player2.getId()) || !games.containsKey(_game.getId())) {
+            // As the foreign keys of the MATCH table
+            handleException(new SQLException("match of unknown players or game"));
+            return null;
+        }
+        MatchRow row = new MatchRow(idGenerator.nextId(), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+            _player1.getId(), _player2.getId(), _game.getId(), _matchScorePlayer1, _matchScorePlayer2, _moves == null ? null : _moves.clone());
+        synchronized (standings) {
+            standings.addMatch(row.gameId, row.date, row.player1Id, row.player2Id, row.scorePlayer1, row.scorePlayer2);
+        }
+        matches.add(row);
+        Match match = new Match(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, row.date, row.id);
+        match.setMoves(_moves);
+        return match;
+    }
+
+    private void handleException(SQLException e) {
+        MemoryTables.handleException(errorListener, e);
+    }
+}
@@ -0,0 +1,198 @@
+package db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+import model.LeaderboardPeriod;
+
+/**
+ * Unit tests for the MemoryDb class.
+ */
+public class MemoryDbTest {
+    private static final int THREADS = 16;
+
+    public static void main(String[] args) {
+        MemoryDbTest test = new MemoryDbTest();
+        try {
+            test.testSearchAndRank();
+            test.testMatches();
+            test.testConcurrentScores();
+            test.testConcurrentCreates();
+            test.testConcurrentRenames();
+        } catch (Exception e) {
+            throw new AssertionError("MemoryDbTest failed: " + e, e);
+        }
+    }
+
+    public void testSearchAndRank() throws Exception {
+        MemoryDb db = new MemoryDb();
+        Player alice = db.createPlayer("Alice");
+        Player albert = db.createPlayer("albert");
+        Player bob = db.createPlayer("Bob");
+        db.updatePlayerScore(alice, 10);
+        db.addPlayerScore(bob, 20);
+        db.addPlayerScore(albert, -5);
+
+        assert db.countPlayers("AL") == 2 : "testSearchAndRank failed, count " + db.countPlayers("AL");
+        List<Player> page = db.getPlayers("al", 1, 10);
+        assert page.size() == 1 && page.get(0).getNickName().equals("Alice") && page.get(0).getScore() == 10
+            : "testSearchAndRank failed, page " + page.size();
+        List<Player> top = db.getTopPlayers();
+        assert top.get(0).getId() == bob.getId() && top.get(1).getId() == alice.getId() : "testSearchAndRank failed, top";
+        assert db.getPlayerRank(alice) == 2 && albert.getScore() == 0 : "testSearchAndRank failed, rank " + db.getPlayerRank(alice);
+
+        // The players handed out are copies
+        top.get(0).setScore(1000);
+        assert db.getTopPlayers().get(0).getScore() == 20 : "testSearchAndRank failed, internal player handed out";
+        System.out.println("testSearchAndRank passed");
+    }
+
+    public void testMatches() throws Exception {
+        MemoryDb db = new MemoryDb();
+        db.setErrorListener(e -> { });
+        Game game = db.getGames().get(0);
+        Player alice = db.createPlayer("Alice");
+        Player bob = db.createPlayer("Bob");
+        Match first = db.informMatchResult(alice, bob, game, 1, 0, new byte[] {4, 0, 8});
+        Match second = db.informMatchResult(bob, alice, game, 1, 1, null);
+
+        List<Match> history = db.getMatches(MatchFilter.all().withPlayer(alice), null, 10);
+        assert history.size() == 2 && history.get(0).getId() == second.getId() : "testMatches failed, history " + history.size();
+        List<Match> next = db.getMatches(MatchFilter.all(), history.get(0), 10);
+        assert next.size() == 1 && next.get(0).getId() == first.getId() : "testMatches failed, next page " + next.size();
+        assert db.getPlayerRank(alice, game, LeaderboardPeriod.ALL_TIME) == 1 : "testMatches failed, standings";
+        assert Arrays.equals(db.getMatchMoves(history.get(1)), new byte[] {4, 0, 8}) && db.getMatchMoves(second) == null
+            : "testMatches failed, moves";
+        assert db.informMatchResult(alice, new Player("Ghost", 0, 42), game, 1, 0, null) == null : "testMatches failed, unknown player";
+        System.out.println("testMatches passed");
+    }
+
+    /**
+     * Concurrent additions to the same players are all kept, and the leaderboard agrees.
+     */
+    public void testConcurrentScores() throws Exception {
+        MemoryDb db = new MemoryDb();
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            players.add(db.createPlayer("player" + i));
+        }
+        int additions = 500;
+        runConcurrently(thread -> {
+            for (int i = 0; i < additions; i++) {
+                Player player = players.get((thread + i) % players.size());
+                db.addPlayerScore(new Player(player.getNickName(), 0, player.getId()), 1);
+                db.getTopPlayers();
+            }
+            return null;
+        });
+
+        int total = 0;
+        for (Player player : db.getTopPlayers()) {
+            total += player.getScore();
+        }
+        assert total == THREADS * additions : "testConcurrentScores failed, total " + total;
+        for (Player player : db.getPlayers("player")) {
+            assert player.getScore() == THREADS * additions / players.size() : "testConcurrentScores failed, score " + player.getScore();
+        }
+        System.out.println("testConcurrentScores passed");
+    }
+
+    /**
+     * Of the sessions creating the same name at once, exactly one wins.
+     */
+    public void testConcurrentCreates() throws Exception {
+        MemoryDb db = new MemoryDb();
+        List<Integer> created = runConcurrently(thread -> {
+            int wins = 0;
+            for (int i = 0; i < 50; i++) {
+                try {
+                    db.createPlayer((thread % 2 == 0 ? "Name" : "NAME") + i);
+                    wins++;
+                } catch (Exception e) {
+                    assert e.getMessage().equals("constraint nickName unique violated") : "testConcurrentCreates failed, " + e;
+                }
+            }
+            return wins;
+        });
+        int wins = 0;
+        for (int w : created) {
+            wins += w;
+        }
+        assert wins == 50 && db.countPlayers("name") == 50 : "testConcurrentCreates failed, created " + wins;
+        System.out.println("testConcurrentCreates passed");
+    }
+
+    /**
+     * Concurrent renames leave every player searchable once, under a unique name.
+     */
+    public void testConcurrentRenames() throws Exception {
+        MemoryDb db = new MemoryDb();
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            players.add(db.createPlayer("p" + i));
+        }
+        runConcurrently(thread -> {
+            for (int i = 0; i < 200; i++) {
+                Player player = players.get(i % players.size());
+                try {
+                    db.renamePlayer(new Player(player.getNickName(), 0, player.getId()), "n" + (i % 6));
+                } catch (Exception e) {
+                    // Taken by another player
+                }
+            }
+            return null;
+        });
+        List<Player> found = db.getPlayers("");
+        assert found.size() == players.size() : "testConcurrentRenames failed, found " + found.size();
+        for (Player player : found) {
+            assert db.getPlayers(player.getNickName()).size() == 1 : "testConcurrentRenames failed, name " + player.getNickName();
+        }
+        System.out.println("testConcurrentRenames passed");
+    }
+
+    /**
+     * A body run by one thread.
+     */
+    private interface ThreadBody<T> {
+        T run(int thread) throws Exception;
+    }
+
+    /**
+     * Runs the body on THREADS threads started together.
+     *
+     * @return the results of the threads
+     */
+    private static <T> List<T> runConcurrently(ThreadBody<T> body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit((Callable<T>) () -> {
+                    start.await();
+                    return body.run(thread);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
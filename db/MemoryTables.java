@@ -0,0 +1,192 @@
+package db;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+
+import model.Player;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+import model.Standing;
+
+/**
+ * What the databases kept in memory, MemoryDb and LogDb, share: the matches
+ * as stored and the queries reading them, the queries on the standings of a
+ * game, and the copies of the players and games handed out.
+ *
+ * Stateless: the callers pass their collections, guarded as they guard them.
+ */
+final class MemoryTables {
+    /**
+     * The order of the matches: by date then ID, as the MATCH table is read.
+     */
+    static final Comparator<MatchRow> MATCH_ORDER = (a, b) -> {
+        int byDate = a.date.compareTo(b.date);
+        return byDate != 0 ? byDate : Long.compare(a.id, b.id);
+    };
+
+    private MemoryTables() {
+    }
+
+    /**
+     * Reads the matches backwards from the one after, in (date, ID) order.
+     *
+     * @param matches the matches, in MATCH_ORDER
+     * @param players the players by ID
+     * @param games the games by ID
+     * @param _filter the matches read
+     * @param _after the last match of the previous page, null for the first page
+     * @param _limit the maximum number of matches
+     * @return the matches, newest first
+     */
+    static List<Match> getMatches(NavigableSet<MatchRow> matches, Map<Long, Player> players, Map<Long, Game> games,
+            MatchFilter _filter, Match _after, int _limit) {
+        Iterator<MatchRow> rows = _after == null ? matches.descendingIterator()
+            : matches.headSet(MatchRow.keyOf(_after), false).descendingIterator();
+        List<Match> list = new ArrayList<>();
+        while (rows.hasNext() && list.size() < _limit) {
+            Match match = rows.next().toMatch(players, games);
+            if (_filter.matches(match)) {
+                list.add(match);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Finds the match by its (date, ID) in the ordered matches.
+     *
+     * @param matches the matches, in MATCH_ORDER
+     * @param _match the match
+     * @return a copy of its move log, null if the match or its log is unknown
+     */
+    static byte[] getMatchMoves(NavigableSet<MatchRow> matches, Match _match) {
+        MatchRow row = matches.ceiling(MatchRow.keyOf(_match));
+        return row == null || row.id != _match.getId() || row.moves == null ? null : row.moves.clone();
+    }
+
+    /**
+     * @param ranked the standings of a game, best first
+     * @return copies of the standings, with copies of their players
+     */
+    static List<Standing> copyStandings(List<Standing> ranked) {
+        List<Standing> list = new ArrayList<>(ranked.size());
+        for (Standing standing : ranked) {
+            list.add(new Standing(copyOf(standing.getPlayer()), standing.getRank(), standing.getWins(), standing.getDraws(), standing.getLosses()));
+        }
+        return list;
+    }
+
+    /**
+     * @return the first standings of a list
+     */
+    static List<Standing> top(List<Standing> list, int _limit) {
+        return new ArrayList<>(list.subList(0, Math.min(_limit, list.size())));
+    }
+
+    /**
+     * @return the rank of the player in the standings, -1 if they are not ranked
+     */
+    static int rankOf(List<Standing> list, Player _player) {
+        for (Standing standing : list) {
+            if (standing.getPlayer().getId() == _player.getId()) {
+                return standing.getRank();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the standings up to radius places above and below the player, empty if they are not ranked
+     */
+    static List<Standing> around(List<Standing> list, Player _player, int _radius) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).getPlayer().getId() == _player.getId()) {
+                return new ArrayList<>(list.subList(Math.max(0, i - _radius), Math.min(list.size(), i + _radius + 1)));
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * @return copies of the games
+     */
+    static List<Game> copyGames(Collection<Game> games) {
+        List<Game> list = new ArrayList<>(games.size());
+        for (Game game : games) {
+            list.add(new Game(game.getName(), game.getId()));
+        }
+        return list;
+    }
+
+    /**
+     * @return the key of a name for the unique names: names differing only in case are the same
+     */
+    static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    static Player copyOf(Player player) {
+        return player == null ? null : new Player(player.getNickName(), player.getScore(), player.getId());
+    }
+
+    /**
+     * Notifies the listener of an error, or prints it without one.
+     */
+    static void handleException(DbErrorListener listener, SQLException e) {
+        if (listener != null) {
+            listener.onDbError(e);
+        } else {
+            System.err.println("Database error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A match as stored: IDs instead of the players and game, which can be renamed.
+     */
+    static final class MatchRow {
+        final long id;
+        final LocalDateTime date;
+        final long player1Id;
+        final long player2Id;
+        final long gameId;
+        final int scorePlayer1;
+        final int scorePlayer2;
+        final byte[] moves;     // Move log, null if not recorded
+
+        MatchRow(long _id, LocalDateTime _date, long _player1Id, long _player2Id, long _gameId, int _scorePlayer1, int _scorePlayer2, byte[] _moves) {
+            this.id = _id;
+            this.date = _date;
+            this.player1Id = _player1Id;
+            this.player2Id = _player2Id;
+            this.gameId = _gameId;
+            this.scorePlayer1 = _scorePlayer1;
+            this.scorePlayer2 = _scorePlayer2;
+            this.moves = _moves;
+        }
+
+        /**
+         * @return a row with the (date, ID) of a match, to search the ordered matches
+         */
+        static MatchRow keyOf(Match _match) {
+            return new MatchRow(_match.getId(), _match.getDate(), 0, 0, 0, 0, 0, null);
+        }
+
+        /**
+         * @return the match, with copies of its players and game as they are now
+         */
+        Match toMatch(Map<Long, Player> players, Map<Long, Game> games) {
+            Game game = games.get(gameId);
+            return new Match(copyOf(players.get(player1Id)), copyOf(players.get(player2Id)),
+                game == null ? null : new Game(game.getName(), game.getId()), scorePlayer1, scorePlayer2, date, id);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package db;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Player names sorted case-insensitively, for the prefix searches.
+ *
+ * The players with a prefix are a contiguous range of the sorted names,
+ * found with two binary searches: a count costs O(log n) and a page of k
+ * players O(log n + k), whatever the number of players. The arrays are
+ * copied on write: the searches read a snapshot without locking, the rare
+ * creations and renames pay an O(n) copy.
+ */
+class PlayerNameIndex {
+    private final Map<Long, String> names = new HashMap<>(); // Player ID -> name, guarded by this
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new String[0], new long[0]);
+
+    /**
+     * Adds a player or renames them.
+     *
+     * @param playerId the ID of the player
+     * @param name the name of the player
+     */
+    synchronized void put(long playerId, String name) {
+        String previous = names.put(playerId, name);
+        if (!name.equals(previous)) {
+            Snapshot current = snapshot;
+            snapshot = previous == null ? current.with(playerId, name) : current.without(playerId, previous).with(playerId, name);
+        }
+    }
+
+    /**
+     * Adds the players not indexed yet: a name read from the database does not
+     * overwrite a newer one set by put(). Sorts once for all the players.
+     *
+     * @param playerIds the IDs of the players
+     * @param playerNames their names
+     */
+    synchronized void putAllIfAbsent(long[] playerIds, String[] playerNames) {
+        for (int i = 0; i < playerIds.length; i++) {
+            names.putIfAbsent(playerIds[i], playerNames[i]);
+        }
+        Entry[] entries = new Entry[names.size()];
+        int n = 0;
+        for (Map.Entry<Long, String> entry : names.entrySet()) {
+            entries[n++] = new Entry(keyOf(entry.getValue()), entry.getValue(), entry.getKey());
+        }
+        Arrays.sort(entries, (a, b) -> a.key.equals(b.key) ? Long.compare(a.id, b.id) : a.key.compareTo(b.key));
+        String[] keys = new String[n];
+        String[] sortedNames = new String[n];
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = entries[i].key;
+            sortedNames[i] = entries[i].name;
+            ids[i] = entries[i].id;
+        }
+        snapshot = new Snapshot(keys, sortedNames, ids);
+    }
+
+    /**
+     * Replaces the players by the ones read from the database, with the
+     * creations and renames of the other processes. Sorts once.
+     *
+     * @param playerIds the IDs of the players
+     * @param playerNames their names
+     */
+    synchronized void replaceAll(long[] playerIds, String[] playerNames) {
+        names.clear();
+        putAllIfAbsent(playerIds, playerNames);
+    }
+
+    /**
+     * @param prefix the start of the names, any case
+     * @return the number of players whose name starts with the prefix
+     */
+    int count(String prefix) {
+        Snapshot current = snapshot;
+        String key = keyOf(prefix);
+        return current.end(key) - current.start(key);
+    }
+
+    /**
+     * Gets a page of the players whose name starts with a prefix, sorted by name.
+     *
+     * @param prefix the start of the names, any case
+     * @param offset the players skipped
+     * @param limit the players returned at most
+     * @return the IDs and names of the players
+     */
+    Page find(String prefix, int offset, int limit) {
+        Snapshot current = snapshot;
+        String key = keyOf(prefix);
+        long start = current.start(key) + (long) Math.max(0, offset);
+        int end = current.end(key);
+        if (start >= end || limit <= 0) {
+            return new Page(new long[0], new String[0]);
+        }
+        int from = (int) start;
+        int to = (int) Math.min(end, start + limit);
+        return new Page(Arrays.copyOfRange(current.ids, from, to), Arrays.copyOfRange(current.names, from, to));
+    }
+
+    int size() {
+        return snapshot.ids.length;
+    }
+
+    private static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A page of players, in the order of the names.
+     */
+    static class Page {
+        final long[] ids;
+        final String[] names;
+
+        Page(long[] _ids, String[] _names) {
+            this.ids = _ids;
+            this.names = _names;
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final String name;
+        private final long id;
+
+        Entry(String _key, String _name, long _id) {
+            this.key = _key;
+            this.name = _name;
+            this.id = _id;
+        }
+    }
+
+    /**
+     * Immutable sorted arrays: lowercase keys, names and IDs at the same index.
+     */
+    private static class Snapshot {
+        private final String[] keys;
+        private final String[] names;
+        private final long[] ids;
+
+        Snapshot(String[] _keys, String[] _names, long[] _ids) {
+            this.keys = _keys;
+            this.names = _names;
+            this.ids = _ids;
+        }
+
+        /**
+         * @return the index of the first key starting with the prefix, or where it would be
+         */
+        int start(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the index after the last key starting with the prefix
+         */
+        int end(String prefix) {
+            int low = start(prefix);
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].startsWith(prefix)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the index of a player, -1 if absent
+         */
+        private int indexOf(long id, String key) {
+            for (int i = start(key); i < keys.length && keys[i].equals(key); i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Snapshot with(long id, String name) {
+            String key = keyOf(name);
+            int at = start(key);
+            while (at < keys.length && keys[at].equals(key) && ids[at] < id) {
+                at++;
+            }
+            return new Snapshot(insert(keys, at, key), insert(names, at, name), insert(ids, at, id));
+        }
+
+        Snapshot without(long id, String name) {
+            int at = indexOf(id, keyOf(name));
+            if (at < 0) {
+                return this;
+            }
+            return new Snapshot(remove(keys, at), remove(names, at), remove(ids, at));
+        }
+
+        private static String[] insert(String[] array, int at, String value) {
+            String[] copy = new String[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(array, at, copy, at + 1, array.length - at);
+            return copy;
+        }
+
+        private static long[] insert(long[] array, int at, long value) {
+            long[] copy = new long[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(array, at, copy, at + 1, array.length - at);
+            return copy;
+        }
+
+        private static String[] remove(String[] array, int at) {
+            String[] copy = new String[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            System.arraycopy(array, at + 1, copy, at, array.length - at - 1);
+            return copy;
+        }
+
+        private static long[] remove(long[] array, int at) {
+            long[] copy = new long[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, at);
+            System.arraycopy(array, at + 1, copy, at, array.length - at - 1);
+            return copy;
+        }
+    }
+}
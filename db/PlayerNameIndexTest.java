@@ -0,0 +1,83 @@
+package db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for the PlayerNameIndex class.
+ */
+public class PlayerNameIndexTest {
+    public static void main(String[] args) {
+        PlayerNameIndexTest test = new PlayerNameIndexTest();
+        test.testPrefixPages();
+        test.testRenameAndLoad();
+        test.testAgainstScan();
+    }
+
+    public void testPrefixPages() {
+        PlayerNameIndex index = new PlayerNameIndex();
+        index.put(1, "Nicolas");
+        index.put(2, "nina");
+        index.put(3, "Robert");
+        index.put(4, "Nico");
+        index.put(5, "Frank");
+        assert index.count("ni") == 3 : "testPrefixPages failed, count " + index.count("ni");
+        assert index.count("") == 5 && index.count("z") == 0 : "testPrefixPages failed, empty and missing prefix";
+        PlayerNameIndex.Page page = index.find("NI", 1, 10);
+        assert page.ids.length == 2 && page.names[0].equals("Nicolas") && page.names[1].equals("nina") : "testPrefixPages failed, page";
+        assert index.find("ni", 0, 1).names[0].equals("Nico") : "testPrefixPages failed, first";
+        assert index.find("ni", 3, 10).ids.length == 0 : "testPrefixPages failed, past the end";
+        assert index.find("", Integer.MAX_VALUE, Integer.MAX_VALUE).ids.length == 0 : "testPrefixPages failed, overflow";
+        System.out.println("testPrefixPages passed");
+    }
+
+    public void testRenameAndLoad() {
+        PlayerNameIndex index = new PlayerNameIndex();
+        index.put(1, "Nicolas");
+        index.put(1, "Zoe");
+        assert index.count("nic") == 0 && index.count("zo") == 1 : "testRenameAndLoad failed, rename";
+        // The table read before the rename must not bring the old name back
+        index.putAllIfAbsent(new long[]{1, 2, 3}, new String[]{"Nicolas", "Eva", "Adam"});
+        assert index.size() == 3 && index.count("nic") == 0 : "testRenameAndLoad failed, load";
+        assert index.find("", 0, 3).names[0].equals("Adam") : "testRenameAndLoad failed, order";
+        // A later read brings the creations and renames of the other processes
+        index.replaceAll(new long[]{1, 2, 3, 4}, new String[]{"Zoe", "Evan", "Adam", "Nina"});
+        assert index.size() == 4 && index.count("eva") == 1 && index.count("evan") == 1 : "testRenameAndLoad failed, replace";
+        assert index.find("n", 0, 10).ids[0] == 4 : "testRenameAndLoad failed, created elsewhere";
+        System.out.println("testRenameAndLoad passed");
+    }
+
+    /**
+     * Random names, every prefix of some of them checked against a scan.
+     */
+    public void testAgainstScan() {
+        Random random = new Random(7);
+        PlayerNameIndex index = new PlayerNameIndex();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int c = 0; c < 1 + random.nextInt(6); c++) {
+                name.append((char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(3)));
+            }
+            names.add(name.toString());
+            index.put(i, name.toString());
+        }
+        for (int i = 0; i < 100; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            String prefix = name.substring(0, 1 + random.nextInt(name.length())).toLowerCase();
+            int expected = 0;
+            for (String other : names) {
+                if (other.toLowerCase().startsWith(prefix)) {
+                    expected++;
+                }
+            }
+            assert index.count(prefix) == expected : "testAgainstScan failed, count of " + prefix;
+            PlayerNameIndex.Page page = index.find(prefix, 0, expected);
+            for (int p = 1; p < page.names.length; p++) {
+                assert page.names[p - 1].compareToIgnoreCase(page.names[p]) <= 0 : "testAgainstScan failed, order of " + prefix;
+            }
+        }
+        System.out.println("testAgainstScan passed");
+    }
+}
@@ -4,6 +4,11 @@ FROM `Player`
 ORDER BY `SCORE` DESC
 LIMIT 10;
 
+-- rank of a player: 1 + the players with a higher score
+SELECT COUNT(*) + 1
+FROM `Player`
+WHERE `SCORE` > ?;
+
 -- list all games
 SELECT `ID`,`NAME`
 FROM `GAME`;
@@ -14,6 +19,13 @@ SELECT `ID`, `NAME`, `SCORE`
 FROM `Player`
 WHERE `NAME` LIKE @prefix;
 
+-- page of the players with a name starting by a prefix, on the Unique_Player_Name index
+SELECT `ID`, `NAME`, `SCORE`
+FROM `Player`
+WHERE `NAME` LIKE 'prefix%'
+ORDER BY `NAME`, `ID`
+LIMIT 50 OFFSET 0;
+
 -- Insert a new player into the Player table
 INSERT INTO `Player` (`ID`, `NAME`, `SCORE`)
 VALUES (?, ?, ?);
@@ -23,6 +35,72 @@ UPDATE `Player`
 SET `NAME` = ?
 WHERE `ID` = ?;
 
--- Insert a new match into the MATCH table
-INSERT INTO `MATCH` (`ID`, `DATE`, `PLAYER1`, `PLAYER2`, `GAME`, `scorePlayer1`, `scorePlayer2`)
-VALUES (?, ?, ?, ?, ?, ?, ?);
+-- Add points to the score of a player, never below 0
+UPDATE `Player`
+SET `SCORE` = GREATEST(`SCORE` + ?, 0)
+WHERE `ID` = ?;
+
+-- Changes of the score of a player combined by the write-behind flush:
+-- points to add, then the lowest score reached by the changes clamped one at a time
+UPDATE `Player`
+SET `SCORE` = GREATEST(`SCORE` + ?, ?)
+WHERE `ID` = ?;
+
+-- Insert a new match into the MATCH table, with its move log
+INSERT INTO `MATCH` (`ID`, `DATE`, `PLAYER1`, `PLAYER2`, `GAME`, `scorePlayer1`, `scorePlayer2`, `MOVES`)
+VALUES (?, ?, ?, ?, ?, ?, ?, ?);
+
+-- Move log of a match, for a replay
+SELECT `MOVES` FROM `MATCH` WHERE `ID` = ?;
+
+-- Add the move logs to a MATCH table created before them
+ALTER TABLE `MATCH` ADD COLUMN `MOVES` mediumblob NULL AFTER `scorePlayer2`;
+
+-- Match history of a player, newest first, next page after the last match read (DATE, ID):
+-- one range of Match_Player1 and one of Match_Player2, LIMIT rows each, never an OFFSET
+SELECT m.`ID`, m.`DATE`, p1.`NAME`, p2.`NAME`, g.`NAME`, m.`scorePlayer1`, m.`scorePlayer2`
+FROM (
+ (SELECT * FROM `MATCH` WHERE `PLAYER1` = ? AND (`DATE` < ? OR (`DATE` = ? AND `ID` < ?))
+  ORDER BY `DATE` DESC, `ID` DESC LIMIT 20)
+ UNION ALL
+ (SELECT * FROM `MATCH` WHERE `PLAYER2` = ? AND `PLAYER1` <> ? AND (`DATE` < ? OR (`DATE` = ? AND `ID` < ?))
+  ORDER BY `DATE` DESC, `ID` DESC LIMIT 20)
+) m
+JOIN `Player` p1 ON p1.`ID` = m.`PLAYER1` JOIN `Player` p2 ON p2.`ID` = m.`PLAYER2` JOIN `GAME` g ON g.`ID` = m.`GAME`
+ORDER BY m.`DATE` DESC, m.`ID` DESC
+LIMIT 20;
+
+-- Add the result of a match to a player's standing in a game and period window
+INSERT INTO `GAME_STANDING` (`GAME`, `PERIOD`, `PLAYER`, `WINS`, `DRAWS`, `LOSSES`, `POINTS`)
+VALUES (?, ?, ?, ?, ?, ?, ?)
+ON DUPLICATE KEY UPDATE `WINS` = `WINS` + VALUES(`WINS`), `DRAWS` = `DRAWS` + VALUES(`DRAWS`),
+ `LOSSES` = `LOSSES` + VALUES(`LOSSES`), `POINTS` = `POINTS` + VALUES(`POINTS`);
+
+-- top 10 of a game in a period window, e.g. Checkers this week
+SELECT s.`PLAYER`, p.`NAME`, s.`WINS`, s.`DRAWS`, s.`LOSSES`, s.`POINTS`
+FROM `GAME_STANDING` s JOIN `Player` p ON p.`ID` = s.`PLAYER`
+WHERE s.`GAME` = ? AND s.`PERIOD` = '2024-W28'
+ORDER BY s.`POINTS` DESC, s.`PLAYER`
+LIMIT 10;
+
+-- rank of a player in a game in a period window
+SELECT COUNT(*) + 1
+FROM `GAME_STANDING`
+WHERE `GAME` = ? AND `PERIOD` = ? AND `POINTS` > ?;
+
+-- Rebuild GAME_STANDING from the matches: every match, for both players, in the 'ALL', month and ISO week windows
+DELETE FROM `GAME_STANDING`;
+INSERT INTO `GAME_STANDING` (`GAME`, `PERIOD`, `PLAYER`, `WINS`, `DRAWS`, `LOSSES`, `POINTS`)
+SELECT r.`GAME`,
+ CASE w.`K` WHEN 0 THEN 'ALL' WHEN 1 THEN DATE_FORMAT(r.`DATE`, '%Y-%m')
+  ELSE CONCAT(LEFT(YEARWEEK(r.`DATE`, 3), 4), '-W', RIGHT(YEARWEEK(r.`DATE`, 3), 2)) END AS `PERIOD`,
+ r.`PLAYER`, SUM(r.`WIN`), SUM(r.`DRAW`), SUM(r.`LOSS`), SUM(r.`WIN`) * 2 + SUM(r.`DRAW`)
+FROM (
+ SELECT `GAME`, `DATE`, `PLAYER1` AS `PLAYER`, `scorePlayer1` > `scorePlayer2` AS `WIN`,
+  `scorePlayer1` = `scorePlayer2` AS `DRAW`, `scorePlayer1` < `scorePlayer2` AS `LOSS` FROM `MATCH`
+ UNION ALL
+ SELECT `GAME`, `DATE`, `PLAYER2`, `scorePlayer2` > `scorePlayer1`,
+  `scorePlayer2` = `scorePlayer1`, `scorePlayer2` < `scorePlayer1` FROM `MATCH`
+) r
+CROSS JOIN (SELECT 0 AS `K` UNION ALL SELECT 1 UNION ALL SELECT 2) w
+GROUP BY r.`GAME`, `PERIOD`, r.`PLAYER`;
@@ -0,0 +1,256 @@
+package db;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of checksummed records.
+ *
+ * The file starts with a header: MAGIC and a generation number, changed when
+ * the file is rewritten. Then every record is framed as
+ *
+ *   int length | int CRC32 of type and payload | byte type | payload
+ *
+ * A crash can leave the last record torn. Reading stops at the first record
+ * cut short or failing its checksum: open() truncates the file there, so the
+ * next appends follow the last good record. An append failing after writing
+ * part of its record truncates it the same way at once; if even that fails,
+ * the log refuses every later append rather than write after the torn bytes.
+ *
+ * Not thread-safe.
+ */
+class RecordLog implements Closeable {
+    static final int MAGIC = 0x54504731;  // "TPG1"
+    static final int HEADER_BYTES = 12;   // MAGIC and the generation
+    private static final int FRAME_BYTES = 9; // length, CRC32 and type
+    private static final int MAX_PAYLOAD = 1 << 20;
+
+    private final FileChannel channel;
+    private final long generation;
+    private long size; // End of the last good record
+    private IOException broken; // Why a torn record could not be truncated, null while appends are safe
+
+    /**
+     * Reads the payload of a record.
+     */
+    interface RecordHandler {
+        void onRecord(byte type, DataInputStream payload) throws IOException;
+    }
+
+    private RecordLog(FileChannel _channel, long _generation, long _size) {
+        this.channel = _channel;
+        this.generation = _generation;
+        this.size = _size;
+    }
+
+    /**
+     * Creates an empty log, replacing the file.
+     *
+     * @param file the file
+     * @param generation the generation of the log
+     * @return the log, open for appends
+     * @throws IOException if the file cannot be written
+     */
+    static RecordLog create(Path file, long generation) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putLong(generation);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        return new RecordLog(channel, generation, HEADER_BYTES);
+    }
+
+    /**
+     * Opens a log, reading its records from a position, and truncates a torn last record.
+     *
+     * @param file the file, created with the generation if it does not exist
+     * @param generation the generation of a new log
+     * @param from the position of the first record read, 0 for the first of the log
+     * @param handler receives the records
+     * @return the log, open for appends after its last good record
+     * @throws IOException if the file cannot be read or is not a log
+     */
+    static RecordLog open(Path file, long generation, long from, RecordHandler handler) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_BYTES) {
+            return create(file, generation);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 16));
+            long fileGeneration = readHeader(in, file);
+            long start = Math.max(HEADER_BYTES, from);
+            in.skipNBytes(start - HEADER_BYTES);
+            long end = readRecords(in, start, handler);
+            if (end < channel.size()) {
+                channel.truncate(end); // Torn or corrupt tail
+            }
+            channel.position(end);
+            return new RecordLog(channel, fileGeneration, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the generation of a log without reading its records.
+     *
+     * @param file the file
+     * @return the generation, -1 if the file is missing or not a log
+     */
+    static long generationOf(Path file) {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return readHeader(in, file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long readHeader(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a record log: " + file);
+        }
+        return in.readLong();
+    }
+
+    /**
+     * Reads records until the end of the stream or the first bad record.
+     *
+     * @return the position after the last good record
+     */
+    private static long readRecords(DataInputStream in, long position, RecordHandler handler) throws IOException {
+        CRC32 crc = new CRC32();
+        while (true) {
+            int length;
+            int checksum;
+            byte type;
+            byte[] payload;
+            try {
+                length = in.readInt();
+                if (length < 0 || length > MAX_PAYLOAD) {
+                    return position;
+                }
+                checksum = in.readInt();
+                type = in.readByte();
+                payload = in.readNBytes(length);
+                if (payload.length < length) {
+                    return position;
+                }
+            } catch (EOFException e) {
+                return position;
+            }
+            crc.reset();
+            crc.update(type);
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return position;
+            }
+            handler.onRecord(type, new DataInputStream(new ByteArrayInputStream(payload)));
+            position += FRAME_BYTES + length;
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param type the type of the record
+     * @param payload the payload
+     * @return the position after the record
+     * @throws IOException if the write fails, the record then not in the log
+     */
+    long append(byte type, byte[] payload) throws IOException {
+        if (broken != null) {
+            throw new IOException("Record log unusable after a failed append", broken);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES + payload.length)
+            .putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload);
+        frame.flip();
+        try {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        } catch (IOException e) {
+            truncateTornRecord(e);
+            throw e;
+        }
+        size += frame.capacity();
+        return size;
+    }
+
+    /**
+     * Drops the part of a record written by a failed append, so that the next
+     * appends follow the last good record; marks the log broken if it cannot.
+     */
+    private void truncateTornRecord(IOException cause) {
+        try {
+            channel.truncate(size);
+            channel.position(size);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            broken = cause;
+        }
+    }
+
+    /**
+     * Forces the records appended to the disk.
+     *
+     * @throws IOException if the sync fails
+     */
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * @return the position after the last record
+     */
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes a payload with a DataOutputStream.
+     */
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * @return the bytes written by the writer
+     */
+    static byte[] payload(PayloadWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Not thrown by a ByteArrayOutputStream
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,149 @@
+package db;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory score changes per player, between two writes.
+ *
+ * A score never goes below 0, and every change is clamped on its own: from 0,
+ * -1 then +1 gives 1. The changes of a player are therefore not kept as a
+ * plain sum but as one Change, score -> max(score + add, floor), which
+ * composes with the next one exactly, so the batch
+ * SCORE = GREATEST(SCORE + add, floor) gives the same score as the changes
+ * written one at a time. Setting a score is a change too: an add low enough
+ * for the floor, the new score, to win whatever the score was.
+ *
+ * Every player has an entry updated atomically by merge(); drain() removes
+ * the entries it takes, so the map only holds the players with a change
+ * pending, and a change adding up to nothing is removed at once.
+ */
+public class ScoreAggregator {
+    private final ConcurrentHashMap<Long, Change> changes = new ConcurrentHashMap<>(); // Player ID -> change pending
+
+    /**
+     * Adds points to a player, never below 0.
+     *
+     * @param playerId the ID of the player
+     * @param delta the points to add, negative to remove
+     */
+    public void add(long playerId, int delta) {
+        if (delta != 0) {
+            changes.merge(playerId, Change.of(delta), ScoreAggregator::thenOrNull);
+        }
+    }
+
+    /**
+     * Sets the score of a player, replacing the changes pending before.
+     *
+     * @param playerId the ID of the player
+     * @param score the new score, not below 0
+     */
+    public void set(long playerId, int score) {
+        changes.merge(playerId, Change.to(score), ScoreAggregator::thenOrNull);
+    }
+
+    /**
+     * Puts back a change drained but not written, before the changes added since.
+     *
+     * @param playerId the ID of the player
+     * @param change the change drained
+     */
+    public void addFirst(long playerId, Change change) {
+        changes.merge(playerId, change, (pending, first) -> thenOrNull(first, pending));
+    }
+
+    /**
+     * @param playerId the ID of the player
+     * @return the points added to the player since the last drain, before clamping; meaningless after a set
+     */
+    public long pending(long playerId) {
+        Change change = changes.get(playerId);
+        return change == null ? 0 : change.add;
+    }
+
+    /**
+     * Takes the changes added since the last drain and removes them.
+     * Changes added during the drain are either in the result or kept for the next drain.
+     *
+     * @return player ID -> change, sorted by player ID
+     */
+    public Map<Long, Change> drain() {
+        Map<Long, Change> drained = new TreeMap<>();
+        for (Long playerId : changes.keySet()) {
+            Change change = changes.remove(playerId);
+            if (change != null) {
+                drained.put(playerId, change);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * @return first then second, null if that leaves every score unchanged
+     */
+    private static Change thenOrNull(Change first, Change second) {
+        Change change = first.then(second);
+        return change.add == 0 && change.floor == 0 ? null : change;
+    }
+
+    /**
+     * A change of a score: score -> max(score + add, floor), for a score not below 0.
+     */
+    public static final class Change {
+        private final long add;
+        private final long floor;
+
+        private Change(long _add, long _floor) {
+            this.add = _add;
+            this.floor = _floor;
+        }
+
+        /**
+         * @param delta the points to add, negative to remove
+         * @return the change adding delta, never below 0
+         */
+        static Change of(int delta) {
+            return new Change(delta, 0);
+        }
+
+        /**
+         * @param score the new score, not below 0
+         * @return the change setting the score, whatever it was
+         */
+        static Change to(int score) {
+            return new Change(Integer.MIN_VALUE, Math.max(0, score));
+        }
+
+        /**
+         * @param next the change applied after this one
+         * @return this change, then next
+         */
+        Change then(Change next) {
+            return new Change(add + next.add, Math.max(floor + next.add, next.floor));
+        }
+
+        /**
+         * @return the points to add, for SCORE + ?
+         */
+        public int getAdd() {
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, add));
+        }
+
+        /**
+         * @return the lowest score after the change, for GREATEST(SCORE + ?, ?)
+         */
+        public int getFloor() {
+            return (int) Math.min(Integer.MAX_VALUE, floor);
+        }
+
+        /**
+         * @param score a score, not below 0
+         * @return the score after the change
+         */
+        public int apply(int score) {
+            return Math.max(score + getAdd(), getFloor());
+        }
+    }
+}
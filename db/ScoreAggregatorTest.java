@@ -0,0 +1,110 @@
+package db;
+
+import java.util.Map;
+
+/**
+ * Unit tests for the ScoreAggregator class.
+ */
+public class ScoreAggregatorTest {
+    public static void main(String[] args) {
+        ScoreAggregatorTest test = new ScoreAggregatorTest();
+        test.testDrain();
+        test.testClampedPerChange();
+        test.testSet();
+        test.testConcurrentAdds();
+    }
+
+    public void testDrain() {
+        ScoreAggregator scores = new ScoreAggregator();
+        scores.add(9, 1);
+        scores.add(2, -1);
+        scores.add(9, 1);
+        scores.add(4, 1);
+        scores.add(4, -1);
+        assert scores.pending(9) == 2 : "testDrain failed, pending " + scores.pending(9);
+        Map<Long, ScoreAggregator.Change> drained = scores.drain();
+        assert drained.size() == 2 : "testDrain failed, zero kept " + drained.keySet();
+        assert drained.keySet().iterator().next() == 2L : "testDrain failed, not sorted " + drained.keySet();
+        assert drained.get(9L).getAdd() == 2 && drained.get(2L).getAdd() == -1 : "testDrain failed, sums";
+        assert scores.pending(9) == 0 && scores.drain().isEmpty() : "testDrain failed, not reset";
+        System.out.println("testDrain passed");
+    }
+
+    /**
+     * The drained change clamps like the changes applied one at a time.
+     */
+    public void testClampedPerChange() {
+        ScoreAggregator scores = new ScoreAggregator();
+        scores.add(1, -1);
+        scores.add(1, 1);
+        scores.add(2, -3);
+        scores.add(2, 5);
+        scores.add(2, -4);
+        Map<Long, ScoreAggregator.Change> drained = scores.drain();
+        assert drained.get(1L).apply(0) == 1 && drained.get(1L).apply(5) == 5 : "testClampedPerChange failed, player 1";
+        // 2 -> 0 -> 5 -> 1, and 10 -> 7 -> 12 -> 8
+        assert drained.get(2L).apply(2) == 1 && drained.get(2L).apply(10) == 8 : "testClampedPerChange failed, player 2";
+
+        // Put back before a newer change: 0 -> 0 -> 1, then -1 -> 0
+        scores.add(1, -1);
+        scores.addFirst(1, drained.get(1L));
+        assert scores.drain().get(1L).apply(0) == 0 : "testClampedPerChange failed, put back";
+        System.out.println("testClampedPerChange passed");
+    }
+
+    /**
+     * A score set replaces the changes before it, and those after it apply to it.
+     */
+    public void testSet() {
+        ScoreAggregator scores = new ScoreAggregator();
+        scores.add(1, 5);
+        scores.set(1, 1500);
+        scores.add(1, -3);
+        scores.set(2, 0);
+        Map<Long, ScoreAggregator.Change> drained = scores.drain();
+        assert drained.get(1L).apply(0) == 1497 && drained.get(1L).apply(Integer.MAX_VALUE) == 1497 : "testSet failed, player 1";
+        assert drained.get(2L).apply(42) == 0 : "testSet failed, set to 0 dropped";
+        System.out.println("testSet passed");
+    }
+
+    /**
+     * Adds racing with the drains are counted exactly once.
+     */
+    public void testConcurrentAdds() {
+        ScoreAggregator scores = new ScoreAggregator();
+        int threads = 4;
+        int adds = 100000;
+        long drainedTotal = 0;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < adds; i++) {
+                    scores.add(i % 3, 1);
+                }
+            });
+            workers[t].start();
+        }
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread worker : workers) {
+                running |= worker.isAlive();
+            }
+            for (ScoreAggregator.Change change : scores.drain().values()) {
+                drainedTotal += change.getAdd();
+            }
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (ScoreAggregator.Change change : scores.drain().values()) {
+            drainedTotal += change.getAdd();
+        }
+        assert drainedTotal == (long) threads * adds : "testConcurrentAdds failed, total " + drainedTotal;
+        System.out.println("testConcurrentAdds passed");
+    }
+}
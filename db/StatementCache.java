@@ -0,0 +1,244 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepared statements of one pooled connection, kept open between the
+ * operations and keyed by SQL, least recently used evicted first.
+ *
+ * The caller gets a proxy: close() on it closes the last result set and
+ * clears the parameters, but keeps the statement prepared for the next
+ * caller of the same SQL. A statement is lent to one caller at a time; a
+ * second prepare of the same SQL while it is in use gets an uncached one.
+ *
+ * Not thread-safe: a connection is used by one thread at a time.
+ */
+class StatementCache {
+    private final int capacity;                 // Statements kept at most
+    private final LongAdder poolHits;           // Hits of every connection of the pool
+    private final LongAdder poolMisses;         // Misses of every connection of the pool
+    private final LinkedHashMap<String, CachedStatement> statements; // Access order: least recently used first
+    private long hits;                          // Prepares served from the cache
+    private long misses;                        // Prepares sent to the server
+
+    /**
+     * @param _capacity the number of statements kept, 0 disables the cache
+     * @param _poolHits the hit counter of the pool
+     * @param _poolMisses the miss counter of the pool
+     */
+    StatementCache(int _capacity, LongAdder _poolHits, LongAdder _poolMisses) {
+        this.capacity = _capacity;
+        this.poolHits = _poolHits;
+        this.poolMisses = _poolMisses;
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the SQL, from the cache if possible.
+     *
+     * @param physical the physical connection
+     * @param lent the connection seen by the caller, returned by getConnection()
+     * @param sql the SQL of the statement
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @param onConnectionError run when a call of the statement fails with a connection error
+     * @return the statement, to be closed by the caller
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection physical, Connection lent, String sql, int autoGeneratedKeys,
+                              Runnable onConnectionError) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K" + sql : "N" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits++;
+            poolHits.increment();
+        } else {
+            misses++;
+            poolMisses.increment();
+            cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+            if (capacity > 0 && !statements.containsKey(key)) {
+                statements.put(key, cached);
+            } else {
+                cached.evicted = true; // Not cached: closed with its proxy
+            }
+        }
+        cached.inUse = true;
+        return cached.lend(lent, onConnectionError);
+    }
+
+    /**
+     * Releases the statements a caller left open, when the connection goes back to the pool.
+     */
+    void releaseAll() {
+        for (CachedStatement cached : new ArrayList<>(statements.values())) {
+            if (cached.inUse) {
+                cached.release();
+            }
+        }
+    }
+
+    /**
+     * Closes every statement, before the physical connection is closed.
+     */
+    void closeAll() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (it.hasNext()) {
+            it.next().evict();
+            it.remove();
+        }
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    /**
+     * A physical statement and its state in the cache.
+     */
+    private static class CachedStatement {
+        private final PreparedStatement physical;
+        private Connection lent;             // Connection of the current caller
+        private boolean inUse;               // Lent to a caller
+        private boolean evicted;             // Closed when the caller is done
+        private final List<ResultSet> resultSets = new ArrayList<>(1); // Opened by the current caller
+        private LentStatement handler;       // Proxy handler of the current caller
+
+        CachedStatement(PreparedStatement _physical) {
+            this.physical = _physical;
+        }
+
+        PreparedStatement lend(Connection _lent, Runnable onConnectionError) {
+            lent = _lent;
+            handler = new LentStatement(this, onConnectionError);
+            return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        /**
+         * Ends the use by the current caller: keeps the statement if cached, closes it otherwise.
+         */
+        void release() {
+            inUse = false;
+            lent = null;
+            if (handler != null) {
+                handler.closed = true;
+                handler = null;
+            }
+            try {
+                for (ResultSet resultSet : resultSets) {
+                    resultSet.close();
+                }
+                resultSets.clear();
+                if (evicted) {
+                    physical.close();
+                } else {
+                    physical.clearParameters();
+                }
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Leaves the cache: closed now if unused, else when released.
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    /**
+     * Statement handed to a caller: forwards the calls until close().
+     */
+    private static class LentStatement implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Runnable onConnectionError; // Marks the connection broken
+        private boolean closed;
+
+        LentStatement(CachedStatement _cached, Runnable _onConnectionError) {
+            this.cached = _cached;
+            this.onConnectionError = _onConnectionError;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return cached.lent;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached " + cached.physical;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                Object result = method.invoke(cached.physical, args);
+                if (result instanceof ResultSet) {
+                    cached.resultSets.add((ResultSet) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && ConnectionPool.isConnectionError((SQLException) cause)) {
+                    onConnectionError.run();
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -30,3 +30,20 @@ INSERT INTO `MATCH` (`ID`, `DATE`, `PLAYER1`, `PLAYER2`, `GAME`, `scorePlayer1`,
 (18, '2024-03-17 23:55:29', 5, 2, 1, 1, 0),
 (19, '2024-09-02 23:55:29', 3, 4, 2, 10, 1),
 (20, '2024-11-05 23:55:29', 2, 4, 2, 3, 0);
+
+-- Rebuild GAME_STANDING from the matches: every match, for both players, in the 'ALL', month and ISO week windows
+DELETE FROM `GAME_STANDING`;
+INSERT INTO `GAME_STANDING` (`GAME`, `PERIOD`, `PLAYER`, `WINS`, `DRAWS`, `LOSSES`, `POINTS`)
+SELECT r.`GAME`,
+ CASE w.`K` WHEN 0 THEN 'ALL' WHEN 1 THEN DATE_FORMAT(r.`DATE`, '%Y-%m')
+  ELSE CONCAT(LEFT(YEARWEEK(r.`DATE`, 3), 4), '-W', RIGHT(YEARWEEK(r.`DATE`, 3), 2)) END AS `PERIOD`,
+ r.`PLAYER`, SUM(r.`WIN`), SUM(r.`DRAW`), SUM(r.`LOSS`), SUM(r.`WIN`) * 2 + SUM(r.`DRAW`)
+FROM (
+ SELECT `GAME`, `DATE`, `PLAYER1` AS `PLAYER`, `scorePlayer1` > `scorePlayer2` AS `WIN`,
+  `scorePlayer1` = `scorePlayer2` AS `DRAW`, `scorePlayer1` < `scorePlayer2` AS `LOSS` FROM `MATCH`
+ UNION ALL
+ SELECT `GAME`, `DATE`, `PLAYER2`, `scorePlayer2` > `scorePlayer1`,
+  `scorePlayer2` = `scorePlayer1`, `scorePlayer2` < `scorePlayer1` FROM `MATCH`
+) r
+CROSS JOIN (SELECT 0 AS `K` UNION ALL SELECT 1 UNION ALL SELECT 2) w
+GROUP BY r.`GAME`, `PERIOD`, r.`PLAYER`;
@@ -37,16 +37,44 @@ CREATE TABLE `MATCH`
  `GAME`         bigint NOT NULL ,
  `scorePlayer1` integer NOT NULL ,
  `scorePlayer2` integer NOT NULL ,
+-- Moves in the order played, one varint (LEB128) per move: 1 byte for Tic Tac Toe,
+-- 2 for Checkers; NULL if not recorded. Never read by the history queries.
+-- Unbounded: Checkers has no move limit, so no fixed-size column holds every log
+ `MOVES`        mediumblob NULL ,
 
 PRIMARY KEY (`ID`),
-KEY `FK_1` (`PLAYER1`),
+-- Match history, newest first, paged by seek on (DATE, ID): one index per filter
+-- The player indexes also serve the foreign keys
+KEY `Match_Date` (`DATE`, `ID`),
+KEY `Match_Player1` (`PLAYER1`, `DATE`, `ID`),
+KEY `Match_Player2` (`PLAYER2`, `DATE`, `ID`),
+KEY `Match_Pair` (`PLAYER1`, `PLAYER2`, `DATE`, `ID`),
+KEY `Match_Game` (`GAME`, `DATE`, `ID`),
 CONSTRAINT `FK_1` FOREIGN KEY (`PLAYER1`) REFERENCES `Player` (`ID`),
-KEY `FK_2` (`PLAYER2`),
 CONSTRAINT `FK_2` FOREIGN KEY (`PLAYER2`) REFERENCES `Player` (`ID`),
-KEY `FK_3` (`GAME`),
 CONSTRAINT `FK_3` FOREIGN KEY (`GAME`) REFERENCES `GAME` (`ID`)
 );
 
+-- Results per player, game and period window, maintained with every match
+-- PERIOD: 'ALL', a month '2024-07' or an ISO week '2024-W28'
+-- POINTS: 2 per win, 1 per draw
+CREATE TABLE `GAME_STANDING`
+(
+ `GAME`   bigint NOT NULL ,
+ `PERIOD` varchar(8) NOT NULL ,
+ `PLAYER` bigint NOT NULL ,
+ `WINS`   integer NOT NULL ,
+ `DRAWS`  integer NOT NULL ,
+ `LOSSES` integer NOT NULL ,
+ `POINTS` integer NOT NULL ,
+
+PRIMARY KEY (`GAME`, `PERIOD`, `PLAYER`),
+KEY `Standing_Rank` (`GAME`, `PERIOD`, `POINTS`, `PLAYER`),
+KEY `FK_4` (`PLAYER`),
+CONSTRAINT `FK_4` FOREIGN KEY (`PLAYER`) REFERENCES `Player` (`ID`),
+CONSTRAINT `FK_5` FOREIGN KEY (`GAME`) REFERENCES `GAME` (`ID`)
+);
+
 commit;
 
 
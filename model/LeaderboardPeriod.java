@@ -0,0 +1,40 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+/**
+ * Time windows of the per-game leaderboards.
+ * Every match counts in the window of each period containing its date.
+ */
+public enum LeaderboardPeriod {
+    ALL_TIME,   // Every match
+    MONTH,      // Matches of a calendar month
+    WEEK;       // Matches of an ISO week, Monday to Sunday
+
+    /**
+     * Gets the key of the window containing a date, as stored in the database.
+     *
+     * @param _date The date.
+     * @return "ALL", "2024-07" for a month or "2024-W28" for a week.
+     */
+    public String keyOf(LocalDate _date) {
+        switch (this) {
+            case MONTH:
+                return String.format("%04d-%02d", _date.getYear(), _date.getMonthValue());
+            case WEEK:
+                return String.format("%04d-W%02d", _date.get(IsoFields.WEEK_BASED_YEAR), _date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            default:
+                return "ALL";
+        }
+    }
+
+    /**
+     * Gets the key of the current window.
+     *
+     * @return The key of the window containing today.
+     */
+    public String currentKey() {
+        return keyOf(LocalDate.now());
+    }
+}
@@ -17,6 +17,7 @@ public class Match extends DbId {
     private Game game; // The game being played
     private int scorePlayer1; // The score of the first player
     private int scorePlayer2; // The score of the second player
+    private byte[] moves; // The move log of the match, null if not recorded or not loaded
 
     /**
      * Constructor for Match.
@@ -53,7 +54,16 @@ public class Match extends DbId {
         this.game = _game;
         this.scorePlayer1 = _scorePlayer1;
         this.scorePlayer2 = _scorePlayer2;
-        this.date = date;
+        this.date = _date;
+    }
+
+    /**
+     * Gets the date and time of the match.
+     *
+     * @return The date, null if not known.
+     */
+    public LocalDateTime getDate() {
+        return this.date;    
     }
 
     /**
@@ -119,6 +129,25 @@ public class Match extends DbId {
         return this.scorePlayer2;    
     }
 
+    /**
+     * Sets the move log of the match.
+     *
+     * @param _moves The moves in the order played, varint-encoded; null if not recorded.
+     */
+    public void setMoves(byte[] _moves) {
+        this.moves = _moves;
+    }
+
+    /**
+     * Gets the move log of the match.
+     * Not loaded with the match history: see DbInterface.getMatchMoves.
+     *
+     * @return The moves in the order played, varint-encoded; null if not recorded or not loaded.
+     */
+    public byte[] getMoves() {
+        return this.moves;
+    }
+
     /**
      * Returns a string representation of the match for debugging purposes.
      * Overrides the dbgMeAsStr method in DbId.
@@ -0,0 +1,127 @@
+package model;
+
+import java.time.LocalDateTime;
+
+import model.Player;
+import model.Game;
+import model.Match;
+
+/**
+ * Domain Model Class for MatchFilter.
+ * Selects the matches of a history query: of a player, of two players against
+ * each other, of a game, between two dates, or any combination.
+ * Immutable: every with method returns a new filter.
+ */
+public class MatchFilter {
+    private static final MatchFilter ALL = new MatchFilter(null, null, null, null, null);
+
+    private final Long playerId; // Matches of this player, either side, null for any player
+    private final Long opponentId; // And of this opponent, null for any opponent
+    private final Long gameId; // Matches of this game, null for any game
+    private final LocalDateTime from; // Matches from this date included, null for no lower bound
+    private final LocalDateTime to; // Matches before this date, null for no upper bound
+
+    private MatchFilter(Long _playerId, Long _opponentId, Long _gameId, LocalDateTime _from, LocalDateTime _to) {
+        this.playerId = _playerId;
+        this.opponentId = _opponentId;
+        this.gameId = _gameId;
+        this.from = _from;
+        this.to = _to;
+    }
+
+    /**
+     * Gets the filter selecting every match.
+     *
+     * @return The filter.
+     */
+    public static MatchFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Selects the matches of a player, as first or second player.
+     *
+     * @param _player The player.
+     * @return The new filter.
+     */
+    public MatchFilter withPlayer(Player _player) {
+        return new MatchFilter(_player.getId(), this.opponentId, this.gameId, this.from, this.to);
+    }
+
+    /**
+     * Selects the matches of two players against each other, whoever played first.
+     *
+     * @param _player The first player.
+     * @param _opponent The second player.
+     * @return The new filter.
+     */
+    public MatchFilter withPlayers(Player _player, Player _opponent) {
+        return new MatchFilter(_player.getId(), _opponent.getId(), this.gameId, this.from, this.to);
+    }
+
+    /**
+     * Selects the matches of a game.
+     *
+     * @param _game The game.
+     * @return The new filter.
+     */
+    public MatchFilter withGame(Game _game) {
+        return new MatchFilter(this.playerId, this.opponentId, _game.getId(), this.from, this.to);
+    }
+
+    /**
+     * Selects the matches played between two dates.
+     *
+     * @param _from The first date included, null for no lower bound.
+     * @param _to The date excluded, null for no upper bound.
+     * @return The new filter.
+     */
+    public MatchFilter withDates(LocalDateTime _from, LocalDateTime _to) {
+        return new MatchFilter(this.playerId, this.opponentId, this.gameId, _from, _to);
+    }
+
+    public Long getPlayerId() {
+        return this.playerId;
+    }
+
+    public Long getOpponentId() {
+        return this.opponentId;
+    }
+
+    public Long getGameId() {
+        return this.gameId;
+    }
+
+    public LocalDateTime getFrom() {
+        return this.from;
+    }
+
+    public LocalDateTime getTo() {
+        return this.to;
+    }
+
+    /**
+     * Tells if a match is selected.
+     *
+     * @param _match The match, with its players, game and date.
+     * @return True if the match is selected.
+     */
+    public boolean matches(Match _match) {
+        long player1 = _match.getPlayer1().getId();
+        long player2 = _match.getPlayer2().getId();
+        if (this.playerId != null) {
+            boolean first = player1 == this.playerId && (this.opponentId == null || player2 == this.opponentId);
+            boolean second = player2 == this.playerId && (this.opponentId == null || player1 == this.opponentId);
+            if (!first && !second) {
+                return false;
+            }
+        }
+        if (this.gameId != null && _match.getGame().getId() != this.gameId) {
+            return false;
+        }
+        if (this.from != null && _match.getDate().isBefore(this.from)) {
+            return false;
+        }
+        return this.to == null || _match.getDate().isBefore(this.to);
+    }
+}
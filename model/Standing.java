@@ -0,0 +1,114 @@
+package model;
+
+import model.Player;
+
+/**
+ * Domain Model Class for Standing.
+ * Represents the results of a player in one game over a period, and their rank.
+ * A win is worth 2 points, a draw 1 point.
+ */
+public class Standing {
+    public static final int POINTS_PER_WIN = 2;
+    public static final int POINTS_PER_DRAW = 1;
+
+    private Player player; // The player
+    private int rank; // 1 for the most points; players with the same points share the rank
+    private int wins; // The matches won
+    private int draws; // The matches drawn
+    private int losses; // The matches lost
+
+    /**
+     * Constructor for Standing.
+     *
+     * @param _player The player.
+     * @param _rank The rank of the player.
+     * @param _wins The matches won.
+     * @param _draws The matches drawn.
+     * @param _losses The matches lost.
+     */
+    public Standing(Player _player, int _rank, int _wins, int _draws, int _losses) {
+        this.player = _player;
+        this.rank = _rank;
+        this.wins = _wins;
+        this.draws = _draws;
+        this.losses = _losses;
+    }
+
+    /**
+     * Gets the points of a record of wins and draws.
+     *
+     * @param _wins The matches won.
+     * @param _draws The matches drawn.
+     * @return The points.
+     */
+    public static int pointsOf(int _wins, int _draws) {
+        return _wins * POINTS_PER_WIN + _draws * POINTS_PER_DRAW;
+    }
+
+    /**
+     * Gets the player.
+     *
+     * @return The player.
+     */
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Gets the rank of the player.
+     *
+     * @return The rank, 1 for the best.
+     */
+    public int getRank() {
+        return this.rank;
+    }
+
+    /**
+     * Gets the matches won.
+     *
+     * @return The matches won.
+     */
+    public int getWins() {
+        return this.wins;
+    }
+
+    /**
+     * Gets the matches drawn.
+     *
+     * @return The matches drawn.
+     */
+    public int getDraws() {
+        return this.draws;
+    }
+
+    /**
+     * Gets the matches lost.
+     *
+     * @return The matches lost.
+     */
+    public int getLosses() {
+        return this.losses;
+    }
+
+    /**
+     * Gets the points of the player.
+     *
+     * @return The points.
+     */
+    public int getPoints() {
+        return pointsOf(this.wins, this.draws);
+    }
+
+    /**
+     * Returns a string representation of the standing for debugging purposes.
+     *
+     * @return A string representing the player, rank and results.
+     */
+    public String dbgMeAsStr() {
+        return (this.player == null ? "null" : this.player.dbgMeAsStr()) +
+            " rank " + this.rank +
+            " wins " + this.wins +
+            " draws " + this.draws +
+            " losses " + this.losses;
+    }
+}
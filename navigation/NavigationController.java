@@ -1,9 +1,13 @@
 package navigation;
 
 import view.*;
+import db.AsyncDb;
 import db.DbInterface;
 import model.Game;
 import model.Player;
+import service.RatingService;
+import service.rating.RatingEngine;
+import service.rating.RatingSystem;
 import utils.AppState;
 
 /**
@@ -12,8 +16,11 @@ import utils.AppState;
  */
 public class NavigationController {
 
-    // Database for data operations
-    private DbInterface db;
+    // Database for data operations, run off the event dispatch thread
+    private AsyncDb db;
+
+    // Scores of the players from their ratings
+    private RatingService ratings;
 
     // Views managed by the controller
     private HomeView homeView;
@@ -31,8 +38,17 @@ public class NavigationController {
      * @param appState the state of the app
      */
     public NavigationController(DbInterface db, AppState appState) {
-        this.db = db;
+        this.db = new AsyncDb(db);
         this.appState = appState;
+        this.ratings = new RatingService(new RatingEngine(RatingSystem.fromSystemProperty()));
+        // Only the rounded ratings are stored: rate the history again, in the background
+        this.db.supply(data -> this.ratings.recompute(data)).whenComplete((matches, e) -> {
+            if (e != null) {
+                System.err.println("NavigationController - Ratings not recomputed: " + e.getMessage());
+            } else {
+                System.out.println("NavigationController - Ratings recomputed over " + matches + " matches");
+            }
+        });
         this.homeView = new HomeView(this.db, this.appState, this);
     }
 
@@ -57,7 +73,7 @@ public class NavigationController {
      * Displays the GameView for the given players and game.
      */
     public void showGameView() {
-        this.gameView = new GameView(this.db, appState.getPlayer1(), appState.getPlayer2(), appState.getGame(), this.appState, this);
+        this.gameView = new GameView(this.db, this.ratings, appState.getPlayer1(), appState.getPlayer2(), appState.getGame(), this.appState, this);
         this.gameView.render();
     }
 
@@ -81,7 +97,7 @@ public class NavigationController {
      */
     public void showPlayerCreateView(boolean isForPlayer1) {
         if (this.playerCreateView == null) {
-            this.playerCreateView = new PlayerCreateView(this.db, isForPlayer1, this);
+            this.playerCreateView = new PlayerCreateView(this.db, this.ratings, isForPlayer1, this);
         }
         this.playerCreateView.render();
     }
@@ -1,9 +1,13 @@
 package navigation;
 
 import view.*;
+import db.AsyncDb;
 import db.DbMockup;
 import model.Game;
 import model.Player;
+import service.RatingService;
+import service.rating.EloRatingSystem;
+import service.rating.RatingEngine;
 
 import utils.AppState;
 
@@ -50,35 +54,35 @@ public class NavigationControllerTest {
         this.appState.setPlayer2(new Player("Player2", 2));
         this.appState.setGame(new Game("Tic Tac Toe", 1));
         
-        homeViewMock = new HomeView(db, this.appState, null) {
+        homeViewMock = new HomeView(new AsyncDb(db), this.appState, null) {
             @Override
             public void render() {
                 System.out.println("HomeView rendered");
             }
         };
         
-        playerSelectionViewMock = new PlayerSelectionView(db, this.appState, null) {
+        playerSelectionViewMock = new PlayerSelectionView(new AsyncDb(db), this.appState, null) {
             @Override
             public void render() {
                 System.out.println("PlayerSelectionView rendered");
             }
         };
         
-        gameViewMock = new GameView(db, new Player("Nicolas", 1), new Player("John", 2), new Game("Tic Tac Toe", 1), this.appState, null) {
+        gameViewMock = new GameView(new AsyncDb(db), new RatingService(new RatingEngine(new EloRatingSystem())), new Player("Nicolas", 1), new Player("John", 2), new Game("Tic Tac Toe", 1), this.appState, null) {
             @Override
             public void render() {
                 System.out.println("GameView rendered");
             }
         };
         
-        playerEditViewMock = new PlayerEditView(db, new Player("Nicolas", 1), true, null) {
+        playerEditViewMock = new PlayerEditView(new AsyncDb(db), new Player("Nicolas", 1), true, null) {
             @Override
             public void render() {
                 System.out.println("PlayerEditView rendered");
             }
         };
         
-        playerCreateViewMock = new PlayerCreateView(db, true, null) {
+        playerCreateViewMock = new PlayerCreateView(new AsyncDb(db), new RatingService(new RatingEngine(new EloRatingSystem())), true, null) {
             @Override
             public void render() {
                 System.out.println("PlayerCreateView rendered");
@@ -3,29 +3,41 @@ package service;
 import javax.swing.*;
 import java.awt.*;
 import model.Player;
+import service.ai.ComputerPlayer;
+import service.rules.GameRules;
+import service.rules.Move;
+import service.rules.MoveLogWriter;
 
 /**
  * Abstract class that represents the common functionality for a two-player game.
- * Concrete subclasses must implement specific game rules and behaviors.
+ * The rules are delegated to a headless GameRules implementation; concrete
+ * subclasses only build and render the Swing board.
  */
 public abstract class AbstractGame {
-    protected boolean isPlayer1 = true;  // Flag to track which player's turn it is
+    protected final GameRules rules;     // Headless rules and position of the game
     private Player player1;              // The first player
     private Player player2;              // The second player
     private JPanel panel;                // Game board panel
     private JLabel statusLabel;          // Label to display current player's turn and status
     private GameEndListener gameEndListener; // Listener to notify when the game ends
+    private ComputerPlayer computerPlayer;   // Created on first use, plays Player 2's moves and the hints
+    private boolean computerPlays;           // Set when the computer plays Player 2's moves
+    private boolean searching;               // Set while the computer player searches off the EDT
+    private boolean closed;                  // Set once the game is closed
+    private final MoveLogWriter moveLog = new MoveLogWriter(); // Moves played since the start of the game
 
     /**
      * Constructor for initializing the game.
      *
+     * @param rules          the headless rules of the game
      * @param player1        the first player
      * @param player2        the second player
      * @param panel          the game board panel
      * @param statusLabel    the label for displaying the current player's turn
      * @param gameEndListener the listener for handling game end events
      */
-    protected AbstractGame(Player player1, Player player2, JPanel panel, JLabel statusLabel, GameEndListener gameEndListener) {
+    protected AbstractGame(GameRules rules, Player player1, Player player2, JPanel panel, JLabel statusLabel, GameEndListener gameEndListener) {
+        this.rules = rules;
         this.player1 = player1;
         this.player2 = player2;
         this.statusLabel = statusLabel;
@@ -42,53 +54,137 @@ public abstract class AbstractGame {
     abstract protected void onStartGame(JPanel panel);
 
     /**
-     * Abstract method to process a player's move and update the board.
+     * Abstract method to render the board after a move has been played on the rules.
      * Must be implemented in a subclass to handle how the board is updated.
      *
      * @param play_from the move start made by the player
      * @param play_to the move end made by the player
-     * @param isPlayer1 indicates if it is Player 1's turn
      * @param panel   the game board panel
      */
-    abstract protected void moveAndPrintBoard(int play_from ,int play_to, boolean isPlayer1, JPanel panel);
+    abstract protected void printBoard(int play_from, int play_to, JPanel panel);
 
     /**
-     * Abstract method to validate a move.
-     * Must be implemented in a subclass to define how moves are validated.
+     * Gets the headless rules of the game.
      *
-     *  @param play_from the move start made by the player
-     *  @param play_to the move end made by the player 
-     *  @return true if the move is valid, false otherwise
+     * @return the rules
      */
-    abstract boolean isValidMove(int play_from ,int play_to);
+    public GameRules getRules() {
+        return this.rules;
+    }
+
+    /**
+     * Creates the computer player of this game, used for the computer opponent
+     * and the hints. Called at most once per game, on first use.
+     * Games without an engine return null.
+     *
+     * @return a new computer player, or null
+     */
+    protected ComputerPlayer createComputerPlayer() {
+        return null;
+    }
+
+    /**
+     * Tells whether the game has a computer player, without creating it.
+     *
+     * @return true if createComputerPlayer() returns an engine
+     */
+    public boolean hasComputerPlayer() {
+        return false;
+    }
+
+    /**
+     * Lets the computer player play Player 2's moves, or gives them back to the human.
+     *
+     * @param _computerPlays true for the computer, false for a human
+     */
+    public void setComputerOpponent(boolean _computerPlays) {
+        this.computerPlays = _computerPlays && getComputerPlayer() != null;
+        if (isComputerTurn()) {
+            playComputerMove();
+        }
+    }
 
     /**
-     * Abstract method to check if a player has won.
-     * Must be implemented in a subclass to define the winning conditions.
+     * Tells whether the computer plays Player 2's moves.
      *
-     * @param player1 true if checking for Player 1's win, false for Player 2
-     * @return true if the player has won, false otherwise
+     * @return true for the computer, false for a human
+     */
+    public boolean isComputerOpponent() {
+        return this.computerPlays;
+    }
+
+    /**
+     * Shows the move the computer would play for the current player in the status label.
+     */
+    public void showHint() {
+        if (getComputerPlayer() == null || rules.getStatus() != GameRules.ONGOING || searching) {
+            statusLabel.setText("No hint available");
+            return;
+        }
+        Player player = getCurrentPlayer();
+        int ply = rules.getPly();
+        statusLabel.setText("Looking for a hint for " + player.getNickName() + "...");
+        searchOffEdt(new MoveCallback() {
+            @Override
+            public void onMove(int move) {
+                if (rules.getPly() == ply && move >= 0) {
+                    statusLabel.setText("Hint for " + player.getNickName() + ": " + describeMove(Move.from(move), Move.to(move)));
+                }
+                if (isComputerTurn()) {
+                    playComputerMove(); // Played while the hint was searched
+                }
+            }
+        });
+    }
+
+    /**
+     * Closes the game when it ends or is left: the computer player is shut
+     * down, at once or when its current search is over, and no move is
+     * played any more.
      */
-    abstract boolean isWinner(boolean player1);
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!searching && computerPlayer != null) {
+            computerPlayer.shutdown();
+        }
+    }
 
     /**
-     * Abstract method to check if the match is a draw.
-     * Must be implemented in a subclass to define the draw condition.
+     * Describes a move for the status label.
      *
-     * @return true if the match is a draw, false otherwise
+     * @param play_from the move start
+     * @param play_to the move end
+     * @return the description of the move
      */
-    abstract boolean isNullMatch();
+    protected String describeMove(int play_from, int play_to) {
+        return "from " + play_from + " to " + play_to;
+    }
 
     /**
     * return the scores of player 1 and player 2 in the game
     **/
-    abstract public int[] getScore();
+    public int[] getScore() {
+        return new int[]{rules.getScore(true), rules.getScore(false)};
+    }
 
+    /**
+     * Gets the moves played since the start of the game.
+     *
+     * @return the move log, see MoveLogWriter
+     */
+    public byte[] getMoves() {
+        return moveLog.toByteArray();
+    }
 
     /**
      * Starts the game by calling the onStartGame method.
      */
     public void startGame() {
+        rules.reset();
+        moveLog.reset();
         onStartGame(this.panel);
     }
 
@@ -100,33 +196,142 @@ public abstract class AbstractGame {
      * @param play_to the move end made by the player  
      */
     protected void handlePlayerMove(int play_from ,int play_to) {
-        if (isValidMove(play_from,play_to)) {
-            moveAndPrintBoard(play_from, play_to, isPlayer1, this.panel);
+        if (isComputerTurn()) {
+            return; // Ignore clicks while the computer plays
+        }
+        if (rules.isLegalMove(play_from, play_to)) {
+            if (playMove(play_from, play_to) && isComputerTurn()) {
+                playComputerMove();
+            }
+        } else {
+            statusLabel.setText("Invalid move!" + getCurrentPlayer().getNickName() + ", try again !");
+        }
+    }
+
+    /**
+     * Plays a legal move, renders it and notifies the end of the game.
+     *
+     * @param play_from the move start
+     * @param play_to the move end
+     * @return true if the game goes on, false if it is over
+     */
+    private boolean playMove(int play_from, int play_to) {
+        int move = Move.encode(play_from, play_to);
+        rules.makeMove(move);
+        moveLog.append(move);
+        printBoard(play_from, play_to, this.panel);
+
+        switch (rules.getStatus()) {
+            case GameRules.PLAYER1_WINS:
+                gameEndListener.onGameEnd(player1);
+                return false;
+            case GameRules.PLAYER2_WINS:
+                gameEndListener.onGameEnd(player2);
+                return false;
+            case GameRules.DRAW:
+                gameEndListener.onGameEnd(null);
+                return false;
+            default:
+                break;
+        }
+
+        // Rules have switched player
+        statusLabel.setText(getCurrentPlayer().getNickName() + "'s turn");
+        return true;
+    }
 
-            // Check for winner
-            if (isWinner(isPlayer1)) {
-                gameEndListener.onGameEnd(isPlayer1 ? player1 : player2);
-                return;
+    /**
+     * Lets the computer player search the current move off the Event Dispatch
+     * Thread, then plays it on the EDT. Clicks are ignored meanwhile.
+     */
+    private void playComputerMove() {
+        if (searching) {
+            return; // Played when the search in progress is over
+        }
+        statusLabel.setText(getCurrentPlayer().getNickName() + " (computer) is thinking...");
+        searchOffEdt(new MoveCallback() {
+            @Override
+            public void onMove(int move) {
+                if (move >= 0 && isComputerTurn()) {
+                    playMove(Move.from(move), Move.to(move));
+                }
             }
+        });
+    }
 
-            // Check for winner for the other player
-            if (isWinner(!isPlayer1)) {
-                gameEndListener.onGameEnd(!isPlayer1 ? player1 : player2);
-                return;
+    /**
+     * Runs the computer player on a copy of the position in a background
+     * thread; one search at a time, as the engine is shared.
+     *
+     * @param callback called on the EDT with the chosen move, unless the game was closed meanwhile
+     */
+    private void searchOffEdt(MoveCallback callback) {
+        ComputerPlayer player = this.computerPlayer;
+        GameRules position = rules.copy();
+        searching = true;
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return player.chooseMove(position);
             }
 
-            // Check for draw
-            if (isNullMatch()) {
-                gameEndListener.onGameEnd(null);
-                return;
+            @Override
+            protected void done() {
+                searching = false;
+                if (closed) {
+                    player.shutdown();
+                    return;
+                }
+                try {
+                    callback.onMove(get());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    callback.onMove(-1);
+                }
             }
+        }.execute();
+    }
 
-            // Switch player
-            isPlayer1 = !isPlayer1;
-            statusLabel.setText((isPlayer1 ? player1.getNickName() : player2.getNickName()) + "'s turn");
-        } else {
-            statusLabel.setText("Invalid move!" + (isPlayer1 ? player1.getNickName() : player2.getNickName()) + ", try again !");
+    /**
+     * Receives the move chosen by a computer player, on the EDT.
+     */
+    private interface MoveCallback {
+        void onMove(int move);
+    }
+
+    /**
+     * @return true if the game is on and the computer plays the current move
+     */
+    private boolean isComputerTurn() {
+        return computerPlays && !closed && !rules.isPlayer1ToMove() && rules.getStatus() == GameRules.ONGOING;
+    }
+
+    /**
+     * @return the computer player of the game, created on the first call, null if the game has none
+     */
+    private ComputerPlayer getComputerPlayer() {
+        if (computerPlayer == null && !closed) {
+            computerPlayer = createComputerPlayer();
         }
+        return computerPlayer;
+    }
+
+    /**
+     * Tells whose turn it is, for instance to know who leaves the game.
+     *
+     * @return true if the first player is to move, false for the second one
+     */
+    public boolean isPlayer1ToMove() {
+        return rules.isPlayer1ToMove();
+    }
+
+    /**
+     * Gets the player whose turn it is.
+     *
+     * @return the current player
+     */
+    protected Player getCurrentPlayer() {
+        return isPlayer1ToMove() ? player1 : player2;
     }
 }
 
@@ -0,0 +1,165 @@
+package service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import db.DbInterface;
+import model.Game;
+import model.Match;
+import model.MatchFilter;
+import model.Player;
+import service.rating.MatchHistory;
+import service.rating.Rating;
+import service.rating.RatingEngine;
+import service.rating.RatingSystem;
+
+/**
+ * Scores of the players from their ratings: every match saved is rated by a
+ * RatingEngine and the new overall ratings are written as the players'
+ * scores, which the leaderboards rank.
+ *
+ * recompute() reads the whole match history and rates it again, at startup,
+ * since only the rounded rating is stored, or to change the rating system
+ * while the application runs. The scores are always written from the latest
+ * ratings under the service lock, so a score written by a recompute never
+ * overwrites a newer one. A new player is created with the initial rating as
+ * score, so they rank as the engine rates them before their first match.
+ *
+ * Single writer: the ratings live in the memory of this service, and the
+ * scores are written whole from them, not as deltas. Two processes sharing a
+ * database would each rate only their own matches and overwrite each other's
+ * scores, the last writer winning: one process only may save the matches and
+ * write the scores, the others reading them. The other processes' matches
+ * are only rated, and their scores corrected, by the next recompute().
+ */
+public class RatingService {
+    public static final int HISTORY_PAGE_SIZE = 10000; // Matches read per query by a recompute
+
+    private final RatingEngine engine;
+
+    /**
+     * @param _engine the ratings of the players
+     */
+    public RatingService(RatingEngine _engine) {
+        this.engine = _engine;
+    }
+
+    public RatingEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Creates a player whose score is their initial rating.
+     *
+     * @param data the database
+     * @param _nickName the nickname of the player
+     * @return the player created, with a score of 0 if the score could not be written
+     * @throws Exception if the player cannot be created, e.g. if the nickname is taken
+     */
+    public Player createPlayer(DbInterface data, String _nickName) throws Exception {
+        Player created = data.createPlayer(_nickName);
+        synchronized (this) {
+            int score = engine.ratingOf(RatingEngine.OVERALL_POOL, created.getId()).getScore();
+            if (created.getScore() != score) {
+                Player updated = data.updatePlayerScore(created, score);
+                if (updated != null) {
+                    created = updated;
+                }
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Saves the result of a match, rates it and writes the new scores of the players.
+     *
+     * @param data the database
+     * @param _player1 the first player, whose score is updated
+     * @param _player2 the second player, whose score is updated
+     * @param _game the game played
+     * @param _matchScorePlayer1 the match score of the first player
+     * @param _matchScorePlayer2 the match score of the second player
+     * @param _moves the move log of the match, null if not recorded
+     * @return the match saved, null if it could not be saved
+     */
+    public Match recordMatch(DbInterface data, Player _player1, Player _player2, Game _game, int _matchScorePlayer1, int _matchScorePlayer2, byte[] _moves) {
+        Match match = data.informMatchResult(_player1, _player2, _game, _matchScorePlayer1, _matchScorePlayer2, _moves);
+        if (match == null) {
+            return null;
+        }
+        synchronized (this) {
+            Rating[] ratings = engine.rate(match.getId(), _player1.getId(), _player2.getId(), _game.getId(), _matchScorePlayer1, _matchScorePlayer2);
+            data.updatePlayerScore(_player1, ratings[0].getScore());
+            if (_player2.getId() != _player1.getId()) {
+                data.updatePlayerScore(_player2, ratings[1].getScore());
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Rates the whole match history again with the current rating system.
+     *
+     * @param data the database
+     * @return the matches rated
+     */
+    public int recompute(DbInterface data) {
+        return recompute(data, engine.getSystem());
+    }
+
+    /**
+     * Rates the whole match history again with a rating system, used for the
+     * next matches too, and writes the scores changed. Only the players of the
+     * history are rated, as read with it: the player table is not read.
+     *
+     * @param data the database
+     * @param system the rating system
+     * @return the matches rated
+     */
+    public int recompute(DbInterface data, RatingSystem system) {
+        engine.beginRecompute();
+        Map<Long, Player> players = new HashMap<>();
+        MatchHistory history = readHistory(data, players);
+        Map<Long, Rating> overall = engine.recompute(history, system);
+        for (Long playerId : overall.keySet()) {
+            Player player = players.get(playerId);
+            if (player == null) {
+                continue; // Only in the matches saved meanwhile, scored by recordMatch
+            }
+            synchronized (this) {
+                int score = engine.ratingOf(RatingEngine.OVERALL_POOL, playerId).getScore();
+                if (player.getScore() != score) {
+                    data.updatePlayerScore(player, score);
+                }
+            }
+        }
+        return history.size();
+    }
+
+    /**
+     * Reads the history by pages, newest first, and returns it oldest first.
+     *
+     * @param data the database
+     * @param players receives the players of the matches, by ID, as the newest match read gives them
+     */
+    static MatchHistory readHistory(DbInterface data, Map<Long, Player> players) {
+        MatchHistory history = new MatchHistory(HISTORY_PAGE_SIZE);
+        Match after = null;
+        while (true) {
+            List<Match> page = data.getMatches(MatchFilter.all(), after, HISTORY_PAGE_SIZE);
+            for (Match match : page) {
+                history.add(match.getId(), match.getPlayer1().getId(), match.getPlayer2().getId(), match.getGame().getId(),
+                    match.getScorePlayer1(), match.getScorePlayer2());
+                players.putIfAbsent(match.getPlayer1().getId(), match.getPlayer1());
+                players.putIfAbsent(match.getPlayer2().getId(), match.getPlayer2());
+            }
+            if (page.size() < HISTORY_PAGE_SIZE) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+        history.reverse();
+        return history;
+    }
+}
@@ -0,0 +1,103 @@
+package service.ai;
+
+import service.rules.CheckersBoard;
+import service.rules.GameRules;
+
+/**
+ * Checkers computer player: alpha-beta (negamax) search with iterative
+ * deepening, a Zobrist-hashed transposition table and move ordering
+ * (transposition table move, captures, killer moves, history heuristic).
+ *
+ * The search runs on a copy of the position and stops on a hard time budget:
+ * the move of the last fully searched depth is played. It is meant to run
+ * off the Event Dispatch Thread (see AbstractGame).
+ * The search itself is done by a Searcher on the calling thread; see
+ * ParallelCheckersEngine for the multi-threaded version.
+ */
+public class CheckersEngine implements ComputerPlayer {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000; // Default thinking time per move
+    public static final int MAX_DEPTH = Searcher.MAX_DEPTH;     // Deepest iteration
+
+    static final int TT_SIZE_LOG2 = 20;       // 1M entries, 16 MB
+
+    private final long timeBudgetMillis;     // Hard time budget per move
+    private Searcher searcher;               // Kept between the moves of a game, created on the first search
+    private long nodes;                      // Nodes visited by the last search
+    private int completedDepth;              // Deepest iteration completed by the last search
+
+    /**
+     * Creates an engine with the default time budget.
+     */
+    public CheckersEngine() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param _timeBudgetMillis the hard time budget per move, in milliseconds
+     */
+    public CheckersEngine(long _timeBudgetMillis) {
+        this.timeBudgetMillis = _timeBudgetMillis;
+    }
+
+    @Override
+    public int chooseMove(GameRules rules) {
+        return search((CheckersBoard) rules.copy(), MAX_DEPTH);
+    }
+
+    /**
+     * Searches a position with iterative deepening until the time budget or the depth is exhausted.
+     *
+     * @param board the position, searched in place and restored on return
+     * @param maxDepth the deepest iteration
+     * @return the encoded best move, or -1 if there is no legal move
+     */
+    public int search(CheckersBoard board, int maxDepth) {
+        SearchControl control = new SearchControl(timeBudgetMillis);
+        if (this.searcher == null) {
+            this.searcher = new Searcher(new TranspositionTable(TT_SIZE_LOG2));
+        }
+        searcher.newSearch(control);
+        this.completedDepth = 0;
+
+        int[] moves = new int[CheckersBoard.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        if (count == 0) {
+            this.nodes = 0;
+            return -1;
+        }
+        int bestMove = moves[0];
+        if (count == 1) {
+            this.nodes = 0;
+            return bestMove;
+        }
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = searcher.search(board, depth, 0, -Searcher.INFINITY, Searcher.INFINITY, null);
+            if (searcher.isStopped()) {
+                break;
+            }
+            bestMove = searcher.getRootBestMove();
+            completedDepth = depth;
+            if (Math.abs(score) >= Searcher.WIN - MAX_DEPTH) {
+                break; // Forced result found
+            }
+        }
+        this.nodes = searcher.getNodes();
+        return bestMove;
+    }
+
+    /**
+     * @return the number of nodes visited by the last search
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return the deepest iteration completed by the last search
+     */
+    public int getCompletedDepth() {
+        return this.completedDepth;
+    }
+}
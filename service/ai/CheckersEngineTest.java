@@ -0,0 +1,60 @@
+package service.ai;
+
+import java.util.Random;
+
+import service.rules.CheckersBoard;
+import service.rules.GameRules;
+import service.rules.Move;
+
+/**
+ * Unit tests for the CheckersEngine class.
+ */
+public class CheckersEngineTest {
+    public static void main(String[] args) {
+        CheckersEngineTest test = new CheckersEngineTest();
+        test.testTimeBudget();
+        test.testPositionUnchanged();
+        test.testBeatsRandomPlayer();
+    }
+
+    public void testTimeBudget() {
+        CheckersEngine engine = new CheckersEngine(200);
+        CheckersBoard board = new CheckersBoard();
+        long start = System.nanoTime();
+        int move = engine.chooseMove(board);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+        assert board.isLegalMove(Move.from(move), Move.to(move)) : "testTimeBudget failed, illegal move";
+        assert elapsedMillis < 200 + 150 : "testTimeBudget failed, searched " + elapsedMillis + " ms";
+        assert engine.getCompletedDepth() >= 4 : "testTimeBudget failed, depth " + engine.getCompletedDepth();
+        System.out.println("testTimeBudget passed (depth " + engine.getCompletedDepth() + ", " + engine.getNodes() + " nodes)");
+    }
+
+    public void testPositionUnchanged() {
+        CheckersBoard board = new CheckersBoard();
+        long hash = board.getHash();
+        new CheckersEngine(50).chooseMove(board);
+        assert board.getHash() == hash && board.getPly() == 0 : "testPositionUnchanged failed";
+        System.out.println("testPositionUnchanged passed");
+    }
+
+    public void testBeatsRandomPlayer() {
+        Random random = new Random(3);
+        int[] moves = new int[CheckersBoard.MAX_MOVES];
+        CheckersEngine engine = new CheckersEngine(20);
+        for (int game = 0; game < 4; game++) {
+            boolean engineIsPlayer1 = game % 2 == 0;
+            CheckersBoard board = new CheckersBoard();
+            while (board.getStatus() == GameRules.ONGOING) {
+                if (board.isPlayer1ToMove() == engineIsPlayer1) {
+                    board.makeMove(engine.chooseMove(board));
+                } else {
+                    int count = board.generateMoves(moves);
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+            }
+            int expected = engineIsPlayer1 ? GameRules.PLAYER1_WINS : GameRules.PLAYER2_WINS;
+            assert board.getStatus() == expected : "testBeatsRandomPlayer failed in game " + game + ":\n" + board.dbgMeAsStr();
+        }
+        System.out.println("testBeatsRandomPlayer passed");
+    }
+}
@@ -0,0 +1,25 @@
+package service.ai;
+
+import service.rules.GameRules;
+
+/**
+ * A computer player chooses a move for the side to move.
+ * Implementations may search the position with make/undo but must leave it
+ * as they found it.
+ */
+public interface ComputerPlayer {
+
+    /**
+     * Chooses a move for the side to move.
+     *
+     * @param rules the game, not over
+     * @return the encoded move, or -1 if there is no legal move
+     */
+    public int chooseMove(GameRules rules);
+
+    /**
+     * Releases the threads and memory of the player, which can no longer be used.
+     */
+    public default void shutdown() {
+    }
+}
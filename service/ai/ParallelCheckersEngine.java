@@ -0,0 +1,302 @@
+package service.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import service.rules.CheckersBoard;
+import service.rules.GameRules;
+
+/**
+ * Multi-threaded Checkers computer player: the alpha-beta search of
+ * CheckersEngine run on a ForkJoinPool with Young Brothers Wait.
+ *
+ * At a node with enough depth left, the eldest brother (the best ordered
+ * move) is searched first; the younger brothers are then forked as tasks on
+ * their own copy of the position and share the alpha bound of the node
+ * through a SplitPoint. A brother failing high aborts the others. Below
+ * MIN_SPLIT_DEPTH every task runs the sequential search of its thread's
+ * Searcher. All the threads share one lock-free transposition table, so a
+ * position solved by one thread cuts the search of the others.
+ */
+public class ParallelCheckersEngine implements ComputerPlayer {
+    public static final int MIN_SPLIT_DEPTH = 4;    // Shallower nodes are searched sequentially
+
+    private final long timeBudgetMillis;            // Hard time budget per move
+    private final ForkJoinPool pool;                // Threads of the search
+    private final TranspositionTable table;         // Shared by all the threads
+    private final List<Searcher> searchers = new ArrayList<>(); // Every Searcher created, one per thread
+    private final ThreadLocal<Searcher> localSearcher = ThreadLocal.withInitial(this::newSearcher);
+
+    private SearchControl control;  // Deadline of the current move
+    private int rootBestMove;       // Best move of the current iteration
+    private long nodes;             // Nodes visited by the last search, all threads
+    private int completedDepth;     // Deepest iteration completed by the last search
+
+    /**
+     * Creates an engine with the default time budget, using every processor.
+     */
+    public ParallelCheckersEngine() {
+        this(Runtime.getRuntime().availableProcessors(), CheckersEngine.DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param threads the number of search threads
+     * @param _timeBudgetMillis the hard time budget per move, in milliseconds
+     */
+    public ParallelCheckersEngine(int threads, long _timeBudgetMillis) {
+        this.timeBudgetMillis = _timeBudgetMillis;
+        this.pool = new ForkJoinPool(threads);
+        this.table = new TranspositionTable(CheckersEngine.TT_SIZE_LOG2);
+    }
+
+    @Override
+    public int chooseMove(GameRules rules) {
+        return search((CheckersBoard) rules.copy(), CheckersEngine.MAX_DEPTH);
+    }
+
+    /**
+     * Searches a position with iterative deepening until the time budget or the depth is exhausted.
+     *
+     * @param board the position, searched in place and restored on return
+     * @param maxDepth the deepest iteration
+     * @return the encoded best move, or -1 if there is no legal move
+     */
+    public int search(CheckersBoard board, int maxDepth) {
+        this.control = new SearchControl(timeBudgetMillis);
+        this.completedDepth = 0;
+        this.rootBestMove = 0;
+
+        int[] moves = new int[CheckersBoard.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        if (count == 0) {
+            this.nodes = 0;
+            return -1;
+        }
+        int bestMove = moves[0];
+        if (count == 1) {
+            this.nodes = 0;
+            return bestMove;
+        }
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int iterationDepth = depth;
+            int score = pool.invoke(ForkJoinTask.adapt(() -> searchNode(board, iterationDepth, 0,
+                -Searcher.INFINITY, Searcher.INFINITY, null)));
+            if (control.isStopped()) {
+                break;
+            }
+            bestMove = rootBestMove;
+            completedDepth = depth;
+            if (Math.abs(score) >= Searcher.WIN - CheckersEngine.MAX_DEPTH) {
+                break; // Forced result found
+            }
+        }
+        this.nodes = countNodes();
+        return bestMove;
+    }
+
+    /**
+     * @return the number of nodes visited by the last search, all threads
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return the deepest iteration completed by the last search
+     */
+    public int getCompletedDepth() {
+        return this.completedDepth;
+    }
+
+    /**
+     * @return the number of search threads
+     */
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops the search threads. The engine can no longer be used.
+     */
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Searches a node, splitting it between the threads when enough depth is left.
+     * Runs inside the pool.
+     *
+     * @param board the position, restored on return
+     * @param depth the remaining depth
+     * @param ply the distance to the root
+     * @param alpha the lower bound
+     * @param beta the upper bound
+     * @param parent the enclosing split point, null if none
+     * @return the score for the side to move, meaningless if isAborted(parent)
+     */
+    private int searchNode(CheckersBoard board, int depth, int ply, int alpha, int beta, SplitPoint parent) {
+        Searcher searcher = searcher();
+        if (depth < MIN_SPLIT_DEPTH) {
+            int score = searcher.search(board, depth, ply, alpha, beta, parent);
+            if (ply == 0) {
+                rootBestMove = searcher.getRootBestMove();
+            }
+            return score;
+        }
+        if (isAborted(parent)) {
+            return 0;
+        }
+
+        int status = board.getStatus();
+        if (status != GameRules.ONGOING) {
+            return Searcher.terminalScore(status, board.isPlayer1ToMove(), ply);
+        }
+
+        long hash = board.getHash();
+        long entry = table.probe(hash);
+        int ttMove = TranspositionTable.move(entry);
+        if (ply > 0 && entry != TranspositionTable.EMPTY && TranspositionTable.depth(entry) >= depth) {
+            int score = Searcher.fromTableScore(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER && score >= beta)
+                || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        // Local buffers: a thread waiting for its brothers may run other nodes meanwhile
+        int[] moves = new int[CheckersBoard.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        if (ply == 0 && ttMove == 0) {
+            ttMove = rootBestMove; // Best move of the previous iteration first
+        }
+        searcher.orderMoves(moves, new int[CheckersBoard.MAX_MOVES], count, ttMove, ply);
+
+        // Eldest brother first, on this thread
+        board.makeMove(moves[0]);
+        int bestScore = -searchNode(board, depth - 1, ply + 1, -beta, -alpha, parent);
+        board.undoMove();
+        if (isAborted(parent)) {
+            return 0;
+        }
+        int bestMove = moves[0];
+        if (ply == 0) {
+            rootBestMove = bestMove;
+        }
+        if (bestScore >= beta || count == 1) {
+            if (bestScore >= beta) {
+                searcher.recordCutoff(bestMove, depth, ply);
+            }
+            searcher.store(hash, bestMove, depth, ply, bestScore, alpha, beta);
+            return bestScore;
+        }
+
+        // Younger brothers in parallel
+        SplitPoint split = new SplitPoint(parent, Math.max(alpha, bestScore), beta);
+        List<BrotherTask> brothers = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            brothers.add(new BrotherTask(board, moves[i], depth - 1, ply + 1, split));
+        }
+        ForkJoinTask.invokeAll(brothers);
+        if (isAborted(parent)) {
+            return 0;
+        }
+        for (BrotherTask brother : brothers) {
+            if (brother.valid && brother.score > bestScore) {
+                bestScore = brother.score;
+                bestMove = brother.move;
+            }
+        }
+        if (ply == 0) {
+            rootBestMove = bestMove;
+        }
+        if (bestScore >= beta) {
+            searcher.recordCutoff(bestMove, depth, ply);
+        }
+        searcher.store(hash, bestMove, depth, ply, bestScore, alpha, beta);
+        return bestScore;
+    }
+
+    /**
+     * @param splitPoint the enclosing split point, null if none
+     * @return true if the result of a search below the split point must be discarded
+     */
+    private boolean isAborted(SplitPoint splitPoint) {
+        return control.isStopped() || (splitPoint != null && splitPoint.isAborted());
+    }
+
+    /**
+     * @return the Searcher of the current thread, ready for the current move
+     */
+    private Searcher searcher() {
+        Searcher searcher = localSearcher.get();
+        if (searcher.getControl() != control) {
+            searcher.newSearch(control);
+        }
+        return searcher;
+    }
+
+    private Searcher newSearcher() {
+        Searcher searcher = new Searcher(table);
+        synchronized (searchers) {
+            searchers.add(searcher);
+        }
+        return searcher;
+    }
+
+    private long countNodes() {
+        long total = 0;
+        synchronized (searchers) {
+            for (Searcher searcher : searchers) {
+                if (searcher.getControl() == control) {
+                    total += searcher.getNodes();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Search of a younger brother, on its own copy of the position.
+     */
+    private class BrotherTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final CheckersBoard board;  // Copy of the parent position
+        private final int move;             // Move leading to the brother
+        private final int depth;            // Remaining depth below the move
+        private final int ply;              // Distance from the root after the move
+        private final SplitPoint split;     // Split point of the parent
+        private int score;                  // Score of the move, for the parent
+        private boolean valid;              // False if the search was aborted
+
+        BrotherTask(CheckersBoard parentBoard, int _move, int _depth, int _ply, SplitPoint _split) {
+            this.board = (CheckersBoard) parentBoard.copy();
+            this.move = _move;
+            this.depth = _depth;
+            this.ply = _ply;
+            this.split = _split;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (isAborted(split)) {
+                return 0;
+            }
+            board.makeMove(move);
+            score = -searchNode(board, depth, ply, -split.getBeta(), -split.getAlpha(), split);
+            valid = !isAborted(split);
+            if (valid) {
+                split.raise(score);
+            }
+            return score;
+        }
+    }
+}
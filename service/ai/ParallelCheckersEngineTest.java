@@ -0,0 +1,67 @@
+package service.ai;
+
+import java.util.Random;
+
+import service.rules.CheckersBoard;
+import service.rules.GameRules;
+import service.rules.Move;
+
+/**
+ * Unit tests for the ParallelCheckersEngine class.
+ */
+public class ParallelCheckersEngineTest {
+    public static void main(String[] args) {
+        ParallelCheckersEngineTest test = new ParallelCheckersEngineTest();
+        test.testTimeBudget();
+        test.testPositionUnchanged();
+        test.testBeatsRandomPlayer();
+    }
+
+    public void testTimeBudget() {
+        ParallelCheckersEngine engine = new ParallelCheckersEngine(4, 200);
+        CheckersBoard board = new CheckersBoard();
+        long start = System.nanoTime();
+        int move = engine.chooseMove(board);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+        engine.shutdown();
+        assert board.isLegalMove(Move.from(move), Move.to(move)) : "testTimeBudget failed, illegal move";
+        assert elapsedMillis < 200 + 150 : "testTimeBudget failed, searched " + elapsedMillis + " ms";
+        assert engine.getCompletedDepth() >= ParallelCheckersEngine.MIN_SPLIT_DEPTH
+            : "testTimeBudget failed, depth " + engine.getCompletedDepth();
+        System.out.println("testTimeBudget passed (depth " + engine.getCompletedDepth() + ", " + engine.getNodes() + " nodes)");
+    }
+
+    public void testPositionUnchanged() {
+        CheckersBoard board = new CheckersBoard();
+        long hash = board.getHash();
+        ParallelCheckersEngine engine = new ParallelCheckersEngine(4, 3600 * 1000L);
+        int move = engine.search(board, 6);
+        engine.shutdown();
+        assert board.getHash() == hash && board.getPly() == 0 : "testPositionUnchanged failed";
+        assert board.isLegalMove(Move.from(move), Move.to(move)) : "testPositionUnchanged failed, illegal move";
+        assert engine.getCompletedDepth() == 6 : "testPositionUnchanged failed, depth " + engine.getCompletedDepth();
+        System.out.println("testPositionUnchanged passed");
+    }
+
+    public void testBeatsRandomPlayer() {
+        Random random = new Random(5);
+        int[] moves = new int[CheckersBoard.MAX_MOVES];
+        ParallelCheckersEngine engine = new ParallelCheckersEngine(2, 20);
+        for (int game = 0; game < 2; game++) {
+            boolean engineIsPlayer1 = game % 2 == 0;
+            CheckersBoard board = new CheckersBoard();
+            while (board.getStatus() == GameRules.ONGOING) {
+                if (board.isPlayer1ToMove() == engineIsPlayer1) {
+                    board.makeMove(engine.chooseMove(board));
+                } else {
+                    int count = board.generateMoves(moves);
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+            }
+            int expected = engineIsPlayer1 ? GameRules.PLAYER1_WINS : GameRules.PLAYER2_WINS;
+            assert board.getStatus() == expected : "testBeatsRandomPlayer failed in game " + game + ":\n" + board.dbgMeAsStr();
+        }
+        engine.shutdown();
+        System.out.println("testBeatsRandomPlayer passed");
+    }
+}
@@ -0,0 +1,35 @@
+package service.ai;
+
+/**
+ * Deadline of a search, shared by every thread searching the same move.
+ */
+class SearchControl {
+    private final long deadline;      // System.nanoTime() at which the search stops
+    private volatile boolean stopped; // Set when the deadline is reached
+
+    /**
+     * @param timeBudgetMillis the hard time budget, in milliseconds
+     */
+    SearchControl(long timeBudgetMillis) {
+        this.deadline = System.nanoTime() + timeBudgetMillis * 1000000L;
+    }
+
+    /**
+     * Reads the clock and stops the search once the deadline is passed.
+     *
+     * @return true if the search must stop
+     */
+    boolean checkTime() {
+        if (!stopped && System.nanoTime() - deadline > 0) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * @return true if the search must stop
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+}
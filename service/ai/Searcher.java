@@ -0,0 +1,292 @@
+package service.ai;
+
+import service.rules.CheckersBoard;
+import service.rules.GameRules;
+import service.rules.Move;
+
+/**
+ * Sequential alpha-beta (negamax) search of a Checkers position, with the
+ * per-thread state of the move ordering (killer moves, history heuristic,
+ * move buffers). The transposition table and the deadline are shared, so
+ * several searchers can work on the same move, each one on its own thread.
+ */
+class Searcher {
+    static final int MAX_DEPTH = 64;    // Deepest search
+    static final int WIN = 100000;      // Score of a won position at ply 0
+    static final int INFINITY = WIN + 1;
+
+    private static final int CAPTURE_ORDER = 1 << 28; // Ordering bonus of captures
+    private static final int KILLER_ORDER = 1 << 27;  // Ordering bonus of killer moves
+    private static final int TT_ORDER = 1 << 30;      // Ordering bonus of the transposition table move
+    private static final int CHECK_STOP_NODES = 63;   // Check the deadline and the split points every 64 nodes
+
+    private final TranspositionTable table;   // Shared transposition table
+    private final int[][] killers = new int[MAX_DEPTH + 1][2]; // Two quiet moves that caused a cutoff, per ply
+    private final int[] history = new int[64 * 64];           // [from * 64 + to] -> cutoff count
+    private final int[][] moveBuffers = new int[MAX_DEPTH + 1][CheckersBoard.MAX_MOVES];
+    private final int[][] orderBuffers = new int[MAX_DEPTH + 1][CheckersBoard.MAX_MOVES];
+
+    private SearchControl control;   // Deadline of the current move
+    private SplitPoint splitPoint;   // Split point above the current sequential search, null if none
+    private boolean stopped;         // Set when the current sequential search must stop
+    private long nodes;              // Nodes visited since the last newSearch
+    private int rootBestMove;        // Best move found at ply 0
+
+    /**
+     * @param _table the shared transposition table
+     */
+    Searcher(TranspositionTable _table) {
+        this.table = _table;
+    }
+
+    /**
+     * Prepares the searcher for a new move: clears the ordering heuristics and the node count.
+     *
+     * @param _control the deadline of the move
+     */
+    void newSearch(SearchControl _control) {
+        this.control = _control;
+        this.nodes = 0;
+        this.rootBestMove = 0;
+        for (int[] killer : killers) {
+            killer[0] = 0;
+            killer[1] = 0;
+        }
+        java.util.Arrays.fill(history, 0);
+    }
+
+    /**
+     * Runs a sequential search below a split point.
+     *
+     * @param board the position, restored on return
+     * @param depth the remaining depth
+     * @param ply the distance to the root
+     * @param alpha the lower bound
+     * @param beta the upper bound
+     * @param _splitPoint the enclosing split point, null if none
+     * @return the score for the side to move, meaningless if isStopped()
+     */
+    int search(CheckersBoard board, int depth, int ply, int alpha, int beta, SplitPoint _splitPoint) {
+        this.splitPoint = _splitPoint;
+        this.stopped = control.isStopped() || (_splitPoint != null && _splitPoint.isAborted());
+        return negamax(board, depth, ply, alpha, beta);
+    }
+
+    /**
+     * @return true if the last sequential search was stopped by the deadline or a cutoff above it
+     */
+    boolean isStopped() {
+        return this.stopped;
+    }
+
+    long getNodes() {
+        return this.nodes;
+    }
+
+    int getRootBestMove() {
+        return this.rootBestMove;
+    }
+
+    /**
+     * @return the deadline given to the last newSearch
+     */
+    SearchControl getControl() {
+        return this.control;
+    }
+
+    /**
+     * Negamax alpha-beta search.
+     *
+     * @param board the position, restored on return
+     * @param depth the remaining depth
+     * @param ply the distance to the root
+     * @param alpha the lower bound
+     * @param beta the upper bound
+     * @return the score of the position for the side to move
+     */
+    private int negamax(CheckersBoard board, int depth, int ply, int alpha, int beta) {
+        if ((++nodes & CHECK_STOP_NODES) == 0 && !stopped) {
+            stopped = ((nodes & 1023) == 0 ? control.checkTime() : control.isStopped())
+                || (splitPoint != null && splitPoint.isAborted());
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        int status = board.getStatus();
+        if (status != GameRules.ONGOING) {
+            return terminalScore(status, board.isPlayer1ToMove(), ply);
+        }
+        if (depth == 0 || ply >= MAX_DEPTH) {
+            return evaluate(board);
+        }
+
+        long hash = board.getHash();
+        long entry = table.probe(hash);
+        int ttMove = TranspositionTable.move(entry);
+        if (ply > 0 && entry != TranspositionTable.EMPTY && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTableScore(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER && score >= beta)
+                || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(moves);
+        if (ply == 0 && ttMove == 0) {
+            ttMove = rootBestMove; // Best move of the previous iteration first
+        }
+        orderMoves(moves, orderBuffers[ply], count, ttMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.makeMove(move);
+            int score = -negamax(board, depth - 1, ply + 1, -beta, -alpha);
+            board.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        recordCutoff(move, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+
+        store(hash, bestMove, depth, ply, bestScore, originalAlpha, beta);
+        return bestScore;
+    }
+
+    /**
+     * Probes the transposition table for a move to search first.
+     *
+     * @param hash the Zobrist hash of the position
+     * @return the stored move, 0 if none
+     */
+    int probeMove(long hash) {
+        return table.getMove(hash);
+    }
+
+    /**
+     * Stores a search result in the transposition table.
+     */
+    void store(long hash, int bestMove, int depth, int ply, int bestScore, int alpha, int beta) {
+        int bound = bestScore <= alpha ? TranspositionTable.UPPER
+            : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(hash, bestMove, depth, toTableScore(bestScore, ply), bound);
+    }
+
+    /**
+     * Updates killer moves and history after a quiet move failed high.
+     */
+    void recordCutoff(int move, int depth, int ply) {
+        if (isCapture(move)) {
+            return;
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        history[move] += depth * depth;
+    }
+
+    /**
+     * Sorts the moves, best candidates first.
+     *
+     * @param moves the moves, sorted in place
+     * @param order a buffer for the ordering scores
+     * @param count the number of moves
+     * @param ttMove the transposition table move, 0 if none
+     * @param ply the distance to the root
+     */
+    void orderMoves(int[] moves, int[] order, int count, int ttMove, int ply) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score = history[move];
+            if (move == ttMove) {
+                score += TT_ORDER;
+            } else if (isCapture(move)) {
+                score += CAPTURE_ORDER;
+            } else if (move == killers[ply][0] || move == killers[ply][1]) {
+                score += KILLER_ORDER;
+            }
+            // Insertion sort, at most 48 moves
+            int j = i;
+            while (j > 0 && order[j - 1] < score) {
+                order[j] = order[j - 1];
+                moves[j] = moves[j - 1];
+                j--;
+            }
+            order[j] = score;
+            moves[j] = move;
+        }
+    }
+
+    /**
+     * Win scores are stored relative to the node, so they stay valid at any distance from the root.
+     */
+    static int toTableScore(int score, int ply) {
+        return score >= WIN - MAX_DEPTH ? score + ply : score <= -(WIN - MAX_DEPTH) ? score - ply : score;
+    }
+
+    static int fromTableScore(int score, int ply) {
+        return score >= WIN - MAX_DEPTH ? score - ply : score <= -(WIN - MAX_DEPTH) ? score + ply : score;
+    }
+
+    /**
+     * @param move the encoded move
+     * @return true if the move jumps over a man
+     */
+    static boolean isCapture(int move) {
+        return Math.abs(Move.from(move) - Move.to(move)) > CheckersBoard.BOARD_SIZE + 1;
+    }
+
+    /**
+     * Scores a finished game for the side to move, preferring quick wins and slow losses.
+     *
+     * @param status the status of the game
+     * @param player1ToMove true if Player 1 is to move
+     * @param ply the distance to the root
+     * @return the score for the side to move
+     */
+    static int terminalScore(int status, boolean player1ToMove, int ply) {
+        if (status == GameRules.DRAW) {
+            return 0;
+        }
+        boolean player1Wins = status == GameRules.PLAYER1_WINS;
+        return player1Wins == player1ToMove ? WIN - ply : -(WIN - ply);
+    }
+
+    /**
+     * Static evaluation: material, mobility and advancement of the men.
+     *
+     * @param board the position
+     * @return the score for the side to move
+     */
+    static int evaluate(CheckersBoard board) {
+        int x = board.getPieces(true);
+        int o = board.getPieces(false);
+        int material = 100 * (Integer.bitCount(x) - Integer.bitCount(o));
+        int mobility = 4 * (Integer.bitCount(board.movablePieces(true)) - Integer.bitCount(board.movablePieces(false)));
+        // Men kept on the back row defend it, men in the centre rows control the board
+        int structure = 3 * (Integer.bitCount(x & 0x0000000F) - Integer.bitCount(o & 0xF0000000))
+            + 2 * (Integer.bitCount(x & 0x00FFF000) - Integer.bitCount(o & 0x000FFF00));
+        int score = material + mobility + structure;
+        return board.isPlayer1ToMove() ? score : -score;
+    }
+}
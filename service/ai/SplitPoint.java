@@ -0,0 +1,62 @@
+package service.ai;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A node whose younger brothers are searched in parallel, once the eldest
+ * brother has been searched (Young Brothers Wait).
+ * The threads searching the brothers share the alpha bound; a cutoff aborts
+ * every search below the node.
+ */
+class SplitPoint {
+    private final SplitPoint parent;   // Enclosing split point, null at the top
+    private final AtomicInteger alpha; // Best score found so far by the brothers
+    private final int beta;            // Upper bound of the node
+    private volatile boolean cutoff;   // Set when a brother fails high
+
+    /**
+     * @param _parent the enclosing split point, null at the top
+     * @param _alpha the lower bound after the eldest brother
+     * @param _beta the upper bound
+     */
+    SplitPoint(SplitPoint _parent, int _alpha, int _beta) {
+        this.parent = _parent;
+        this.alpha = new AtomicInteger(_alpha);
+        this.beta = _beta;
+    }
+
+    int getAlpha() {
+        return alpha.get();
+    }
+
+    int getBeta() {
+        return beta;
+    }
+
+    /**
+     * Raises alpha with the score of a brother and flags a cutoff when it reaches beta.
+     *
+     * @param score the score of a brother, from the point of view of the node
+     */
+    void raise(int score) {
+        int current = alpha.get();
+        while (score > current && !alpha.compareAndSet(current, score)) {
+            current = alpha.get();
+        }
+        if (score >= beta) {
+            cutoff = true;
+        }
+    }
+
+    /**
+     * @return true if this split point or an enclosing one has been cut off
+     */
+    boolean isAborted() {
+        for (SplitPoint point = this; point != null; point = point.parent) {
+            if (point.cutoff) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
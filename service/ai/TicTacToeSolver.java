@@ -0,0 +1,173 @@
+package service.ai;
+
+import service.rules.GameRules;
+import service.rules.Move;
+import service.rules.TicTacToeBoard;
+
+/**
+ * Perfect-play Tic-Tac-Toe solver backed by a precomputed table.
+ *
+ * A position is indexed in base 3 (digit 1 for X, 2 for O, cell i weighs 3^i),
+ * which gives 19683 slots for the 5478 reachable positions. The game tree is
+ * solved once, when the class is loaded: values are memoized per symmetry
+ * class (the 8 rotations/reflections of the board, 765 canonical positions),
+ * then the best move of every reachable position is expanded into a flat
+ * table, so a lookup is a single array index.
+ *
+ * Values are from the point of view of the side to move: 10 - ply of the end
+ * for a win (quicker wins first), the negation for a loss, 0 for a draw.
+ */
+public final class TicTacToeSolver implements ComputerPlayer {
+    private static final int CELLS = TicTacToeBoard.CELLS;
+    private static final int POSITIONS = 19683; // 3^9
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+    private static final int[] TERNARY = new int[1 << CELLS];          // [mask] -> sum of 3^cell
+    private static final int[][] SYMMETRY = new int[8][CELLS];          // [symmetry][cell] -> transformed cell
+    private static final int[][] SYMMETRIC_MASK = new int[8][1 << CELLS]; // [symmetry][mask] -> transformed mask
+    private static final byte[] CANONICAL_VALUE = new byte[POSITIONS];  // value memo, canonical positions only
+    private static final byte[] VALUE = new byte[POSITIONS];            // value of every reachable position
+    private static final byte[] BEST_MOVE = new byte[POSITIONS];        // best cell, -1 when the game is over
+
+    static {
+        for (int mask = 0; mask < TERNARY.length; mask++) {
+            int index = 0;
+            for (int cell = CELLS - 1; cell >= 0; cell--) {
+                index = index * 3 + (mask >>> cell & 1);
+            }
+            TERNARY[mask] = index;
+        }
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                int row = cell / 3;
+                int col = cell % 3;
+                for (int rotation = 0; rotation < (symmetry & 3); rotation++) {
+                    int previousRow = row;
+                    row = col;
+                    col = 2 - previousRow;
+                }
+                if (symmetry >= 4) {
+                    col = 2 - col;
+                }
+                SYMMETRY[symmetry][cell] = row * 3 + col;
+            }
+            for (int mask = 0; mask < (1 << CELLS); mask++) {
+                int transformed = 0;
+                for (int cell = 0; cell < CELLS; cell++) {
+                    if ((mask >>> cell & 1) != 0) {
+                        transformed |= 1 << SYMMETRY[symmetry][cell];
+                    }
+                }
+                SYMMETRIC_MASK[symmetry][mask] = transformed;
+            }
+        }
+        java.util.Arrays.fill(CANONICAL_VALUE, UNKNOWN);
+        java.util.Arrays.fill(VALUE, UNKNOWN);
+        fillTable(new TicTacToeBoard());
+    }
+
+    /**
+     * Returns the best move of the side to move.
+     *
+     * @param board the board
+     * @return the encoded move, or -1 if the game is over
+     */
+    public static int bestMove(TicTacToeBoard board) {
+        int cell = BEST_MOVE[index(board)];
+        return cell < 0 ? -1 : Move.encode(0, cell);
+    }
+
+    /**
+     * Returns the value of the position for the side to move.
+     *
+     * @param board the board
+     * @return greater than 0 for a forced win, 0 for a draw, less than 0 for a forced loss
+     */
+    public static int value(TicTacToeBoard board) {
+        return VALUE[index(board)];
+    }
+
+    @Override
+    public int chooseMove(GameRules rules) {
+        return bestMove((TicTacToeBoard) rules);
+    }
+
+    /**
+     * @param board the board
+     * @return the base 3 index of the position
+     */
+    static int index(TicTacToeBoard board) {
+        return TERNARY[board.getMask(true)] + 2 * TERNARY[board.getMask(false)];
+    }
+
+    /**
+     * Walks every reachable position and stores its value and best move.
+     *
+     * @param board the board, restored on return
+     */
+    private static void fillTable(TicTacToeBoard board) {
+        int index = index(board);
+        if (VALUE[index] != UNKNOWN) {
+            return;
+        }
+        int[] moves = new int[CELLS];
+        int count = board.generateMoves(moves);
+        int best = -1;
+        int bestValue = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int value = -solve(board);
+            fillTable(board);
+            board.undoMove();
+            if (value > bestValue) {
+                bestValue = value;
+                best = Move.to(moves[i]);
+            }
+        }
+        VALUE[index] = (byte) solve(board);
+        BEST_MOVE[index] = (byte) best;
+    }
+
+    /**
+     * Negamax over the symmetry classes of the positions.
+     *
+     * @param board the board, restored on return
+     * @return the value of the position for the side to move
+     */
+    private static int solve(TicTacToeBoard board) {
+        int canonical = canonicalIndex(board);
+        if (CANONICAL_VALUE[canonical] != UNKNOWN) {
+            return CANONICAL_VALUE[canonical];
+        }
+        int value;
+        if (board.getStatus() != GameRules.ONGOING) {
+            // The side to move never has a line: the previous move won or filled the board
+            value = board.getStatus() == GameRules.DRAW ? 0 : -(10 - board.getPly());
+        } else {
+            int[] moves = new int[CELLS];
+            int count = board.generateMoves(moves);
+            value = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moves[i]);
+                value = Math.max(value, -solve(board));
+                board.undoMove();
+            }
+        }
+        CANONICAL_VALUE[canonical] = (byte) value;
+        return value;
+    }
+
+    /**
+     * @param board the board
+     * @return the smallest index among the 8 symmetric positions
+     */
+    private static int canonicalIndex(TicTacToeBoard board) {
+        int x = board.getMask(true);
+        int o = board.getMask(false);
+        int canonical = Integer.MAX_VALUE;
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            canonical = Math.min(canonical, TERNARY[SYMMETRIC_MASK[symmetry][x]] + 2 * TERNARY[SYMMETRIC_MASK[symmetry][o]]);
+        }
+        return canonical;
+    }
+}
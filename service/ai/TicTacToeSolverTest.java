@@ -0,0 +1,68 @@
+package service.ai;
+
+import service.rules.GameRules;
+import service.rules.Move;
+import service.rules.TicTacToeBoard;
+
+/**
+ * Unit tests for the TicTacToeSolver class.
+ */
+public class TicTacToeSolverTest {
+    public static void main(String[] args) {
+        TicTacToeSolverTest test = new TicTacToeSolverTest();
+        test.testInitialValue();
+        test.testTakesWin();
+        test.testNeverLoses();
+    }
+
+    public void testInitialValue() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        assert TicTacToeSolver.value(board) == 0 : "testInitialValue failed, perfect play is a draw";
+        assert TicTacToeSolver.bestMove(board) >= 0 : "testInitialValue failed, no move";
+        System.out.println("testInitialValue passed");
+    }
+
+    public void testTakesWin() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        // X: 0, 1 - O: 3, 4 - X to move wins on 2
+        for (int cell : new int[]{0, 3, 1, 4}) {
+            board.makeMove(Move.encode(0, cell));
+        }
+        assert Move.to(TicTacToeSolver.bestMove(board)) == 2 : "testTakesWin failed";
+        assert TicTacToeSolver.value(board) > 0 : "testTakesWin failed for value";
+        System.out.println("testTakesWin passed");
+    }
+
+    /**
+     * The solver plays one side against every possible sequence of the other side.
+     */
+    public void testNeverLoses() {
+        assert !canBeat(new TicTacToeBoard(), true) : "testNeverLoses failed as player 2";
+        assert !canBeat(new TicTacToeBoard(), false) : "testNeverLoses failed as player 1";
+        System.out.println("testNeverLoses passed");
+    }
+
+    private static boolean canBeat(TicTacToeBoard board, boolean opponentIsPlayer1) {
+        int status = board.getStatus();
+        if (status != GameRules.ONGOING) {
+            return status == (opponentIsPlayer1 ? GameRules.PLAYER1_WINS : GameRules.PLAYER2_WINS);
+        }
+        if (board.isPlayer1ToMove() != opponentIsPlayer1) {
+            board.makeMove(TicTacToeSolver.bestMove(board));
+            boolean beaten = canBeat(board, opponentIsPlayer1);
+            board.undoMove();
+            return beaten;
+        }
+        int[] moves = new int[TicTacToeBoard.CELLS];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            boolean beaten = canBeat(board, opponentIsPlayer1);
+            board.undoMove();
+            if (beaten) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
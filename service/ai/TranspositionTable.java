@@ -0,0 +1,99 @@
+package service.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Transposition table of the Checkers engine: a fixed size array indexed by
+ * the low bits of the Zobrist hash, always replaced.
+ *
+ * An entry is packed in a long: move (12 bits), depth (8 bits), bound (2 bits)
+ * and score (the upper 32 bits).
+ *
+ * The table is shared by the threads of a parallel search without locks:
+ * every slot holds the entry and its key xor-ed with the entry, next to each
+ * other. A slot torn by two threads writing at the same time no longer
+ * matches its hash, so it reads as EMPTY instead of as a wrong entry.
+ */
+class TranspositionTable {
+    static final long EMPTY = 0L;   // Returned by probe when the position is not stored
+    static final int EXACT = 0;     // The score is exact
+    static final int LOWER = 1;     // The score is a lower bound (fail high)
+    static final int UPPER = 2;     // The score is an upper bound (fail low)
+
+    private final AtomicLongArray slots; // [2 * index] -> hash ^ entry, [2 * index + 1] -> entry
+    private final int mask;              // Index mask
+
+    /**
+     * Creates a table of 2^sizeLog2 entries.
+     *
+     * @param sizeLog2 log2 of the number of entries
+     */
+    TranspositionTable(int sizeLog2) {
+        this.slots = new AtomicLongArray(2 << sizeLog2);
+        this.mask = (1 << sizeLog2) - 1;
+    }
+
+    /**
+     * @param hash the Zobrist hash of the position
+     * @return the packed entry, or EMPTY
+     */
+    long probe(long hash) {
+        int index = ((int) hash & mask) << 1;
+        long check = slots.getOpaque(index);
+        long entry = slots.getOpaque(index + 1);
+        return (check ^ entry) == hash ? entry : EMPTY;
+    }
+
+    /**
+     * @param hash the Zobrist hash of the position
+     * @return the stored best move, or 0
+     */
+    int getMove(long hash) {
+        return move(probe(hash));
+    }
+
+    /**
+     * Stores a search result, replacing the previous entry of the slot.
+     *
+     * @param hash the Zobrist hash of the position
+     * @param move the best move
+     * @param depth the searched depth
+     * @param score the score
+     * @param bound EXACT, LOWER or UPPER
+     */
+    void store(long hash, int move, int depth, int score, int bound) {
+        int index = ((int) hash & mask) << 1;
+        long entry = pack(move, depth, score, bound);
+        slots.setOpaque(index, hash ^ entry);
+        slots.setOpaque(index + 1, entry);
+    }
+
+    /**
+     * Empties the table. Must not run during a search.
+     */
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setOpaque(i, 0L);
+        }
+    }
+
+    static long pack(int move, int depth, int score, int bound) {
+        return (long) score << 32 | bound << 20 | depth << 12 | move;
+    }
+
+    static int move(long entry) {
+        return (int) entry & 0xFFF;
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 12) & 0xFF;
+    }
+
+    static int bound(long entry) {
+        return (int) (entry >>> 20) & 3;
+    }
+
+    static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+}
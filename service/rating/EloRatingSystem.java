@@ -0,0 +1,51 @@
+package service.rating;
+
+/**
+ * Elo rating: after a match, a player's rating moves by
+ * kFactor * (score - expected score), with the expected score
+ * 1 / (1 + 10^((opponent - rating) / 400)). The points won by one player
+ * are lost by the other.
+ */
+public class EloRatingSystem implements RatingSystem {
+    public static final double INITIAL_RATING = 1500;
+    public static final double DEFAULT_K_FACTOR = 32;
+
+    private final double kFactor; // Points at stake in a match
+
+    public EloRatingSystem() {
+        this(DEFAULT_K_FACTOR);
+    }
+
+    /**
+     * @param _kFactor the points at stake in a match
+     */
+    public EloRatingSystem(double _kFactor) {
+        this.kFactor = _kFactor;
+    }
+
+    @Override
+    public Rating initial() {
+        return new Rating(INITIAL_RATING, 0, 0, 0);
+    }
+
+    /**
+     * @return the probability of the first player winning, a draw counting half
+     */
+    static double expectedScore(double ratingA, double ratingB) {
+        return 1 / (1 + Math.pow(10, (ratingB - ratingA) / 400));
+    }
+
+    @Override
+    public void rate(Rating a, Rating b, double scoreA) {
+        double change = kFactor * (scoreA - expectedScore(a.rating, b.rating));
+        a.rating += change;
+        b.rating -= change;
+        a.matches++;
+        b.matches++;
+    }
+
+    @Override
+    public String toString() {
+        return "Elo (K " + kFactor + ")";
+    }
+}
@@ -0,0 +1,152 @@
+package service.rating;
+
+/**
+ * Glicko-2 rating (Glickman, "Example of the Glicko-2 system", 2013): a
+ * rating with a deviation, its uncertainty, and a volatility, how much it
+ * fluctuates. A match between players whose ratings are uncertain moves them
+ * more; a surprising result raises the volatility.
+ *
+ * Every match is rated as a rating period of its own, so the ratings are
+ * updated as the matches end, without waiting for the end of a period. The
+ * deviation never grows above the initial one.
+ */
+public class Glicko2RatingSystem implements RatingSystem {
+    public static final double INITIAL_RATING = 1500;
+    public static final double INITIAL_DEVIATION = 350;
+    public static final double INITIAL_VOLATILITY = 0.06;
+    public static final double DEFAULT_TAU = 0.5;    // Constraint on the volatility change, 0.3 to 1.2
+
+    private static final double SCALE = 173.7178;    // Glicko-2 scale: 400 / ln(10)
+    private static final double EPSILON = 0.000001;  // Convergence of the volatility
+
+    private final double tau;
+
+    public Glicko2RatingSystem() {
+        this(DEFAULT_TAU);
+    }
+
+    /**
+     * @param _tau the constraint on the change of the volatility, smaller for fewer surprises
+     */
+    public Glicko2RatingSystem(double _tau) {
+        this.tau = _tau;
+    }
+
+    @Override
+    public Rating initial() {
+        return new Rating(INITIAL_RATING, INITIAL_DEVIATION, INITIAL_VOLATILITY, 0);
+    }
+
+    @Override
+    public void rate(Rating a, Rating b, double scoreA) {
+        double ratingA = a.rating;
+        double deviationA = a.deviation;
+        update(a, b.rating, b.deviation, scoreA);
+        update(b, ratingA, deviationA, 1 - scoreA);
+    }
+
+    /**
+     * Rates one match of a player.
+     */
+    private void update(Rating player, double opponentRating, double opponentDeviation, double score) {
+        double mu = (player.rating - INITIAL_RATING) / SCALE;
+        double g = g(opponentDeviation / SCALE);
+        double e = e(mu, (opponentRating - INITIAL_RATING) / SCALE, g);
+        apply(player, mu, 1 / (g * g * e * (1 - e)), g * (score - e), 1);
+    }
+
+    /**
+     * Rates a rating period of a player: the matches against several opponents.
+     *
+     * @param player the rating of the player, updated
+     * @param opponentRatings the ratings of the opponents
+     * @param opponentDeviations the deviations of the opponents
+     * @param scores the scores of the player against them
+     */
+    void updatePeriod(Rating player, double[] opponentRatings, double[] opponentDeviations, double[] scores) {
+        double mu = (player.rating - INITIAL_RATING) / SCALE;
+        double inverseV = 0;
+        double sum = 0;
+        for (int i = 0; i < scores.length; i++) {
+            double g = g(opponentDeviations[i] / SCALE);
+            double e = e(mu, (opponentRatings[i] - INITIAL_RATING) / SCALE, g);
+            inverseV += g * g * e * (1 - e);
+            sum += g * (scores[i] - e);
+        }
+        apply(player, mu, 1 / inverseV, sum, scores.length);
+    }
+
+    /**
+     * Steps 5 to 8 of the algorithm.
+     *
+     * @param mu the rating on the Glicko-2 scale
+     * @param v the estimated variance of the rating from the results
+     * @param sum the sum of g(phi_j) * (s_j - E_j) over the matches
+     * @param matches the matches of the period
+     */
+    private void apply(Rating player, double mu, double v, double sum, int matches) {
+        double phi = player.deviation / SCALE;
+        double delta = v * sum;
+        double sigma = volatility(phi, player.volatility, v, delta);
+        double phiStar = Math.sqrt(phi * phi + sigma * sigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + 1 / v);
+        player.rating = INITIAL_RATING + SCALE * (mu + newPhi * newPhi * sum);
+        player.deviation = Math.min(INITIAL_DEVIATION, SCALE * newPhi);
+        player.volatility = sigma;
+        player.matches += matches;
+    }
+
+    /**
+     * New volatility: the root of f by the Illinois algorithm (step 5).
+     */
+    private double volatility(double phi, double sigma, double v, double delta) {
+        double a = Math.log(sigma * sigma);
+        double phi2v = phi * phi + v;
+        double delta2 = delta * delta;
+        double bigA = a;
+        double bigB;
+        if (delta2 > phi2v) {
+            bigB = Math.log(delta2 - phi2v);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, a, phi2v, delta2) < 0) {
+                k++;
+            }
+            bigB = a - k * tau;
+        }
+        double fA = f(bigA, a, phi2v, delta2);
+        double fB = f(bigB, a, phi2v, delta2);
+        while (Math.abs(bigB - bigA) > EPSILON) {
+            double bigC = bigA + (bigA - bigB) * fA / (fB - fA);
+            double fC = f(bigC, a, phi2v, delta2);
+            if (fC * fB <= 0) {
+                bigA = bigB;
+                fA = fB;
+            } else {
+                fA /= 2;
+            }
+            bigB = bigC;
+            fB = fC;
+        }
+        return Math.exp(bigA / 2);
+    }
+
+    private double f(double x, double a, double phi2v, double delta2) {
+        double ex = Math.exp(x);
+        double d = phi2v + ex;
+        return ex * (delta2 - phi2v - ex) / (2 * d * d) - (x - a) / (tau * tau);
+    }
+
+    private static double g(double phi) {
+        return 1 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    private static double e(double mu, double opponentMu, double g) {
+        return 1 / (1 + Math.exp(-g * (mu - opponentMu)));
+    }
+
+    @Override
+    public String toString() {
+        return "Glicko-2 (tau " + tau + ")";
+    }
+}
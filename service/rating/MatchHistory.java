@@ -0,0 +1,99 @@
+package service.rating;
+
+import java.util.Arrays;
+
+/**
+ * Results of matches in the order they are rated, oldest first, as parallel
+ * arrays: millions of matches without an object per match.
+ */
+public class MatchHistory {
+    static final byte LOSS = 0;   // Outcome for the first player
+    static final byte DRAW = 1;
+    static final byte WIN = 2;
+
+    long[] matchIds;
+    long[] player1Ids;
+    long[] player2Ids;
+    long[] gameIds;
+    byte[] outcomes;
+    private int size;
+
+    public MatchHistory() {
+        this(16);
+    }
+
+    /**
+     * @param capacity the matches expected
+     */
+    public MatchHistory(int capacity) {
+        int n = Math.max(1, capacity);
+        matchIds = new long[n];
+        player1Ids = new long[n];
+        player2Ids = new long[n];
+        gameIds = new long[n];
+        outcomes = new byte[n];
+    }
+
+    /**
+     * Adds a match after the others.
+     *
+     * @param matchId the ID of the match
+     * @param player1Id the ID of the first player
+     * @param player2Id the ID of the second player
+     * @param gameId the ID of the game
+     * @param scorePlayer1 the match score of the first player
+     * @param scorePlayer2 the match score of the second player
+     */
+    public void add(long matchId, long player1Id, long player2Id, long gameId, int scorePlayer1, int scorePlayer2) {
+        if (size == matchIds.length) {
+            int capacity = size * 2;
+            matchIds = Arrays.copyOf(matchIds, capacity);
+            player1Ids = Arrays.copyOf(player1Ids, capacity);
+            player2Ids = Arrays.copyOf(player2Ids, capacity);
+            gameIds = Arrays.copyOf(gameIds, capacity);
+            outcomes = Arrays.copyOf(outcomes, capacity);
+        }
+        matchIds[size] = matchId;
+        player1Ids[size] = player1Id;
+        player2Ids[size] = player2Id;
+        gameIds[size] = gameId;
+        outcomes[size] = outcomeOf(scorePlayer1, scorePlayer2);
+        size++;
+    }
+
+    /**
+     * Reverses the order of the matches, for a history read newest first.
+     */
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            swap(matchIds, i, j);
+            swap(player1Ids, i, j);
+            swap(player2Ids, i, j);
+            swap(gameIds, i, j);
+            byte outcome = outcomes[i];
+            outcomes[i] = outcomes[j];
+            outcomes[j] = outcome;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the score of the first player of a match: 1, 0.5 or 0
+     */
+    double scoreOf(int match) {
+        return outcomes[match] * 0.5;
+    }
+
+    static byte outcomeOf(int scorePlayer1, int scorePlayer2) {
+        return scorePlayer1 > scorePlayer2 ? WIN : scorePlayer1 == scorePlayer2 ? DRAW : LOSS;
+    }
+
+    private static void swap(long[] array, int i, int j) {
+        long value = array[i];
+        array[i] = array[j];
+        array[j] = value;
+    }
+}
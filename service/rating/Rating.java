@@ -0,0 +1,60 @@
+package service.rating;
+
+/**
+ * Rating of a player in a pool: the rating, its deviation and volatility
+ * (Glicko-2 only; constant with Elo) and the matches rated.
+ *
+ * Mutable: a RatingSystem updates the ratings of a match in place. The
+ * ratings handed out by a RatingEngine are copies.
+ */
+public final class Rating {
+    double rating;      // On the Elo scale, 1500 for a new player
+    double deviation;   // Uncertainty of the rating, on the same scale
+    double volatility;  // Expected fluctuation of the rating
+    int matches;        // Matches rated
+
+    /**
+     * @param _rating the rating
+     * @param _deviation the deviation of the rating
+     * @param _volatility the volatility of the rating
+     * @param _matches the matches rated
+     */
+    public Rating(double _rating, double _deviation, double _volatility, int _matches) {
+        this.rating = _rating;
+        this.deviation = _deviation;
+        this.volatility = _volatility;
+        this.matches = _matches;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public double getDeviation() {
+        return deviation;
+    }
+
+    public double getVolatility() {
+        return volatility;
+    }
+
+    public int getMatches() {
+        return matches;
+    }
+
+    /**
+     * @return the rating rounded, as stored in Player.SCORE
+     */
+    public int getScore() {
+        return (int) Math.round(rating);
+    }
+
+    public Rating copy() {
+        return new Rating(rating, deviation, volatility, matches);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f (RD %.1f, vol %.4f, %d matches)", rating, deviation, volatility, matches);
+    }
+}
@@ -0,0 +1,275 @@
+package service.rating;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Ratings of the players, per rating pool, updated as the matches end.
+ *
+ * Every match is rated in two pools: OVERALL_POOL, the ratings of every
+ * match whatever the game, stored as the players' score, and the pool of its
+ * game, whose ID is the pool's.
+ *
+ * recompute() replays a whole history, for new rating parameters or to load
+ * the ratings at startup. The ratings of a pool depend on the order of its
+ * matches, so a pool is replayed sequentially, over primitive arrays indexed
+ * by dense player numbers. The pools are independent and replayed as one task
+ * each on a ForkJoinPool, but that is only one task per game besides the
+ * overall pool, which replays every match: a recompute takes about as long as
+ * a sequential replay of the whole history, the game pools being replayed
+ * alongside it. The ratings rated meanwhile stay in use until the new ones
+ * replace them at once.
+ *
+ * A match rated while the history is read may or may not be in it: after
+ * beginRecompute(), the matches rated are also kept aside, and those missing
+ * from the history are rated again on the new ratings, so none is lost or
+ * counted twice.
+ *
+ * Thread-safe: the incremental updates lock the engine, a recompute only
+ * while it swaps the ratings.
+ */
+public class RatingEngine {
+    public static final long OVERALL_POOL = 0; // Every match; the game pools have the IDs of the games
+
+    private final ForkJoinPool threads;             // Replay of the pools
+    private RatingSystem system;                    // Guarded by this
+    private Map<Long, Map<Long, Rating>> pools = new HashMap<>(); // Pool -> player ID -> rating, guarded by this
+    private MatchHistory tail;                      // Matches rated since beginRecompute(), null without a recompute
+
+    /**
+     * Creates an engine using every processor for the recomputes.
+     *
+     * @param _system the rating system
+     */
+    public RatingEngine(RatingSystem _system) {
+        this(_system, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param _system the rating system
+     * @param _threads the threads of the recomputes
+     */
+    public RatingEngine(RatingSystem _system, int _threads) {
+        this.system = _system;
+        this.threads = new ForkJoinPool(_threads);
+    }
+
+    /**
+     * Rates a match in the overall pool and in the pool of its game.
+     *
+     * @param matchId the ID of the match
+     * @param player1Id the ID of the first player
+     * @param player2Id the ID of the second player
+     * @param gameId the ID of the game
+     * @param scorePlayer1 the match score of the first player
+     * @param scorePlayer2 the match score of the second player
+     * @return copies of the new overall ratings of the first and second player
+     */
+    public synchronized Rating[] rate(long matchId, long player1Id, long player2Id, long gameId, int scorePlayer1, int scorePlayer2) {
+        if (tail != null) {
+            tail.add(matchId, player1Id, player2Id, gameId, scorePlayer1, scorePlayer2);
+        }
+        double score = MatchHistory.outcomeOf(scorePlayer1, scorePlayer2) * 0.5;
+        rateIn(gameId, player1Id, player2Id, score);
+        return rateIn(OVERALL_POOL, player1Id, player2Id, score);
+    }
+
+    private Rating[] rateIn(long poolId, long player1Id, long player2Id, double score) {
+        Map<Long, Rating> ratings = pools.computeIfAbsent(poolId, id -> new HashMap<>());
+        Rating a = ratings.computeIfAbsent(player1Id, id -> system.initial());
+        Rating b = ratings.computeIfAbsent(player2Id, id -> system.initial());
+        if (a != b) { // A player against themselves is not rated
+            system.rate(a, b, score);
+        }
+        return new Rating[] {a.copy(), b.copy()};
+    }
+
+    /**
+     * @param poolId the pool, OVERALL_POOL or the ID of a game
+     * @param playerId the ID of the player
+     * @return a copy of the rating of the player, the initial rating if they have none
+     */
+    public synchronized Rating ratingOf(long poolId, long playerId) {
+        Map<Long, Rating> ratings = pools.get(poolId);
+        Rating rating = ratings == null ? null : ratings.get(playerId);
+        return rating == null ? system.initial() : rating.copy();
+    }
+
+    public synchronized RatingSystem getSystem() {
+        return system;
+    }
+
+    /**
+     * Keeps the matches rated from now on for the next recompute; call it
+     * before reading the history.
+     */
+    public synchronized void beginRecompute() {
+        tail = new MatchHistory();
+    }
+
+    /**
+     * Replays a history with the current rating system.
+     *
+     * @param history the matches, oldest first
+     * @return copies of the new overall ratings, by player ID
+     */
+    public Map<Long, Rating> recompute(MatchHistory history) {
+        return recompute(history, getSystem());
+    }
+
+    /**
+     * Replays a history with a rating system, then replaces every rating and
+     * the rating system used for the next matches.
+     *
+     * @param history the matches, oldest first
+     * @param _system the rating system
+     * @return copies of the new overall ratings, by player ID
+     */
+    public Map<Long, Rating> recompute(MatchHistory history, RatingSystem _system) {
+        Map<Long, Map<Long, Rating>> replayed = replay(history, _system);
+        synchronized (this) {
+            this.system = _system;
+            this.pools = replayed;
+            if (tail != null) {
+                rateMissing(tail, history);
+                tail = null;
+            }
+            Map<Long, Rating> overall = new HashMap<>();
+            for (Map.Entry<Long, Rating> entry : pools.getOrDefault(OVERALL_POOL, new HashMap<>()).entrySet()) {
+                overall.put(entry.getKey(), entry.getValue().copy());
+            }
+            return overall;
+        }
+    }
+
+    /**
+     * Rates the matches of the tail missing from the history.
+     */
+    private void rateMissing(MatchHistory rated, MatchHistory history) {
+        Set<Long> replayed = new HashSet<>();
+        Set<Long> ratedIds = new HashSet<>();
+        for (int i = 0; i < rated.size(); i++) {
+            ratedIds.add(rated.matchIds[i]);
+        }
+        for (int i = 0; i < history.size(); i++) {
+            if (ratedIds.contains(history.matchIds[i])) {
+                replayed.add(history.matchIds[i]);
+            }
+        }
+        for (int i = 0; i < rated.size(); i++) {
+            if (!replayed.contains(rated.matchIds[i])) {
+                double score = rated.scoreOf(i);
+                rateIn(rated.gameIds[i], rated.player1Ids[i], rated.player2Ids[i], score);
+                rateIn(OVERALL_POOL, rated.player1Ids[i], rated.player2Ids[i], score);
+            }
+        }
+    }
+
+    /**
+     * Rates a history in new pools, one task per pool.
+     */
+    private Map<Long, Map<Long, Rating>> replay(MatchHistory history, RatingSystem _system) {
+        int n = history.size();
+        // Dense numbers of the players, and the matches of every game
+        Map<Long, Integer> numbers = new HashMap<>();
+        List<Long> playerIds = new ArrayList<>();
+        int[] player1 = new int[n];
+        int[] player2 = new int[n];
+        Map<Long, int[]> gameCounts = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            player1[i] = numberOf(history.player1Ids[i], numbers, playerIds);
+            player2[i] = numberOf(history.player2Ids[i], numbers, playerIds);
+            gameCounts.computeIfAbsent(history.gameIds[i], id -> new int[1])[0]++;
+        }
+        Map<Long, int[]> gameMatches = new HashMap<>();
+        Map<Long, int[]> filled = new HashMap<>();
+        for (Map.Entry<Long, int[]> entry : gameCounts.entrySet()) {
+            gameMatches.put(entry.getKey(), new int[entry.getValue()[0]]);
+            filled.put(entry.getKey(), new int[1]);
+        }
+        for (int i = 0; i < n; i++) {
+            gameMatches.get(history.gameIds[i])[filled.get(history.gameIds[i])[0]++] = i;
+        }
+
+        // The overall pool first: it has every match, the longest task
+        List<Long> poolIds = new ArrayList<>();
+        List<Callable<Map<Long, Rating>>> tasks = new ArrayList<>();
+        poolIds.add(OVERALL_POOL);
+        tasks.add(() -> replayPool(null, n, player1, player2, history, playerIds, _system));
+        for (Map.Entry<Long, int[]> entry : gameMatches.entrySet()) {
+            int[] matches = entry.getValue();
+            poolIds.add(entry.getKey());
+            tasks.add(() -> replayPool(matches, matches.length, player1, player2, history, playerIds, _system));
+        }
+        Map<Long, Map<Long, Rating>> replayed = new HashMap<>();
+        try {
+            List<Future<Map<Long, Rating>>> futures = threads.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                replayed.put(poolIds.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("recompute interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("recompute failed", e.getCause());
+        }
+        return replayed;
+    }
+
+    /**
+     * Rates the matches of one pool, in order.
+     *
+     * @param matches the indexes of the matches in the history, null for all of them
+     * @param count the matches
+     */
+    private static Map<Long, Rating> replayPool(int[] matches, int count, int[] player1, int[] player2,
+            MatchHistory history, List<Long> playerIds, RatingSystem _system) {
+        Rating[] ratings = new Rating[playerIds.size()];
+        for (int k = 0; k < count; k++) {
+            int i = matches == null ? k : matches[k];
+            int a = player1[i];
+            int b = player2[i];
+            if (ratings[a] == null) {
+                ratings[a] = _system.initial();
+            }
+            if (ratings[b] == null) {
+                ratings[b] = _system.initial();
+            }
+            if (a != b) {
+                _system.rate(ratings[a], ratings[b], history.scoreOf(i));
+            }
+        }
+        Map<Long, Rating> pool = new HashMap<>();
+        for (int p = 0; p < ratings.length; p++) {
+            if (ratings[p] != null) {
+                pool.put(playerIds.get(p), ratings[p]);
+            }
+        }
+        return pool;
+    }
+
+    private static int numberOf(long playerId, Map<Long, Integer> numbers, List<Long> playerIds) {
+        Integer number = numbers.get(playerId);
+        if (number == null) {
+            number = playerIds.size();
+            numbers.put(playerId, number);
+            playerIds.add(playerId);
+        }
+        return number;
+    }
+
+    /**
+     * Stops the threads of the recomputes.
+     */
+    public void shutdown() {
+        threads.shutdown();
+    }
+}
@@ -0,0 +1,122 @@
+package service.rating;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for the RatingEngine class and the rating systems.
+ */
+public class RatingEngineTest {
+    public static void main(String[] args) {
+        RatingEngineTest test = new RatingEngineTest();
+        test.testElo();
+        test.testGlicko2Example();
+        test.testRecomputeEqualsIncremental();
+        test.testRatedDuringRecompute();
+        test.testBulkRecompute();
+    }
+
+    public void testElo() {
+        EloRatingSystem elo = new EloRatingSystem();
+        Rating a = elo.initial();
+        Rating b = elo.initial();
+        elo.rate(a, b, 1);
+        assert a.getRating() == 1516 && b.getRating() == 1484 : "testElo failed, " + a + " " + b;
+        elo.rate(a, b, 0.5);
+        assert a.getRating() < 1516 && a.getRating() + b.getRating() == 3000 : "testElo failed for the draw, " + a + " " + b;
+        System.out.println("testElo passed");
+    }
+
+    /**
+     * The example of Glickman's paper: 1500 (RD 200) beats 1400 (RD 30), loses
+     * to 1550 (RD 100) and 1700 (RD 300), with tau 0.5.
+     */
+    public void testGlicko2Example() {
+        Glicko2RatingSystem glicko = new Glicko2RatingSystem(0.5);
+        Rating player = new Rating(1500, 200, 0.06, 0);
+        glicko.updatePeriod(player, new double[] {1400, 1550, 1700}, new double[] {30, 100, 300}, new double[] {1, 0, 0});
+        assert Math.abs(player.getRating() - 1464.06) < 0.01 : "testGlicko2Example failed, rating " + player.getRating();
+        assert Math.abs(player.getDeviation() - 151.52) < 0.01 : "testGlicko2Example failed, deviation " + player.getDeviation();
+        assert Math.abs(player.getVolatility() - 0.05999) < 0.00001 : "testGlicko2Example failed, volatility " + player.getVolatility();
+        assert player.getMatches() == 3 : "testGlicko2Example failed, matches " + player.getMatches();
+        System.out.println("testGlicko2Example passed");
+    }
+
+    /**
+     * Replaying a history in parallel gives the ratings of rating its matches one by one.
+     */
+    public void testRecomputeEqualsIncremental() {
+        MatchHistory history = randomHistory(20000, 300, new Random(7));
+        RatingEngine incremental = new RatingEngine(new Glicko2RatingSystem(), 1);
+        for (int i = 0; i < history.size(); i++) {
+            incremental.rate(history.matchIds[i], history.player1Ids[i], history.player2Ids[i], history.gameIds[i],
+                history.outcomes[i], 1);
+        }
+        RatingEngine bulk = new RatingEngine(new Glicko2RatingSystem(), 4);
+        Map<Long, Rating> overall = bulk.recompute(history);
+        assert overall.size() == 300 : "testRecomputeEqualsIncremental failed, players " + overall.size();
+        for (long playerId = 1; playerId <= 300; playerId++) {
+            for (long pool = RatingEngine.OVERALL_POOL; pool <= 2; pool++) {
+                Rating expected = incremental.ratingOf(pool, playerId);
+                Rating actual = bulk.ratingOf(pool, playerId);
+                assert expected.getRating() == actual.getRating() && expected.getDeviation() == actual.getDeviation()
+                    && expected.getMatches() == actual.getMatches()
+                    : "testRecomputeEqualsIncremental failed, player " + playerId + " pool " + pool + ": " + expected + " " + actual;
+            }
+        }
+        incremental.shutdown();
+        bulk.shutdown();
+        System.out.println("testRecomputeEqualsIncremental passed");
+    }
+
+    /**
+     * A match rated while the history is read counts once, whether the history has it or not.
+     */
+    public void testRatedDuringRecompute() {
+        RatingEngine engine = new RatingEngine(new EloRatingSystem(), 2);
+        engine.beginRecompute();
+        engine.rate(1, 10, 20, 1, 1, 0); // Saved before the history is read
+        MatchHistory history = new MatchHistory();
+        history.add(1, 10, 20, 1, 1, 0);
+        engine.rate(2, 20, 10, 1, 1, 0); // Saved after
+        engine.recompute(history);
+
+        RatingEngine expected = new RatingEngine(new EloRatingSystem(), 1);
+        expected.rate(1, 10, 20, 1, 1, 0);
+        expected.rate(2, 20, 10, 1, 1, 0);
+        Rating rating = engine.ratingOf(RatingEngine.OVERALL_POOL, 10);
+        assert rating.getMatches() == 2 && rating.getRating() == expected.ratingOf(RatingEngine.OVERALL_POOL, 10).getRating()
+            : "testRatedDuringRecompute failed, " + rating;
+        engine.shutdown();
+        expected.shutdown();
+        System.out.println("testRatedDuringRecompute passed");
+    }
+
+    /**
+     * A million Glicko-2 matches are recomputed in seconds.
+     */
+    public void testBulkRecompute() {
+        MatchHistory history = randomHistory(1000000, 50000, new Random(11));
+        RatingEngine engine = new RatingEngine(new Glicko2RatingSystem());
+        long start = System.nanoTime();
+        Map<Long, Rating> overall = engine.recompute(history);
+        long millis = (System.nanoTime() - start) / 1000000;
+        engine.shutdown();
+        assert overall.size() == 50000 : "testBulkRecompute failed, players " + overall.size();
+        assert millis < 20000 : "testBulkRecompute failed, " + millis + " ms";
+        System.out.println("testBulkRecompute passed (" + millis + " ms)");
+    }
+
+    /**
+     * Matches between random players of games 1 and 2; outcomes 2, 1 or 0 against 1: win, draw, loss.
+     */
+    private static MatchHistory randomHistory(int matches, int players, Random random) {
+        MatchHistory history = new MatchHistory(matches);
+        for (int i = 0; i < matches; i++) {
+            long player1 = 1 + (i < players ? i : random.nextInt(players));
+            long player2 = 1 + random.nextInt(players);
+            history.add(i + 1, player1, player2, 1 + random.nextInt(2), random.nextInt(3), 1);
+        }
+        return history;
+    }
+}
@@ -0,0 +1,40 @@
+package service.rating;
+
+/**
+ * Rule updating the ratings of two players after a match between them.
+ */
+public interface RatingSystem {
+    String PROPERTY = "twoplayersgame.rating"; // System property of the system: elo or glicko2
+
+    /**
+     * @return the rating of a player without any match
+     */
+    Rating initial();
+
+    /**
+     * Updates the ratings of the two players of a match, both from their
+     * ratings before the match.
+     *
+     * @param a the rating of the first player, updated
+     * @param b the rating of the second player, updated
+     * @param scoreA 1 if the first player won, 0.5 for a draw, 0 if they lost
+     */
+    void rate(Rating a, Rating b, double scoreA);
+
+    /**
+     * Creates the system named by the PROPERTY system property, Elo if not set.
+     *
+     * @return a new system with its default parameters
+     */
+    static RatingSystem fromSystemProperty() {
+        String name = System.getProperty(PROPERTY, "elo");
+        switch (name.toLowerCase()) {
+            case "elo":
+                return new EloRatingSystem();
+            case "glicko2":
+                return new Glicko2RatingSystem();
+            default:
+                throw new IllegalArgumentException("unknown rating system: " + name);
+        }
+    }
+}
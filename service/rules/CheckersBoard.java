@@ -0,0 +1,499 @@
+package service.rules;
+
+/**
+ * Bitboard representation of a Checkers position.
+ *
+ * Only the 32 dark squares of the 8x8 board are playable, so every square is
+ * one bit of an int: square s = row * 4 + (index of the dark cell in the row).
+ * The position is kept in two masks (X men and O men); the third mask, the
+ * dark squares, is the constant DARK_SQUARES and empty squares are derived as
+ * DARK_SQUARES & ~(x | o).
+ *
+ * Rules are the ones of the Swing game: men only, X moves down (row + 1),
+ * O moves up (row - 1), a single diagonal step or a single jump over an
+ * opponent man. Cells used by the view (row * 8 + col) are translated with
+ * the precomputed CELL_TO_SQUARE / SQUARE_TO_CELL tables.
+ * Men only move forward, so a game never lasts more than a couple of hundred moves.
+ */
+public class CheckersBoard implements GameRules {
+    public static final int BOARD_SIZE = 8;     // Size of the Checkers board
+    public static final int SQUARES = 32;       // Number of playable (dark) squares
+    public static final int MAX_MOVES = 48;     // 12 men, at most 4 moves each
+    public static final int DARK_SQUARES = 0xFFFFFFFF; // Every bit is a dark square
+
+    private static final int INITIAL_X = 0x00000FFF;  // rows 0..2
+    private static final int INITIAL_O = 0xFFF00000;  // rows 5..7
+
+    static final int EVEN_ROWS = 0x0F0F0F0F;    // squares of rows 0, 2, 4, 6
+    static final int ODD_ROWS = 0xF0F0F0F0;     // squares of rows 1, 3, 5, 7
+    static final int FIRST_OF_ROW = 0x11111111; // first dark square of each row
+    static final int LAST_OF_ROW = 0x88888888;  // last dark square of each row
+
+    private static final byte[] CELL_TO_SQUARE = new byte[BOARD_SIZE * BOARD_SIZE]; // -1 for light cells
+    private static final byte[] SQUARE_TO_CELL = new byte[SQUARES];
+    private static final int[][] STEPS = new int[2][SQUARES]; // [side][square] -> mask of step targets
+    private static final int[][] JUMPS = new int[2][SQUARES]; // [side][square] -> mask of jump targets
+    private static final byte[] MIDDLE = new byte[SQUARES * SQUARES]; // [from * 32 + to] -> jumped square, -1 if none
+    private static final long[][] ZOBRIST = new long[2][SQUARES]; // [side][square] -> random key of a man
+    private static final long ZOBRIST_PLAYER2 = 0x9E3779B97F4A7C15L; // Key xor-ed in when Player 2 is to move
+
+    static {
+        java.util.Arrays.fill(CELL_TO_SQUARE, (byte) -1);
+        java.util.Arrays.fill(MIDDLE, (byte) -1);
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                if ((row + col) % 2 != 0) {
+                    int square = row * 4 + col / 2;
+                    CELL_TO_SQUARE[row * BOARD_SIZE + col] = (byte) square;
+                    SQUARE_TO_CELL[square] = (byte) (row * BOARD_SIZE + col);
+                }
+            }
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            int row = SQUARE_TO_CELL[square] / BOARD_SIZE;
+            int col = SQUARE_TO_CELL[square] % BOARD_SIZE;
+            for (int side = 0; side < 2; side++) {
+                int direction = side == 0 ? 1 : -1;
+                for (int dc = -1; dc <= 1; dc += 2) {
+                    int stepRow = row + direction;
+                    int stepCol = col + dc;
+                    if (isOnBoard(stepRow, stepCol)) {
+                        STEPS[side][square] |= 1 << CELL_TO_SQUARE[stepRow * BOARD_SIZE + stepCol];
+                    }
+                    int jumpRow = row + 2 * direction;
+                    int jumpCol = col + 2 * dc;
+                    if (isOnBoard(jumpRow, jumpCol)) {
+                        int target = CELL_TO_SQUARE[jumpRow * BOARD_SIZE + jumpCol];
+                        JUMPS[side][square] |= 1 << target;
+                        MIDDLE[square * SQUARES + target] = CELL_TO_SQUARE[stepRow * BOARD_SIZE + stepCol];
+                    }
+                }
+            }
+        }
+        java.util.Random random = new java.util.Random(20240601L); // Fixed seed: hashes are reproducible across runs
+        for (int side = 0; side < 2; side++) {
+            for (int square = 0; square < SQUARES; square++) {
+                ZOBRIST[side][square] = random.nextLong();
+            }
+        }
+    }
+
+    private int x;                  // X men (player 1)
+    private int o;                  // O men (player 2)
+    private boolean player1ToMove;  // Side to move
+    private int player1Captures;    // Count of captures for Player 1
+    private int player2Captures;    // Count of captures for Player 2
+    private int[] history = new int[256]; // Moves played: from, to and captured square
+    private int ply;                // Number of moves played
+    private long hash;              // Zobrist hash of the men and the side to move
+
+    /**
+     * Creates a board in the initial position.
+     */
+    public CheckersBoard() {
+        reset();
+    }
+
+    /**
+     * Puts the board back in the initial position, Player 1 (X) to move.
+     */
+    @Override
+    public void reset() {
+        this.x = INITIAL_X;
+        this.o = INITIAL_O;
+        this.player1ToMove = true;
+        this.player1Captures = 0;
+        this.player2Captures = 0;
+        this.ply = 0;
+        this.hash = computeHash();
+    }
+
+    /**
+     * Sets an arbitrary position, used by tests and position setup.
+     *
+     * @param _x the mask of X men
+     * @param _o the mask of O men
+     * @param _player1ToMove true if Player 1 (X) is to move
+     */
+    void setPosition(int _x, int _o, boolean _player1ToMove) {
+        this.x = _x;
+        this.o = _o;
+        this.player1ToMove = _player1ToMove;
+        this.hash = computeHash();
+    }
+
+    @Override
+    public GameRules copy() {
+        CheckersBoard board = new CheckersBoard();
+        board.x = this.x;
+        board.o = this.o;
+        board.player1ToMove = this.player1ToMove;
+        board.player1Captures = this.player1Captures;
+        board.player2Captures = this.player2Captures;
+        board.history = this.history.clone();
+        board.ply = this.ply;
+        board.hash = this.hash;
+        return board;
+    }
+
+    /**
+     * Gets the Zobrist hash of the position, maintained incrementally by makeMove/undoMove.
+     *
+     * @return the hash of the men and the side to move
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /**
+     * Returns the character the view displays for a cell:
+     * 'X' or 'O' for a man, '-' for an empty dark cell, ' ' for a light cell.
+     *
+     * @param cell the cell (row * 8 + col)
+     * @return the cell character
+     */
+    public char pieceAt(int cell) {
+        int square = CELL_TO_SQUARE[cell];
+        if (square < 0) {
+            return ' ';
+        }
+        if ((x >>> square & 1) != 0) {
+            return 'X';
+        }
+        if ((o >>> square & 1) != 0) {
+            return 'O';
+        }
+        return '-';
+    }
+
+    @Override
+    public boolean isPlayer1ToMove() {
+        return this.player1ToMove;
+    }
+
+    /**
+     * Checks if a move is legal for the side to move.
+     *
+     * @param fromCell the cell of the man to move
+     * @param toCell the destination cell
+     * @return true if the move is legal, false otherwise
+     */
+    @Override
+    public boolean isLegalMove(int fromCell, int toCell) {
+        if (fromCell < 0 || fromCell >= CELL_TO_SQUARE.length || toCell < 0 || toCell >= CELL_TO_SQUARE.length) {
+            return false;
+        }
+        int from = CELL_TO_SQUARE[fromCell];
+        int to = CELL_TO_SQUARE[toCell];
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        int side = player1ToMove ? 0 : 1;
+        int own = player1ToMove ? x : o;
+        int opponent = player1ToMove ? o : x;
+        int empty = ~(x | o);
+        if ((own >>> from & 1) == 0 || (empty >>> to & 1) == 0) {
+            return false;
+        }
+        if ((STEPS[side][from] >>> to & 1) != 0) {
+            return true;
+        }
+        return (JUMPS[side][from] >>> to & 1) != 0 && (opponent >>> MIDDLE[from * SQUARES + to] & 1) != 0;
+    }
+
+    @Override
+    public void makeMove(int move) {
+        int from = CELL_TO_SQUARE[Move.from(move)];
+        int to = CELL_TO_SQUARE[Move.to(move)];
+        int fromTo = (1 << from) | (1 << to);
+        int middle = MIDDLE[from * SQUARES + to];
+        int captured = -1;
+        int side = player1ToMove ? 0 : 1;
+        if (player1ToMove) {
+            x ^= fromTo;
+            if (middle >= 0 && (o >>> middle & 1) != 0) {
+                o ^= 1 << middle;
+                player1Captures++;
+                captured = middle;
+            }
+        } else {
+            o ^= fromTo;
+            if (middle >= 0 && (x >>> middle & 1) != 0) {
+                x ^= 1 << middle;
+                player2Captures++;
+                captured = middle;
+            }
+        }
+        hash ^= ZOBRIST[side][from] ^ ZOBRIST[side][to] ^ ZOBRIST_PLAYER2;
+        if (captured >= 0) {
+            hash ^= ZOBRIST[1 - side][captured];
+        }
+        if (ply == history.length) {
+            history = java.util.Arrays.copyOf(history, ply * 2);
+        }
+        history[ply++] = (from << 5 | to) << 6 | (captured + 1);
+        player1ToMove = !player1ToMove;
+    }
+
+    @Override
+    public void undoMove() {
+        int entry = history[--ply];
+        int from = entry >>> 11;
+        int to = entry >>> 6 & 31;
+        int captured = (entry & 63) - 1;
+        int fromTo = (1 << from) | (1 << to);
+        player1ToMove = !player1ToMove;
+        int side = player1ToMove ? 0 : 1;
+        if (player1ToMove) {
+            x ^= fromTo;
+            if (captured >= 0) {
+                o |= 1 << captured;
+                player1Captures--;
+            }
+        } else {
+            o ^= fromTo;
+            if (captured >= 0) {
+                x |= 1 << captured;
+                player2Captures--;
+            }
+        }
+        hash ^= ZOBRIST[side][from] ^ ZOBRIST[side][to] ^ ZOBRIST_PLAYER2;
+        if (captured >= 0) {
+            hash ^= ZOBRIST[1 - side][captured];
+        }
+    }
+
+    @Override
+    public int getPly() {
+        return this.ply;
+    }
+
+    @Override
+    public int getStatus() {
+        if (o == 0) {
+            return PLAYER1_WINS;
+        }
+        if (x == 0) {
+            return PLAYER2_WINS;
+        }
+        if (hasMoves(player1ToMove)) {
+            return ONGOING;
+        }
+        if (!hasMoves(!player1ToMove)) {
+            return DRAW;
+        }
+        return player1ToMove ? PLAYER2_WINS : PLAYER1_WINS;
+    }
+
+    /**
+     * The match score of a player is the number of men they captured.
+     */
+    @Override
+    public int getScore(boolean player1) {
+        return getCaptures(player1);
+    }
+
+    /**
+     * Fills the buffer with every legal move of the side to move.
+     *
+     * @param moves the buffer, at least MAX_MOVES entries
+     * @return the number of moves written
+     */
+    @Override
+    public int generateMoves(int[] moves) {
+        int side = player1ToMove ? 0 : 1;
+        int opponent = player1ToMove ? o : x;
+        int empty = ~(x | o);
+        int count = 0;
+        int pieces = movablePieces(player1ToMove);
+        while (pieces != 0) {
+            int from = Integer.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            int targets = STEPS[side][from] & empty;
+            int jumps = JUMPS[side][from] & empty;
+            while (jumps != 0) {
+                int to = Integer.numberOfTrailingZeros(jumps);
+                jumps &= jumps - 1;
+                if ((opponent >>> MIDDLE[from * SQUARES + to] & 1) != 0) {
+                    targets |= 1 << to;
+                }
+            }
+            while (targets != 0) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                moves[count++] = Move.encode(SQUARE_TO_CELL[from], SQUARE_TO_CELL[to]);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getMaxMoves() {
+        return MAX_MOVES;
+    }
+
+    /**
+     * Returns the mask of the men of a player that have at least one legal move,
+     * computed for all men at once with shifts.
+     *
+     * @param player1 true for Player 1 (X), false for Player 2 (O)
+     * @return the mask of movable men
+     */
+    public int movablePieces(boolean player1) {
+        int empty = ~(x | o);
+        if (player1) {
+            int steps = (empty >>> 4)
+                | ((empty >>> 5) & EVEN_ROWS & ~LAST_OF_ROW)
+                | ((empty >>> 3) & ODD_ROWS & ~FIRST_OF_ROW);
+            int jumps = (empty >>> 9) & ~LAST_OF_ROW & (((o >>> 5) & EVEN_ROWS) | ((o >>> 4) & ODD_ROWS))
+                | (empty >>> 7) & ~FIRST_OF_ROW & (((o >>> 4) & EVEN_ROWS) | ((o >>> 3) & ODD_ROWS));
+            return x & (steps | jumps);
+        }
+        int steps = (empty << 4)
+            | ((empty << 3) & EVEN_ROWS & ~LAST_OF_ROW)
+            | ((empty << 5) & ODD_ROWS & ~FIRST_OF_ROW);
+        int jumps = (empty << 9) & ~FIRST_OF_ROW & (((x << 4) & EVEN_ROWS) | ((x << 5) & ODD_ROWS))
+            | (empty << 7) & ~LAST_OF_ROW & (((x << 3) & EVEN_ROWS) | ((x << 4) & ODD_ROWS));
+        return o & (steps | jumps);
+    }
+
+    /**
+     * Checks if there are any legal moves left for a player.
+     *
+     * @param player1 true for Player 1 (X), false for Player 2 (O)
+     * @return true if there are legal moves, false otherwise
+     */
+    public boolean hasMoves(boolean player1) {
+        return movablePieces(player1) != 0;
+    }
+
+    /**
+     * Checks if a player has won: all opponent men are captured, or the
+     * opponent is to move and is blocked while the player can still move.
+     *
+     * @param player1 true if checking for Player 1's win, false for Player 2
+     * @return true if the player has won, false otherwise
+     */
+    public boolean isWinner(boolean player1) {
+        int opponent = player1 ? o : x;
+        if (opponent == 0) {
+            return true;
+        }
+        return player1ToMove != player1 && !hasMoves(!player1) && hasMoves(player1);
+    }
+
+    /**
+     * Checks if the game has ended in a draw (no legal moves for both players).
+     *
+     * @return true if the game is a draw, false otherwise
+     */
+    public boolean isDraw() {
+        return !hasMoves(true) && !hasMoves(false);
+    }
+
+    /**
+     * @param player1 true for Player 1 (X), false for Player 2 (O)
+     * @return the number of men captured by the player
+     */
+    public int getCaptures(boolean player1) {
+        return player1 ? player1Captures : player2Captures;
+    }
+
+    /**
+     * @param player1 true for Player 1 (X), false for Player 2 (O)
+     * @return the mask of the player's men
+     */
+    public int getPieces(boolean player1) {
+        return player1 ? x : o;
+    }
+
+    /**
+     * @param cell the cell (row * 8 + col)
+     * @return the square of a dark cell, -1 for a light cell
+     */
+    public static int toSquare(int cell) {
+        return CELL_TO_SQUARE[cell];
+    }
+
+    /**
+     * @param square the square (0..31)
+     * @return the cell (row * 8 + col) of the square
+     */
+    public static int toCell(int square) {
+        return SQUARE_TO_CELL[square];
+    }
+
+    /**
+     * Returns the step targets of a square computed from the precomputed tables.
+     *
+     * @param player1 true for Player 1 (X), false for Player 2 (O)
+     * @param square the square (0..31)
+     * @return the mask of step targets
+     */
+    static int steps(boolean player1, int square) {
+        return STEPS[player1 ? 0 : 1][square];
+    }
+
+    /**
+     * Returns the jump targets of a square computed from the precomputed tables.
+     *
+     * @param player1 true for Player 1 (X), false for Player 2 (O)
+     * @param square the square (0..31)
+     * @return the mask of jump targets
+     */
+    static int jumps(boolean player1, int square) {
+        return JUMPS[player1 ? 0 : 1][square];
+    }
+
+    /**
+     * @param from the jumping square
+     * @param to the landing square
+     * @return the jumped square, -1 if from-to is not a jump
+     */
+    static int middle(int from, int to) {
+        return MIDDLE[from * SQUARES + to];
+    }
+
+    /**
+     * Computes the Zobrist hash of the position from scratch.
+     *
+     * @return the hash of the men and the side to move
+     */
+    private long computeHash() {
+        long h = player1ToMove ? 0L : ZOBRIST_PLAYER2;
+        for (int square = 0; square < SQUARES; square++) {
+            if ((x >>> square & 1) != 0) {
+                h ^= ZOBRIST[0][square];
+            }
+            if ((o >>> square & 1) != 0) {
+                h ^= ZOBRIST[1][square];
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Checks if a position is within the bounds of the board.
+     *
+     * @param row the row of the position
+     * @param col the column of the position
+     * @return true if the position is valid, false otherwise
+     */
+    private static boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE;
+    }
+
+    /**
+     * debug
+     **/
+    public String dbgMeAsStr() {
+        StringBuilder sb = new StringBuilder();
+        for (int cell = 0; cell < BOARD_SIZE * BOARD_SIZE; cell++) {
+            sb.append(pieceAt(cell));
+            if (cell % BOARD_SIZE == BOARD_SIZE - 1) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,152 @@
+package service.rules;
+
+import java.util.Random;
+
+/**
+ * Unit tests for the CheckersBoard class.
+ */
+public class CheckersBoardTest {
+    public static void main(String[] args) {
+        CheckersBoardTest test = new CheckersBoardTest();
+        test.testInitialPosition();
+        test.testBulkMatchesTables();
+        test.testCapture();
+        test.testWinner();
+        test.testDraw();
+        test.testUndo();
+    }
+
+    public void testInitialPosition() {
+        CheckersBoard board = new CheckersBoard();
+        int[] moves = new int[48];
+        assert board.pieceAt(1) == 'X' : "testInitialPosition failed, cell 1 should be X";
+        assert board.pieceAt(0) == ' ' : "testInitialPosition failed, cell 0 should be light";
+        assert board.pieceAt(62) == 'O' : "testInitialPosition failed, cell 62 should be O";
+        assert board.movablePieces(true) == 0x00000F00 : "testInitialPosition failed for X movable men";
+        assert board.movablePieces(false) == 0x00F00000 : "testInitialPosition failed for O movable men";
+        assert board.generateMoves(moves) == 7 : "testInitialPosition failed for X move count";
+        System.out.println("testInitialPosition passed");
+    }
+
+    /**
+     * Plays random games and checks the shift based move generation against
+     * the per square tables and against isLegalMove on every pair of cells.
+     */
+    public void testBulkMatchesTables() {
+        Random random = new Random(42);
+        int[] moves = new int[48];
+        for (int game = 0; game < 200; game++) {
+            CheckersBoard board = new CheckersBoard();
+            for (int ply = 0; ply < 200; ply++) {
+                for (int side = 0; side < 2; side++) {
+                    boolean player1 = side == 0;
+                    assert board.movablePieces(player1) == movableFromTables(board, player1) : "testBulkMatchesTables failed:\n" + board.dbgMeAsStr();
+                }
+                int count = board.generateMoves(moves);
+                int legal = 0;
+                for (int from = 0; from < 64; from++) {
+                    for (int to = 0; to < 64; to++) {
+                        if (board.isLegalMove(from, to)) {
+                            legal++;
+                        }
+                    }
+                }
+                assert count == legal : "testBulkMatchesTables failed, generated " + count + " legal " + legal;
+                if (count == 0 || board.isWinner(true) || board.isWinner(false)) {
+                    break;
+                }
+                int move = moves[random.nextInt(count)];
+                board.makeMove(move);
+            }
+        }
+        System.out.println("testBulkMatchesTables passed");
+    }
+
+    public void testCapture() {
+        CheckersBoard board = new CheckersBoard();
+        // X on (2,1) = square 8, O on (3,2) = square 13
+        board.setPosition(1 << 8, 1 << 13 | 1 << 31, true);
+        assert board.isLegalMove(17, 35) : "testCapture failed, jump should be legal";
+        board.makeMove(Move.encode(17, 35));
+        assert board.pieceAt(26) == '-' : "testCapture failed, captured man still on board";
+        assert board.getCaptures(true) == 1 : "testCapture failed for capture count";
+        System.out.println("testCapture passed");
+    }
+
+    public void testWinner() {
+        CheckersBoard board = new CheckersBoard();
+        board.setPosition(1 << 8, 1 << 13, true);
+        board.makeMove(Move.encode(17, 35));
+        assert board.isWinner(true) : "testWinner failed, X captured every O man";
+        assert board.getStatus() == GameRules.PLAYER1_WINS : "testWinner failed for status";
+        assert !board.isWinner(false) : "testWinner failed, O cannot win";
+
+        // O on (1,0) = square 4 blocked by X on (0,1) = square 0 which cannot move either, X on (3,2) can move
+        board.setPosition(1 << 0 | 1 << 13, 1 << 4, false);
+        assert !board.hasMoves(false) : "testWinner failed, O should be blocked";
+        assert board.isWinner(true) : "testWinner failed, blocked side to move loses";
+        assert board.getStatus() == GameRules.PLAYER1_WINS : "testWinner failed for blocked status";
+        System.out.println("testWinner passed");
+    }
+
+    public void testDraw() {
+        CheckersBoard board = new CheckersBoard();
+        // X on the last row and O on the first row cannot move anymore
+        board.setPosition(1 << 31, 1 << 0, true);
+        assert board.isDraw() : "testDraw failed";
+        assert !board.isWinner(true) && !board.isWinner(false) : "testDraw failed, nobody wins";
+        assert board.getStatus() == GameRules.DRAW : "testDraw failed for status";
+        System.out.println("testDraw passed");
+    }
+
+    /**
+     * Plays random games to the end and takes every move back.
+     */
+    public void testUndo() {
+        Random random = new Random(7);
+        int[] moves = new int[CheckersBoard.MAX_MOVES];
+        for (int game = 0; game < 100; game++) {
+            CheckersBoard board = new CheckersBoard();
+            String initial = board.dbgMeAsStr();
+            long initialHash = board.getHash();
+            while (board.getStatus() == GameRules.ONGOING) {
+                int count = board.generateMoves(moves);
+                board.makeMove(moves[random.nextInt(count)]);
+                CheckersBoard copy = new CheckersBoard();
+                copy.setPosition(board.getPieces(true), board.getPieces(false), board.isPlayer1ToMove());
+                assert copy.getHash() == board.getHash() : "testUndo failed, incremental hash differs";
+            }
+            while (board.getPly() > 0) {
+                board.undoMove();
+            }
+            assert board.dbgMeAsStr().equals(initial) : "testUndo failed:\n" + board.dbgMeAsStr();
+            assert board.isPlayer1ToMove() : "testUndo failed for side to move";
+            assert board.getHash() == initialHash : "testUndo failed for hash";
+            assert board.getCaptures(true) == 0 && board.getCaptures(false) == 0 : "testUndo failed for captures";
+        }
+        System.out.println("testUndo passed");
+    }
+
+    private static int movableFromTables(CheckersBoard board, boolean player1) {
+        int own = board.getPieces(player1);
+        int opponent = board.getPieces(!player1);
+        int empty = ~(own | opponent);
+        int movable = 0;
+        for (int square = 0; square < CheckersBoard.SQUARES; square++) {
+            if ((own >>> square & 1) == 0) {
+                continue;
+            }
+            boolean canMove = (CheckersBoard.steps(player1, square) & empty) != 0;
+            int jumps = CheckersBoard.jumps(player1, square) & empty;
+            while (jumps != 0 && !canMove) {
+                int to = Integer.numberOfTrailingZeros(jumps);
+                jumps &= jumps - 1;
+                canMove = (opponent >>> CheckersBoard.middle(square, to) & 1) != 0;
+            }
+            if (canMove) {
+                movable |= 1 << square;
+            }
+        }
+        return movable;
+    }
+}
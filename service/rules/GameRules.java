@@ -0,0 +1,84 @@
+package service.rules;
+
+/**
+ * Headless rules of a two-player game.
+ * Implementations hold the position only (no Swing), generate legal moves into
+ * a caller supplied buffer and support apply/undo, so thousands of games can be
+ * simulated without an AWT toolkit and without allocating per move.
+ *
+ * Moves are encoded with the Move helper: (play_from << 6) | play_to, where
+ * play_from and play_to are the cells used by the views (row * size + col).
+ */
+public interface GameRules {
+    public static final int ONGOING = 0;      // The game is not over
+    public static final int PLAYER1_WINS = 1; // Player 1 has won
+    public static final int PLAYER2_WINS = 2; // Player 2 has won
+    public static final int DRAW = 3;         // The game ended in a draw
+
+    /**
+     * Puts the game back in its initial position, Player 1 to move.
+     */
+    public void reset();
+
+    /**
+     * @return true if it is Player 1's turn
+     */
+    public boolean isPlayer1ToMove();
+
+    /**
+     * Checks if a move is legal for the side to move.
+     *
+     * @param play_from the move start, ignored by games without one
+     * @param play_to the move end
+     * @return true if the move is legal, false otherwise
+     */
+    public boolean isLegalMove(int play_from, int play_to);
+
+    /**
+     * Fills the buffer with every legal move of the side to move.
+     *
+     * @param moves the buffer, at least getMaxMoves() entries
+     * @return the number of moves written
+     */
+    public int generateMoves(int[] moves);
+
+    /**
+     * @return the maximum number of legal moves in any position
+     */
+    public int getMaxMoves();
+
+    /**
+     * Plays a legal move for the side to move and passes the turn.
+     *
+     * @param move the encoded move
+     */
+    public void makeMove(int move);
+
+    /**
+     * Takes back the last move played.
+     */
+    public void undoMove();
+
+    /**
+     * Copies the game, so that a search can run on its own position.
+     *
+     * @return an independent copy, with the same history
+     */
+    public GameRules copy();
+
+    /**
+     * @return the number of moves played since the initial position
+     */
+    public int getPly();
+
+    /**
+     * @return ONGOING, PLAYER1_WINS, PLAYER2_WINS or DRAW
+     */
+    public int getStatus();
+
+    /**
+     * @param player1 true for Player 1, false for Player 2
+     * @return the match score of the player
+     */
+    public int getScore(boolean player1);
+}
@@ -0,0 +1,24 @@
+package service.rules;
+
+/**
+ * Creates the headless rules of a game from its name, as stored in the GAME table.
+ */
+public final class GameRulesFactory {
+
+    private GameRulesFactory() {
+    }
+
+    /**
+     * @param gameName the name of the game
+     * @return the rules of the game in its initial position, or null if the game is unknown
+     */
+    public static GameRules create(String gameName) {
+        if ("Tic Tac Toe".equals(gameName)) {
+            return new TicTacToeBoard();
+        }
+        if ("Checkers".equals(gameName)) {
+            return new CheckersBoard();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+package service.rules;
+
+/**
+ * Encoding of a move as a single int: (play_from << 6) | play_to.
+ * Both cells fit in 6 bits (boards up to 8x8).
+ */
+public final class Move {
+
+    private Move() {
+    }
+
+    /**
+     * @param play_from the move start
+     * @param play_to the move end
+     * @return the encoded move
+     */
+    public static int encode(int play_from, int play_to) {
+        return (play_from << 6) | play_to;
+    }
+
+    /**
+     * @param move the encoded move
+     * @return the move start
+     */
+    public static int from(int move) {
+        return move >>> 6;
+    }
+
+    /**
+     * @param move the encoded move
+     * @return the move end
+     */
+    public static int to(int move) {
+        return move & 63;
+    }
+}
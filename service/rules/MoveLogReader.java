@@ -0,0 +1,71 @@
+package service.rules;
+
+/**
+ * Reader of a move log written by MoveLogWriter, one move at a time,
+ * without allocating.
+ */
+public class MoveLogReader {
+    private final byte[] log;
+    private int position;   // Next byte read
+
+    /**
+     * @param _log the move log
+     */
+    public MoveLogReader(byte[] _log) {
+        this.log = _log;
+    }
+
+    public boolean hasNext() {
+        return position < log.length;
+    }
+
+    /**
+     * Reads the next move.
+     *
+     * @return the move, as encoded by Move
+     * @throws IllegalStateException if the log ends inside a move or a move has more than 32 bits
+     */
+    public int next() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position >= log.length) {
+                throw new IllegalStateException("move log truncated at byte " + position);
+            }
+            byte b = log[position++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("move too long at byte " + position);
+    }
+
+    /**
+     * @param log a move log
+     * @return the moves of the log: one per byte without its high bit
+     */
+    public static int count(byte[] log) {
+        int moves = 0;
+        for (byte b : log) {
+            if (b >= 0) {
+                moves++;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Reads a whole move log.
+     *
+     * @param log a move log
+     * @return the moves, in the order played
+     */
+    public static int[] decode(byte[] log) {
+        int[] moves = new int[count(log)];
+        MoveLogReader reader = new MoveLogReader(log);
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = reader.next();
+        }
+        return moves;
+    }
+}
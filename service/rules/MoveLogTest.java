@@ -0,0 +1,64 @@
+package service.rules;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for the MoveLogWriter and MoveLogReader classes.
+ */
+public class MoveLogTest {
+    public static void main(String[] args) {
+        MoveLogTest test = new MoveLogTest();
+        test.testRoundTrip();
+        test.testSizes();
+        test.testReset();
+        test.testTruncated();
+    }
+
+    public void testRoundTrip() {
+        int[] moves = {0, 127, 128, Move.encode(63, 63), 1 << 20, Integer.MAX_VALUE};
+        MoveLogWriter writer = new MoveLogWriter(1);
+        for (int move : moves) {
+            writer.append(move);
+        }
+        byte[] log = writer.toByteArray();
+        assert writer.moveCount() == moves.length && MoveLogReader.count(log) == moves.length : "testRoundTrip failed for count";
+        assert Arrays.equals(MoveLogReader.decode(log), moves) : "testRoundTrip failed, " + Arrays.toString(MoveLogReader.decode(log));
+        System.out.println("testRoundTrip passed");
+    }
+
+    public void testSizes() {
+        MoveLogWriter writer = new MoveLogWriter();
+        for (int cell = 0; cell < TicTacToeBoard.CELLS; cell++) {
+            writer.append(Move.encode(0, cell));
+        }
+        assert writer.size() == TicTacToeBoard.CELLS : "testSizes failed for Tic-Tac-Toe, " + writer.size() + " bytes";
+
+        writer.reset();
+        writer.append(Move.encode(1, 8));   // Below 128: one byte
+        writer.append(Move.encode(62, 55));
+        assert writer.size() == 3 : "testSizes failed for Checkers, " + writer.size() + " bytes";
+        System.out.println("testSizes passed");
+    }
+
+    public void testReset() {
+        MoveLogWriter writer = new MoveLogWriter();
+        writer.append(Move.encode(40, 33));
+        writer.reset();
+        assert writer.size() == 0 && writer.moveCount() == 0 && writer.toByteArray().length == 0 : "testReset failed, log not empty";
+        writer.append(Move.encode(0, 4));
+        assert Arrays.equals(writer.toByteArray(), new byte[] {4}) : "testReset failed, " + Arrays.toString(writer.toByteArray());
+        System.out.println("testReset passed");
+    }
+
+    public void testTruncated() {
+        MoveLogReader reader = new MoveLogReader(new byte[] {5, (byte) 0x80});
+        assert reader.next() == 5 && reader.hasNext() : "testTruncated failed for the first move";
+        try {
+            reader.next();
+            assert false : "testTruncated failed, truncated move read";
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        System.out.println("testTruncated passed");
+    }
+}
@@ -0,0 +1,84 @@
+package service.rules;
+
+import java.util.Arrays;
+
+/**
+ * Streaming writer of a move log: the moves of a game, as encoded by Move,
+ * each written as an unsigned varint (LEB128): 7 bits per byte, the high bit
+ * set on every byte but the last.
+ *
+ * A Tic-Tac-Toe move, a cell below 128, takes one byte; a Checkers move,
+ * (from << 6) | to below 2^14, two bytes. The bytes go to one growing
+ * buffer, so appending a move allocates nothing once the buffer has grown to
+ * the length of a game; reset() keeps the buffer for the next game.
+ *
+ * Not thread-safe.
+ */
+public class MoveLogWriter {
+    private static final int MAX_VARINT_BYTES = 5; // 32 bits in groups of 7
+
+    private byte[] buffer;
+    private int size;   // Bytes written
+    private int moves;  // Moves written
+
+    public MoveLogWriter() {
+        this(64);
+    }
+
+    /**
+     * @param capacity the bytes of the initial buffer
+     */
+    public MoveLogWriter(int capacity) {
+        this.buffer = new byte[Math.max(MAX_VARINT_BYTES, capacity)];
+    }
+
+    /**
+     * Appends a move.
+     *
+     * @param move the move, as encoded by Move, not negative
+     */
+    public void append(int move) {
+        if (move < 0) {
+            throw new IllegalArgumentException("negative move: " + move);
+        }
+        if (size + MAX_VARINT_BYTES > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + MAX_VARINT_BYTES));
+        }
+        int value = move;
+        while ((value & ~0x7F) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+        moves++;
+    }
+
+    /**
+     * Forgets the moves written, keeping the buffer.
+     */
+    public void reset() {
+        size = 0;
+        moves = 0;
+    }
+
+    /**
+     * @return the bytes written
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the moves written
+     */
+    public int moveCount() {
+        return moves;
+    }
+
+    /**
+     * @return a copy of the log written
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+}
@@ -0,0 +1,185 @@
+package service.rules;
+
+/**
+ * Headless Tic-Tac-Toe rules.
+ * Player 1 plays 'X', Player 2 plays 'O'; a move only uses play_to (the cell).
+ *
+ * Each side is a 9-bit mask (bit = row * 3 + col). For the 8 lines (3 rows,
+ * 3 columns, 2 diagonals) each side also keeps a counter of its marks on the
+ * line, packed 2 bits per line in an int. A move adds the precomputed
+ * increments of the lines through its cell, so a win is detected in O(1)
+ * from the last move only (one of the 2-bit counters reaches 3), and undo
+ * subtracts them back.
+ */
+public class TicTacToeBoard implements GameRules {
+    public static final int BOARD_SIZE = 3;                  // Size of the Tic-Tac-Toe board
+    public static final int CELLS = BOARD_SIZE * BOARD_SIZE; // Number of cells
+    public static final int FULL = (1 << CELLS) - 1;         // Mask of all the cells
+
+    private static final int LINE_LOW_BITS = 0x5555;         // Low bit of every 2-bit line counter
+    private static final int[] LINE_INCREMENTS = new int[CELLS]; // [cell] -> +1 on every line through the cell
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int row = cell / BOARD_SIZE;
+            int col = cell % BOARD_SIZE;
+            int lines = 1 << (2 * row) | 1 << (2 * (BOARD_SIZE + col));
+            if (row == col) {
+                lines |= 1 << 12;
+            }
+            if (row + col == BOARD_SIZE - 1) {
+                lines |= 1 << 14;
+            }
+            LINE_INCREMENTS[cell] = lines;
+        }
+    }
+
+    private int x;                          // Cells of Player 1
+    private int o;                          // Cells of Player 2
+    private int xLines;                     // Packed line counters of Player 1
+    private int oLines;                     // Packed line counters of Player 2
+    private int[] history = new int[CELLS]; // Cells played, in order
+    private int countPlay;                  // Counter to track the number of plays made
+
+    /**
+     * Creates an empty board.
+     */
+    public TicTacToeBoard() {
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        x = 0;
+        o = 0;
+        xLines = 0;
+        oLines = 0;
+        countPlay = 0;
+    }
+
+    /**
+     * @param cell the cell (row * 3 + col)
+     * @return 'X', 'O' or '-' for an empty cell
+     */
+    public char pieceAt(int cell) {
+        if ((x >>> cell & 1) != 0) {
+            return 'X';
+        }
+        return (o >>> cell & 1) != 0 ? 'O' : '-';
+    }
+
+    /**
+     * @param player1 true for Player 1, false for Player 2
+     * @return the 9-bit mask of the player's cells
+     */
+    public int getMask(boolean player1) {
+        return player1 ? x : o;
+    }
+
+    @Override
+    public boolean isPlayer1ToMove() {
+        return (countPlay & 1) == 0;
+    }
+
+    /**
+     * Checks if a move is valid.
+     *
+     * @param play_from the move start made by the player, NOT USED FOR THAT GAME!
+     * @param play_to the cell played
+     * @return true if the move is valid, false otherwise
+     */
+    @Override
+    public boolean isLegalMove(int play_from, int play_to) {
+        return play_to >= 0 && play_to < CELLS && ((x | o) >>> play_to & 1) == 0 && !hasLine(xLines) && !hasLine(oLines);
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        if (hasLine(xLines) || hasLine(oLines)) {
+            return 0;
+        }
+        int count = 0;
+        int free = FULL & ~(x | o);
+        while (free != 0) {
+            moves[count++] = Integer.numberOfTrailingZeros(free);
+            free &= free - 1;
+        }
+        return count;
+    }
+
+    @Override
+    public int getMaxMoves() {
+        return CELLS;
+    }
+
+    @Override
+    public void makeMove(int move) {
+        int cell = Move.to(move);
+        if (isPlayer1ToMove()) {
+            x |= 1 << cell;
+            xLines += LINE_INCREMENTS[cell];
+        } else {
+            o |= 1 << cell;
+            oLines += LINE_INCREMENTS[cell];
+        }
+        history[countPlay++] = cell;
+    }
+
+    @Override
+    public void undoMove() {
+        int cell = history[--countPlay];
+        if (isPlayer1ToMove()) {
+            x &= ~(1 << cell);
+            xLines -= LINE_INCREMENTS[cell];
+        } else {
+            o &= ~(1 << cell);
+            oLines -= LINE_INCREMENTS[cell];
+        }
+    }
+
+    @Override
+    public GameRules copy() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        board.x = this.x;
+        board.o = this.o;
+        board.xLines = this.xLines;
+        board.oLines = this.oLines;
+        board.history = this.history.clone();
+        board.countPlay = this.countPlay;
+        return board;
+    }
+
+    @Override
+    public int getPly() {
+        return countPlay;
+    }
+
+    @Override
+    public int getStatus() {
+        if (hasLine(xLines)) {
+            return PLAYER1_WINS;
+        }
+        if (hasLine(oLines)) {
+            return PLAYER2_WINS;
+        }
+        return countPlay == CELLS ? DRAW : ONGOING;
+    }
+
+    /**
+     * The winner scores the number of moves the loser made, nobody scores on a draw.
+     */
+    @Override
+    public int getScore(boolean player1) {
+        return hasLine(player1 ? xLines : oLines) ? countPlay / 2 : 0;
+    }
+
+    /**
+     * Checks if one of the packed line counters has reached 3.
+     *
+     * @param lines the packed line counters of a player
+     * @return true if the player has a complete line, false otherwise
+     */
+    private static boolean hasLine(int lines) {
+        return (lines & (lines >>> 1) & LINE_LOW_BITS) != 0;
+    }
+}
@@ -0,0 +1,86 @@
+package service.rules;
+
+/**
+ * Unit tests for the TicTacToeBoard class.
+ */
+public class TicTacToeBoardTest {
+    public static void main(String[] args) {
+        TicTacToeBoardTest test = new TicTacToeBoardTest();
+        test.testWinner();
+        test.testDraw();
+        test.testUndo();
+        test.testWholeTree();
+    }
+
+    public void testWinner() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        play(board, 0, 3, 1, 4, 2);
+        assert board.getStatus() == GameRules.PLAYER1_WINS : "testWinner failed for status";
+        assert board.getScore(true) == 2 && board.getScore(false) == 0 : "testWinner failed for score";
+        assert !board.isLegalMove(0, 5) : "testWinner failed, no move after the end";
+        assert board.generateMoves(new int[TicTacToeBoard.CELLS]) == 0 : "testWinner failed, moves generated after the end";
+        System.out.println("testWinner passed");
+    }
+
+    public void testDraw() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        play(board, 0, 1, 2, 4, 3, 5, 7, 6, 8);
+        assert board.getStatus() == GameRules.DRAW : "testDraw failed for status";
+        assert board.getScore(true) == 0 && board.getScore(false) == 0 : "testDraw failed for score";
+        System.out.println("testDraw passed");
+    }
+
+    public void testUndo() {
+        TicTacToeBoard board = new TicTacToeBoard();
+        play(board, 4, 0, 8);
+        board.undoMove();
+        assert board.pieceAt(8) == '-' : "testUndo failed, cell not cleared";
+        assert board.isPlayer1ToMove() : "testUndo failed for side to move";
+        assert board.getPly() == 2 : "testUndo failed for ply";
+        assert board.isLegalMove(0, 8) : "testUndo failed, cell should be playable";
+        System.out.println("testUndo passed");
+    }
+
+    /**
+     * Walks the whole game tree with make/undo and checks the incremental
+     * status against a scan of the 8 lines.
+     */
+    public void testWholeTree() {
+        int[] counts = new int[1];
+        walk(new TicTacToeBoard(), counts);
+        assert counts[0] == 549946 : "testWholeTree failed, visited " + counts[0] + " positions";
+        System.out.println("testWholeTree passed");
+    }
+
+    private static void walk(TicTacToeBoard board, int[] counts) {
+        counts[0]++;
+        assert board.getStatus() == scanStatus(board) : "testWholeTree failed at ply " + board.getPly();
+        int[] moves = new int[TicTacToeBoard.CELLS];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            walk(board, counts);
+            board.undoMove();
+        }
+    }
+
+    private static int scanStatus(TicTacToeBoard board) {
+        int[] lines = { 0007, 0070, 0700, 0111, 0222, 0444, 0421, 0124 };
+        for (int line : lines) {
+            if ((board.getMask(true) & line) == line) {
+                return GameRules.PLAYER1_WINS;
+            }
+            if ((board.getMask(false) & line) == line) {
+                return GameRules.PLAYER2_WINS;
+            }
+        }
+        return board.getPly() == TicTacToeBoard.CELLS ? GameRules.DRAW : GameRules.ONGOING;
+    }
+
+    private static void play(TicTacToeBoard board, int... cells) {
+        for (int cell : cells) {
+            assert board.isLegalMove(0, cell) : "illegal move " + cell;
+            board.makeMove(Move.encode(0, cell));
+        }
+    }
+}
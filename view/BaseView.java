@@ -3,6 +3,9 @@ package view;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 import navigation.NavigationController;
 
@@ -53,6 +56,35 @@ public abstract class BaseView {
         this.mainFrame.setLocationRelativeTo(null);
     }
 
+    /**
+     * Runs an action on the event dispatch thread with the result of a database operation,
+     * once it is available. A failure is printed.
+     *
+     * @param future the future result of the operation
+     * @param action the action using the result
+     */
+    protected <T> void onLoaded(CompletableFuture<T> future, Consumer<T> action) {
+        this.onLoaded(future, action, error -> System.err.println(this.title + " - Database operation failed: " + error));
+    }
+
+    /**
+     * Runs an action on the event dispatch thread with the result of a database operation,
+     * or another one with its failure.
+     *
+     * @param future the future result of the operation
+     * @param action the action using the result
+     * @param onError the action handling the failure
+     */
+    protected <T> void onLoaded(CompletableFuture<T> future, Consumer<T> action, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                action.accept(result);
+            }
+        }));
+    }
+
     /**
      * Destroys the main frame if it exists.
      */
@@ -3,9 +3,10 @@ package view;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.table.*;
 
-import db.DbInterface;
+import db.AsyncDb;
 
 import model.Match;
 import model.Player;
@@ -18,6 +19,7 @@ import view.BaseView;
 
 import service.AbstractGame;
 import service.GameEndListener;
+import service.RatingService;
 import service.TicTacToe;
 import service.Checkers;
 
@@ -28,19 +30,20 @@ import service.Checkers;
 public class GameView extends BaseView {
 
     // Dependencies and models
-    private DbInterface db; // Database  used for persistence
+    private AsyncDb db; // Database  used for persistence, off the event dispatch thread
+    private RatingService ratings; // Rates the matches saved and updates the scores
     private Player player1; // The first player
     private Player player2; // The second player
     private Player winner; // The winner of the game
     private Game game; // The game being played
     private AppState appState; // Application state
-    private boolean isPlayer1Turn = true; // Flag to track if it's player 1's turn
     private AbstractGame gameService = null; //the implementation of the game
 
     /**
      * Constructs the GameView.
      *
      * @param _db the database used for persistence
+     * @param _ratings the rating of the matches
      * @param _player1 the first player
      * @param _player2 the second player
      * @param _game the game being played
@@ -49,47 +52,75 @@ public class GameView extends BaseView {
      *
      * Preconditions: _player1, _player2, and _game must not be null.
      */
-    public GameView(DbInterface _db, Player _player1, Player _player2, Game _game, AppState _appState, NavigationController _navigationController) {
+    public GameView(AsyncDb _db, RatingService _ratings, Player _player1, Player _player2, Game _game, AppState _appState, NavigationController _navigationController) {
         super("GAME", _navigationController);
         this.player1 = _player1;
         this.player2 = _player2;
         this.game = _game;
         this.db = _db;
+        this.ratings = _ratings;
         this.appState = _appState;
     }
    
     /**
-     * Handles the end of the game by updating the winner's score and
-     * informing the database of the match result. Currently includes a simple
-     * scoring algorithm.
+     * Handles the end of the game by informing the database of the match
+     * result and its moves; the rating service rates it and updates the
+     * scores of both players. The result is saved in the background: the
+     * result view shows at once.
      */
     private void onEndGame() {
-        if (this.winner != null) {
-            if (this.winner.getId() == this.player1.getId()) {
-                this.player1 = this.db.updatePlayerScore(this.player1, this.player1.getScore() + 1);
-            }
-            if (this.winner.getId() == this.player2.getId()) {
-                this.player2 = this.db.updatePlayerScore(this.player2, this.player2.getScore() + 1);
-            }
-        }
-    
+        Player plyr1 = this.player1;
+        Player plyr2 = this.player2;
+        Game gm = this.game;
         int[] matchScore = this.gameService.getScore();
+        byte[] moves = this.gameService.getMoves();
 
-        Match match = this.db.informMatchResult(this.player1, this.player2, this.game, matchScore[0], matchScore[1]);
+        this.saveMatch(this.db.supply(data -> this.ratings.recordMatch(data, plyr1, plyr2, gm, matchScore[0], matchScore[1], moves)), "Match");
 
         navigationController.navigateToResultView(matchScore[0], matchScore[1], this.winner); 
     }
 
     /**
-     * Handles the leave action by deducting a point from the player who is
-     * currently playing.
+     * Handles the leave action: the player who is currently playing forfeits,
+     * saved and rated in the background as a match lost 0 to 1. Against the
+     * computer, the human, Player 1, forfeits even while the computer thinks.
      */
     private void onLeave() {
-        if (isPlayer1Turn) {
-            this.player1 = db.updatePlayerScore(this.player1, Math.max(0, this.player1.getScore() - 1));
-        } else {
-            this.player2 = db.updatePlayerScore(this.player2, Math.max(0, this.player2.getScore() - 1));        
-        }
+        Player plyr1 = this.player1;
+        Player plyr2 = this.player2;
+        Game gm = this.game;
+        int[] matchScore = isPlayer1Leaving() ? new int[] {0, 1} : new int[] {1, 0};
+        byte[] moves = this.gameService.getMoves(); // The moves played until the leave
+        this.saveMatch(this.db.supply(data -> this.ratings.recordMatch(data, plyr1, plyr2, gm, matchScore[0], matchScore[1], moves)), "Forfeit");
+    }
+
+    /**
+     * @return true if Player 1 pressed leave: the human against the computer, else the player to move
+     */
+    private boolean isPlayer1Leaving() {
+        return this.gameService.isComputerOpponent() || this.gameService.isPlayer1ToMove();
+    }
+
+    /**
+     * Logs the match once saved, or tells the user it was not: the rating
+     * service returns null when the database could not save it.
+     *
+     * @param saved the future match saved
+     * @param what the kind of result saved, for the messages
+     */
+    private void saveMatch(CompletableFuture<Match> saved, String what) {
+        this.onLoaded(saved, match -> {
+            if (match == null) {
+                notSaved(what, "the database could not save it");
+            } else {
+                System.out.println("GameView - " + what + " saved:" + match.dbgMeAsStr());
+            }
+        }, error -> notSaved(what, error.getMessage()));
+    }
+
+    private void notSaved(String what, String reason) {
+        System.err.println("GameView - " + what + " not saved: " + reason);
+        JOptionPane.showMessageDialog(null, what + " result not saved: " + reason, "Error", JOptionPane.ERROR_MESSAGE);
     }
 
     /**
@@ -125,19 +156,55 @@ public class GameView extends BaseView {
             new ActionListener() {
                 @Override
                 public void actionPerformed(ActionEvent e) {
-                    System.out.println("GameView - Leave Button pressed by " + (isPlayer1Turn ? player1.dbgMeAsStr() : player2.dbgMeAsStr()));
+                    System.out.println("GameView - Leave Button pressed by " + (isPlayer1Leaving() ? player1.dbgMeAsStr() : player2.dbgMeAsStr()));
                     onLeave();    // Perform leave operations
                     navigationController.navigateToHomeView();
                     destroyMainFrame();
                 }
             });
         leavePanel.add(leaveButton);
+
+        // Hint and computer opponent, for games with an engine
+        JButton hintButton = new JButton("hint");
+        hintButton.addActionListener(
+            new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    gameService.showHint();
+                }
+            });
+        JCheckBox computerBox = new JCheckBox("computer plays " + this.player2.getNickName());
+        computerBox.addActionListener(
+            new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    System.out.println("GameView - Computer opponent " + (computerBox.isSelected() ? "on" : "off"));
+                    gameService.setComputerOpponent(computerBox.isSelected());
+                }
+            });
+        boolean hasEngine = this.gameService.hasComputerPlayer();
+        hintButton.setEnabled(hasEngine);
+        computerBox.setEnabled(hasEngine);
+        leavePanel.add(hintButton);
+        leavePanel.add(computerBox);
         grid.add(leavePanel);
 
         // Make the frame visible
         this.mainFrame.setVisible(true);
     }
 
+    /**
+     * Destroys the frame and closes the game, which releases its computer
+     * player: on the end of the game, on leave and when the window is closed.
+     */
+    @Override
+    protected void destroyMainFrame() {
+        super.destroyMainFrame();
+        if (this.gameService != null) {
+            this.gameService.close();
+        }
+    }
+
     private AbstractGame getGameService(String gameName, JPanel boardPanel,JLabel statusPanel){
         if(gameName.equals("Tic Tac Toe")){
             return new TicTacToe(player1, player2,boardPanel, statusPanel, 
@@ -5,12 +5,15 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.table.*;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 
-import db.DbInterface;
+import db.AsyncDb;
 import model.Player;
 import model.Game;
+import model.LeaderboardPeriod;
+import model.Standing;
 
 import utils.AppState;
 import navigation.NavigationController;
@@ -24,9 +27,10 @@ import view.BaseView;
 public class HomeView extends BaseView {
 
     // Dependencies and data models
-    private DbInterface db; // Database used for fetching data
-    private List<Game> games; // List of available games
-    private Player[] topPlayers; // Array of top players
+    private AsyncDb db; // Database used for fetching data, off the event dispatch thread
+    private List<Game> games = new ArrayList<Game>(); // List of available games, empty until loaded
+    private Player[] topPlayers = new Player[0]; // Array of top players, empty until loaded
+    private int leaderboardRequest; // Number of the last leaderboard requested: older results arriving late are ignored
     private AppState appState; // Application state
 
     /**
@@ -36,37 +40,35 @@ public class HomeView extends BaseView {
      * @param _appState the application state
      * @param _navigationController the navigation controller for managing view transitions
      */
-    public HomeView(DbInterface _db, AppState _appState, NavigationController _navigationController) {
+    public HomeView(AsyncDb _db, AppState _appState, NavigationController _navigationController) {
         super("HOME", _navigationController);
         this.db = _db;
         this.appState = _appState;
     }
 
     /**
-     * Fills the list of available games by fetching from the database.
-     */
-    private void fillGames() { 
-        games = db.getGames();
-    }
-
-    /**
-     * Fills the array of top players by fetching from the database.
+     * Converts the best players of a game in the current window of a period to players,
+     * their points as score.
+     *
+     * @param _standings the standings, best first
+     * @return the players, best first
      */
-    private void fillTopPlayers() { 
-        List<Player> playerList = db.getTopPlayers();
-        this.topPlayers = new Player[playerList.size()];
-        playerList.toArray(this.topPlayers);
+    private static Player[] toPlayers(List<Standing> _standings) {
+        Player[] players = new Player[_standings.size()];
+        for (int i = 0; i < _standings.size(); i++) {
+            Player player = _standings.get(i).getPlayer();
+            players[i] = new Player(player.getNickName(), _standings.get(i).getPoints(), player.getId());
+        }
+        return players;
     }
 
     /**
      * Renders the HomeView interface, including game selection buttons and
-     * a table displaying the top players.
+     * a table displaying the top players. Both are shown empty with a loading
+     * placeholder, then filled when the database answers.
      */
     @Override
     public void render() {
-        this.fillGames();
-        this.fillTopPlayers();
-
         // Set up the main frame
         this.setupMainFrame();
 
@@ -83,30 +85,16 @@ public class HomeView extends BaseView {
         leftPanel.add(text);
         text.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        // Iterate over games and create buttons for each
-        Iterator<Game> gameIterator = games.iterator();
-        while (gameIterator.hasNext()) {
-            Game game = gameIterator.next();
-            JButton button = new JButton(game.getName().toLowerCase());
-            button.setAlignmentX(Component.CENTER_ALIGNMENT);
-            button.addActionListener(
-                new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        System.out.println("HomeView - Selected Game:" + game.dbgMeAsStr());
-                        appState.setGame(game);
-                        navigationController.navigateToPlayerSelectionView();
-                    }
-                });
-            leftPanel.add(button);
-        }
+        JLabel loadingLbl = new JLabel("loading...");
+        loadingLbl.setAlignmentX(Component.CENTER_ALIGNMENT);
+        leftPanel.add(loadingLbl);
 
         // Right panel
         JPanel rightPanel = new JPanel();
         grid.add(rightPanel);
 
         // Data to be displayed in the JTable
-        TableModel dataModel = new AbstractTableModel() {
+        AbstractTableModel dataModel = new AbstractTableModel() {
             public int getColumnCount() {
                 return 2;
             }
@@ -126,6 +114,42 @@ public class HomeView extends BaseView {
             }
         };
 
+        // Leaderboard choice: overall, or a game over a period
+        JComboBox<String> leaderboardBox = new JComboBox<String>();
+        leaderboardBox.addItem("overall");
+        LeaderboardPeriod[] periods = {LeaderboardPeriod.WEEK, LeaderboardPeriod.MONTH, LeaderboardPeriod.ALL_TIME};
+        String[] periodNames = {"this week", "this month", "all time"};
+        leaderboardBox.addActionListener(
+            new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    int index = leaderboardBox.getSelectedIndex();
+                    if (index <= 0) {
+                        showTopPlayers(db.supply(data -> data.getTopPlayers().toArray(new Player[0])), dataModel);
+                    } else {
+                        Game game = games.get((index - 1) / periods.length);
+                        LeaderboardPeriod period = periods[(index - 1) % periods.length];
+                        showTopPlayers(db.supply(data -> toPlayers(data.getTopStandings(game, period, 10))), dataModel);
+                    }
+                }
+            });
+        rightPanel.add(leaderboardBox);
+
+        // Fill the games and the leaderboards when they are loaded
+        this.onLoaded(db.supply(data -> data.getGames()), loadedGames -> {
+            games = loadedGames;
+            leftPanel.remove(loadingLbl);
+            for (Game game : games) {
+                leftPanel.add(createGameButton(game));
+                for (String periodName : periodNames) {
+                    leaderboardBox.addItem(game.getName().toLowerCase() + " " + periodName);
+                }
+            }
+            leftPanel.revalidate();
+            leftPanel.repaint();
+        });
+        this.showTopPlayers(db.supply(data -> data.getTopPlayers().toArray(new Player[0])), dataModel);
+
         // Create and add the JTable to the right panel
         JTable scoresTable = new JTable(dataModel);
         rightPanel.add(scoresTable);
@@ -133,4 +157,41 @@ public class HomeView extends BaseView {
         // Make the frame visible
         this.mainFrame.setVisible(true);
     }
+
+    /**
+     * Creates the button starting the selection of the players of a game.
+     *
+     * @param game the game
+     * @return the button
+     */
+    private JButton createGameButton(Game game) {
+        JButton button = new JButton(game.getName().toLowerCase());
+        button.setAlignmentX(Component.CENTER_ALIGNMENT);
+        button.addActionListener(
+            new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    System.out.println("HomeView - Selected Game:" + game.dbgMeAsStr());
+                    appState.setGame(game);
+                    navigationController.navigateToPlayerSelectionView();
+                }
+            });
+        return button;
+    }
+
+    /**
+     * Shows a leaderboard in the table when it is loaded, unless another one was requested since.
+     *
+     * @param _players the future players, best first
+     * @param _dataModel the model of the table
+     */
+    private void showTopPlayers(CompletableFuture<Player[]> _players, AbstractTableModel _dataModel) {
+        int request = ++this.leaderboardRequest;
+        this.onLoaded(_players, players -> {
+            if (request == leaderboardRequest) {
+                topPlayers = players;
+                _dataModel.fireTableDataChanged();
+            }
+        });
+    }
 }
@@ -3,7 +3,13 @@
 package view;
 
 import java.awt.*;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.Locale;
 import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 import javax.swing.plaf.basic.*;
 
 /*
@@ -14,6 +20,22 @@ import javax.swing.plaf.basic.*;
  *  implemented. This method will return a String to be rendered in the
  *  JComboBox. The same String will be used to do key selection of an
  *  item in the ComboBoxModel.
+ *
+ *  The key selection searches an index of the lowercase display values,
+ *  sorted, built on the first key typed and dropped when the model or its
+ *  contents change. The items starting with the typed prefix are a range of
+ *  the index found by binary search: a keystroke costs O(log n) and
+ *  allocates nothing, whatever the size of the model.
+ *
+ *  A model implementing SortedListModel is already in that order: it is
+ *  searched in place, without reading every element. Its display values are
+ *  compared a lowercase char at a time, so a keystroke allocates nothing
+ *  there either, beyond what getDisplayValue() does.
+ *
+ *  Such a model may not have read every item yet, returning null for them
+ *  until it does: the list shows a placeholder, and a search meeting one is
+ *  left pending. When the model then fires contentsChanged, the search runs
+ *  again with the same prefix and selects what it finds.
  */
 abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 	implements JComboBox.KeySelectionManager
@@ -24,15 +46,80 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 	private long timeFactor;
 	private long lastTime;
 	private long time;
-	private String prefix = "";
+	private char[] prefix = new char[16];
+	private int prefixLength;
+
+	//  The index: keys[i] is the lowercase display value of the model item
+	//  modelIndex[i], sorted by key then model index. sortedPosition is the
+	//  inverse of modelIndex, -1 for the null items. A SortedListModel is
+	//  searched directly: its positions are the model indexes.
+
+	private ComboBoxModel<?> indexedModel;
+	private boolean sortedModel;
+	private String[] keys;
+	private int[] modelIndex;
+	private int[] sortedPosition;
+	private int lastSelection = -1;
+
+	//  The search of a SortedListModel: whether it met an item not read yet,
+	//  whether it is pending, and the keys it read since the last key typed,
+	//  kept so that running it again reads only the items it missed, even if
+	//  the model dropped the others meanwhile.
+
+	private JComboBox<?> comboBox;
+	private boolean missingItem;
+	private boolean pendingSearch;
+	private boolean pendingNext;
+	private int probeCount;
+	private int[] probePositions = new int[32];
+	private String[] probeKeys = new String[32];
+
+	private final ListDataListener invalidator = new ListDataListener()
+	{
+		public void intervalAdded(ListDataEvent e) { invalidateIndex(); }
+		public void intervalRemoved(ListDataEvent e) { invalidateIndex(); }
+		public void contentsChanged(ListDataEvent e)
+		{
+			//  Selecting an item fires contentsChanged(-1, -1): the items are the same
+			if (e.getIndex0() >= 0 || e.getIndex1() >= 0)
+			{
+				invalidateIndex();
+
+				if (pendingSearch && e.getSource() == indexedModel)
+				{
+					resumeSearch();
+				}
+			}
+		}
+	};
 
 	public KeySelectionRenderer(JComboBox comboBox)
 	{
+		this.comboBox = comboBox;
 		comboBox.setRenderer( this );
 		comboBox.setKeySelectionManager( this );
 
 		Long l = (Long)UIManager.get("ComboBox.timeFactor");
 		timeFactor = l == null ? 1000L : l.longValue();
+
+		comboBox.getModel().addListDataListener( invalidator );
+		comboBox.addPropertyChangeListener("model", new PropertyChangeListener()
+		{
+			public void propertyChange(PropertyChangeEvent e)
+			{
+				if (e.getOldValue() != null)
+				{
+					((ComboBoxModel<?>)e.getOldValue()).removeListDataListener( invalidator );
+				}
+				if (e.getNewValue() != null)
+				{
+					((ComboBoxModel<?>)e.getNewValue()).addListDataListener( invalidator );
+				}
+				invalidateIndex();
+				pendingSearch = false;
+				probeCount = 0;
+			}
+		});
 	}
 
 	/**
@@ -55,6 +142,10 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 		{
 			setText( getDisplayValue(item) );
 		}
+		else if (index >= 0)
+		{
+			setText( "..." ); // Not read yet
+		}
 
 		return this;
 	}
@@ -62,91 +153,397 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 	//  Implement the KeySelectionManager
 
 	@Override
-	public int selectionForKey(char aKey, ComboBoxModel model)
+	public int selectionForKey(char aKey, ComboBoxModel<?> model)
 	{
 		time = System.currentTimeMillis();
 
-		//  Get the index of the currently selected item
-
-		int size = model.getSize();
-		int startIndex = -1;
-		Object selectedItem = model.getSelectedItem();
-
-		if (selectedItem != null)
+		if (model instanceof SortedListModel)
 		{
-			for (int i = 0; i < size; i++)
-			{
-				if ( selectedItem == model.getElementAt(i) )
-				{
-					startIndex  =  i;
-					break;
-				}
-			}
+			indexedModel = model;
+			sortedModel = true;
+		}
+		else if (model != indexedModel || sortedModel || keys == null)
+		{
+			buildIndex(model);
 		}
 
+		char key = Character.toLowerCase(aKey);
+
 		//  Determine the "prefix" to be used when searching the model. The
 		//  prefix can be a single letter or multiple letters depending on how
 		//  fast the user has been typing and on which letter has been typed.
 
+		boolean next;
+
 		if (time - lastTime < timeFactor)
 		{
-			if((prefix.length() == 1) && (aKey == prefix.charAt(0)))
+			if((prefixLength == 1) && (key == prefix[0]))
 			{
 				// Subsequent same key presses move the keyboard focus to the next
 				// object that starts with the same letter.
-				startIndex++;
+				next = true;
 			}
 			else
 			{
-				prefix += aKey;
+				appendToPrefix(key);
+				next = false;
 			}
 		}
 		else
 		{
-			startIndex++;
-			prefix = "" + aKey;
+			prefixLength = 0;
+			appendToPrefix(key);
+			next = true;
 		}
 
 		lastTime = time;
+		probeCount = 0;
+
+		return search(model, next);
+	}
+
+	/*
+	**  Search the range of the prefix: the selection if it is in the range
+	**  and the prefix grew, the item after it in the range otherwise,
+	**  wrapping to the first of the range. -1 if no item starts with the
+	**  prefix, or if the search met an item not read yet: it is then pending.
+	*/
+	private int search(ComboBoxModel<?> model, boolean next)
+	{
+		missingItem = false;
+
+		//  Get the position in the index of the currently selected item
+
+		int startPosition = selectedPosition(model);
+
+		int start = lowerBound();
+		int end = upperBound(start);
+		int position = -1;
+
+		if (start != end)
+		{
+			position = start;
+
+			if (startPosition >= start && startPosition < end)
+			{
+				position = next ? startPosition + 1 : startPosition;
+
+				if (position == end)
+				{
+					// wrap
+					position = start;
+				}
+			}
+
+			if (sortedModel && model.getElementAt(position) == null)
+			{
+				missingItem = true;
+			}
+		}
 
-		//  Search from the current selection and wrap when no match is found
+		pendingSearch = missingItem;
+		pendingNext = next;
 
-		if (startIndex < 0 || startIndex >= size)
+		if (missingItem || position == -1)
 		{
-			startIndex = 0;
+			return -1;
 		}
 
-		int index = getNextMatch(prefix, startIndex, size, model);
+		lastSelection = modelIndexAt(position);
+		return lastSelection;
+	}
+
+	/*
+	**  Run the pending search again, now that the model read more items.
+	*/
+	private void resumeSearch()
+	{
+		int index = search(indexedModel, pendingNext);
 
-		if (index < 0)
+		if (index >= 0 && comboBox.getModel() == indexedModel)
 		{
-			// wrap
-			index = getNextMatch(prefix, 0, startIndex, model);
+			comboBox.setSelectedIndex(index);
 		}
+	}
 
-		return index;
+	/*
+	**  Forget the index: rebuilt on the next key typed.
+	*/
+	private void invalidateIndex()
+	{
+		keys = null;
+		lastSelection = -1;
 	}
 
 	/*
-	**  Find the index of the item in the model that starts with the prefix.
+	**  Sort the lowercase display values of the model.
 	*/
-	private int getNextMatch(String prefix, int start, int end, ComboBoxModel model)
+	private void buildIndex(ComboBoxModel<?> model)
 	{
-		for (int i = start; i < end; i++ )
+		int size = model.getSize();
+		String[] displayValues = new String[size];
+		Integer[] order = new Integer[size];
+		int count = 0;
+
+		for (int i = 0; i < size; i++)
 		{
 			Object item = model.getElementAt(i);
 
 			if (item != null)
 			{
-				String displayValue = getDisplayValue( item ).toLowerCase();
+				displayValues[i] = getDisplayValue( item ).toLowerCase(Locale.ROOT);
+				order[count++] = i;
+			}
+		}
+
+		Arrays.sort(order, 0, count, (a, b) ->
+		{
+			int byKey = displayValues[a].compareTo(displayValues[b]);
+			return byKey != 0 ? byKey : Integer.compare(a, b);
+		});
+
+		keys = new String[count];
+		modelIndex = new int[count];
+		sortedPosition = new int[size];
+		Arrays.fill(sortedPosition, -1);
+
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = displayValues[order[i]];
+			modelIndex[i] = order[i];
+			sortedPosition[order[i]] = i;
+		}
+
+		indexedModel = model;
+		sortedModel = false;
+		lastSelection = -1;
+	}
+
+	/*
+	**  Position in the index of the selected item, -1 if none. The item this
+	**  class selected last is found at once, another one by binary search.
+	*/
+	private int selectedPosition(ComboBoxModel<?> model)
+	{
+		Object selectedItem = model.getSelectedItem();
+
+		if (selectedItem == null)
+		{
+			return -1;
+		}
+
+		if (lastSelection >= 0 && lastSelection < model.getSize()
+			&& model.getElementAt(lastSelection) == selectedItem)
+		{
+			return positionOf(lastSelection);
+		}
+
+		String key = getDisplayValue( selectedItem ).toLowerCase(Locale.ROOT);
+		int low = 0;
+		int high = indexSize();
+
+		while (low < high && !missingItem)
+		{
+			int mid = (low + high) >>> 1;
+
+			if (compareKeys(keyAt(mid), key) < 0)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
 
-				if (displayValue.startsWith(prefix))
+		for (int i = low; i < indexSize() && !missingItem && compareKeys(keyAt(i), key) == 0; i++)
+		{
+			Object item = model.getElementAt(modelIndexAt(i));
+
+			if (item == selectedItem)
+			{
+				return i;
+			}
+
+			if (item == null && sortedModel)
+			{
+				missingItem = true;
+			}
+		}
+
+		return -1;
+	}
+
+	private int indexSize()
+	{
+		return sortedModel ? indexedModel.getSize() : keys.length;
+	}
+
+	/*
+	**  Key at a position of the index: the lowercase display value, or the
+	**  display value itself for a SortedListModel, compared a lowercase char
+	**  at a time. An item of a SortedListModel not read yet sets missingItem,
+	**  which stops the search.
+	*/
+	private String keyAt(int position)
+	{
+		if (sortedModel)
+		{
+			for (int i = 0; i < probeCount; i++)
+			{
+				if (probePositions[i] == position)
 				{
-					return i;
+					return probeKeys[i];
 				}
 			}
+
+			Object item = indexedModel.getElementAt(position);
+
+			if (item == null)
+			{
+				missingItem = true;
+				return "";
+			}
+
+			if (probeCount == probePositions.length)
+			{
+				probePositions = Arrays.copyOf(probePositions, probeCount * 2);
+				probeKeys = Arrays.copyOf(probeKeys, probeCount * 2);
+			}
+
+			probePositions[probeCount] = position;
+			probeKeys[probeCount] = getDisplayValue( item );
+			return probeKeys[probeCount++];
 		}
 
-		return -1;
+		return keys[position];
+	}
+
+	private int modelIndexAt(int position)
+	{
+		return sortedModel ? position : modelIndex[position];
+	}
+
+	private int positionOf(int index)
+	{
+		return sortedModel ? index : sortedPosition[index];
+	}
+
+	private void appendToPrefix(char key)
+	{
+		if (prefixLength == prefix.length)
+		{
+			prefix = Arrays.copyOf(prefix, prefixLength * 2);
+		}
+
+		prefix[prefixLength++] = key;
+	}
+
+	/*
+	**  Position of the first key not lower than the prefix.
+	*/
+	private int lowerBound()
+	{
+		int low = 0;
+		int high = indexSize();
+
+		while (low < high && !missingItem)
+		{
+			int mid = (low + high) >>> 1;
+
+			if (compareToPrefix(keyAt(mid)) < 0)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/*
+	**  Position after the last key starting with the prefix, from the lower bound.
+	*/
+	private int upperBound(int low)
+	{
+		int high = indexSize();
+
+		while (low < high && !missingItem)
+		{
+			int mid = (low + high) >>> 1;
+
+			if (startsWithPrefix(keyAt(mid)))
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/*
+	**  Compare a key, lowercased, with the prefix as String.compareTo does,
+	**  without creating either.
+	*/
+	private int compareToPrefix(String key)
+	{
+		int length = Math.min(key.length(), prefixLength);
+
+		for (int i = 0; i < length; i++)
+		{
+			char c = Character.toLowerCase(key.charAt(i));
+
+			if (c != prefix[i])
+			{
+				return c - prefix[i];
+			}
+		}
+
+		return key.length() - prefixLength;
+	}
+
+	private boolean startsWithPrefix(String key)
+	{
+		if (key.length() < prefixLength)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < prefixLength; i++)
+		{
+			if (Character.toLowerCase(key.charAt(i)) != prefix[i])
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	**  Compare a key, lowercased, with a lowercase value as String.compareTo does.
+	*/
+	private static int compareKeys(String key, String value)
+	{
+		int length = Math.min(key.length(), value.length());
+
+		for (int i = 0; i < length; i++)
+		{
+			char c = Character.toLowerCase(key.charAt(i));
+
+			if (c != value.charAt(i))
+			{
+				return c - value.charAt(i);
+			}
+		}
+
+		return key.length() - value.length();
 	}
 }
@@ -0,0 +1,76 @@
+package view;
+
+import javax.swing.ComboBoxModel;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JComboBox;
+
+/**
+ * Unit tests for the key selection of the KeySelectionRenderer class.
+ * The keys are typed faster than ComboBox.timeFactor, except the first one.
+ */
+public class KeySelectionRendererTest {
+    public static void main(String[] args) {
+        KeySelectionRendererTest test = new KeySelectionRendererTest();
+        test.testPrefix();
+        test.testSameKeyCycles();
+        test.testModelChanges();
+    }
+
+    public void testPrefix() {
+        JComboBox<String> combo = newCombo("Robert", "nina", "Frank", "Nicolas", "Nico");
+        KeySelectionRenderer renderer = newRenderer(combo);
+        DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) combo.getModel();
+        assert type(renderer, model, 'N') == 4 : "testPrefix failed, first n";      // nico
+        assert type(renderer, model, 'i') == 4 : "testPrefix failed, ni keeps nico";
+        assert type(renderer, model, 'n') == 1 : "testPrefix failed, nin";         // nina
+        assert type(renderer, model, 'z') == -1 : "testPrefix failed, no match";
+        System.out.println("testPrefix passed");
+    }
+
+    public void testSameKeyCycles() {
+        JComboBox<String> combo = newCombo("Nicolas", "Robert", "nina", "Nico");
+        KeySelectionRenderer renderer = newRenderer(combo);
+        DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) combo.getModel();
+        model.setSelectedItem("Robert");
+        assert type(renderer, model, 'n') == 3 : "testSameKeyCycles failed, first";   // nico
+        assert type(renderer, model, 'n') == 0 : "testSameKeyCycles failed, second";  // nicolas
+        assert type(renderer, model, 'n') == 2 : "testSameKeyCycles failed, third";   // nina
+        assert type(renderer, model, 'n') == 3 : "testSameKeyCycles failed, wrap";
+        System.out.println("testSameKeyCycles passed");
+    }
+
+    public void testModelChanges() {
+        JComboBox<String> combo = newCombo("Robert", "Frank");
+        KeySelectionRenderer renderer = newRenderer(combo);
+        assert type(renderer, combo.getModel(), 'e') == -1 : "testModelChanges failed, before";
+        ((DefaultComboBoxModel<String>) combo.getModel()).addElement("Eva");
+        assert type(renderer, combo.getModel(), 'e') == 2 : "testModelChanges failed, element added";
+        combo.setModel(new DefaultComboBoxModel<>(new String[]{"Adam", "Eve"}));
+        assert type(renderer, combo.getModel(), 'e') == 1 : "testModelChanges failed, model replaced";
+        System.out.println("testModelChanges passed");
+    }
+
+    private static JComboBox<String> newCombo(String... items) {
+        return new JComboBox<>(new DefaultComboBoxModel<>(items));
+    }
+
+    private static KeySelectionRenderer newRenderer(JComboBox<String> combo) {
+        return new KeySelectionRenderer(combo) {
+            @Override
+            public String getDisplayValue(Object item) {
+                return (String) item;
+            }
+        };
+    }
+
+    /**
+     * Types a key and selects the item found, as JComboBox does.
+     */
+    private static int type(KeySelectionRenderer renderer, ComboBoxModel<String> model, char key) {
+        int index = renderer.selectionForKey(key, model);
+        if (index >= 0) {
+            model.setSelectedItem(model.getElementAt(index));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,77 @@
+package view;
+
+import javax.accessibility.Accessible;
+import javax.swing.ComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.plaf.basic.ComboPopup;
+
+/**
+ * JComboBox that selects through its model directly.
+ *
+ * JComboBox.setSelectedItem and getSelectedIndex look for the item among
+ * every element before it, which would read every page of a PagedPlayerModel
+ * up to the selection. Here the selection is set on the model, which notifies
+ * the combo box and its action listeners, and the selected index is asked to
+ * the model.
+ *
+ * The combo box and its popup list are sized on a prototype value: without
+ * one they measure every element to find the widest and the tallest.
+ */
+public class PagedComboBox<E> extends JComboBox<E> {
+    private static final long serialVersionUID = 1L;
+
+    private E prototype; // Value the combo box and its list are sized on
+
+    /**
+     * Constructor for PagedComboBox.
+     *
+     * @param _model The model, usually a PagedPlayerModel.
+     * @param _prototype A value as large as the largest element.
+     */
+    public PagedComboBox(ComboBoxModel<E> _model, E _prototype) {
+        super(_model);
+        this.prototype = _prototype;
+        setPrototypeDisplayValue(_prototype);
+        sizePopupList();
+    }
+
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        sizePopupList(); // A new look and feel has a new popup list
+    }
+
+    /**
+     * Gives the popup list fixed cell sizes, measured on the prototype.
+     */
+    private void sizePopupList() {
+        if (this.prototype == null) {
+            return; // Called by the JComboBox constructor
+        }
+        Accessible popup = getUI().getAccessibleChild(this, 0);
+        if (popup instanceof ComboPopup) {
+            ((ComboPopup) popup).getList().setPrototypeCellValue(this.prototype);
+        }
+    }
+
+    @Override
+    public void setSelectedItem(Object _item) {
+        this.dataModel.setSelectedItem(_item);
+    }
+
+    @Override
+    public void setSelectedIndex(int _index) {
+        if (_index < -1 || _index >= this.dataModel.getSize()) {
+            throw new IllegalArgumentException("setSelectedIndex: " + _index + " out of bounds");
+        }
+        this.dataModel.setSelectedItem(_index == -1 ? null : this.dataModel.getElementAt(_index));
+    }
+
+    @Override
+    public int getSelectedIndex() {
+        if (this.dataModel instanceof PagedPlayerModel) {
+            return ((PagedPlayerModel) this.dataModel).indexOf(this.dataModel.getSelectedItem());
+        }
+        return super.getSelectedIndex();
+    }
+}
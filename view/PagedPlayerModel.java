@@ -0,0 +1,171 @@
+package view;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import javax.swing.SwingUtilities;
+
+import db.AsyncDb;
+import model.Player;
+
+/**
+ * ComboBoxModel of the players whose nickname starts with a prefix, sorted by nickname,
+ * read from the database a page at a time as the list shows them.
+ *
+ * The model is created with the number of players and their first page, read
+ * off the event dispatch thread. The other pages are read when the list
+ * scrolls to them, through AsyncDb: until a page arrives its players are
+ * null, which the list shows as placeholder rows, then the model fires
+ * contentsChanged for them. The last pages read are kept, least recently used
+ * dropped first. Use it with a PagedComboBox: a plain JComboBox reads every
+ * element to size itself and to select one.
+ *
+ * Like every Swing model, it is used on the event dispatch thread only.
+ */
+public class PagedPlayerModel extends AbstractListModel<Player> implements ComboBoxModel<Player>, SortedListModel {
+    private static final long serialVersionUID = 1L;
+
+    private final AsyncDb db; // Database the pages are read from
+    private final String prefix; // Start of the nicknames listed
+    private final int pageSize; // Players read at once
+    private final int size; // Players listed, counted when the model is created
+    private final LinkedHashMap<Integer, List<Player>> pages; // Page number -> players, least recently used first
+    private final Set<Integer> loading = new HashSet<>(); // Pages being read
+    private Object selectedItem; // The selected player
+    private int selectedIndex = -1; // Index of the selected player, found when selected
+    private int pageReads; // Pages read from the database after the first, for the tests
+
+    /**
+     * Constructor for PagedPlayerModel.
+     *
+     * @param _db The database.
+     * @param _prefix The start of the nicknames listed, empty for every player.
+     * @param _size The number of players whose nickname starts with the prefix.
+     * @param _firstPage The first page of these players.
+     * @param _pageSize The players read at once.
+     * @param _cachedPages The pages kept in memory.
+     */
+    public PagedPlayerModel(AsyncDb _db, String _prefix, int _size, List<Player> _firstPage, int _pageSize, int _cachedPages) {
+        this.db = _db;
+        this.prefix = _prefix;
+        this.pageSize = _pageSize;
+        this.size = Math.max(0, _size);
+        this.pages = new LinkedHashMap<Integer, List<Player>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Player>> eldest) {
+                return size() > _cachedPages;
+            }
+        };
+        this.pages.put(0, _firstPage);
+    }
+
+    /**
+     * Gets the number of players listed.
+     *
+     * @return The number of players.
+     */
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Gets a player, starting to read their page if it is not in memory.
+     *
+     * @param index The index of the player.
+     * @return The player, or null until their page arrives, or if the database returned fewer players than counted.
+     */
+    @Override
+    public Player getElementAt(int index) {
+        int page = index / this.pageSize;
+        List<Player> players = this.pages.get(page);
+        if (players == null) {
+            this.readPage(page);
+            return null;
+        }
+        int offset = index % this.pageSize;
+        return offset < players.size() ? players.get(offset) : null;
+    }
+
+    /**
+     * Reads a page off the event dispatch thread, unless it is being read already,
+     * then keeps it and notifies the listeners on the event dispatch thread.
+     * A page that failed to be read is read again when next asked for.
+     *
+     * @param page The page number.
+     */
+    private void readPage(int page) {
+        if (!this.loading.add(page)) {
+            return;
+        }
+        this.pageReads++;
+        this.db.supply(data -> data.getPlayers(this.prefix, page * this.pageSize, this.pageSize))
+            .whenComplete((players, error) -> SwingUtilities.invokeLater(() -> {
+                this.loading.remove(page);
+                if (error != null) {
+                    System.err.println("PagedPlayerModel - Page " + page + " not read: " + error);
+                    return;
+                }
+                this.pages.put(page, players);
+                int first = page * this.pageSize;
+                fireContentsChanged(this, first, Math.min(this.size, first + this.pageSize) - 1);
+            }));
+    }
+
+    /**
+     * Gets the index of a player: the selected one, or one among the pages in memory.
+     *
+     * @param _item The player.
+     * @return The index, or -1 if the player is neither selected from a page in memory nor in one.
+     */
+    public int indexOf(Object _item) {
+        if (_item != null && _item == this.selectedItem && this.selectedIndex >= 0) {
+            return this.selectedIndex; // Kept when its page is dropped
+        }
+        return this.indexInPages(_item);
+    }
+
+    /**
+     * Gets the index of a player among the pages in memory.
+     *
+     * @param _item The player.
+     * @return The index, or -1 if the player is not in a page in memory.
+     */
+    private int indexInPages(Object _item) {
+        for (Map.Entry<Integer, List<Player>> page : this.pages.entrySet()) {
+            int offset = page.getValue().indexOf(_item);
+            if (offset >= 0) {
+                return page.getKey() * this.pageSize + offset;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void setSelectedItem(Object _item) {
+        if (this.selectedItem != _item) {
+            this.selectedItem = _item;
+            this.selectedIndex = this.indexInPages(_item);
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return this.selectedItem;
+    }
+
+    /**
+     * Gets the number of pages read from the database since the model was created, the first one aside.
+     *
+     * @return The number of page reads.
+     */
+    public int getPageReads() {
+        return this.pageReads;
+    }
+}
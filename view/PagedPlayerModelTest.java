@@ -0,0 +1,192 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import db.AsyncDb;
+import db.DbMockup;
+import model.Player;
+
+/**
+ * Unit tests for the PagedPlayerModel and PagedComboBox classes.
+ *
+ * The pages are read on the calling thread and arrive on the event dispatch
+ * thread, where the models are used: every step runs there, and awaitPages
+ * lets the pages read arrive.
+ */
+public class PagedPlayerModelTest {
+    public static void main(String[] args) {
+        PagedPlayerModelTest test = new PagedPlayerModelTest();
+        try {
+            test.testLazyPages();
+            test.testLruCache();
+            test.testSelectionReadsNoPage();
+            test.testKeySelection();
+        } catch (Exception e) {
+            throw new AssertionError("PagedPlayerModelTest failed: " + e, e);
+        }
+    }
+
+    public void testLazyPages() throws Exception {
+        PagedPlayerModel model = onEdt(() -> newModel(1000, 10, 4));
+        int[] changed = {-1, -1};
+        onEdt(() -> {
+            model.addListDataListener(new ListDataListener() {
+                public void intervalAdded(ListDataEvent e) {}
+                public void intervalRemoved(ListDataEvent e) {}
+                public void contentsChanged(ListDataEvent e) {
+                    changed[0] = e.getIndex0();
+                    changed[1] = e.getIndex1();
+                }
+            });
+            return null;
+        });
+        assert model.getSize() == 1000 && model.getPageReads() == 0 : "testLazyPages failed, read at creation";
+        assert onEdt(() -> model.getElementAt(0)).getNickName().equals("p00000") : "testLazyPages failed, first";
+        assert onEdt(() -> model.getElementAt(9)).getNickName().equals("p00009") && model.getPageReads() == 0 : "testLazyPages failed, same page";
+        assert onEdt(() -> model.getElementAt(995) == null && model.getElementAt(999) == null) : "testLazyPages failed, last page read at once";
+        assert model.getPageReads() == 1 : "testLazyPages failed, last page read " + model.getPageReads() + " times";
+        awaitPages();
+        assert changed[0] == 990 && changed[1] == 999 : "testLazyPages failed, notified " + changed[0] + " to " + changed[1];
+        assert onEdt(() -> model.getElementAt(995)).getNickName().equals("p00995") && model.getPageReads() == 1 : "testLazyPages failed, last page";
+        System.out.println("testLazyPages passed");
+    }
+
+    public void testLruCache() throws Exception {
+        PagedPlayerModel model = onEdt(() -> newModel(1000, 10, 2));
+        read(model, 10);
+        read(model, 0);      // Page 0 used last
+        read(model, 20);     // Drops page 1
+        read(model, 5);
+        assert model.getPageReads() == 2 : "testLruCache failed, page 0 dropped";
+        read(model, 15);
+        assert model.getPageReads() == 3 : "testLruCache failed, page 1 kept";
+        System.out.println("testLruCache passed");
+    }
+
+    public void testSelectionReadsNoPage() throws Exception {
+        PagedPlayerModel model = onEdt(() -> newModel(1000, 10, 4));
+        PagedComboBox<Player> combo = onEdt(() -> new PagedComboBox<>(model, new Player("XXXXXXXXXXXXXXXX", 0)));
+        int[] actions = {0};
+        read(model, 990);
+        onEdt(() -> {
+            combo.addActionListener(e -> actions[0]++);
+            combo.setSelectedIndex(990);
+            return null;
+        });
+        assert model.getPageReads() == 1 : "testSelectionReadsNoPage failed, " + model.getPageReads() + " pages read";
+        assert onEdt(combo::getSelectedIndex) == 990 && actions[0] == 1 : "testSelectionReadsNoPage failed, selection";
+        onEdt(() -> {
+            combo.setSelectedItem(new Player("elsewhere", 99999));
+            return null;
+        });
+        assert onEdt(combo::getSelectedIndex) == -1 && actions[0] == 2 : "testSelectionReadsNoPage failed, player not loaded";
+        System.out.println("testSelectionReadsNoPage passed");
+    }
+
+    public void testKeySelection() throws Exception {
+        PagedPlayerModel model = onEdt(() -> newModel(10000, 10, 4));
+        PagedComboBox<Player> combo = onEdt(() -> new PagedComboBox<>(model, new Player("XXXXXXXXXXXXXXXX", 0)));
+        KeySelectionRenderer renderer = onEdt(() -> new KeySelectionRenderer(combo) {
+            @Override
+            public String getDisplayValue(Object item) {
+                return ((Player) item).getNickName();
+            }
+        });
+        // The search is pending until the pages it needs arrive, then selects
+        assert onEdt(() -> renderer.selectionForKey('p', model)) == -1 : "testKeySelection failed, p found before its pages";
+        awaitSelection(combo, 0);
+        assert onEdt(combo::getSelectedIndex) == 0 : "testKeySelection failed, p";
+        typeKey(renderer, combo, '0');
+        assert onEdt(combo::getSelectedIndex) == 0 : "testKeySelection failed, p0";
+        typeKey(renderer, combo, '7');
+        awaitSelection(combo, 7000);
+        assert onEdt(combo::getSelectedIndex) == 7000 : "testKeySelection failed, p07";
+        // Binary searches read O(log n) pages, a scan would read 1000
+        assert model.getPageReads() < 100 : "testKeySelection failed, " + model.getPageReads() + " pages read";
+        System.out.println("testKeySelection passed");
+    }
+
+    /**
+     * Types a key in a combo box, as JComboBox does: selects the item found at once, if any.
+     */
+    private static void typeKey(KeySelectionRenderer renderer, PagedComboBox<Player> combo, char key) throws Exception {
+        onEdt(() -> {
+            int index = renderer.selectionForKey(key, combo.getModel());
+            if (index >= 0) {
+                combo.setSelectedIndex(index);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Lets the pages arrive until a combo box selects an index, a page at a time.
+     */
+    private static void awaitSelection(PagedComboBox<Player> combo, int index) throws Exception {
+        for (int i = 0; i < 100 && onEdt(combo::getSelectedIndex) != index; i++) {
+            awaitPages();
+        }
+    }
+
+    /**
+     * Reads an element, waiting for its page if it is not in memory.
+     */
+    private static Player read(PagedPlayerModel model, int index) throws Exception {
+        if (onEdt(() -> model.getElementAt(index)) == null) {
+            awaitPages();
+        }
+        return onEdt(() -> model.getElementAt(index));
+    }
+
+    /**
+     * Lets the pages read so far arrive on the event dispatch thread.
+     */
+    private static void awaitPages() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {});
+    }
+
+    private static <T> T onEdt(Supplier<T> action) throws Exception {
+        List<T> result = new ArrayList<>();
+        SwingUtilities.invokeAndWait(() -> result.add(action.get()));
+        return result.get(0);
+    }
+
+    /**
+     * A model of players p00000 to p(n-1), whose pages are read on the calling thread.
+     */
+    private static PagedPlayerModel newModel(int count, int pageSize, int cachedPages) {
+        CountingDb db = new CountingDb(count);
+        return new PagedPlayerModel(new AsyncDb(db, Runnable::run), "", count, db.getPlayers("", 0, pageSize), pageSize, cachedPages);
+    }
+
+    /**
+     * Players p00000 to p(n-1), sorted by nickname.
+     */
+    private static class CountingDb extends DbMockup {
+        private final int count;
+
+        CountingDb(int _count) {
+            this.count = _count;
+        }
+
+        @Override
+        public List<Player> getPlayers(String prefix, int offset, int limit) {
+            List<Player> page = new ArrayList<>();
+            for (int i = offset; i < Math.min(count, offset + limit); i++) {
+                page.add(new Player(String.format("p%05d", i), i));
+            }
+            return page;
+        }
+
+        @Override
+        public int countPlayers(String prefix) {
+            return count;
+        }
+    }
+}
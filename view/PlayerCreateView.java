@@ -4,9 +4,10 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 
-import db.DbInterface;
+import db.AsyncDb;
 import model.Player;
 import navigation.NavigationController;
+import service.RatingService;
 
 import view.BaseView;
 
@@ -17,7 +18,8 @@ import view.BaseView;
  */
 public class PlayerCreateView extends BaseView {
 
-    private DbInterface db; // Database mockup for player creation
+    private AsyncDb db; // Database mockup for player creation, off the event dispatch thread
+    private RatingService ratings; // Gives the new player their initial rating as score
     private Player plyr; // Player object to be created
     private boolean isForPlayer1; // Flag to indicate if the player is Player 1
 
@@ -25,11 +27,13 @@ public class PlayerCreateView extends BaseView {
      * Constructs the PlayerCreateView.
      *
      * @param _db the database mockup used for player creation
+     * @param _ratings the rating of the players, giving the new one their initial score
      * @param navigationController the navigation controller for managing view transitions
      */
-    public PlayerCreateView(DbInterface _db, boolean _isForPlayer1, NavigationController navigationController) {
+    public PlayerCreateView(AsyncDb _db, RatingService _ratings, boolean _isForPlayer1, NavigationController navigationController) {
         super("Create Player", navigationController);
         this.db = _db;
+        this.ratings = _ratings;
         this.isForPlayer1 = _isForPlayer1;
     }
 
@@ -75,18 +79,20 @@ public class PlayerCreateView extends BaseView {
                     return;
                 }
                 System.out.println("PlayerCreateView - Player Creation Submitted Name: " + nmInpt.getText());
-                try {
-                    plyr = db.createPlayer(nmInpt.getText());
-                } catch (Exception exception) {
+                String name = nmInpt.getText();
+                sbmtBttn.setEnabled(false); // Until the database answers
+                onLoaded(db.supply(data -> ratings.createPlayer(data, name)), savedPlyr -> {
+                    plyr = savedPlyr;
+                    if (isForPlayer1) {
+                        navigationController.navigateToPlayerSelectionViewWithPlayer1(plyr);
+                    } else {
+                        navigationController.navigateToPlayerSelectionViewWithPlayer2(plyr);
+                    }
+                    destroyMainFrame();
+                }, error -> {
                     nmInpt.setText("nickname already exist");
-                    return;
-                }
-                if (isForPlayer1) {
-                    navigationController.navigateToPlayerSelectionViewWithPlayer1(plyr);
-                } else {
-                    navigationController.navigateToPlayerSelectionViewWithPlayer2(plyr);
-                }
-                destroyMainFrame();
+                    sbmtBttn.setEnabled(true);
+                });
             }
         });
 
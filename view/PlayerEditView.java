@@ -4,7 +4,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 
-import db.DbInterface;
+import db.AsyncDb;
 import model.Player;
 import navigation.NavigationController;
 
@@ -16,7 +16,7 @@ import view.BaseView;
  */
 public class PlayerEditView extends BaseView {
 
-    private DbInterface db; // Database  for player operations
+    private AsyncDb db; // Database  for player operations, off the event dispatch thread
     private Player plyr; // Player object to be edited
     private boolean isForPlayer1; // Flag to indicate if the player is Player 1
 
@@ -29,7 +29,7 @@ public class PlayerEditView extends BaseView {
      * @param _isForPlayer1 True if editing player 1, false if editing player 2.
      * @param navigationController The navigation controller for managing view transitions.
      */
-    public PlayerEditView(DbInterface _db, Player _plyr, boolean _isForPlayer1, NavigationController navigationController) {
+    public PlayerEditView(AsyncDb _db, Player _plyr, boolean _isForPlayer1, NavigationController navigationController) {
         super("Edit Player", navigationController);
         this.db = _db;
         this.plyr = _plyr;
@@ -74,18 +74,20 @@ public class PlayerEditView extends BaseView {
                     return;
                 }
                 System.out.println("PlayerEditView - Player Creation Submitted Name: " + nmInpt.getText());
-                try {
-                    plyr = db.renamePlayer(plyr, nmInpt.getText());
-                } catch (Exception exception) {
+                String name = nmInpt.getText();
+                sbmtBttn.setEnabled(false); // Until the database answers
+                onLoaded(db.supply(data -> data.renamePlayer(plyr, name)), savedPlyr -> {
+                    plyr = savedPlyr;
+                    if (isForPlayer1) {
+                        navigationController.navigateToPlayerSelectionViewWithPlayer1(plyr);
+                    } else {
+                        navigationController.navigateToPlayerSelectionViewWithPlayer2(plyr);
+                    }
+                    destroyMainFrame();
+                }, error -> {
                     nmInpt.setText("nickname already exist");
-                    return;
-                }
-                if (isForPlayer1) {
-                    navigationController.navigateToPlayerSelectionViewWithPlayer1(plyr);
-                } else {
-                    navigationController.navigateToPlayerSelectionViewWithPlayer2(plyr);
-                }
-                destroyMainFrame();
+                    sbmtBttn.setEnabled(true);
+                });
             }
         });
 
@@ -1,11 +1,14 @@
 package view;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 import java.util.List;
 
-import db.DbInterface;
+import db.AsyncDb;
 import model.Player;
 import utils.AppState;
 import navigation.NavigationController;
@@ -17,11 +20,13 @@ import view.BaseView;
  * Provides the interface for selecting two players and starting the game.
  */
 public class PlayerSelectionView extends BaseView {
+    private static final int PAGE_SIZE = 50; // Players read from the database at once as the list scrolls
+    private static final int CACHED_PAGES = 8; // Pages of players kept in memory per combo box
+    private static final int SEARCH_DELAY_MILLIS = 200; // Typing pause before the search
 
-    private DbInterface db; // Database  for player operations
+    private AsyncDb db; // Database  for player operations, off the event dispatch thread
     private Player player1; // Player 1 object
     private Player player2; // Player 2 object
-    private Player[] players; // Array of players fetched from the database
     private AppState appState; // Application state object
 
     /**
@@ -32,7 +37,7 @@ public class PlayerSelectionView extends BaseView {
      * @param _appState The application state object.
      * @param navigationController The navigation controller for managing view transitions.
      */
-    public PlayerSelectionView(DbInterface _db, AppState _appState, NavigationController navigationController) {
+    public PlayerSelectionView(AsyncDb _db, AppState _appState, NavigationController navigationController) {
         super("Player Selection", navigationController);
         this.db = _db;
         this.appState = _appState;
@@ -47,12 +52,32 @@ public class PlayerSelectionView extends BaseView {
     }
 
     /**
-     * Fill the players array with players fetched from the database.
+     * Fill a combo box with the players whose nickname starts with the prefix.
+     * The players are counted and their first page read off the event dispatch thread,
+     * the model reads the other pages the list shows the same way. A search requested
+     * meanwhile replaces this one.
+     *
+     * @param cmbo The combo box.
+     * @param countLbl The label showing the number of players found.
+     * @param prefix The start of the nicknames.
+     * @param lastSearch The number of the last search of the combo box.
+     * @param onFilled Run once the combo box is filled.
      */
-    private void fillPlayers() {
-        List<Player> plyrsList = db.getPlayers(""); // Fetch players from the database
-        this.players = new Player[plyrsList.size()];
-        plyrsList.toArray(this.players);
+    private void fillPlayers(JComboBox<Player> cmbo, JLabel countLbl, String prefix, int[] lastSearch, Runnable onFilled) {
+        int search = ++lastSearch[0];
+        countLbl.setText("searching...");
+        this.onLoaded(db.supply(data -> {
+            int count = data.countPlayers(prefix);
+            List<Player> firstPage = count > 0 ? data.getPlayers(prefix, 0, PAGE_SIZE) : new ArrayList<>();
+            return new PagedPlayerModel(db, prefix, count, firstPage, PAGE_SIZE, CACHED_PAGES);
+        }), model -> {
+            if (search != lastSearch[0]) {
+                return; // Replaced by a newer search
+            }
+            cmbo.setModel(model);
+            countLbl.setText(model.getSize() + " found");
+            onFilled.run();
+        });
     }
 
     /**
@@ -61,8 +86,6 @@ public class PlayerSelectionView extends BaseView {
      */
     @Override
     public void render() {
-        this.fillPlayers();
-
         // Set up the main frame
         this.setupMainFrame();
 
@@ -121,12 +144,20 @@ public class PlayerSelectionView extends BaseView {
         plyrTxt.setAlignmentX(Component.CENTER_ALIGNMENT);
         plyrPnl.add(plyrTxt);
 
-        // Create the selection combo and add it to plyrPnl
-        JComboBox<Player> plyrCmb = new JComboBox<>(new DefaultComboBoxModel<>(this.players));
+        // Create the search field, the selection combo and the count of players found, and add them to plyrPnl
+        JTextField searchFld = new JTextField();
+        searchFld.setToolTipText("Search by nickname");
+        searchFld.setPreferredSize(new Dimension(100, 25));
+        searchFld.setMaximumSize(new Dimension(100, 25));
+        plyrPnl.add(searchFld);
+        JComboBox<Player> plyrCmb = new PagedComboBox<>(new DefaultComboBoxModel<>(), new Player("XXXXXXXXXXXXXXXX", 0));
         plyrCmb.setPreferredSize(new Dimension(200, 25)); // Set standard size
         plyrCmb.setMaximumSize(new Dimension(200, 25)); // Ensure it doesn't resize beyond this
         plyrCmb.setAlignmentX(Component.CENTER_ALIGNMENT);
         plyrPnl.add(plyrCmb);
+        JLabel countLbl = new JLabel();
+        plyrPnl.add(countLbl);
+        int[] lastSearch = {0}; // Number of the last search of this combo box
 
         // Set a renderer to decide which attributes of Player will be shown as title in the combo box (here Nickname)
         KeySelectionRenderer renderer = new KeySelectionRenderer(plyrCmb) {
@@ -143,6 +174,9 @@ public class PlayerSelectionView extends BaseView {
             @Override
             public void actionPerformed(ActionEvent e) {
                 JComboBox<Player> comboBox = (JComboBox<Player>) e.getSource();
+                if (comboBox.getSelectedItem() == null) {
+                    return; // Empty search result
+                }
                 if (isPlayer1) {
                     player1 = (Player) comboBox.getSelectedItem();
                     System.out.println("PlayerSelectionView - Selected player 1:" + player1.dbgMeAsStr());
@@ -159,8 +193,37 @@ public class PlayerSelectionView extends BaseView {
             }
         });
 
-        // Set combo box default value
-        this.setComboBoxToPlayer(plyrCmb, isPlayer1 ? this.player1 : this.player2);
+        // Fill the combo box, then set its default value
+        this.fillPlayers(plyrCmb, countLbl, "", lastSearch, () -> this.setComboBoxToPlayer(plyrCmb, isPlayer1 ? this.player1 : this.player2));
+
+        // Search again when the user pauses typing, and select the first player found
+        Timer searchTimer = new Timer(SEARCH_DELAY_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                fillPlayers(plyrCmb, countLbl, searchFld.getText().trim(), lastSearch, () -> {
+                    if (plyrCmb.getItemCount() > 0) {
+                        plyrCmb.setSelectedIndex(0);
+                    }
+                });
+            }
+        });
+        searchTimer.setRepeats(false);
+        searchFld.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
 
         // Create the new and rename button and add it to plyrPnl
         JButton newPlyrBtn = new JButton("new");
@@ -192,15 +255,10 @@ public class PlayerSelectionView extends BaseView {
     }
 
     private void setComboBoxToPlayer(JComboBox<Player> cmbo, Player plyr) {
-        if (plyr == null) {
+        if (plyr != null) {
+            cmbo.setSelectedItem(plyr); // Shown selected without reading the page of the player
+        } else if (cmbo.getItemCount() > 0) {
             cmbo.setSelectedIndex(0);
-        } else {
-            for (int i = 0; i < this.players.length; i++) {
-                if (this.players[i].getId() == plyr.getId()) {
-                    cmbo.setSelectedIndex(i);
-                    break;
-                }
-            }
         }
     }
 }
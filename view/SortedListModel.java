@@ -0,0 +1,9 @@
+package view;
+
+/**
+ * Marks a list model whose elements are sorted by their lowercase display value.
+ * KeySelectionRenderer then finds a typed prefix by binary search on the model
+ * itself, instead of reading every element to index them.
+ */
+interface SortedListModel {
+}